@@ -30,6 +30,38 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * Thread pool executor for background route computation.
+     * Keeps slow routing API calls off request threads and database connections.
+     *
+     * @return Executor configured for route computation
+     */
+    @Bean(name = "routeTaskExecutor")
+    public Executor routeTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("route-async-");
+        executor.initialize();
+        return executor;
+    }
 
+    /**
+     * Thread pool executor that writes Krawl Mode session events to SSE clients.
+     * Publishers only enqueue, so a slow client never holds up a request thread.
+     *
+     * @return Executor configured for session stream delivery
+     */
+    @Bean(name = "sessionEventExecutor")
+    public Executor sessionEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("session-events-");
+        executor.initialize();
+        return executor;
+    }
+}
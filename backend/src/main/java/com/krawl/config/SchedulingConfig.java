@@ -0,0 +1,62 @@
+package com.krawl.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Configuration for scheduled tasks.
+ *
+ * Batch jobs (catalog rebuilds, duplicate sweeps, partition maintenance, ...) share the
+ * default scheduler, sized by {@code spring.task.scheduling.pool.size}. Jobs whose delay is
+ * visible to clients get a thread of their own and name it in {@code @Scheduled(scheduler = ...)},
+ * so a long batch run never holds them up.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * Scheduler for {@code @Scheduled} methods that do not name one.
+     *
+     * @param builder Builder configured from {@code spring.task.scheduling.*}
+     * @return Shared scheduler for batch jobs
+     */
+    @Bean(name = "taskScheduler")
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Scheduler running only the Krawl Mode location writer (LocationTrackingService.flush).
+     * Request threads answer 503 once the location buffer is full, so the writer must not
+     * wait behind other jobs.
+     *
+     * @return Single-thread scheduler for the location writer
+     */
+    @Bean(name = "locationWriterScheduler")
+    public ThreadPoolTaskScheduler locationWriterScheduler() {
+        return singleThreadScheduler("location-writer-");
+    }
+
+    /**
+     * Scheduler running only the revoked token refresh (TokenBlacklistService.refresh),
+     * whose interval bounds how long a revocation on another node takes to apply here.
+     *
+     * @return Single-thread scheduler for the revocation refresh
+     */
+    @Bean(name = "revocationRefreshScheduler")
+    public ThreadPoolTaskScheduler revocationRefreshScheduler() {
+        return singleThreadScheduler("revocation-refresh-");
+    }
+
+    private static ThreadPoolTaskScheduler singleThreadScheduler(String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
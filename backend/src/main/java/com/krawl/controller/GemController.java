@@ -1,6 +1,8 @@
 package com.krawl.controller;
 
+import com.krawl.dto.response.CatalogGemResponse;
 import com.krawl.dto.response.GemDetailResponse;
+import com.krawl.service.GemCatalogService;
 import com.krawl.service.GemService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,6 +31,10 @@ import java.util.UUID;
 public class GemController extends BaseController {
 
     private final GemService gemService;
+    private final GemCatalogService gemCatalogService;
+
+    private static final double MAX_NEARBY_RADIUS_METERS = 5000.0;
+    private static final int MAX_CATALOG_RESULTS = 500;
 
     /**
      * GET /api/gems/{id}
@@ -147,5 +153,153 @@ public class GemController extends BaseController {
         return ResponseEntity.ok(gems);
     }
 
+    /**
+     * GET /api/gems/nearby
+     *
+     * Returns Gems within a radius of a point, nearest first.
+     * Served from the in-memory gem catalog (no database round trip).
+     * Public endpoint, no authentication required.
+     *
+     * @param lat Latitude of the query point
+     * @param lng Longitude of the query point
+     * @param radius Search radius in meters (default: 500, max: 5000)
+     * @param limit Maximum number of results (default: 50, max: 500)
+     * @return List of CatalogGemResponse ordered by distance
+     */
+    @Operation(
+            summary = "Get Gems near a point",
+            description = "Retrieves Gems within a radius of the given coordinates, nearest first. " +
+                    "Served from the in-memory gem catalog."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Nearby Gems retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogGemResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid radius or limit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/nearby")
+    public ResponseEntity<List<CatalogGemResponse>> getNearbyGems(
+            @Parameter(description = "Latitude", required = true, example = "10.3157") @RequestParam double lat,
+            @Parameter(description = "Longitude", required = true, example = "123.8854") @RequestParam double lng,
+            @Parameter(description = "Radius in meters (max 5000)", example = "500") @RequestParam(defaultValue = "500") double radius,
+            @Parameter(description = "Maximum results (max 500)", example = "50") @RequestParam(defaultValue = "50") int limit) {
+        log.debug("GET /api/gems/nearby?lat={}&lng={}&radius={}&limit={}", lat, lng, radius, limit);
+
+        if (radius <= 0 || radius > MAX_NEARBY_RADIUS_METERS) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (int) MAX_NEARBY_RADIUS_METERS + " meters");
+        }
+        validateCatalogLimit(limit);
+
+        return ResponseEntity.ok(gemCatalogService.findNearby(lat, lng, radius, limit));
+    }
+
+    /**
+     * GET /api/gems/within
+     *
+     * Returns Gems inside a map viewport (bounding box), highest Gem Score first.
+     * Served from the in-memory gem catalog (no database round trip).
+     * Public endpoint, no authentication required.
+     *
+     * @param minLat South edge
+     * @param minLng West edge
+     * @param maxLat North edge
+     * @param maxLng East edge
+     * @param limit Maximum number of results (default: 200, max: 500)
+     * @return List of CatalogGemResponse inside the bounding box
+     */
+    @Operation(
+            summary = "Get Gems inside a bounding box",
+            description = "Retrieves Gems inside the given viewport, highest Gem Score first. " +
+                    "Served from the in-memory gem catalog."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Gems retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogGemResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid bounding box or limit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/within")
+    public ResponseEntity<List<CatalogGemResponse>> getGemsWithinBounds(
+            @Parameter(description = "South edge latitude", required = true) @RequestParam double minLat,
+            @Parameter(description = "West edge longitude", required = true) @RequestParam double minLng,
+            @Parameter(description = "North edge latitude", required = true) @RequestParam double maxLat,
+            @Parameter(description = "East edge longitude", required = true) @RequestParam double maxLng,
+            @Parameter(description = "Maximum results (max 500)", example = "200") @RequestParam(defaultValue = "200") int limit) {
+        log.debug("GET /api/gems/within?minLat={}&minLng={}&maxLat={}&maxLng={}", minLat, minLng, maxLat, maxLng);
+
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Bounding box minimums must not exceed maximums");
+        }
+        validateCatalogLimit(limit);
+
+        return ResponseEntity.ok(gemCatalogService.findWithinBounds(minLat, minLng, maxLat, maxLng, limit));
+    }
+
+    /**
+     * GET /api/gems/popular
+     *
+     * Returns the most popular VERIFIED Gems by Gem Score, optionally within a category.
+     * Served from the in-memory gem catalog (no database round trip).
+     * Public endpoint, no authentication required.
+     *
+     * @param category Optional category filter
+     * @param limit Maximum number of results (default: 10, max: 500)
+     * @return List of CatalogGemResponse ordered by Gem Score
+     */
+    @Operation(
+            summary = "Get popular Gems by category",
+            description = "Retrieves the most popular verified Gems ordered by Gem Score, optionally filtered by category. " +
+                    "Served from the in-memory gem catalog."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Popular Gems retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CatalogGemResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid limit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/popular")
+    public ResponseEntity<List<CatalogGemResponse>> getPopularGems(
+            @Parameter(description = "Category filter", example = "food-drink") @RequestParam(required = false) String category,
+            @Parameter(description = "Maximum results (max 500)", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /api/gems/popular?category={}&limit={}", category, limit);
+
+        validateCatalogLimit(limit);
+
+        return ResponseEntity.ok(gemCatalogService.findPopular(category, limit));
+    }
+
+    private void validateCatalogLimit(int limit) {
+        if (limit < 1 || limit > MAX_CATALOG_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CATALOG_RESULTS);
+        }
+    }
+
     // Authentication and UUID parsing methods inherited from BaseController
 }
@@ -48,7 +48,7 @@ public class GemCreationController extends BaseController {
     /**
      * POST /api/v1/gems/check-duplicate
      *
-     * Check for duplicate Gems using PostGIS spatial query and Levenshtein distance.
+     * Check for duplicate Gems using a PostGIS spatial query ranked by trigram name similarity.
      * Finds Gems within 50 meters and checks name similarity (80% threshold).
      *
      * @param request Duplicate check request with name and coordinates
@@ -57,7 +57,7 @@ public class GemCreationController extends BaseController {
     @Operation(
             summary = "Check for duplicate Gems",
             description = "Checks for existing Gems within 50 meters using PostGIS ST_DWithin " +
-                    "and calculates name similarity using Levenshtein distance (80% threshold)."
+                    "and ranks them by pg_trgm name similarity (80% threshold)."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -1,15 +1,22 @@
 package com.krawl.controller;
 
 import com.krawl.dto.request.CreateKrawlRequest;
+import com.krawl.dto.request.OptimizeKrawlOrderRequest;
 import com.krawl.dto.request.UpdateKrawlRequest;
 import com.krawl.dto.response.CreateKrawlResponse;
 import com.krawl.dto.response.KrawlDetailResponse;
+import com.krawl.dto.response.KrawlDiscoveryResponse;
 import com.krawl.dto.response.KrawlDraftResponse;
+import com.krawl.dto.response.KrawlRouteResponse;
+import com.krawl.dto.response.OptimizeKrawlOrderResponse;
 import com.krawl.dto.response.ToggleVouchResponse;
 import com.krawl.dto.response.UpdateKrawlResponse;
+import com.krawl.entity.Krawl;
 import com.krawl.exception.AuthException;
 import com.krawl.service.KrawlDraftService;
+import com.krawl.service.KrawlOrderOptimizerService;
 import com.krawl.service.KrawlService;
+import com.krawl.service.KrawlSummaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -42,6 +49,11 @@ public class KrawlController extends BaseController {
 
     private final KrawlService krawlService;
     private final KrawlDraftService krawlDraftService;
+    private final KrawlOrderOptimizerService krawlOrderOptimizerService;
+    private final KrawlSummaryService krawlSummaryService;
+
+    private static final double MAX_NEARBY_RADIUS_METERS = 5000.0;
+    private static final int MAX_DISCOVERY_RESULTS = 200;
 
     /**
      * GET /api/krawls/{id}
@@ -128,6 +140,176 @@ public class KrawlController extends BaseController {
         return ResponseEntity.ok(krawlDetail);
     }
 
+    /**
+     * GET /api/krawls/{id}/route
+     *
+     * Returns the current route of a Krawl. Routes are computed in the background after a
+     * Krawl is created or its Gems change; clients poll this endpoint while the route
+     * status is PENDING.
+     * The polyline is encoded (precision 5) and simplified for the requested resolution.
+     * Public endpoint.
+     *
+     * @param id The UUID of the Krawl
+     * @param resolution overview, standard (default), or full
+     * @return KrawlRouteResponse with route status, polyline, distance, and duration
+     */
+    @Operation(
+            summary = "Get Krawl route",
+            description = "Returns the Krawl's route and its status. PENDING means a straight-line estimate is shown " +
+                    "while the walking route is computed; READY means the walking route is stored. " +
+                    "The route is an encoded polyline (precision 5); request the overview resolution for city-wide zoom " +
+                    "and full only when every routed point is needed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Route returned successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = KrawlRouteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid Krawl ID format or resolution",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Krawl not found with the given ID",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/{id}/route")
+    public ResponseEntity<KrawlRouteResponse> getKrawlRoute(
+            @Parameter(description = "UUID of the Krawl", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable String id,
+            @Parameter(description = "Polyline resolution: overview (zoom <= 12), standard (zoom 13-16), or full", example = "standard")
+            @RequestParam(defaultValue = "standard") String resolution) {
+        log.debug("GET /api/krawls/{}/route", id);
+
+        UUID krawlId;
+        try {
+            krawlId = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid UUID format: {}", id);
+            throw new IllegalArgumentException("Invalid Krawl ID format. Must be a valid UUID.");
+        }
+
+        Krawl.RouteResolution routeResolution;
+        try {
+            routeResolution = Krawl.RouteResolution.valueOf(resolution.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid resolution. Must be one of: overview, standard, full.");
+        }
+
+        return ResponseEntity.ok(krawlService.getKrawlRoute(krawlId, routeResolution));
+    }
+
+    /**
+     * GET /api/krawls/nearby
+     *
+     * Returns Krawls whose first Gem is within a radius of a point, nearest first.
+     * Served by a KNN query on the start point spatial index.
+     * Public endpoint, no authentication required.
+     *
+     * @param lat Latitude of the query point
+     * @param lng Longitude of the query point
+     * @param radius Search radius in meters (default: 1000, max: 5000)
+     * @param limit Maximum number of results (default: 20, max: 200)
+     * @return List of KrawlDiscoveryResponse ordered by distance to the start
+     */
+    @Operation(
+            summary = "Get Krawls starting near a point",
+            description = "Retrieves Krawls whose first Gem lies within a radius of the given coordinates, nearest start first."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Nearby Krawls retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = KrawlDiscoveryResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid radius or limit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/nearby")
+    public ResponseEntity<List<KrawlDiscoveryResponse>> getKrawlsStartingNearby(
+            @Parameter(description = "Latitude", required = true, example = "10.3157") @RequestParam double lat,
+            @Parameter(description = "Longitude", required = true, example = "123.8854") @RequestParam double lng,
+            @Parameter(description = "Radius in meters (max 5000)", example = "1000") @RequestParam(defaultValue = "1000") double radius,
+            @Parameter(description = "Maximum results (max 200)", example = "20") @RequestParam(defaultValue = "20") int limit) {
+        log.debug("GET /api/krawls/nearby?lat={}&lng={}&radius={}&limit={}", lat, lng, radius, limit);
+
+        if (radius <= 0 || radius > MAX_NEARBY_RADIUS_METERS) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + (int) MAX_NEARBY_RADIUS_METERS + " meters");
+        }
+        validateDiscoveryLimit(limit);
+
+        return ResponseEntity.ok(krawlSummaryService.findStartingNear(lat, lng, radius, limit));
+    }
+
+    /**
+     * GET /api/krawls/within
+     *
+     * Returns Krawls whose route passes through a map viewport (bounding box), best rated first.
+     * Served by the route geometry spatial index.
+     * Public endpoint, no authentication required.
+     *
+     * @param minLat South edge
+     * @param minLng West edge
+     * @param maxLat North edge
+     * @param maxLng East edge
+     * @param limit Maximum number of results (default: 50, max: 200)
+     * @return List of KrawlDiscoveryResponse whose route intersects the bounding box
+     */
+    @Operation(
+            summary = "Get Krawls passing through a bounding box",
+            description = "Retrieves Krawls whose route intersects the given viewport, best rated first."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Krawls retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = KrawlDiscoveryResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid bounding box or limit",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @GetMapping("/within")
+    public ResponseEntity<List<KrawlDiscoveryResponse>> getKrawlsWithinBounds(
+            @Parameter(description = "South edge latitude", required = true) @RequestParam double minLat,
+            @Parameter(description = "West edge longitude", required = true) @RequestParam double minLng,
+            @Parameter(description = "North edge latitude", required = true) @RequestParam double maxLat,
+            @Parameter(description = "East edge longitude", required = true) @RequestParam double maxLng,
+            @Parameter(description = "Maximum results (max 200)", example = "50") @RequestParam(defaultValue = "50") int limit) {
+        log.debug("GET /api/krawls/within?minLat={}&minLng={}&maxLat={}&maxLng={}", minLat, minLng, maxLat, maxLng);
+
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Bounding box minimums must not exceed maximums");
+        }
+        validateDiscoveryLimit(limit);
+
+        return ResponseEntity.ok(krawlSummaryService.findRouteIntersecting(minLat, minLng, maxLat, maxLng, limit));
+    }
+
+    private void validateDiscoveryLimit(int limit) {
+        if (limit < 1 || limit > MAX_DISCOVERY_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_DISCOVERY_RESULTS);
+        }
+    }
+
     /**
      * POST /api/krawls
      *
@@ -183,6 +365,61 @@ public class KrawlController extends BaseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * POST /api/krawls/optimize-order
+     *
+     * Suggest a visiting order for a set of Gems, shortening trails that zig-zag
+     * across the city. Intended to be called while a Krawl is being created,
+     * before the order is saved.
+     * Requires authentication.
+     *
+     * @param request Gem IDs in the creator's current order
+     * @return OptimizeKrawlOrderResponse with the suggested order
+     */
+    @Operation(
+            summary = "Suggest a Gem visiting order",
+            description = "Returns the Gems in a suggested visiting order that shortens the walk, with the walk length " +
+                    "before and after. The first Gem stays first unless fixStart is false. Always returns within a fixed time budget."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Order suggested successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = OptimizeKrawlOrderResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Validation error, invalid or repeated Gem ID",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Gem not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/optimize-order")
+    public ResponseEntity<OptimizeKrawlOrderResponse> optimizeOrder(
+            @Valid @RequestBody OptimizeKrawlOrderRequest request) {
+        log.debug("POST /api/krawls/optimize-order");
+
+        UUID userId = getCurrentUserId();
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
+
+        return ResponseEntity.ok(krawlOrderOptimizerService.optimizeOrder(request));
+    }
+
     /**
      * PUT /api/krawls/{id}
      *
@@ -3,12 +3,20 @@ package com.krawl.controller;
 import com.krawl.dto.request.CompleteGemRequest;
 import com.krawl.dto.request.LocationUpdateRequest;
 import com.krawl.dto.request.StartKrawlModeRequest;
+import com.krawl.dto.request.SyncSessionRequest;
 import com.krawl.dto.request.UpdateProgressRequest;
+import com.krawl.dto.response.KrawlModeAnalyticsResponse;
 import com.krawl.dto.response.KrawlProgressResponse;
 import com.krawl.dto.response.KrawlSessionResponse;
+import com.krawl.dto.response.LocationUpdateResponse;
+import com.krawl.dto.response.SessionReplayResponse;
+import com.krawl.dto.response.StreamTicketResponse;
 import com.krawl.exception.AuthException;
+import com.krawl.service.KrawlAnalyticsService;
+import com.krawl.service.JwtTokenService;
 import com.krawl.service.KrawlModeService;
 import com.krawl.service.LocationTrackingService;
+import com.krawl.service.SessionReplayService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,9 +28,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -39,6 +51,9 @@ public class KrawlModeController extends BaseController {
 
     private final KrawlModeService krawlModeService;
     private final LocationTrackingService locationTrackingService;
+    private final KrawlAnalyticsService krawlAnalyticsService;
+    private final SessionReplayService sessionReplayService;
+    private final JwtTokenService jwtTokenService;
 
     /**
      * POST /api/krawls/{id}/start
@@ -187,6 +202,112 @@ public class KrawlModeController extends BaseController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/krawls/{id}/session/stream-ticket
+     *
+     * Issue a short-lived ticket for opening the session stream with EventSource,
+     * which cannot send an Authorization header.
+     * Requires authentication.
+     *
+     * @param id The UUID of the Krawl
+     * @return StreamTicketResponse with the ticket and its expiry
+     */
+    @Operation(
+            summary = "Get session stream ticket",
+            description = "Issues a ticket for GET /session/stream?ticket=... so browsers can open the stream with " +
+                    "EventSource. The ticket is valid for one minute, only for this Krawl's stream; " +
+                    "request a new one for each (re)connect."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ticket issued",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = StreamTicketResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/session/stream-ticket")
+    public ResponseEntity<StreamTicketResponse> createStreamTicket(
+            @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id) {
+        log.debug("POST /api/krawls/{}/session/stream-ticket", id);
+
+        UUID userId = getCurrentUserId();
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
+
+        StreamTicketResponse response = StreamTicketResponse.builder()
+                .ticket(jwtTokenService.generateStreamTicket(userId.toString(), id))
+                .expiresAt(jwtTokenService.streamTicketExpiresAt())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/krawls/{id}/session/stream
+     *
+     * Stream the current session's progress as Server-Sent Events, replacing polling of
+     * /session and /progress. Requires authentication: a bearer token (fetch-based clients)
+     * or a ticket from /session/stream-ticket in the query string (EventSource).
+     *
+     * @param id The UUID of the Krawl
+     * @param ticket Stream ticket, when no Authorization header is sent
+     * @return Event stream
+     */
+    @Operation(
+            summary = "Stream session progress",
+            description = "Opens a Server-Sent Events stream for the current Krawl Mode session. " +
+                    "Sends 'session' and 'progress' snapshots first, then 'arrival', 'progress' and 'session' " +
+                    "events as they happen. A final 'session' event carries the COMPLETED or ABANDONED status " +
+                    "before the stream closes. Idle streams receive a heartbeat comment every 15 seconds. " +
+                    "Browsers authenticate with a ticket from POST /session/stream-ticket: " +
+                    "new EventSource('/api/krawls/{id}/session/stream?ticket=...'). EventSource reconnects reuse " +
+                    "the URL, so on error close it and reopen with a fresh ticket."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Active session not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping(value = "/session/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSession(
+            @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id,
+            @Parameter(description = "Ticket from POST /session/stream-ticket, for clients that cannot send an Authorization header")
+            @RequestParam(value = "ticket", required = false) String ticket) {
+        log.debug("GET /api/krawls/{}/session/stream", id);
+
+        UUID userId = getCurrentUserId();
+        if (userId == null && ticket != null) {
+            userId = UUID.fromString(jwtTokenService.validateStreamTicket(ticket, id).getSubject());
+        }
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
+
+        return krawlModeService.streamSession(id, userId);
+    }
+
     /**
      * POST /api/krawls/{id}/progress
      *
@@ -294,6 +415,62 @@ public class KrawlModeController extends BaseController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/krawls/{id}/session/sync
+     *
+     * Apply events recorded while the client was offline.
+     * Requires authentication.
+     *
+     * @param id The UUID of the Krawl
+     * @param request Events in the order they were recorded
+     * @return KrawlProgressResponse with the reconciled progress
+     */
+    @Operation(
+            summary = "Sync offline events",
+            description = "Applies locations, gem completions and distance updates recorded while offline, in one transaction. " +
+                    "Events carry client-generated IDs; events already synced are ignored, so a failed sync can be retried as is."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Events synced successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = KrawlProgressResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid event (e.g., missing coordinates); nothing is applied",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Active session or Gem not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/session/sync")
+    public ResponseEntity<KrawlProgressResponse> syncSession(
+            @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id,
+            @Valid @RequestBody SyncSessionRequest request) {
+        log.debug("POST /api/krawls/{}/session/sync", id);
+
+        UUID userId = getCurrentUserId();
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
+
+        KrawlProgressResponse response = krawlModeService.syncSession(id, userId, request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET /api/krawls/{id}/progress
      *
@@ -346,23 +523,27 @@ public class KrawlModeController extends BaseController {
     /**
      * POST /api/krawls/{id}/location
      *
-     * Update location for the current session (optional, for analytics).
+     * Update location for the current session.
+     * Gems reached with the new location are detected server-side and completed automatically.
      * Requires authentication.
      *
      * @param id The UUID of the Krawl
      * @param request Location update request
-     * @return Success response
+     * @return LocationUpdateResponse with the gems reached
      */
     @Operation(
             summary = "Update location",
-            description = "Stores location update for the current session. " +
-                    "This is optional and can be disabled for privacy reasons."
+            description = "Queues a location update for the current session; updates are written to history in batches. " +
+                    "Gems within the arrival radius are recorded as completed automatically and returned in arrivedGemIds."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Location updated successfully",
-                    content = @Content(mediaType = "application/json")
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LocationUpdateResponse.class)
+                    )
             ),
             @ApiResponse(
                     responseCode = "400",
@@ -378,11 +559,16 @@ public class KrawlModeController extends BaseController {
                     responseCode = "404",
                     description = "Active session not found",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Location updates are backed up; retry after the Retry-After delay",
+                    content = @Content(mediaType = "application/json")
             )
     })
     @SecurityRequirement(name = "bearerAuth")
     @PostMapping("/location")
-    public ResponseEntity<Void> updateLocation(
+    public ResponseEntity<LocationUpdateResponse> updateLocation(
             @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id,
             @Valid @RequestBody LocationUpdateRequest request) {
         log.debug("POST /api/krawls/{}/location", id);
@@ -392,19 +578,137 @@ public class KrawlModeController extends BaseController {
             throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
         }
 
-        // Get session ID from the service
-        com.krawl.dto.response.KrawlSessionResponse session = krawlModeService.getSession(id, userId);
-        locationTrackingService.storeLocationUpdate(session.getSessionId(), request);
+        LocationUpdateResponse response = locationTrackingService.submit(id, userId, request);
+        if (!response.isAccepted()) {
+            // Write buffer full: ask the client to keep the point and retry shortly
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
 
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(response);
     }
 
     // Authentication and UUID parsing methods inherited from BaseController
-}
-
 
+    /**
+     * GET /api/krawls/{id}/analytics
+     *
+     * Get Krawl Mode analytics for the krawl's creator.
+     * Requires authentication.
+     *
+     * @param id The UUID of the Krawl
+     * @return KrawlModeAnalyticsResponse with session aggregates and the per-gem funnel
+     */
+    @Operation(
+            summary = "Get Krawl Mode analytics",
+            description = "Returns completion rate, median and 90th percentile duration of completed sessions, " +
+                    "and per-gem reach and drop-off counts. Only the krawl's creator can view them."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Analytics retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = KrawlModeAnalyticsResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Not the creator of the Krawl",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Krawl not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/analytics")
+    public ResponseEntity<KrawlModeAnalyticsResponse> getAnalytics(
+            @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id) {
+        log.debug("GET /api/krawls/{}/analytics", id);
 
+        UUID userId = getCurrentUserId();
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
 
+        KrawlModeAnalyticsResponse response = krawlAnalyticsService.getAnalytics(id, userId);
+        return ResponseEntity.ok(response);
+    }
 
+    /**
+     * GET /api/krawls/{id}/sessions/{sessionId}/replay
+     *
+     * Get the recorded trajectory of one of the user's sessions, downsampled for playback.
+     * Requires authentication.
+     *
+     * @param id The UUID of the Krawl
+     * @param sessionId The UUID of the session
+     * @param maxPoints Point budget
+     * @return SessionReplayResponse, streamed
+     */
+    @Operation(
+            summary = "Replay session trajectory",
+            description = "Returns the recorded locations of a Krawl Mode session in order, downsampled to at most " +
+                    "maxPoints points (Largest-Triangle-Three-Buckets, keeping the first and last point). " +
+                    "The response is streamed. Only the user who walked the session can replay it."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Trajectory retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SessionReplayResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "maxPoints out of range",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Authentication required",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Session belongs to another user",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Session not found",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/sessions/{sessionId}/replay")
+    public ResponseEntity<StreamingResponseBody> replaySession(
+            @Parameter(description = "Krawl ID", required = true) @PathVariable("id") UUID id,
+            @Parameter(description = "Session ID", required = true) @PathVariable("sessionId") UUID sessionId,
+            @Parameter(description = "Maximum number of points to return (2-5000)", example = "500")
+            @RequestParam(defaultValue = "500") int maxPoints) {
+        log.debug("GET /api/krawls/{}/sessions/{}/replay - maxPoints: {}", id, sessionId, maxPoints);
 
+        UUID userId = getCurrentUserId();
+        if (userId == null) {
+            throw new AuthException("Authentication required", HttpStatus.UNAUTHORIZED);
+        }
 
+        sessionReplayService.validateReplay(id, sessionId, userId, maxPoints);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> sessionReplayService.writeReplay(sessionId, maxPoints, out));
+    }
+}
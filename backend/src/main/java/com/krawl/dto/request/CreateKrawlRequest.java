@@ -49,6 +49,9 @@ public class CreateKrawlRequest {
     @Schema(description = "Tags associated with the Krawl", example = "[\"historic\", \"walking\"]")
     private List<String> tags = new ArrayList<>();
 
+    @Schema(description = "Reorder the Gems into a shorter walk before saving, keeping the first Gem first", example = "false")
+    private Boolean optimizeOrder = false;
+
     @Data
     @Schema(description = "Gem information for Krawl creation")
     public static class GemInKrawlRequest {
@@ -0,0 +1,24 @@
+package com.krawl.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "Request to suggest a visiting order for a set of Gems")
+public class OptimizeKrawlOrderRequest {
+
+    @Schema(description = "IDs of the Gems to visit, in the creator's current order",
+            example = "[\"123e4567-e89b-12d3-a456-426614174000\", \"123e4567-e89b-12d3-a456-426614174001\"]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Gem IDs are required")
+    @Size(min = 2, max = 200, message = "Between 2 and 200 Gems are required")
+    private List<String> gemIds = new ArrayList<>();
+
+    @Schema(description = "Keep the first Gem as the starting point", example = "true")
+    private Boolean fixStart = true;
+}
@@ -0,0 +1,71 @@
+package com.krawl.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Schema(description = "Batch of Krawl Mode events recorded while offline, replayed in order")
+public class SyncSessionRequest {
+
+    @Schema(description = "Events in the order they were recorded", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Events are required")
+    @Size(max = 2000, message = "At most 2000 events can be synced at once")
+    @Valid
+    private List<SyncEvent> events;
+
+    @Data
+    @Schema(description = "A location, gem completion or distance update recorded on the device")
+    public static class SyncEvent {
+
+        @Schema(description = "Client-generated event ID; events already synced are ignored",
+                example = "123e4567-e89b-12d3-a456-426614174000", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Event ID is required")
+        private UUID eventId;
+
+        @Schema(description = "Event type", example = "LOCATION",
+                allowableValues = {"LOCATION", "COMPLETE_GEM", "PROGRESS"}, requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Event type is required")
+        @Pattern(regexp = "LOCATION|COMPLETE_GEM|PROGRESS", message = "Event type must be LOCATION, COMPLETE_GEM or PROGRESS")
+        private String type;
+
+        @Schema(description = "When the event was recorded on the device", example = "2025-11-20T14:03:12",
+                requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Recorded time is required")
+        private LocalDateTime recordedAt;
+
+        @Schema(description = "LOCATION: latitude", example = "10.2936")
+        private Double latitude;
+
+        @Schema(description = "LOCATION: longitude", example = "123.9020")
+        private Double longitude;
+
+        @Schema(description = "LOCATION: GPS accuracy in meters", example = "8.0")
+        private Double accuracy;
+
+        @Schema(description = "LOCATION: heading in degrees (0-360)", example = "45.0")
+        private Double heading;
+
+        @Schema(description = "LOCATION: speed in meters per second", example = "1.2")
+        private Double speed;
+
+        @Schema(description = "COMPLETE_GEM: gem completed", example = "123e4567-e89b-12d3-a456-426614174000")
+        private UUID gemId;
+
+        @Schema(description = "COMPLETE_GEM: distance to the gem when completed (in meters)", example = "12.5")
+        private Double distanceToGemMeters;
+
+        @Schema(description = "COMPLETE_GEM: arrival method", example = "MANUAL", allowableValues = {"AUTOMATIC", "MANUAL"})
+        private String arrivalMethod;
+
+        @Schema(description = "PROGRESS: total distance walked in meters", example = "1250.0")
+        private Double totalDistanceMeters;
+    }
+}
@@ -0,0 +1,30 @@
+package com.krawl.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight Gem map marker served from the in-memory gem catalog.
+ * Used by nearby, bounding box, and popular-by-category lookups.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogGemResponse {
+    private String id;
+    private String name;
+    private String category;
+    private String status;
+    private Double latitude;
+    private Double longitude;
+    private String thumbnailUrl;
+    private Integer score;
+
+    /**
+     * Distance from the query point in meters (nearby lookups only).
+     */
+    private Double distanceMeters;
+}
@@ -0,0 +1,29 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Gem reached in a Krawl Mode session, pushed on the session stream")
+public class GemArrivalResponse {
+
+    @Schema(description = "Session ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID sessionId;
+
+    @Schema(description = "Gem ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID gemId;
+
+    @Schema(description = "Distance to the gem when it was reached, in meters", example = "12.5")
+    private Double distanceToGemMeters;
+
+    @Schema(description = "How the arrival was recorded: AUTOMATIC or MANUAL", example = "AUTOMATIC")
+    private String arrivalMethod;
+}
@@ -29,6 +29,7 @@ public class KrawlDetailResponse {
     private Integer estimatedDurationMinutes;
     private Double estimatedDistanceKm;
     private String routePolyline;
+    private String routeStatus;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
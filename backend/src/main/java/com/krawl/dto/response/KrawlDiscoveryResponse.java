@@ -0,0 +1,38 @@
+package com.krawl.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Krawl card returned by map discovery (krawls starting nearby, krawls passing through a viewport).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KrawlDiscoveryResponse {
+    private String id;
+    private String name;
+    private String description;
+    private String category;
+    private String difficulty;
+    private String coverImage;
+    private Integer estimatedDurationMinutes;
+    private Integer gemCount;
+    private Double startLatitude;
+    private Double startLongitude;
+
+    /**
+     * Average rating, null when the Krawl has not been rated yet.
+     */
+    private Double averageRating;
+
+    private Integer vouchCount;
+
+    /**
+     * Distance from the query point to the start in meters (nearby lookups only).
+     */
+    private Double distanceMeters;
+}
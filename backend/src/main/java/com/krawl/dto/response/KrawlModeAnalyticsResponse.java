@@ -0,0 +1,67 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Krawl Mode analytics for a krawl's creator")
+public class KrawlModeAnalyticsResponse {
+
+    @Schema(description = "Krawl ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID krawlId;
+
+    @Schema(description = "Sessions started", example = "120")
+    private Long sessionsStarted;
+
+    @Schema(description = "Sessions in which every gem was reached", example = "84")
+    private Long sessionsCompleted;
+
+    @Schema(description = "Sessions stopped before the last gem", example = "30")
+    private Long sessionsAbandoned;
+
+    @Schema(description = "Completed sessions as a percentage of ended sessions (0-100)", example = "73.7")
+    private Double completionRate;
+
+    @Schema(description = "Median duration of completed sessions in minutes (null if none)", example = "95.5")
+    private Double medianDurationMinutes;
+
+    @Schema(description = "90th percentile duration of completed sessions in minutes (null if none)", example = "140.2")
+    private Double p90DurationMinutes;
+
+    @Schema(description = "Gem at which most abandoned sessions stopped (null if none)")
+    private UUID topDropOffGemId;
+
+    @Schema(description = "Per-gem funnel, in route order")
+    private List<GemAnalytics> gems;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Krawl Mode funnel for one gem of the krawl")
+    public static class GemAnalytics {
+        @Schema(description = "Gem ID", example = "123e4567-e89b-12d3-a456-426614174000")
+        private UUID gemId;
+
+        @Schema(description = "Gem name", example = "Basilica del Santo Niño")
+        private String name;
+
+        @Schema(description = "Position in the route", example = "1")
+        private Integer order;
+
+        @Schema(description = "Sessions that reached this gem", example = "102")
+        private Long reachedCount;
+
+        @Schema(description = "Abandoned sessions for which this was the next gem", example = "7")
+        private Long dropOffCount;
+    }
+}
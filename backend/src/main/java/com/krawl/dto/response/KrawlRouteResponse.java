@@ -0,0 +1,37 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Current route of a Krawl")
+public class KrawlRouteResponse {
+
+    @Schema(description = "ID of the Krawl", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String krawlId;
+
+    @Schema(description = "PENDING while the walking route is being computed, READY once stored, " +
+            "ESTIMATED if routing was unavailable and the straight-line estimate was kept", example = "READY")
+    private String routeStatus;
+
+    @Schema(description = "Estimated duration in minutes", example = "45")
+    private Integer estimatedDurationMinutes;
+
+    @Schema(description = "Estimated distance in kilometers", example = "2.4")
+    private Double estimatedDistanceKm;
+
+    @Schema(description = "Route as an encoded polyline at the requested resolution")
+    private String routePolyline;
+
+    @Schema(description = "Resolution of the polyline: OVERVIEW, STANDARD, or FULL", example = "STANDARD")
+    private String resolution;
+
+    @Schema(description = "Decimal precision of the encoded polyline", example = "5")
+    private Integer polylinePrecision;
+}
@@ -0,0 +1,27 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a Krawl Mode location update")
+public class LocationUpdateResponse {
+
+    @Schema(description = "False if the update was refused because the server is backed up")
+    private boolean accepted;
+
+    @Schema(description = "Gems reached with this location; they are recorded as completed automatically")
+    private List<UUID> arrivedGemIds;
+
+    @Schema(description = "Set when the walker left or rejoined the krawl's route with this location")
+    private RouteDeviationResponse routeDeviation;
+}
@@ -0,0 +1,26 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Suggested visiting order for a set of Gems")
+public class OptimizeKrawlOrderResponse {
+
+    @Schema(description = "Gem IDs in the suggested visiting order")
+    private List<String> gemIds;
+
+    @Schema(description = "Straight-line length of the walk in the original order, in kilometers", example = "4.8")
+    private Double originalDistanceKm;
+
+    @Schema(description = "Straight-line length of the walk in the suggested order, in kilometers", example = "2.9")
+    private Double optimizedDistanceKm;
+}
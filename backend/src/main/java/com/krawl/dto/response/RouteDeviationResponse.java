@@ -0,0 +1,32 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Krawl Mode session leaving or rejoining the krawl's route, pushed on the session stream")
+public class RouteDeviationResponse {
+
+    @Schema(description = "Session ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID sessionId;
+
+    @Schema(description = "True when the walker left the route, false when they rejoined it")
+    private boolean offRoute;
+
+    @Schema(description = "Distance from the route in meters", example = "64.2")
+    private Double distanceFromRouteMeters;
+
+    @Schema(description = "Latitude of the nearest point on the route", example = "10.2936")
+    private Double rejoinLatitude;
+
+    @Schema(description = "Longitude of the nearest point on the route", example = "123.9020")
+    private Double rejoinLongitude;
+}
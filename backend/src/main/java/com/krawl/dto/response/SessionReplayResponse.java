@@ -0,0 +1,56 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Downsampled trajectory of a Krawl Mode session, for playback and heatmaps")
+public class SessionReplayResponse {
+
+    @Schema(description = "Session ID", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID sessionId;
+
+    @Schema(description = "Number of points recorded for the session", example = "18240")
+    private Long totalPoints;
+
+    @Schema(description = "Point budget the trajectory was downsampled to", example = "500")
+    private Integer maxPoints;
+
+    @Schema(description = "Kept points in recorded order, including the first and last")
+    private List<ReplayPoint> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A recorded location of the session")
+    public static class ReplayPoint {
+        @Schema(description = "When the location was recorded", example = "2025-01-15T10:32:05")
+        private LocalDateTime recordedAt;
+
+        @Schema(description = "Latitude", example = "10.2936")
+        private Double latitude;
+
+        @Schema(description = "Longitude", example = "123.9020")
+        private Double longitude;
+
+        @Schema(description = "Accuracy in meters", example = "8.0")
+        private Double accuracy;
+
+        @Schema(description = "Heading in degrees", example = "92.0")
+        private Double heading;
+
+        @Schema(description = "Speed in meters per second", example = "1.3")
+        private Double speed;
+    }
+}
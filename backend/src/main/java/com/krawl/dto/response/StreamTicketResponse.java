@@ -0,0 +1,23 @@
+package com.krawl.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Short-lived ticket for opening a session stream with EventSource")
+public class StreamTicketResponse {
+
+    @Schema(description = "Pass as the 'ticket' query parameter of GET /api/krawls/{id}/session/stream")
+    private String ticket;
+
+    @Schema(description = "The stream must be opened before this time; an open stream stays open")
+    private Instant expiresAt;
+}
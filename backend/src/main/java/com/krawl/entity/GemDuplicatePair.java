@@ -0,0 +1,67 @@
+package com.krawl.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A likely duplicate Gem pair found by the duplicate sweep.
+ * Pairs are stored once, with gemA's ID ordered before gemB's.
+ */
+@Entity
+@Table(name = "gem_duplicate_pairs", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"gem_a_id", "gem_b_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GemDuplicatePair {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gem_a_id", nullable = false)
+    private Gem gemA;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gem_b_id", nullable = false)
+    private Gem gemB;
+
+    @Column(name = "distance_meters", nullable = false)
+    private Double distanceMeters;
+
+    @Column(name = "name_similarity", nullable = false)
+    private Double nameSimilarity;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private PairStatus status = PairStatus.OPEN;
+
+    @CreationTimestamp
+    @Column(name = "detected_at", nullable = false, updatable = false)
+    private LocalDateTime detectedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum PairStatus {
+        OPEN,
+        DISMISSED,
+        MERGED
+    }
+}
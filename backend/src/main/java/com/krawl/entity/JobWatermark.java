@@ -0,0 +1,28 @@
+package com.krawl.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a scheduled job, shared by every node.
+ */
+@Entity
+@Table(name = "job_watermarks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobWatermark {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt; // Null until the first completed run
+}
@@ -52,9 +52,28 @@ public class Krawl {
     @Column(name = "estimated_distance_km")
     private Double estimatedDistanceKm;
 
+    // Encoded polylines (precision 5): full geometry and simplified variants per zoom band
     @Column(name = "route_polyline")
     private String routePolyline;
 
+    @Column(name = "route_polyline_overview")
+    private String routePolylineOverview;
+
+    @Column(name = "route_polyline_standard")
+    private String routePolylineStandard;
+
+    @Column(name = "route_status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private RouteStatus routeStatus = RouteStatus.READY;
+
+    @Column(name = "route_version", nullable = false)
+    @Builder.Default
+    private Integer routeVersion = 0;
+
+    @Column(name = "route_requested_at")
+    private LocalDateTime routeRequestedAt;
+
     @Column(name = "view_count", nullable = false)
     @Builder.Default
     private Integer viewCount = 0;
@@ -93,6 +112,29 @@ public class Krawl {
     public void incrementViewCount() {
         this.viewCount++;
     }
+
+    /**
+     * Stored route polyline at the given resolution.
+     */
+    public String routePolylineFor(RouteResolution resolution) {
+        return switch (resolution) {
+            case OVERVIEW -> routePolylineOverview;
+            case STANDARD -> routePolylineStandard;
+            case FULL -> routePolyline;
+        };
+    }
+
+    public enum RouteStatus {
+        PENDING,    // Straight-line estimate stored, walking route being computed
+        READY,      // Walking route stored
+        ESTIMATED   // Routing unavailable, straight-line estimate kept
+    }
+
+    public enum RouteResolution {
+        OVERVIEW,   // City-wide zoom (<= 12), simplified to ~15 m
+        STANDARD,   // Neighbourhood zoom (13-16), simplified to ~3 m
+        FULL        // Street zoom, every routed point
+    }
 }
 
 
@@ -0,0 +1,96 @@
+package com.krawl.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Precomputed Krawl card for list screens.
+ * Rows are written only by {@link com.krawl.repository.KrawlSummaryRepository#refresh}.
+ */
+@Entity
+@Immutable
+@Table(name = "krawl_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KrawlSummary {
+
+    @Id
+    @Column(name = "krawl_id")
+    private UUID krawlId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(length = 100)
+    private String category;
+
+    @Column(length = 50)
+    private String difficulty;
+
+    @Column(name = "cover_image", length = 500)
+    private String coverImage;
+
+    @Column(name = "estimated_duration_minutes")
+    private Integer estimatedDurationMinutes;
+
+    @Column(name = "gem_count", nullable = false)
+    private Integer gemCount;
+
+    @Column(name = "start_latitude")
+    private Double startLatitude;
+
+    @Column(name = "start_longitude")
+    private Double startLongitude;
+
+    @Column(name = "center_latitude")
+    private Double centerLatitude;
+
+    @Column(name = "center_longitude")
+    private Double centerLongitude;
+
+    @Column(name = "min_latitude")
+    private Double minLatitude;
+
+    @Column(name = "min_longitude")
+    private Double minLongitude;
+
+    @Column(name = "max_latitude")
+    private Double maxLatitude;
+
+    @Column(name = "max_longitude")
+    private Double maxLongitude;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount;
+
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating;
+
+    @Column(name = "vouch_count", nullable = false)
+    private Integer vouchCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Average rating, or null when the Krawl has not been rated yet
+     */
+    public Double getRatingOrNull() {
+        return ratingCount != null && ratingCount > 0 ? averageRating : null;
+    }
+}
@@ -24,8 +24,8 @@ public class RevokedToken {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     
-    @Column(name = "token")
-    private String token;
+    @Column(name = "token_hash")
+    private String tokenHash; // Hex SHA-256 of the token
     
     @Column(name = "expires_at")
     private Instant expiresAt;
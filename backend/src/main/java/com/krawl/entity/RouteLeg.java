@@ -0,0 +1,39 @@
+package com.krawl.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cached walking route leg between two consecutive waypoints.
+ */
+@Entity
+@Table(name = "route_legs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteLeg {
+
+    @Id
+    @Column(name = "leg_key", length = 64)
+    private String legKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String coordinates;
+
+    @Column(name = "distance_meters", nullable = false)
+    private Double distanceMeters;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private Double durationSeconds;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,7 @@ package com.krawl.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -12,6 +13,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 /**
  * Global exception handler for REST controllers.
  * Handles all exceptions and returns appropriate HTTP responses.
+ * Errors are always JSON, including on endpoints that produce another type
+ * (e.g. the text/event-stream session stream), which would otherwise turn them into 500s.
  */
 @RestControllerAdvice
 @Slf4j
@@ -31,7 +34,7 @@ public class GlobalExceptionHandler {
             .message(e.getMessage())
             .build();
         HttpStatus status = e.getStatus();
-        return ResponseEntity.status(status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        return ResponseEntity.status(status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(error);
     }
     
     /**
@@ -47,7 +50,7 @@ public class GlobalExceptionHandler {
             .error("RESOURCE_NOT_FOUND")
             .message(e.getMessage())
             .build();
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 
     /**
@@ -63,7 +66,7 @@ public class GlobalExceptionHandler {
             .error("VALIDATION_ERROR")
             .message(e.getMessage())
             .build();
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 
     /**
@@ -83,7 +86,7 @@ public class GlobalExceptionHandler {
             .message(message)
             .build();
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 
     /**
@@ -99,7 +102,7 @@ public class GlobalExceptionHandler {
             .error("VALIDATION_ERROR")
             .message("Missing required parameter: " + e.getParameterName())
             .build();
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 
     /**
@@ -115,7 +118,7 @@ public class GlobalExceptionHandler {
             .error("FORBIDDEN")
             .message(e.getMessage())
             .build();
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).contentType(MediaType.APPLICATION_JSON).body(error);
     }
     
     /**
@@ -131,7 +134,7 @@ public class GlobalExceptionHandler {
             .error("INTERNAL_ERROR")
             .message("An unexpected error occurred")
             .build();
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(error);
     }
 }
 
@@ -0,0 +1,29 @@
+package com.krawl.repository;
+
+import com.krawl.entity.GemDuplicatePair;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GemDuplicatePairRepository extends JpaRepository<GemDuplicatePair, UUID> {
+
+    /**
+     * Find pairs involving any of the given Gems
+     */
+    @Query("""
+            SELECT p FROM GemDuplicatePair p
+            WHERE p.gemA.id IN :gemIds OR p.gemB.id IN :gemIds
+            """)
+    List<GemDuplicatePair> findByGemIds(@Param("gemIds") Collection<UUID> gemIds);
+
+    /**
+     * Find pairs by status, best match first
+     */
+    List<GemDuplicatePair> findByStatusOrderByScoreDesc(GemDuplicatePair.PairStatus status);
+}
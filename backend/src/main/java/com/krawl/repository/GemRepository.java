@@ -1,11 +1,15 @@
 package com.krawl.repository;
 
 import com.krawl.entity.Gem;
+import com.krawl.repository.projection.DuplicateCandidateRow;
+import com.krawl.repository.projection.GemCatalogRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,6 +35,20 @@ public interface GemRepository extends JpaRepository<Gem, UUID> {
     @Query("SELECT AVG(r.rating) FROM GemRating r WHERE r.gem.id = :gemId")
     Double calculateAverageRating(@Param("gemId") UUID gemId);
 
+    /**
+     * Calculate average ratings for several gems in one grouped query.
+     * Gems without ratings are omitted.
+     *
+     * @param gemIds Gem IDs
+     * @return List of Object arrays: [gem_id, average_rating]
+     */
+    @Query("""
+            SELECT r.gem.id, AVG(r.rating) FROM GemRating r
+            WHERE r.gem.id IN :gemIds
+            GROUP BY r.gem.id
+            """)
+    List<Object[]> calculateAverageRatings(@Param("gemIds") Collection<UUID> gemIds);
+
     /**
      * Count total ratings for a gem
      */
@@ -62,32 +80,51 @@ public interface GemRepository extends JpaRepository<Gem, UUID> {
     Boolean hasUserVouchedForGem(@Param("gemId") UUID gemId, @Param("userId") UUID userId);
 
     /**
-     * Find Gems within a specified distance using PostGIS ST_DWithin.
-     * Returns Gem entities and their distance in meters.
-     * 
+     * Find the top duplicate candidates for a new Gem in a single set-based query.
+     * Gems are filtered with PostGIS ST_DWithin and ranked by a combined score of
+     * pg_trgm name similarity (70%) and proximity (30%).
+     *
+     * @param name Name of the Gem being checked
      * @param latitude Latitude coordinate
      * @param longitude Longitude coordinate
-     * @param distanceMeters Distance in meters
-     * @return List of Object arrays: [Gem, distance_in_meters]
+     * @param distanceMeters Search radius in meters
+     * @param limit Maximum number of candidates to return
+     * @return Candidates ordered by combined score, best first
      */
     @Query(value = """
-            SELECT g, 
-                   ST_Distance(
-                       ST_MakePoint(g.longitude, g.latitude)::geography,
-                       ST_MakePoint(:longitude, :latitude)::geography
-                   ) AS distance
+            SELECT g.id AS "id",
+                   g.name AS "name",
+                   g.category AS "category",
+                   g.short_description AS "shortDescription",
+                   g.thumbnail_url AS "thumbnailUrl",
+                   g.address AS "address",
+                   g.latitude AS "latitude",
+                   g.longitude AS "longitude",
+                   c.distance AS "distance",
+                   c.name_similarity AS "nameSimilarity",
+                   (c.name_similarity * 0.7 + (1 - LEAST(c.distance / :distanceMeters, 1)) * 0.3) AS "combinedScore"
             FROM gems g
+            CROSS JOIN LATERAL (
+                SELECT ST_Distance(
+                           ST_MakePoint(g.longitude, g.latitude)::geography,
+                           ST_MakePoint(:longitude, :latitude)::geography
+                       ) AS distance,
+                       similarity(LOWER(g.name), LOWER(TRIM(:name))) AS name_similarity
+            ) c
             WHERE ST_DWithin(
                 ST_MakePoint(g.longitude, g.latitude)::geography,
                 ST_MakePoint(:longitude, :latitude)::geography,
                 :distanceMeters
             )
-            ORDER BY distance ASC
+            ORDER BY "combinedScore" DESC, c.distance ASC
+            LIMIT :limit
             """, nativeQuery = true)
-    List<Object[]> findGemsWithinDistance(
+    List<DuplicateCandidateRow> findDuplicateCandidates(
+            @Param("name") String name,
             @Param("latitude") Double latitude,
             @Param("longitude") Double longitude,
-            @Param("distanceMeters") Double distanceMeters
+            @Param("distanceMeters") Double distanceMeters,
+            @Param("limit") int limit
     );
 
     /**
@@ -178,4 +215,48 @@ public interface GemRepository extends JpaRepository<Gem, UUID> {
             LIMIT :limit
             """, nativeQuery = true)
     List<Object[]> findPopularGems(@Param("limit") int limit);
+
+    /**
+     * Load catalog rows for every Gem with coordinates, including its Gem Score.
+     * Used to build the in-memory gem catalog in a single round trip.
+     *
+     * @return List of GemCatalogRow projections
+     */
+    @Query(value = """
+            SELECT g.id AS "id",
+                   g.name AS "name",
+                   g.category AS "category",
+                   g.status AS "status",
+                   g.latitude AS "latitude",
+                   g.longitude AS "longitude",
+                   g.thumbnail_url AS "thumbnailUrl",
+                   (COALESCE(v.vouch_count, 0) * 1 + COALESCE(kg.krawl_count, 0) * 5) AS "score"
+            FROM gems g
+            LEFT JOIN (
+                SELECT gem_id, COUNT(*) as vouch_count
+                FROM vouches
+                GROUP BY gem_id
+            ) v ON g.id = v.gem_id
+            LEFT JOIN (
+                SELECT gem_id, COUNT(DISTINCT krawl_id) as krawl_count
+                FROM krawl_gems
+                GROUP BY gem_id
+            ) kg ON g.id = kg.gem_id
+            WHERE g.latitude IS NOT NULL AND g.longitude IS NOT NULL
+            """, nativeQuery = true)
+    List<GemCatalogRow> findCatalogRows();
+
+    /**
+     * Find the coordinates of Gems created or updated since the given time.
+     * Used by the duplicate sweep to find grid cells touched since its last run.
+     *
+     * @param since Lower bound on updated_at (inclusive)
+     * @return List of Object arrays: [latitude, longitude]
+     */
+    @Query("""
+            SELECT g.latitude, g.longitude FROM Gem g
+            WHERE g.updatedAt >= :since
+            AND g.latitude IS NOT NULL AND g.longitude IS NOT NULL
+            """)
+    List<Object[]> findLocationsUpdatedSince(@Param("since") LocalDateTime since);
 }
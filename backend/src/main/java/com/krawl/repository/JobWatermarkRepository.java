@@ -0,0 +1,20 @@
+package com.krawl.repository;
+
+import com.krawl.entity.JobWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+    /**
+     * Lock a job's watermark for the current transaction.
+     * Empty when another node holds the lock (its run is in progress) or the job has no row.
+     */
+    @Query(value = "SELECT * FROM job_watermarks WHERE job_name = :jobName FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<JobWatermark> lockForRun(@Param("jobName") String jobName);
+}
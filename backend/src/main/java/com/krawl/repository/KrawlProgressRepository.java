@@ -19,6 +19,12 @@ public interface KrawlProgressRepository extends JpaRepository<KrawlProgress, UU
     @Query("SELECT p FROM KrawlProgress p WHERE p.session.id = :sessionId ORDER BY p.completedAt ASC")
     List<KrawlProgress> findBySessionId(@Param("sessionId") UUID sessionId);
 
+    /**
+     * Find the IDs of the gems completed in a session, in completion order
+     */
+    @Query("SELECT p.gem.id FROM KrawlProgress p WHERE p.session.id = :sessionId ORDER BY p.completedAt ASC")
+    List<UUID> findGemIdsBySessionId(@Param("sessionId") UUID sessionId);
+
     /**
      * Find progress for a specific gem in a session
      */
@@ -1,11 +1,15 @@
 package com.krawl.repository;
 
 import com.krawl.entity.Krawl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,11 +18,12 @@ import java.util.UUID;
 public interface KrawlRepository extends JpaRepository<Krawl, UUID> {
 
     /**
-     * Find krawl by ID with creator and gems eagerly loaded.
+     * Find krawl by ID with creator and gems eagerly loaded, gems in route order.
      * Note: Ratings and vouches are fetched separately to avoid MultipleBagFetchException.
+     * Hibernate de-duplicates the fetched root, so no SQL DISTINCT is needed.
      */
     @Query("""
-            SELECT DISTINCT k FROM Krawl k
+            SELECT k FROM Krawl k
             LEFT JOIN FETCH k.createdBy
             LEFT JOIN FETCH k.gems g
             LEFT JOIN FETCH g.gem
@@ -112,26 +117,63 @@ public interface KrawlRepository extends JpaRepository<Krawl, UUID> {
     org.springframework.data.domain.Page<Krawl> findByCreatedByIdOrderByCreatedAtDesc(UUID userId, org.springframework.data.domain.Pageable pageable);
 
     /**
-     * Find featured/popular Krawls ordered by average rating DESC
-     * Returns array of [krawl_id (UUID), avg_rating (Double)]
-     * 
-     * @param limit Maximum number of results
-     * @return List of Object arrays: [UUID krawlId, Double avgRating]
+     * Store a computed route, unless the gem list changed since it was requested.
+     *
+     * @return Number of rows updated (0 when the route version is stale)
      */
-    @Query(value = """
-            SELECT k.id as krawl_id, COALESCE(avg_rating.avg_rating, 0.0) as avg_rating
-            FROM krawls k
-            LEFT JOIN (
-                SELECT krawl_id, AVG(rating) as avg_rating
-                FROM krawl_ratings
-                GROUP BY krawl_id
-            ) avg_rating ON k.id = avg_rating.krawl_id
-            ORDER BY avg_rating DESC NULLS LAST, k.view_count DESC
-            LIMIT :limit
-            """, nativeQuery = true)
-    List<Object[]> findFeaturedKrawls(@Param("limit") int limit);
-}
-
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Krawl k
+            SET k.routePolyline = :polyline,
+                k.routePolylineOverview = :overviewPolyline,
+                k.routePolylineStandard = :standardPolyline,
+                k.estimatedDistanceKm = :distanceKm,
+                k.estimatedDurationMinutes = :durationMinutes,
+                k.routeStatus = :routeStatus
+            WHERE k.id = :krawlId AND k.routeVersion = :routeVersion
+            """)
+    int updateRoute(@Param("krawlId") UUID krawlId,
+                    @Param("routeVersion") Integer routeVersion,
+                    @Param("polyline") String polyline,
+                    @Param("overviewPolyline") String overviewPolyline,
+                    @Param("standardPolyline") String standardPolyline,
+                    @Param("distanceKm") Double distanceKm,
+                    @Param("durationMinutes") Integer durationMinutes,
+                    @Param("routeStatus") Krawl.RouteStatus routeStatus);
 
+    /**
+     * Full-resolution route polyline of a krawl, if its route has the given status
+     */
+    @Query("SELECT k.routePolyline FROM Krawl k WHERE k.id = :krawlId AND k.routeStatus = :routeStatus")
+    Optional<String> findRoutePolyline(@Param("krawlId") UUID krawlId,
+                                       @Param("routeStatus") Krawl.RouteStatus routeStatus);
 
+    /**
+     * Find krawls whose route has been pending since before the given time
+     */
+    @Query("""
+            SELECT k.id FROM Krawl k
+            WHERE k.routeStatus = :routeStatus AND k.routeRequestedAt < :before
+            ORDER BY k.routeRequestedAt ASC
+            """)
+    List<UUID> findIdsByRouteStatusRequestedBefore(@Param("routeStatus") Krawl.RouteStatus routeStatus,
+                                                   @Param("before") LocalDateTime before,
+                                                   Pageable pageable);
 
+    /**
+     * Refresh the route request time so a recovered krawl is not picked up again immediately.
+     * Only updates a request still older than {@code before}, so when several nodes recover
+     * the same krawl exactly one of them gets 1 back.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Krawl k SET k.routeRequestedAt = :requestedAt
+            WHERE k.id = :krawlId AND k.routeVersion = :routeVersion AND k.routeRequestedAt < :before
+            """)
+    int touchRouteRequest(@Param("krawlId") UUID krawlId,
+                          @Param("routeVersion") Integer routeVersion,
+                          @Param("before") LocalDateTime before,
+                          @Param("requestedAt") LocalDateTime requestedAt);
+}
@@ -1,7 +1,9 @@
 package com.krawl.repository;
 
 import com.krawl.entity.KrawlSession;
+import com.krawl.repository.projection.RemainingGemRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,6 +24,28 @@ public interface KrawlSessionRepository extends JpaRepository<KrawlSession, UUID
             @Param("userId") UUID userId
     );
 
+    /**
+     * Find the gems of a session's krawl that have no progress entry yet, in krawl order
+     */
+    @Query("""
+            SELECT g.id AS gemId, g.latitude AS latitude, g.longitude AS longitude
+            FROM KrawlSession s
+            JOIN s.krawl k
+            JOIN k.gems kg
+            JOIN kg.gem g
+            WHERE s.id = :sessionId
+            AND NOT EXISTS (SELECT 1 FROM KrawlProgress p WHERE p.session.id = s.id AND p.gem.id = g.id)
+            ORDER BY kg.order ASC
+            """)
+    List<RemainingGemRow> findRemainingGems(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Update the distance walked in a session without loading it
+     */
+    @Modifying
+    @Query("UPDATE KrawlSession s SET s.totalDistanceMeters = :meters, s.updatedAt = CURRENT_TIMESTAMP WHERE s.id = :sessionId")
+    int updateTotalDistance(@Param("sessionId") UUID sessionId, @Param("meters") Double meters);
+
     /**
      * Find all sessions for a user
      */
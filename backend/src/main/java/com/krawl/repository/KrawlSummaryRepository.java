@@ -0,0 +1,222 @@
+package com.krawl.repository;
+
+import com.krawl.entity.KrawlSummary;
+import com.krawl.repository.projection.KrawlDiscoveryRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface KrawlSummaryRepository extends JpaRepository<KrawlSummary, UUID> {
+
+    /**
+     * Lock the given Krawl rows until the end of the transaction, in ID order so concurrent
+     * callers cannot deadlock. Taken before {@link #refresh}: the refresh then runs as a new
+     * statement after any concurrent refresher has committed, so its counts include that
+     * writer's changes instead of overwriting them with a stale recount.
+     *
+     * @param krawlIds Krawls to lock
+     * @return IDs of the Krawls locked
+     */
+    @Query(value = "SELECT id FROM krawls WHERE id IN (:krawlIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockForRefresh(@Param("krawlIds") Collection<UUID> krawlIds);
+
+    /**
+     * Recompute the summary rows of the given Krawls from the source tables.
+     * Pending entity changes are flushed first so the rows reflect the current transaction.
+     * Call {@link #lockForRefresh} first in the same transaction.
+     *
+     * @param krawlIds Krawls to refresh
+     * @return Number of rows written
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO krawl_summaries (
+                krawl_id, name, description, category, difficulty, cover_image, estimated_duration_minutes,
+                gem_count, start_latitude, start_longitude, center_latitude, center_longitude,
+                min_latitude, min_longitude, max_latitude, max_longitude,
+                rating_count, average_rating, vouch_count, route_geometry, created_at, updated_at)
+            SELECT k.id, k.name, k.description, k.category, k.difficulty, k.cover_image, k.estimated_duration_minutes,
+                   g.gem_count, s.latitude, s.longitude, g.center_latitude, g.center_longitude,
+                   g.min_latitude, g.min_longitude, g.max_latitude, g.max_longitude,
+                   r.rating_count, COALESCE(r.average_rating, 0), v.vouch_count,
+                   CASE WHEN k.route_polyline_standard IS NOT NULL
+                        THEN ST_LineFromEncodedPolyline(k.route_polyline_standard, 5) END,
+                   k.created_at, CURRENT_TIMESTAMP
+            FROM krawls k
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS gem_count,
+                       AVG(gm.latitude) AS center_latitude, AVG(gm.longitude) AS center_longitude,
+                       MIN(gm.latitude) AS min_latitude, MIN(gm.longitude) AS min_longitude,
+                       MAX(gm.latitude) AS max_latitude, MAX(gm.longitude) AS max_longitude
+                FROM krawl_gems kg
+                JOIN gems gm ON gm.id = kg.gem_id
+                WHERE kg.krawl_id = k.id
+            ) g
+            LEFT JOIN LATERAL (
+                SELECT gm.latitude, gm.longitude
+                FROM krawl_gems kg
+                JOIN gems gm ON gm.id = kg.gem_id
+                WHERE kg.krawl_id = k.id
+                ORDER BY kg."order"
+                LIMIT 1
+            ) s ON TRUE
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS rating_count, AVG(rating) AS average_rating
+                FROM krawl_ratings
+                WHERE krawl_id = k.id
+            ) r
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS vouch_count
+                FROM krawl_vouches
+                WHERE krawl_id = k.id
+            ) v
+            WHERE k.id IN (:krawlIds)
+            ON CONFLICT (krawl_id) DO UPDATE SET
+                name = EXCLUDED.name,
+                description = EXCLUDED.description,
+                category = EXCLUDED.category,
+                difficulty = EXCLUDED.difficulty,
+                cover_image = EXCLUDED.cover_image,
+                estimated_duration_minutes = EXCLUDED.estimated_duration_minutes,
+                gem_count = EXCLUDED.gem_count,
+                start_latitude = EXCLUDED.start_latitude,
+                start_longitude = EXCLUDED.start_longitude,
+                center_latitude = EXCLUDED.center_latitude,
+                center_longitude = EXCLUDED.center_longitude,
+                min_latitude = EXCLUDED.min_latitude,
+                min_longitude = EXCLUDED.min_longitude,
+                max_latitude = EXCLUDED.max_latitude,
+                max_longitude = EXCLUDED.max_longitude,
+                rating_count = EXCLUDED.rating_count,
+                average_rating = EXCLUDED.average_rating,
+                vouch_count = EXCLUDED.vouch_count,
+                route_geometry = EXCLUDED.route_geometry,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int refresh(@Param("krawlIds") Collection<UUID> krawlIds);
+
+    /**
+     * Krawls whose first Gem lies within a radius of a point, nearest first.
+     * Filtered with ST_DWithin and ordered by KNN distance, both on the start point GIST index.
+     *
+     * @param latitude Query point latitude
+     * @param longitude Query point longitude
+     * @param radiusMeters Search radius in meters
+     * @param limit Maximum number of results
+     * @return List of KrawlDiscoveryRow projections with distanceMeters set
+     */
+    @Query(value = """
+            SELECT s.krawl_id AS "krawlId",
+                   s.name AS "name",
+                   s.description AS "description",
+                   s.category AS "category",
+                   s.difficulty AS "difficulty",
+                   s.cover_image AS "coverImage",
+                   s.estimated_duration_minutes AS "estimatedDurationMinutes",
+                   s.gem_count AS "gemCount",
+                   s.start_latitude AS "startLatitude",
+                   s.start_longitude AS "startLongitude",
+                   s.rating_count AS "ratingCount",
+                   s.average_rating AS "averageRating",
+                   s.vouch_count AS "vouchCount",
+                   ST_Distance(
+                       CAST(ST_MakePoint(s.start_longitude, s.start_latitude) AS geography),
+                       CAST(ST_MakePoint(:longitude, :latitude) AS geography)
+                   ) AS "distanceMeters"
+            FROM krawl_summaries s
+            WHERE ST_DWithin(
+                CAST(ST_MakePoint(s.start_longitude, s.start_latitude) AS geography),
+                CAST(ST_MakePoint(:longitude, :latitude) AS geography),
+                :radiusMeters
+            )
+            ORDER BY CAST(ST_MakePoint(s.start_longitude, s.start_latitude) AS geography)
+                     <-> CAST(ST_MakePoint(:longitude, :latitude) AS geography)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<KrawlDiscoveryRow> findStartingNear(
+            @Param("latitude") double latitude,
+            @Param("longitude") double longitude,
+            @Param("radiusMeters") double radiusMeters,
+            @Param("limit") int limit);
+
+    /**
+     * Krawls whose route passes through a bounding box, best rated first.
+     * The && operator prefilters on the route geometry GIST index; ST_Intersects drops
+     * routes whose bounding box overlaps the viewport but whose line does not.
+     *
+     * @return List of KrawlDiscoveryRow projections (distanceMeters is null)
+     */
+    @Query(value = """
+            SELECT s.krawl_id AS "krawlId",
+                   s.name AS "name",
+                   s.description AS "description",
+                   s.category AS "category",
+                   s.difficulty AS "difficulty",
+                   s.cover_image AS "coverImage",
+                   s.estimated_duration_minutes AS "estimatedDurationMinutes",
+                   s.gem_count AS "gemCount",
+                   s.start_latitude AS "startLatitude",
+                   s.start_longitude AS "startLongitude",
+                   s.rating_count AS "ratingCount",
+                   s.average_rating AS "averageRating",
+                   s.vouch_count AS "vouchCount",
+                   CAST(NULL AS DOUBLE PRECISION) AS "distanceMeters"
+            FROM krawl_summaries s
+            WHERE s.route_geometry && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)
+              AND ST_Intersects(s.route_geometry, ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326))
+            ORDER BY s.average_rating DESC, s.vouch_count DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<KrawlDiscoveryRow> findRouteIntersecting(
+            @Param("minLat") double minLat,
+            @Param("minLng") double minLng,
+            @Param("maxLat") double maxLat,
+            @Param("maxLng") double maxLng,
+            @Param("limit") int limit);
+
+    /**
+     * IDs of the Krawls that include a Gem, whose summaries depend on the Gem's location
+     */
+    @Query(value = "SELECT DISTINCT krawl_id FROM krawl_gems WHERE gem_id = :gemId", nativeQuery = true)
+    List<UUID> findKrawlIdsByGemId(@Param("gemId") UUID gemId);
+
+    /**
+     * Featured Krawls: best average rating first (unrated count as 0), then most viewed
+     */
+    @Query("""
+            SELECT s FROM KrawlSummary s, Krawl k
+            WHERE k.id = s.krawlId
+            ORDER BY s.averageRating DESC, k.viewCount DESC
+            """)
+    List<KrawlSummary> findFeatured(Pageable pageable);
+
+    /**
+     * Summaries of a user's saved Krawls, most recently saved first
+     */
+    @Query("""
+            SELECT s FROM KrawlSummary s, SavedKrawl sk
+            WHERE sk.krawl.id = s.krawlId AND sk.user.id = :userId
+            ORDER BY sk.savedAt DESC
+            """)
+    List<KrawlSummary> findSavedByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Summaries of the Krawls a user completed, most recently finished first
+     */
+    @Query("""
+            SELECT s FROM KrawlSummary s, KrawlSession ks
+            WHERE ks.krawl.id = s.krawlId
+              AND ks.user.id = :userId
+              AND ks.status = com.krawl.entity.KrawlSession.SessionStatus.COMPLETED
+            ORDER BY ks.endedAt DESC NULLS LAST
+            """)
+    List<KrawlSummary> findCompletedByUserId(@Param("userId") UUID userId, Pageable pageable);
+}
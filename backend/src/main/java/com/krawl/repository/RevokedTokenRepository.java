@@ -7,7 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -17,20 +17,38 @@ import java.util.UUID;
 public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
     
     /**
-     * Finds a revoked token by token string.
+     * Checks if a token hash exists in the blacklist.
      * 
-     * @param token Token string to find
-     * @return Optional RevokedToken
+     * @param tokenHash Hex SHA-256 of the token
+     * @return true if token exists, false otherwise
      */
-    Optional<RevokedToken> findByToken(String token);
+    boolean existsByTokenHash(String tokenHash);
     
     /**
-     * Checks if a token exists in the blacklist.
+     * Checks if a token hash is blacklisted and not yet expired.
      * 
-     * @param token Token string to check
-     * @return true if token exists, false otherwise
+     * @param tokenHash Hex SHA-256 of the token
+     * @param now Current time
+     * @return true if an unexpired entry exists, false otherwise
+     */
+    boolean existsByTokenHashAndExpiresAtAfter(String tokenHash, Instant now);
+    
+    /**
+     * Finds all entries that have not expired yet.
+     * 
+     * @param now Current time
+     * @return Unexpired entries
+     */
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+    
+    /**
+     * Finds unexpired entries revoked after a point in time.
+     * 
+     * @param revokedAfter Revocation time threshold
+     * @param now Current time
+     * @return Recently revoked, unexpired entries
      */
-    boolean existsByToken(String token);
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(Instant revokedAfter, Instant now);
     
     /**
      * Deletes all revoked tokens that have expired.
@@ -0,0 +1,28 @@
+package com.krawl.repository;
+
+import com.krawl.entity.RouteLeg;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RouteLegRepository extends JpaRepository<RouteLeg, String> {
+
+    /**
+     * Insert a leg unless another request (or node) stored it first
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO route_legs (leg_key, coordinates, distance_meters, duration_seconds)
+            VALUES (:legKey, :coordinates, :distanceMeters, :durationSeconds)
+            ON CONFLICT (leg_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("legKey") String legKey,
+                       @Param("coordinates") String coordinates,
+                       @Param("distanceMeters") Double distanceMeters,
+                       @Param("durationSeconds") Double durationSeconds);
+}
@@ -0,0 +1,42 @@
+package com.krawl.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Projection of a nearby Gem considered during duplicate detection.
+ * Carries the response fields plus the distance and similarity scores
+ * computed in the database.
+ */
+public interface DuplicateCandidateRow {
+
+    UUID getId();
+
+    String getName();
+
+    String getCategory();
+
+    String getShortDescription();
+
+    String getThumbnailUrl();
+
+    String getAddress();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    /**
+     * Distance in meters from the checked location
+     */
+    Double getDistance();
+
+    /**
+     * Trigram similarity of the normalized names (0-1)
+     */
+    Double getNameSimilarity();
+
+    /**
+     * Combined ranking score of name similarity and proximity (0-1)
+     */
+    Double getCombinedScore();
+}
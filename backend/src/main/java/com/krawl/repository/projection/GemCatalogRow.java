@@ -0,0 +1,29 @@
+package com.krawl.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a Gem used to build the in-memory gem catalog.
+ * Carries only the columns needed for spatial and popularity lookups.
+ */
+public interface GemCatalogRow {
+
+    UUID getId();
+
+    String getName();
+
+    String getCategory();
+
+    String getStatus();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getThumbnailUrl();
+
+    /**
+     * Gem Score: (vouches × 1) + (krawl_inclusions × 5)
+     */
+    Long getScore();
+}
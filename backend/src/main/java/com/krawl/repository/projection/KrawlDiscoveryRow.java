@@ -0,0 +1,40 @@
+package com.krawl.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Projection of a Krawl summary returned by the spatial discovery queries.
+ */
+public interface KrawlDiscoveryRow {
+
+    UUID getKrawlId();
+
+    String getName();
+
+    String getDescription();
+
+    String getCategory();
+
+    String getDifficulty();
+
+    String getCoverImage();
+
+    Integer getEstimatedDurationMinutes();
+
+    Integer getGemCount();
+
+    Double getStartLatitude();
+
+    Double getStartLongitude();
+
+    Integer getRatingCount();
+
+    Double getAverageRating();
+
+    Integer getVouchCount();
+
+    /**
+     * Distance in meters from the query point to the start (nearby lookups only)
+     */
+    Double getDistanceMeters();
+}
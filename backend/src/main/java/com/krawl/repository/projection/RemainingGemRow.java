@@ -0,0 +1,15 @@
+package com.krawl.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Projection of a gem not yet reached in a Krawl Mode session.
+ */
+public interface RemainingGemRow {
+
+    UUID getGemId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
@@ -11,6 +11,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -82,6 +83,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // Validate token and extract claims in one call
                     log.debug("Validating JWT token for request: {}", requestUri);
                     Claims claims = jwtTokenService.validateToken(jwt);
+                    if (jwtTokenService.isStreamTicket(claims)) {
+                        // Stream tickets only open the session stream they were issued for
+                        throw new AuthException("Stream ticket used as access token", HttpStatus.UNAUTHORIZED);
+                    }
                     String userId = claims.getSubject();
                     log.debug("JWT token validated successfully for user: {}", userId);
                     
@@ -18,10 +18,10 @@ import org.springframework.stereotype.Service;
 public class BoundaryValidationService {
 
     // Cebu City boundary coordinates (from OpenStreetMap)
-    private static final double MIN_LONGITUDE = 123.7533688;
-    private static final double MAX_LONGITUDE = 123.9302169;
-    private static final double MIN_LATITUDE = 10.2463015;
-    private static final double MAX_LATITUDE = 10.4957531;
+    public static final double MIN_LONGITUDE = 123.7533688;
+    public static final double MAX_LONGITUDE = 123.9302169;
+    public static final double MIN_LATITUDE = 10.2463015;
+    public static final double MAX_LATITUDE = 10.4957531;
 
     /**
      * Validate if coordinates are within Cebu City boundaries.
@@ -1,23 +1,28 @@
 package com.krawl.service;
 
 import com.krawl.dto.response.DuplicateCheckResponse;
-import com.krawl.entity.Gem;
 import com.krawl.repository.GemRepository;
+import com.krawl.repository.projection.DuplicateCandidateRow;
+import com.krawl.util.StringSimilarityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 /**
- * Service for detecting duplicate Gems using PostGIS spatial queries and Levenshtein distance.
+ * Service for detecting duplicate Gems using a set-based spatial and trigram query.
  * 
  * Algorithm:
- * 1. Use PostGIS ST_DWithin to find Gems within 50 meters
- * 2. Calculate Levenshtein distance for name similarity
- * 3. Return duplicate if similarity >= 80% (0.8)
+ * 1. Fetch the top candidates within 50 meters in one query, ranked by
+ *    pg_trgm name similarity and proximity
+ * 2. Return duplicate if trigram similarity >= 80% (0.8)
+ * 3. Borderline candidates are settled with a bounded Levenshtein check (>= 80%)
+ *
+ * The query always runs: the in-memory gem catalog lags behind recent submissions and
+ * holds only verified Gems, so it cannot rule out a duplicate. ST_DWithin on the spatial
+ * index keeps the query cheap when nothing is nearby.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,8 +30,10 @@ import java.util.List;
 public class DuplicateDetectionService {
 
     private final GemRepository gemRepository;
-    private static final double DUPLICATE_DISTANCE_METERS = 50.0;
-    private static final double SIMILARITY_THRESHOLD = 0.8; // 80%
+    static final double DUPLICATE_DISTANCE_METERS = 50.0;
+    static final double SIMILARITY_THRESHOLD = 0.8; // 80%
+    private static final double BORDERLINE_SIMILARITY = 0.2; // Below this, trigram overlap rules out a match
+    private static final int MAX_CANDIDATES = 5;
 
     /**
      * Check for duplicate Gems at the given location with the given name.
@@ -40,50 +47,35 @@ public class DuplicateDetectionService {
     public DuplicateCheckResponse checkForDuplicates(String name, Double latitude, Double longitude) {
         log.debug("Checking for duplicates: name={}, lat={}, lng={}", name, latitude, longitude);
 
-        // Find Gems within 50 meters using PostGIS ST_DWithin
-        List<Object[]> nearbyGems = gemRepository.findGemsWithinDistance(latitude, longitude, DUPLICATE_DISTANCE_METERS);
+        String normalizedName = normalizeName(name);
+        List<DuplicateCandidateRow> candidates = gemRepository.findDuplicateCandidates(
+                normalizedName, latitude, longitude, DUPLICATE_DISTANCE_METERS, MAX_CANDIDATES);
 
-        if (nearbyGems.isEmpty()) {
+        if (candidates.isEmpty()) {
             log.debug("No Gems found within {} meters", DUPLICATE_DISTANCE_METERS);
-            return DuplicateCheckResponse.builder()
-                    .isDuplicate(false)
-                    .build();
+            return notDuplicate();
         }
 
-        // Calculate similarity for each nearby Gem
-        LevenshteinDistance levenshteinDistance = new LevenshteinDistance();
-        String normalizedName = normalizeName(name);
-
-        for (Object[] row : nearbyGems) {
-            Gem gem = (Gem) row[0];
-            Double distance = (Double) row[1]; // Distance in meters
-
-            String existingName = normalizeName(gem.getName());
-            int distanceValue = levenshteinDistance.apply(normalizedName, existingName);
-            int maxLength = Math.max(normalizedName.length(), existingName.length());
-
-            if (maxLength == 0) {
-                continue; // Skip empty names
-            }
-
-            double similarity = 1.0 - ((double) distanceValue / maxLength);
+        for (DuplicateCandidateRow candidate : candidates) {
+            double similarity = resolveSimilarity(normalizedName, candidate);
 
-            log.debug("Gem {}: distance={}m, similarity={}", gem.getId(), distance, similarity);
+            log.debug("Gem {}: distance={}m, trigram={}, similarity={}", candidate.getId(),
+                    candidate.getDistance(), candidate.getNameSimilarity(), similarity);
 
             if (similarity >= SIMILARITY_THRESHOLD) {
-                log.info("Duplicate found: Gem {} (distance={}m, similarity={})", gem.getId(), distance, similarity);
+                log.info("Duplicate found: Gem {} (distance={}m, similarity={})",
+                        candidate.getId(), candidate.getDistance(), similarity);
 
-                // Build response with existing Gem details
                 DuplicateCheckResponse.DuplicateGemData existingGem = DuplicateCheckResponse.DuplicateGemData.builder()
-                        .id(gem.getId().toString())
-                        .name(gem.getName())
-                        .category(gem.getCategory())
-                        .shortDescription(gem.getShortDescription())
-                        .thumbnailUrl(gem.getThumbnailUrl())
-                        .distance(distance)
+                        .id(candidate.getId().toString())
+                        .name(candidate.getName())
+                        .category(candidate.getCategory())
+                        .shortDescription(candidate.getShortDescription())
+                        .thumbnailUrl(candidate.getThumbnailUrl())
+                        .distance(candidate.getDistance())
                         .similarity(similarity)
-                        .coordinates(new Double[]{gem.getLongitude(), gem.getLatitude()})
-                        .address(gem.getAddress())
+                        .coordinates(new Double[]{candidate.getLongitude(), candidate.getLatitude()})
+                        .address(candidate.getAddress())
                         .build();
 
                 return DuplicateCheckResponse.builder()
@@ -94,6 +86,36 @@ public class DuplicateDetectionService {
         }
 
         log.debug("No duplicates found (similarity < {})", SIMILARITY_THRESHOLD);
+        return notDuplicate();
+    }
+
+    /**
+     * Resolve the name similarity for a candidate.
+     * Trigram similarity from the database decides clear matches and clear misses;
+     * only borderline candidates pay for a Levenshtein comparison, which is bounded
+     * so it exits early once the edit distance can no longer reach the threshold.
+     */
+    private double resolveSimilarity(String normalizedName, DuplicateCandidateRow candidate) {
+        double trigramSimilarity = candidate.getNameSimilarity() != null ? candidate.getNameSimilarity() : 0.0;
+        if (trigramSimilarity >= SIMILARITY_THRESHOLD || trigramSimilarity < BORDERLINE_SIMILARITY) {
+            return trigramSimilarity;
+        }
+
+        double levenshteinSimilarity = StringSimilarityUtils.boundedLevenshteinSimilarity(
+                normalizedName, normalizeName(candidate.getName()), SIMILARITY_THRESHOLD);
+        return Math.max(trigramSimilarity, levenshteinSimilarity);
+    }
+
+    /**
+     * Combined ranking score of name similarity (70%) and proximity (30%).
+     * Matches the ranking used by {@link GemRepository#findDuplicateCandidates}.
+     */
+    static double combinedScore(double nameSimilarity, double distanceMeters) {
+        double proximity = 1.0 - Math.min(distanceMeters / DUPLICATE_DISTANCE_METERS, 1.0);
+        return nameSimilarity * 0.7 + proximity * 0.3;
+    }
+
+    private DuplicateCheckResponse notDuplicate() {
         return DuplicateCheckResponse.builder()
                 .isDuplicate(false)
                 .build();
@@ -109,4 +131,3 @@ public class DuplicateDetectionService {
         return name.toLowerCase().trim();
     }
 }
-
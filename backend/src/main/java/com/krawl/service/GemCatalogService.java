@@ -0,0 +1,666 @@
+package com.krawl.service;
+
+import com.krawl.constants.GemCategoryConstants;
+import com.krawl.dto.response.CatalogGemResponse;
+import com.krawl.entity.Gem;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.projection.GemCatalogRow;
+import com.krawl.util.GeoUtils;
+import com.krawl.util.TransactionUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Read-optimized, in-memory catalog of every Gem.
+ *
+ * The catalog is bounded to Cebu City (see {@link BoundaryValidationService}),
+ * so all Gems fit comfortably in memory. Gems are stored column-wise in primitive
+ * arrays and indexed by a uniform grid over the city bounds, so nearby, bounding box,
+ * duplicate-candidate and popular-by-category lookups need no database round trip
+ * and allocate no entities.
+ *
+ * Snapshots are immutable once published. Writers build a new snapshot (copy-on-write)
+ * and swap it in, so readers never lock. Building a snapshot is O(number of Gems), so
+ * writes are not applied one by one: they are queued after commit and applied in one
+ * batch per patch interval.
+ *
+ * Public lookups (nearby, bounding box, popular) return VERIFIED Gems only; duplicate
+ * detection sees every status.
+ *
+ * Lifecycle:
+ * - Rebuilt from the database at startup and on a fixed interval (reconciles krawl inclusions)
+ * - Patched in batches ({@code krawl.catalog.patch-interval-ms}) after a Gem is created,
+ *   updated, or vouched; patches applied while a rebuild reads the database are replayed
+ *   onto the rebuilt snapshot
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GemCatalogService {
+
+    // Grid cell size in degrees (~275 m at Cebu City's latitude)
+    static final double CELL_SIZE_DEGREES = 0.0025;
+    static final int GRID_COLUMNS = (int) Math.ceil(
+            (BoundaryValidationService.MAX_LONGITUDE - BoundaryValidationService.MIN_LONGITUDE) / CELL_SIZE_DEGREES);
+    static final int GRID_ROWS = (int) Math.ceil(
+            (BoundaryValidationService.MAX_LATITUDE - BoundaryValidationService.MIN_LATITUDE) / CELL_SIZE_DEGREES);
+
+    private static final byte UNKNOWN_CATEGORY = -1;
+    private static final Gem.GemStatus[] STATUSES = Gem.GemStatus.values();
+
+    private final GemRepository gemRepository;
+
+    private final Object writeLock = new Object();
+    private final Queue<Patch> pendingPatches = new ConcurrentLinkedQueue<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded = false;
+    private List<Patch> rebuildJournal; // Guarded by writeLock; non-null while a rebuild reads the database
+
+    /**
+     * Build the catalog once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuild the catalog to reconcile scores and any missed patches.
+     */
+    @Scheduled(
+            fixedDelayString = "${krawl.catalog.refresh-interval-ms:600000}",
+            initialDelayString = "${krawl.catalog.refresh-interval-ms:600000}")
+    public void scheduledRefresh() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the catalog from the database.
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            rebuildJournal = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            List<GemCatalogRow> rows = gemRepository.findCatalogRows();
+
+            synchronized (writeLock) {
+                // Patches applied during the read may be missing from the rows: replay them.
+                // Upserts are idempotent; a vouch committed just before the read can be counted
+                // twice until the next rebuild.
+                List<Patch> journal = drainPending(rebuildJournal);
+                Columns columns = new Columns(rows.size() + journal.size());
+                for (GemCatalogRow row : rows) {
+                    columns.set(columns.size++, row.getId(), row.getName(), row.getCategory(),
+                            parseStatus(row.getStatus()), row.getLatitude(), row.getLongitude(),
+                            row.getThumbnailUrl(), row.getScore() != null ? row.getScore().intValue() : 0);
+                }
+                Map<UUID, Integer> slotById = slotIndex(columns);
+                journal.forEach(patch -> patch.applyTo(columns, slotById));
+                snapshot = new Snapshot(columns);
+                loaded = true;
+            }
+            log.info("Gem catalog rebuilt: {} gems in {} ms", snapshot.columns.size, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to rebuild gem catalog", e);
+        } finally {
+            synchronized (writeLock) {
+                rebuildJournal = null;
+            }
+        }
+    }
+
+    /**
+     * Whether the catalog has been loaded from the database at least once.
+     * Callers should fall back to the database when this is false.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Number of Gems currently in the catalog.
+     */
+    public int size() {
+        return snapshot.columns.size;
+    }
+
+    /**
+     * Current published snapshot, for batch jobs in this package that scan the whole catalog.
+     */
+    Snapshot currentSnapshot() {
+        return snapshot;
+    }
+
+    // ==================== PATCHING ====================
+
+    /**
+     * Insert or update a Gem in the catalog once the current transaction commits.
+     * An existing Gem keeps its current score.
+     *
+     * @param gem Saved Gem entity
+     */
+    public void upsert(Gem gem) {
+        if (gem.getId() == null || gem.getLatitude() == null || gem.getLongitude() == null) {
+            return;
+        }
+
+        Patch patch = Patch.upsert(gem.getId(), gem.getName(), gem.getCategory(),
+                gem.getStatus() != null ? gem.getStatus() : Gem.GemStatus.PENDING,
+                gem.getLatitude(), gem.getLongitude(), gem.getThumbnailUrl());
+        TransactionUtils.afterCommit(() -> pendingPatches.offer(patch));
+    }
+
+    /**
+     * Adjust a Gem's score once the current transaction commits (e.g. +1 / -1 for a vouch).
+     *
+     * @param gemId Gem ID
+     * @param delta Score delta
+     */
+    public void adjustScore(UUID gemId, int delta) {
+        TransactionUtils.afterCommit(() -> pendingPatches.offer(Patch.scoreDelta(gemId, delta)));
+    }
+
+    /**
+     * Apply queued patches as one new snapshot.
+     */
+    @Scheduled(fixedDelayString = "${krawl.catalog.patch-interval-ms:1000}")
+    public void applyPendingPatches() {
+        if (pendingPatches.isEmpty()) {
+            return;
+        }
+        int applied;
+        synchronized (writeLock) {
+            List<Patch> batch = drainPending(new ArrayList<>());
+            if (rebuildJournal != null) {
+                rebuildJournal.addAll(batch);
+            }
+            Snapshot current = snapshot;
+            Columns columns = current.columns.copy(current.columns.size + batch.size());
+            Map<UUID, Integer> slotById = new HashMap<>(current.slotById);
+            batch.forEach(patch -> patch.applyTo(columns, slotById));
+            snapshot = new Snapshot(columns);
+            applied = batch.size();
+        }
+        log.debug("Gem catalog patched: {} changes", applied);
+    }
+
+    private List<Patch> drainPending(List<Patch> into) {
+        Patch patch;
+        while ((patch = pendingPatches.poll()) != null) {
+            into.add(patch);
+        }
+        return into;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Find VERIFIED Gems within a radius of a point, nearest first.
+     *
+     * @param latitude Latitude of the query point
+     * @param longitude Longitude of the query point
+     * @param radiusMeters Search radius in meters
+     * @param limit Maximum number of results
+     * @return Gems ordered by distance ascending
+     */
+    public List<CatalogGemResponse> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        Snapshot current = snapshot;
+        Matches matches = current.within(latitude, longitude, radiusMeters);
+        matches.sortByDistance();
+
+        byte verified = (byte) Gem.GemStatus.VERIFIED.ordinal();
+        List<CatalogGemResponse> results = new ArrayList<>(Math.min(limit, matches.size));
+        for (int i = 0; i < matches.size && results.size() < limit; i++) {
+            if (current.columns.statuses[matches.slots[i]] == verified) {
+                results.add(current.toResponse(matches.slots[i], matches.distances[i]));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Find VERIFIED Gems inside a bounding box, highest score first.
+     *
+     * @param minLatitude South edge
+     * @param minLongitude West edge
+     * @param maxLatitude North edge
+     * @param maxLongitude East edge
+     * @param limit Maximum number of results
+     * @return Gems inside the bounding box
+     */
+    public List<CatalogGemResponse> findWithinBounds(double minLatitude, double minLongitude,
+                                                     double maxLatitude, double maxLongitude, int limit) {
+        Snapshot current = snapshot;
+        Columns columns = current.columns;
+
+        int minCol = columnOf(minLongitude);
+        int maxCol = columnOf(maxLongitude);
+        int minRow = rowOf(minLatitude);
+        int maxRow = rowOf(maxLatitude);
+
+        byte verified = (byte) Gem.GemStatus.VERIFIED.ordinal();
+        long[] keys = new long[16];
+        int count = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * GRID_COLUMNS + col;
+                for (int i = current.cellStart[cell]; i < current.cellStart[cell + 1]; i++) {
+                    int slot = current.cellSlots[i];
+                    if (columns.statuses[slot] != verified) {
+                        continue;
+                    }
+                    double lat = columns.latitudes[slot];
+                    double lon = columns.longitudes[slot];
+                    if (lat >= minLatitude && lat <= maxLatitude && lon >= minLongitude && lon <= maxLongitude) {
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, count * 2);
+                        }
+                        keys[count++] = scoreKey(columns.scores[slot], slot);
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(keys, 0, count);
+        int resultCount = Math.min(limit, count);
+        List<CatalogGemResponse> results = new ArrayList<>(resultCount);
+        for (int i = 0; i < resultCount; i++) {
+            results.add(current.toResponse(slotOf(keys[i]), null));
+        }
+        return results;
+    }
+
+    /**
+     * Find the most popular VERIFIED Gems by Gem Score, optionally within a category.
+     *
+     * @param category Category to filter by, or null for all categories
+     * @param limit Maximum number of results
+     * @return Gems ordered by score descending
+     */
+    public List<CatalogGemResponse> findPopular(String category, int limit) {
+        Snapshot current = snapshot;
+        Columns columns = current.columns;
+        byte categoryOrdinal = category != null ? categoryOrdinal(category) : UNKNOWN_CATEGORY;
+        if (category != null && categoryOrdinal == UNKNOWN_CATEGORY) {
+            return List.of();
+        }
+        byte verified = (byte) Gem.GemStatus.VERIFIED.ordinal();
+
+        List<CatalogGemResponse> results = new ArrayList<>(Math.min(limit, columns.size));
+        for (int i = 0; i < columns.size && results.size() < limit; i++) {
+            int slot = current.slotsByScore[i];
+            if (columns.statuses[slot] != verified) {
+                continue;
+            }
+            if (category != null && columns.categories[slot] != categoryOrdinal) {
+                continue;
+            }
+            results.add(current.toResponse(slot, null));
+        }
+        return results;
+    }
+
+    /**
+     * Find duplicate candidates: Gems of any status within a radius of a point, nearest first.
+     *
+     * @param latitude Latitude of the query point
+     * @param longitude Longitude of the query point
+     * @param radiusMeters Search radius in meters
+     * @return Candidates ordered by distance ascending
+     */
+    public List<Candidate> findDuplicateCandidates(double latitude, double longitude, double radiusMeters) {
+        Snapshot current = snapshot;
+        Matches matches = current.within(latitude, longitude, radiusMeters);
+        matches.sortByDistance();
+
+        List<Candidate> candidates = new ArrayList<>(matches.size);
+        for (int i = 0; i < matches.size; i++) {
+            int slot = matches.slots[i];
+            candidates.add(new Candidate(current.columns.idAt(slot), current.columns.names[slot], matches.distances[i]));
+        }
+        return candidates;
+    }
+
+    /**
+     * Check whether any Gem lies within a radius of a point.
+     */
+    public boolean hasGemWithin(double latitude, double longitude, double radiusMeters) {
+        return snapshot.within(latitude, longitude, radiusMeters).size > 0;
+    }
+
+    /**
+     * A nearby Gem that may duplicate a new submission.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Candidate {
+        private final UUID id;
+        private final String name;
+        private final double distanceMeters;
+    }
+
+    // ==================== INTERNALS ====================
+
+    static int columnOf(double longitude) {
+        int col = (int) Math.floor((longitude - BoundaryValidationService.MIN_LONGITUDE) / CELL_SIZE_DEGREES);
+        return Math.max(0, Math.min(GRID_COLUMNS - 1, col));
+    }
+
+    static int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude - BoundaryValidationService.MIN_LATITUDE) / CELL_SIZE_DEGREES);
+        return Math.max(0, Math.min(GRID_ROWS - 1, row));
+    }
+
+    private static byte categoryOrdinal(String category) {
+        int index = category != null ? GemCategoryConstants.VALID_CATEGORIES.indexOf(category) : -1;
+        return (byte) index;
+    }
+
+    private static Gem.GemStatus parseStatus(String status) {
+        if (status == null) {
+            return Gem.GemStatus.PENDING;
+        }
+        try {
+            return Gem.GemStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return Gem.GemStatus.PENDING;
+        }
+    }
+
+    private static Map<UUID, Integer> slotIndex(Columns columns) {
+        Map<UUID, Integer> slotById = new HashMap<>(Math.max(16, columns.size * 2));
+        for (int slot = 0; slot < columns.size; slot++) {
+            slotById.put(columns.idAt(slot), slot);
+        }
+        return slotById;
+    }
+
+    /**
+     * Packs (score desc, slot) into a sortable long: ascending order yields highest score first.
+     */
+    private static long scoreKey(int score, int slot) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | slot;
+    }
+
+    private static int slotOf(long key) {
+        return (int) (key & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Column storage. Mutable only while a writer is building a new snapshot.
+     */
+    static final class Columns {
+        int size;
+        long[] idMostSig;
+        long[] idLeastSig;
+        double[] latitudes;
+        double[] longitudes;
+        byte[] categories;
+        byte[] statuses;
+        int[] scores;
+        String[] names;
+        String[] normalizedNames;
+        String[] thumbnailUrls;
+
+        Columns(int capacity) {
+            idMostSig = new long[capacity];
+            idLeastSig = new long[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            categories = new byte[capacity];
+            statuses = new byte[capacity];
+            scores = new int[capacity];
+            names = new String[capacity];
+            normalizedNames = new String[capacity];
+            thumbnailUrls = new String[capacity];
+        }
+
+        Columns copy(int capacity) {
+            Columns copy = new Columns(0);
+            copy.size = size;
+            copy.idMostSig = Arrays.copyOf(idMostSig, capacity);
+            copy.idLeastSig = Arrays.copyOf(idLeastSig, capacity);
+            copy.latitudes = Arrays.copyOf(latitudes, capacity);
+            copy.longitudes = Arrays.copyOf(longitudes, capacity);
+            copy.categories = Arrays.copyOf(categories, capacity);
+            copy.statuses = Arrays.copyOf(statuses, capacity);
+            copy.scores = Arrays.copyOf(scores, capacity);
+            copy.names = Arrays.copyOf(names, capacity);
+            copy.normalizedNames = Arrays.copyOf(normalizedNames, capacity);
+            copy.thumbnailUrls = Arrays.copyOf(thumbnailUrls, capacity);
+            return copy;
+        }
+
+        void set(int slot, UUID id, String name, String category, Gem.GemStatus status,
+                 double latitude, double longitude, String thumbnailUrl, int score) {
+            idMostSig[slot] = id.getMostSignificantBits();
+            idLeastSig[slot] = id.getLeastSignificantBits();
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+            categories[slot] = categoryOrdinal(category);
+            statuses[slot] = (byte) status.ordinal();
+            scores[slot] = score;
+            names[slot] = name;
+            normalizedNames[slot] = name != null ? name.toLowerCase().trim() : "";
+            thumbnailUrls[slot] = thumbnailUrl;
+        }
+
+        UUID idAt(int slot) {
+            return new UUID(idMostSig[slot], idLeastSig[slot]);
+        }
+    }
+
+    /**
+     * A queued change to one Gem: an upsert (score kept) or a score delta.
+     */
+    @AllArgsConstructor
+    private static final class Patch {
+        private final UUID id;
+        private final String name;
+        private final String category;
+        private final Gem.GemStatus status; // Null for a score delta
+        private final double latitude;
+        private final double longitude;
+        private final String thumbnailUrl;
+        private final int scoreDelta;
+
+        static Patch upsert(UUID id, String name, String category, Gem.GemStatus status,
+                            double latitude, double longitude, String thumbnailUrl) {
+            return new Patch(id, name, category, status, latitude, longitude, thumbnailUrl, 0);
+        }
+
+        static Patch scoreDelta(UUID id, int delta) {
+            return new Patch(id, null, null, null, 0, 0, null, delta);
+        }
+
+        /**
+         * Apply to columns with spare capacity, keeping slotById in step.
+         */
+        void applyTo(Columns columns, Map<UUID, Integer> slotById) {
+            Integer slot = slotById.get(id);
+            if (status == null) {
+                if (slot != null) {
+                    columns.scores[slot] = Math.max(0, columns.scores[slot] + scoreDelta);
+                }
+                return;
+            }
+            if (slot == null) {
+                slot = columns.size++;
+                slotById.put(id, slot);
+                columns.set(slot, id, name, category, status, latitude, longitude, thumbnailUrl, 0);
+            } else {
+                columns.set(slot, id, name, category, status, latitude, longitude, thumbnailUrl, columns.scores[slot]);
+            }
+        }
+    }
+
+    /**
+     * Immutable published view: columns plus derived grid and score indexes.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Columns(0));
+
+        final Columns columns;
+        // Grid index in compressed-row form: slots of cell c are cellSlots[cellStart[c] .. cellStart[c + 1])
+        final int[] cellStart;
+        final int[] cellSlots;
+        final int[] slotsByScore;
+        final Map<UUID, Integer> slotById;
+
+        Snapshot(Columns columns) {
+            this.columns = columns;
+            int size = columns.size;
+            int cellCount = GRID_COLUMNS * GRID_ROWS;
+
+            int[] cellOfSlot = new int[size];
+            int[] start = new int[cellCount + 1];
+            for (int slot = 0; slot < size; slot++) {
+                int cell = rowOf(columns.latitudes[slot]) * GRID_COLUMNS + columnOf(columns.longitudes[slot]);
+                cellOfSlot[slot] = cell;
+                start[cell + 1]++;
+            }
+            for (int cell = 0; cell < cellCount; cell++) {
+                start[cell + 1] += start[cell];
+            }
+            int[] fill = Arrays.copyOf(start, cellCount);
+            int[] slots = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                slots[fill[cellOfSlot[slot]]++] = slot;
+            }
+            this.cellStart = start;
+            this.cellSlots = slots;
+
+            long[] keys = new long[size];
+            for (int slot = 0; slot < size; slot++) {
+                keys[slot] = scoreKey(columns.scores[slot], slot);
+            }
+            Arrays.sort(keys);
+            this.slotsByScore = new int[size];
+            for (int i = 0; i < size; i++) {
+                slotsByScore[i] = slotOf(keys[i]);
+            }
+
+            this.slotById = slotIndex(columns);
+        }
+
+        Matches within(double latitude, double longitude, double radiusMeters) {
+            double deltaLat = GeoUtils.metersToLatDegrees(radiusMeters);
+            double deltaLon = GeoUtils.metersToLonDegrees(radiusMeters, latitude);
+            int minCol = columnOf(longitude - deltaLon);
+            int maxCol = columnOf(longitude + deltaLon);
+            int minRow = rowOf(latitude - deltaLat);
+            int maxRow = rowOf(latitude + deltaLat);
+
+            Matches matches = new Matches();
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    int cell = row * GRID_COLUMNS + col;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int slot = cellSlots[i];
+                        double lat = columns.latitudes[slot];
+                        double lon = columns.longitudes[slot];
+                        // Cheap bounding check before the exact distance
+                        if (Math.abs(lat - latitude) > deltaLat || Math.abs(lon - longitude) > deltaLon) {
+                            continue;
+                        }
+                        double distance = GeoUtils.haversineMeters(latitude, longitude, lat, lon);
+                        if (distance <= radiusMeters) {
+                            matches.add(slot, distance);
+                        }
+                    }
+                }
+            }
+            return matches;
+        }
+
+        CatalogGemResponse toResponse(int slot, Double distanceMeters) {
+            byte category = columns.categories[slot];
+            return CatalogGemResponse.builder()
+                    .id(columns.idAt(slot).toString())
+                    .name(columns.names[slot])
+                    .category(category >= 0 ? GemCategoryConstants.VALID_CATEGORIES.get(category) : null)
+                    .status(STATUSES[columns.statuses[slot]].name())
+                    .latitude(columns.latitudes[slot])
+                    .longitude(columns.longitudes[slot])
+                    .thumbnailUrl(columns.thumbnailUrls[slot])
+                    .score(columns.scores[slot])
+                    .distanceMeters(distanceMeters)
+                    .build();
+        }
+    }
+
+    /**
+     * Growable (slot, distance) result buffer.
+     */
+    static final class Matches {
+        int size;
+        int[] slots = new int[8];
+        double[] distances = new double[8];
+
+        void add(int slot, double distance) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            slots[size] = slot;
+            distances[size] = distance;
+            size++;
+        }
+
+        void sortByDistance() {
+            if (size > 32) {
+                sortLarge();
+                return;
+            }
+            // Insertion sort: result sets from a radius lookup are usually small
+            for (int i = 1; i < size; i++) {
+                int slot = slots[i];
+                double distance = distances[i];
+                int j = i - 1;
+                while (j >= 0 && distances[j] > distance) {
+                    slots[j + 1] = slots[j];
+                    distances[j + 1] = distances[j];
+                    j--;
+                }
+                slots[j + 1] = slot;
+                distances[j + 1] = distance;
+            }
+        }
+
+        private void sortLarge() {
+            // Pack (distance in centimeters, match index) into longs and sort primitively
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (Math.round(distances[i] * 100) << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            int[] sortedSlots = new int[slots.length];
+            double[] sortedDistances = new double[distances.length];
+            for (int i = 0; i < size; i++) {
+                int index = (int) (keys[i] & 0xFFFFFFFFL);
+                sortedSlots[i] = slots[index];
+                sortedDistances[i] = distances[index];
+            }
+            slots = sortedSlots;
+            distances = sortedDistances;
+        }
+    }
+}
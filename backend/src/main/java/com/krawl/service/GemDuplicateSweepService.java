@@ -0,0 +1,317 @@
+package com.krawl.service;
+
+import com.krawl.entity.GemDuplicatePair;
+import com.krawl.entity.JobWatermark;
+import com.krawl.repository.GemDuplicatePairRepository;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.JobWatermarkRepository;
+import com.krawl.util.GeoUtils;
+import com.krawl.util.StringSimilarityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Background sweep that finds near-duplicate Gems across the whole catalog.
+ *
+ * Duplicate checks at creation time only compare a new Gem against what exists at
+ * that moment, so duplicates that slipped in earlier are never revisited. This job
+ * scans the in-memory gem catalog grid, comparing each cell only with itself and its
+ * eight neighbours (cells are wider than the duplicate radius), and scores names in
+ * parallel on the fork-join pool. Likely pairs are written to gem_duplicate_pairs,
+ * ranked by score for moderators.
+ *
+ * The first run ever sweeps every cell. Later runs only re-check cells containing Gems
+ * created or updated since the previous run, whose start is kept in job_watermarks so it
+ * survives restarts and is shared by all nodes. A run holds the watermark row locked, so
+ * when several nodes fire at once only one sweeps. Moderator decisions (DISMISSED /
+ * MERGED) are preserved across runs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GemDuplicateSweepService {
+
+    // Pairs below the duplicate threshold are still reported so moderators see near misses
+    static final double REPORT_SIMILARITY_THRESHOLD = 0.6;
+    static final String JOB_NAME = "gem-duplicate-sweep";
+    private static final int CELLS_PER_TASK = 64;
+    private static final int ID_BATCH_SIZE = 1000;
+
+    private final GemCatalogService gemCatalogService;
+    private final GemRepository gemRepository;
+    private final GemDuplicatePairRepository gemDuplicatePairRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+
+    // Gems updated on other nodes reach this node's catalog on its next refresh,
+    // so incremental runs look back one refresh interval past the previous run.
+    @Value("${krawl.catalog.refresh-interval-ms:600000}")
+    private long catalogRefreshIntervalMs;
+
+    /**
+     * Run the duplicate sweep on a fixed interval.
+     * The first run is a full sweep; later runs are incremental. Skipped while another
+     * node is sweeping.
+     */
+    @Scheduled(
+            fixedDelayString = "${krawl.duplicate-sweep.interval-ms:3600000}",
+            initialDelayString = "${krawl.duplicate-sweep.initial-delay-ms:300000}")
+    @Transactional
+    public void sweep() {
+        if (!gemCatalogService.isLoaded()) {
+            log.debug("Skipping duplicate sweep: gem catalog not loaded");
+            return;
+        }
+
+        JobWatermark watermark = jobWatermarkRepository.lockForRun(JOB_NAME).orElse(null);
+        if (watermark == null) {
+            log.debug("Skipping duplicate sweep: running on another node");
+            return;
+        }
+
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = watermark.getLastStartedAt();
+        boolean full = since == null;
+
+        GemCatalogService.Snapshot snapshot = gemCatalogService.currentSnapshot();
+        BitSet scanCells = full
+                ? allCells()
+                : dirtyCellsSince(since.minusNanos(catalogRefreshIntervalMs * 1_000_000));
+
+        if (scanCells.isEmpty()) {
+            watermark.setLastStartedAt(startedAt);
+            log.debug("Duplicate sweep: no cells changed since {}", since);
+            return;
+        }
+
+        List<PairMatch> matches = findPairs(snapshot, scanCells);
+        int written = writeReport(snapshot, scanCells, matches, full);
+        watermark.setLastStartedAt(startedAt); // Written on commit with the report
+
+        log.info("Duplicate sweep ({}): {} cells, {} gems, {} pairs written in {} ms",
+                full ? "full" : "incremental", scanCells.cardinality(), snapshot.columns.size,
+                written, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Find likely duplicate pairs with at least one Gem in a scanned cell.
+     */
+    List<PairMatch> findPairs(GemCatalogService.Snapshot snapshot, BitSet scanCells) {
+        int[] cells = scanCells.stream().toArray();
+        return ForkJoinPool.commonPool().invoke(new CellRangeTask(snapshot, scanCells, cells, 0, cells.length));
+    }
+
+    private BitSet allCells() {
+        BitSet cells = new BitSet(GemCatalogService.GRID_COLUMNS * GemCatalogService.GRID_ROWS);
+        cells.set(0, GemCatalogService.GRID_COLUMNS * GemCatalogService.GRID_ROWS);
+        return cells;
+    }
+
+    private BitSet dirtyCellsSince(LocalDateTime since) {
+        BitSet cells = new BitSet(GemCatalogService.GRID_COLUMNS * GemCatalogService.GRID_ROWS);
+        for (Object[] row : gemRepository.findLocationsUpdatedSince(since)) {
+            double latitude = ((Number) row[0]).doubleValue();
+            double longitude = ((Number) row[1]).doubleValue();
+            cells.set(GemCatalogService.rowOf(latitude) * GemCatalogService.GRID_COLUMNS
+                    + GemCatalogService.columnOf(longitude));
+        }
+        return cells;
+    }
+
+    /**
+     * Replace the report rows for every Gem in the scanned cells with the new matches.
+     * Open pairs that no longer match are removed; moderator decisions are kept.
+     *
+     * @return Number of pairs inserted or updated
+     */
+    private int writeReport(GemCatalogService.Snapshot snapshot, BitSet scanCells,
+                            List<PairMatch> matches, boolean full) {
+        GemCatalogService.Columns columns = snapshot.columns;
+
+        List<GemDuplicatePair> existing;
+        if (full) {
+            existing = gemDuplicatePairRepository.findAll();
+        } else {
+            List<UUID> scannedGemIds = new ArrayList<>();
+            for (int cell = scanCells.nextSetBit(0); cell >= 0; cell = scanCells.nextSetBit(cell + 1)) {
+                for (int i = snapshot.cellStart[cell]; i < snapshot.cellStart[cell + 1]; i++) {
+                    scannedGemIds.add(columns.idAt(snapshot.cellSlots[i]));
+                }
+            }
+            existing = new ArrayList<>();
+            Set<UUID> seen = new HashSet<>();
+            for (int from = 0; from < scannedGemIds.size(); from += ID_BATCH_SIZE) {
+                List<UUID> batch = scannedGemIds.subList(from, Math.min(from + ID_BATCH_SIZE, scannedGemIds.size()));
+                for (GemDuplicatePair pair : gemDuplicatePairRepository.findByGemIds(batch)) {
+                    if (seen.add(pair.getId())) {
+                        existing.add(pair);
+                    }
+                }
+            }
+        }
+
+        Map<String, GemDuplicatePair> existingByKey = new HashMap<>(Math.max(16, existing.size() * 2));
+        for (GemDuplicatePair pair : existing) {
+            existingByKey.put(pairKey(pair.getGemA().getId(), pair.getGemB().getId()), pair);
+        }
+
+        List<GemDuplicatePair> toSave = new ArrayList<>(matches.size());
+        for (PairMatch match : matches) {
+            UUID first = columns.idAt(match.slotA);
+            UUID second = columns.idAt(match.slotB);
+            // Stored once, ordered the way PostgreSQL orders UUIDs
+            boolean ordered = first.toString().compareTo(second.toString()) < 0;
+            UUID gemAId = ordered ? first : second;
+            UUID gemBId = ordered ? second : first;
+
+            GemDuplicatePair pair = existingByKey.remove(pairKey(gemAId, gemBId));
+            if (pair == null) {
+                pair = GemDuplicatePair.builder()
+                        .gemA(gemRepository.getReferenceById(gemAId))
+                        .gemB(gemRepository.getReferenceById(gemBId))
+                        .build();
+            }
+            pair.setDistanceMeters(match.distanceMeters);
+            pair.setNameSimilarity(match.similarity);
+            pair.setScore(DuplicateDetectionService.combinedScore(match.similarity, match.distanceMeters));
+            toSave.add(pair);
+        }
+
+        // Whatever is left no longer matches
+        List<GemDuplicatePair> stale = existingByKey.values().stream()
+                .filter(pair -> pair.getStatus() == GemDuplicatePair.PairStatus.OPEN)
+                .toList();
+
+        gemDuplicatePairRepository.deleteAll(stale);
+        gemDuplicatePairRepository.saveAll(toSave);
+        return toSave.size();
+    }
+
+    private static String pairKey(UUID gemAId, UUID gemBId) {
+        return gemAId + ":" + gemBId;
+    }
+
+    /**
+     * A likely duplicate pair, by catalog slot.
+     */
+    static final class PairMatch {
+        final int slotA;
+        final int slotB;
+        final double distanceMeters;
+        final double similarity;
+
+        PairMatch(int slotA, int slotB, double distanceMeters, double similarity) {
+            this.slotA = slotA;
+            this.slotB = slotB;
+            this.distanceMeters = distanceMeters;
+            this.similarity = similarity;
+        }
+    }
+
+    /**
+     * Fork-join task over a range of scanned cells.
+     */
+    private static final class CellRangeTask extends RecursiveTask<List<PairMatch>> {
+        private final GemCatalogService.Snapshot snapshot;
+        private final BitSet scanCells;
+        private final int[] cells;
+        private final int from;
+        private final int to;
+
+        CellRangeTask(GemCatalogService.Snapshot snapshot, BitSet scanCells, int[] cells, int from, int to) {
+            this.snapshot = snapshot;
+            this.scanCells = scanCells;
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<PairMatch> compute() {
+            if (to - from <= CELLS_PER_TASK) {
+                List<PairMatch> matches = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    scanCell(cells[i], matches);
+                }
+                return matches;
+            }
+
+            int mid = (from + to) >>> 1;
+            CellRangeTask left = new CellRangeTask(snapshot, scanCells, cells, from, mid);
+            left.fork();
+            List<PairMatch> matches = new CellRangeTask(snapshot, scanCells, cells, mid, to).compute();
+            matches.addAll(left.join());
+            return matches;
+        }
+
+        private void scanCell(int cell, List<PairMatch> matches) {
+            int row = cell / GemCatalogService.GRID_COLUMNS;
+            int col = cell % GemCatalogService.GRID_COLUMNS;
+
+            for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+                if (neighbourRow < 0 || neighbourRow >= GemCatalogService.GRID_ROWS) {
+                    continue;
+                }
+                for (int neighbourCol = col - 1; neighbourCol <= col + 1; neighbourCol++) {
+                    if (neighbourCol < 0 || neighbourCol >= GemCatalogService.GRID_COLUMNS) {
+                        continue;
+                    }
+                    int neighbour = neighbourRow * GemCatalogService.GRID_COLUMNS + neighbourCol;
+                    // A pair of scanned cells is compared once, from the lower cell
+                    if (neighbour < cell && scanCells.get(neighbour)) {
+                        continue;
+                    }
+                    compareCells(cell, neighbour, matches);
+                }
+            }
+        }
+
+        private void compareCells(int cell, int neighbour, List<PairMatch> matches) {
+            GemCatalogService.Columns columns = snapshot.columns;
+            double maxDeltaLat = GeoUtils.metersToLatDegrees(DuplicateDetectionService.DUPLICATE_DISTANCE_METERS);
+
+            for (int i = snapshot.cellStart[cell]; i < snapshot.cellStart[cell + 1]; i++) {
+                int slotA = snapshot.cellSlots[i];
+                double latA = columns.latitudes[slotA];
+                double lonA = columns.longitudes[slotA];
+                String nameA = columns.normalizedNames[slotA];
+
+                int j = neighbour == cell ? i + 1 : snapshot.cellStart[neighbour];
+                for (; j < snapshot.cellStart[neighbour + 1]; j++) {
+                    int slotB = snapshot.cellSlots[j];
+                    double latB = columns.latitudes[slotB];
+                    if (Math.abs(latA - latB) > maxDeltaLat) {
+                        continue;
+                    }
+
+                    double distance = GeoUtils.equirectangularMeters(latA, lonA, latB, columns.longitudes[slotB]);
+                    if (distance > DuplicateDetectionService.DUPLICATE_DISTANCE_METERS) {
+                        continue;
+                    }
+
+                    double similarity = StringSimilarityUtils.boundedLevenshteinSimilarity(
+                            nameA, columns.normalizedNames[slotB], REPORT_SIMILARITY_THRESHOLD);
+                    if (similarity >= REPORT_SIMILARITY_THRESHOLD) {
+                        matches.add(new PairMatch(slotA, slotB, distance, similarity));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -46,6 +46,8 @@ public class GemService {
     private final GemCommentRepository gemCommentRepository;
     private final UserRepository userRepository;
     private final BoundaryValidationService boundaryValidationService;
+    private final GemCatalogService gemCatalogService;
+    private final KrawlSummaryService krawlSummaryService;
 
     /**
      * Get detailed information about a specific gem
@@ -133,6 +135,7 @@ public class GemService {
         }
 
         UUID savedId = Objects.requireNonNull(savedGem.getId());
+        gemCatalogService.upsert(savedGem);
 
         log.info("Gem created: {} by user: {}", savedId, userId);
         return savedId;
@@ -171,6 +174,11 @@ public class GemService {
 
         Gem updatedGem = Objects.requireNonNull(gemRepository.save(gem));
         UUID updatedId = Objects.requireNonNull(updatedGem.getId());
+        gemCatalogService.upsert(updatedGem);
+        if (request.getCoordinates() != null) {
+            // Start point, centroid and bounds of the krawls that include this gem
+            krawlSummaryService.refreshForGem(updatedId);
+        }
 
         log.info("Gem updated: {} by user: {}", updatedId, userId);
         return updatedId;
@@ -322,6 +330,7 @@ public class GemService {
 
         if (existingVouch.isPresent()) {
             vouchRepository.delete(Objects.requireNonNull(existingVouch.get()));
+            gemCatalogService.adjustScore(gemId, -1);
         } else {
             User user = userRepository.findById(Objects.requireNonNull(userId))
                     .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
@@ -330,6 +339,7 @@ public class GemService {
                     .gem(gem)
                     .user(user)
                     .build()));
+            gemCatalogService.adjustScore(gemId, 1);
         }
 
         return gemRepository.countVouchesByGemId(gemId);
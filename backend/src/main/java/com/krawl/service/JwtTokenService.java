@@ -16,10 +16,12 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Service for JWT token generation and validation.
@@ -30,6 +32,7 @@ import java.util.Map;
 public class JwtTokenService {
     
     private static final int MIN_SECRET_LENGTH = 32;
+    private static final String STREAM_TICKET_TYPE = "stream";
     
     @Value("${krawl.security.jwt.secret}")
     private String jwtSecret;
@@ -42,6 +45,9 @@ public class JwtTokenService {
     
     @Value("${krawl.security.jwt.clock-skew-seconds:300}") // 5 minutes
     private long clockSkewSeconds;
+
+    @Value("${krawl.security.jwt.stream-ticket-expiration:60000}") // 1 minute
+    private long streamTicketExpiration;
     
     private SecretKey signingKey;
     
@@ -212,6 +218,59 @@ public class JwtTokenService {
         return buildToken(claims, refreshTokenExpiration);
     }
     
+    /**
+     * Generates a ticket that opens one krawl's session stream for a user.
+     * Browsers' EventSource cannot send an Authorization header, so the ticket travels in
+     * the query string; it is short-lived and accepted nowhere else.
+     *
+     * @param userId User ID (UUID as string)
+     * @param krawlId Krawl whose session stream the ticket opens
+     * @return Stream ticket string
+     */
+    public String generateStreamTicket(String userId, UUID krawlId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", userId);
+        claims.put("type", STREAM_TICKET_TYPE);
+        claims.put("krawl", krawlId.toString());
+
+        return buildToken(claims, streamTicketExpiration);
+    }
+
+    /**
+     * @return Expiration of stream tickets generated now
+     */
+    public Instant streamTicketExpiresAt() {
+        return Instant.now().plusMillis(streamTicketExpiration);
+    }
+
+    /**
+     * Validates a stream ticket for a krawl and returns its claims.
+     *
+     * @param ticket Stream ticket to validate
+     * @param krawlId Krawl whose session stream is being opened
+     * @return Claims from the ticket
+     * @throws AuthException if the ticket is invalid, expired, not a stream ticket or for another krawl
+     */
+    public Claims validateStreamTicket(String ticket, UUID krawlId) {
+        Claims claims = validateToken(ticket);
+
+        if (!STREAM_TICKET_TYPE.equals(claims.get("type", String.class))
+                || !krawlId.toString().equals(claims.get("krawl", String.class))) {
+            log.warn("Token is not a stream ticket for krawl {}", krawlId);
+            throw new AuthException("Invalid stream ticket", HttpStatus.UNAUTHORIZED);
+        }
+
+        return claims;
+    }
+
+    /**
+     * Whether validated claims belong to a stream ticket, which must not authenticate
+     * anything but the session stream it was issued for.
+     */
+    public boolean isStreamTicket(Claims claims) {
+        return STREAM_TICKET_TYPE.equals(claims.get("type", String.class));
+    }
+
     /**
      * Validates a refresh token and returns its claims.
      * 
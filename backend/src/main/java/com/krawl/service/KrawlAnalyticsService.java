@@ -0,0 +1,212 @@
+package com.krawl.service;
+
+import com.krawl.dto.response.KrawlModeAnalyticsResponse;
+import com.krawl.exception.ForbiddenException;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.util.DurationSketch;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Krawl Mode analytics for creators: completion rate, session duration quantiles and
+ * where sessions are abandoned.
+ *
+ * Aggregates are kept per krawl (krawl_mode_stats, krawl_mode_gem_stats) and updated
+ * in the transaction of each session event, so reading them costs the same however many
+ * sessions a krawl has had. Durations go into a fixed-size quantile sketch (DurationSketch)
+ * that is updated with a single array element increment.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KrawlAnalyticsService {
+
+    private static final String SESSION_STARTED_SQL = """
+            INSERT INTO krawl_mode_stats (krawl_id, sessions_started) VALUES (?, 1)
+            ON CONFLICT (krawl_id) DO UPDATE
+            SET sessions_started = krawl_mode_stats.sessions_started + 1, updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String SESSION_COMPLETED_SQL = """
+            UPDATE krawl_mode_stats
+            SET sessions_completed = sessions_completed + 1,
+                duration_buckets[?] = duration_buckets[?] + 1,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE krawl_id = ?
+            """;
+
+    private static final String SESSION_ABANDONED_SQL = """
+            UPDATE krawl_mode_stats
+            SET sessions_abandoned = sessions_abandoned + 1, updated_at = CURRENT_TIMESTAMP
+            WHERE krawl_id = ?
+            """;
+
+    private static final String INSERT_STATS_SQL =
+            "INSERT INTO krawl_mode_stats (krawl_id) VALUES (?) ON CONFLICT (krawl_id) DO NOTHING";
+
+    private static final String GEM_REACHED_SQL = """
+            INSERT INTO krawl_mode_gem_stats (krawl_id, gem_id, reached_count) VALUES (?, ?, 1)
+            ON CONFLICT (krawl_id, gem_id) DO UPDATE
+            SET reached_count = krawl_mode_gem_stats.reached_count + 1
+            """;
+
+    private static final String GEM_DROP_OFF_SQL = """
+            INSERT INTO krawl_mode_gem_stats (krawl_id, gem_id, drop_off_count) VALUES (?, ?, 1)
+            ON CONFLICT (krawl_id, gem_id) DO UPDATE
+            SET drop_off_count = krawl_mode_gem_stats.drop_off_count + 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count a started session. Joins the caller's transaction.
+     */
+    public void sessionStarted(UUID krawlId) {
+        jdbcTemplate.update(SESSION_STARTED_SQL, krawlId);
+    }
+
+    /**
+     * Count a gem reached in a session. Joins the caller's transaction.
+     */
+    public void gemReached(UUID krawlId, UUID gemId) {
+        jdbcTemplate.update(GEM_REACHED_SQL, krawlId, gemId);
+    }
+
+    /**
+     * Count a completed session and add its duration to the sketch. Joins the caller's transaction.
+     */
+    public void sessionCompleted(UUID krawlId, LocalDateTime startedAt, LocalDateTime endedAt) {
+        int bucket = DurationSketch.bucketOf(Duration.between(startedAt, endedAt).toSeconds());
+        updateStats(SESSION_COMPLETED_SQL, krawlId, bucket, bucket, krawlId);
+    }
+
+    /**
+     * Count an abandoned session against the gem it was heading to. Joins the caller's transaction.
+     *
+     * @param krawlId The UUID of the krawl
+     * @param nextGemId First gem in route order not yet reached (null if none)
+     */
+    public void sessionAbandoned(UUID krawlId, UUID nextGemId) {
+        updateStats(SESSION_ABANDONED_SQL, krawlId, krawlId);
+        if (nextGemId != null) {
+            jdbcTemplate.update(GEM_DROP_OFF_SQL, krawlId, nextGemId);
+        }
+    }
+
+    /**
+     * Get Krawl Mode analytics for a krawl.
+     *
+     * @param krawlId The UUID of the krawl
+     * @param userId The UUID of the user asking; must be the krawl's creator
+     * @return KrawlModeAnalyticsResponse with aggregates and the per-gem funnel
+     * @throws ResourceNotFoundException if the krawl is not found
+     * @throws ForbiddenException if the user did not create the krawl
+     */
+    public KrawlModeAnalyticsResponse getAnalytics(UUID krawlId, UUID userId) {
+        log.debug("Getting Krawl Mode analytics for krawlId: {}", krawlId);
+
+        StatsRow stats = jdbcTemplate.query("""
+                        SELECT k.created_by_id, s.sessions_started, s.sessions_completed, s.sessions_abandoned,
+                               s.duration_buckets
+                        FROM krawls k
+                        LEFT JOIN krawl_mode_stats s ON s.krawl_id = k.id
+                        WHERE k.id = ?
+                        """,
+                rs -> rs.next()
+                        ? new StatsRow(rs.getObject("created_by_id", UUID.class),
+                                rs.getLong("sessions_started"), rs.getLong("sessions_completed"),
+                                rs.getLong("sessions_abandoned"), toCounts(rs.getArray("duration_buckets")))
+                        : null,
+                krawlId);
+        if (stats == null) {
+            throw new ResourceNotFoundException("Krawl", "id", krawlId);
+        }
+        if (!stats.creatorId.equals(userId)) {
+            throw new ForbiddenException("You can only view analytics for Krawls that you created");
+        }
+
+        List<KrawlModeAnalyticsResponse.GemAnalytics> gems = jdbcTemplate.query("""
+                        SELECT kg.gem_id, g.name, kg."order",
+                               COALESCE(s.reached_count, 0) AS reached_count,
+                               COALESCE(s.drop_off_count, 0) AS drop_off_count
+                        FROM krawl_gems kg
+                        JOIN gems g ON g.id = kg.gem_id
+                        LEFT JOIN krawl_mode_gem_stats s ON s.krawl_id = kg.krawl_id AND s.gem_id = kg.gem_id
+                        WHERE kg.krawl_id = ?
+                        ORDER BY kg."order"
+                        """,
+                (rs, rowNum) -> KrawlModeAnalyticsResponse.GemAnalytics.builder()
+                        .gemId(rs.getObject("gem_id", UUID.class))
+                        .name(rs.getString("name"))
+                        .order(rs.getInt("order"))
+                        .reachedCount(rs.getLong("reached_count"))
+                        .dropOffCount(rs.getLong("drop_off_count"))
+                        .build(),
+                krawlId);
+
+        long ended = stats.completed + stats.abandoned;
+        UUID topDropOffGemId = gems.stream()
+                .filter(gem -> gem.getDropOffCount() > 0)
+                .max(Comparator.comparingLong(KrawlModeAnalyticsResponse.GemAnalytics::getDropOffCount))
+                .map(KrawlModeAnalyticsResponse.GemAnalytics::getGemId)
+                .orElse(null);
+
+        return KrawlModeAnalyticsResponse.builder()
+                .krawlId(krawlId)
+                .sessionsStarted(stats.started)
+                .sessionsCompleted(stats.completed)
+                .sessionsAbandoned(stats.abandoned)
+                .completionRate(ended > 0 ? (stats.completed * 100.0) / ended : 0.0)
+                .medianDurationMinutes(toMinutes(DurationSketch.quantile(stats.durationCounts, 0.5)))
+                .p90DurationMinutes(toMinutes(DurationSketch.quantile(stats.durationCounts, 0.9)))
+                .topDropOffGemId(topDropOffGemId)
+                .gems(gems)
+                .build();
+    }
+
+    /**
+     * Run an update of the krawl's stats row, creating the row first if the krawl has none yet.
+     */
+    private void updateStats(String sql, UUID krawlId, Object... args) {
+        if (jdbcTemplate.update(sql, args) == 0) {
+            jdbcTemplate.update(INSERT_STATS_SQL, krawlId);
+            jdbcTemplate.update(sql, args);
+        }
+    }
+
+    private static long[] toCounts(Array array) throws SQLException {
+        if (array == null) {
+            return new long[0];
+        }
+        Long[] values = (Long[]) array.getArray();
+        long[] counts = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            counts[i] = values[i] != null ? values[i] : 0;
+        }
+        return counts;
+    }
+
+    private static Double toMinutes(Double seconds) {
+        return seconds != null ? seconds / 60.0 : null;
+    }
+
+    @AllArgsConstructor
+    private static class StatsRow {
+        private final UUID creatorId;
+        private final long started;
+        private final long completed;
+        private final long abandoned;
+        private final long[] durationCounts;
+    }
+}
@@ -0,0 +1,80 @@
+package com.krawl.service;
+
+import com.krawl.entity.KrawlProgress;
+import com.krawl.entity.KrawlSession;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.KrawlProgressRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.service.location.GeofenceArrival;
+import com.krawl.service.session.ActiveSessionRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records gem arrivals detected server-side from the Krawl Mode location stream.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KrawlArrivalService {
+
+    private final KrawlSessionRepository krawlSessionRepository;
+    private final KrawlProgressRepository krawlProgressRepository;
+    private final GemRepository gemRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final KrawlAnalyticsService krawlAnalyticsService;
+
+    /**
+     * Result of recording an arrival.
+     */
+    public enum Outcome {
+        IGNORED,            // Session no longer active: nothing recorded
+        RECORDED,           // The gem's progress is stored (now, or earlier by the client)
+        SESSION_COMPLETED   // Recorded, and it was the last gem
+    }
+
+    /**
+     * Record an automatic arrival and complete the session when it was the last gem.
+     * Arrivals for sessions that have ended are ignored; gems already completed are
+     * left as they are.
+     *
+     * @param arrival Detected arrival
+     * @return Whether the arrival is recorded and whether it completed the session
+     */
+    @Transactional
+    public Outcome recordArrival(GeofenceArrival arrival) {
+        KrawlSession session = krawlSessionRepository.findById(arrival.getSessionId()).orElse(null);
+        if (session == null || !session.isActive()) {
+            log.debug("Ignoring arrival at gem {} for inactive session {}", arrival.getGemId(), arrival.getSessionId());
+            return Outcome.IGNORED;
+        }
+        if (krawlProgressRepository.existsBySessionIdAndGemId(session.getId(), arrival.getGemId())) {
+            return Outcome.RECORDED;
+        }
+
+        KrawlProgress progress = KrawlProgress.builder()
+                .session(session)
+                .gem(gemRepository.getReferenceById(arrival.getGemId()))
+                .distanceToGemMeters(arrival.getDistanceMeters())
+                .arrivalMethod(KrawlProgress.ArrivalMethod.AUTOMATIC)
+                .build();
+        krawlProgressRepository.save(progress);
+        activeSessionRegistry.gemCompleted(session.getId(), arrival.getGemId(),
+                KrawlProgress.ArrivalMethod.AUTOMATIC, arrival.getDistanceMeters());
+        krawlAnalyticsService.gemReached(session.getKrawl().getId(), arrival.getGemId());
+        log.info("Detected arrival at gem {} in session {}", arrival.getGemId(), session.getId());
+
+        long completedCount = krawlProgressRepository.countBySessionId(session.getId());
+        if (completedCount >= session.getKrawl().getGems().size()) {
+            session.complete();
+            krawlSessionRepository.save(session);
+            krawlAnalyticsService.sessionCompleted(session.getKrawl().getId(), session.getStartedAt(), session.getEndedAt());
+            activeSessionRegistry.ended(session.getId(), session.getStatus(), session.getEndedAt());
+            log.info("All gems completed, marking session {} as completed", session.getId());
+            return Outcome.SESSION_COMPLETED;
+        }
+        return Outcome.RECORDED;
+    }
+}
@@ -1,6 +1,7 @@
 package com.krawl.service;
 
 import com.krawl.dto.request.CompleteGemRequest;
+import com.krawl.dto.request.SyncSessionRequest;
 import com.krawl.dto.request.UpdateProgressRequest;
 import com.krawl.dto.response.KrawlProgressResponse;
 import com.krawl.dto.response.KrawlSessionResponse;
@@ -8,28 +9,55 @@ import com.krawl.entity.*;
 import com.krawl.exception.AuthException;
 import com.krawl.exception.ResourceNotFoundException;
 import com.krawl.repository.*;
+import com.krawl.service.location.LocationSample;
+import com.krawl.service.session.ActiveSession;
+import com.krawl.service.session.ActiveSessionRegistry;
+import com.krawl.service.session.SessionEventHub;
+import com.krawl.service.session.SessionResponses;
+import com.krawl.service.session.SessionSyncStore;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Krawl Mode sessions: start/stop, progress and gem completion.
+ *
+ * Active session state (gems in route order, which are completed, distance walked) is
+ * served from ActiveSessionRegistry, so reads need no queries. Writes go to the database
+ * first and are applied to the in-memory state when their transaction commits.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KrawlModeService {
 
+    private static final String SYNC_LOCATION = "LOCATION";
+    private static final String SYNC_COMPLETE_GEM = "COMPLETE_GEM";
+
     private final KrawlSessionRepository krawlSessionRepository;
     private final KrawlProgressRepository krawlProgressRepository;
     private final KrawlRepository krawlRepository;
     private final GemRepository gemRepository;
     private final UserRepository userRepository;
+    private final LocationTrackingService locationTrackingService;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final SessionEventHub sessionEventHub;
+    private final SessionSyncStore sessionSyncStore;
+    private final KrawlAnalyticsService krawlAnalyticsService;
 
     /**
      * Start a new Krawl Mode session
@@ -71,9 +99,17 @@ public class KrawlModeService {
         // JPA save() is guaranteed to return non-null per specification
         KrawlSession savedSession = krawlSessionRepository.save(session);
         session = Objects.requireNonNull(savedSession, "Session save failed");
+
+        List<UUID> gemIds = krawl.getGems().stream()
+                .map(krawlGem -> krawlGem.getGem().getId())
+                .collect(Collectors.toList());
+        ActiveSession state = new ActiveSession(session.getId(), krawlId, userId, session.getStartedAt(),
+                0.0, gemIds, List.of());
+        activeSessionRegistry.started(state);
+        krawlAnalyticsService.sessionStarted(krawlId);
         log.info("Created Krawl Mode session: {}", session.getId());
 
-        return buildSessionResponse(session);
+        return SessionResponses.toSessionResponse(state, session.getStatus(), null);
     }
 
     /**
@@ -87,14 +123,16 @@ public class KrawlModeService {
     public KrawlSessionResponse stopSession(@NonNull UUID krawlId, @NonNull UUID userId) {
         log.debug("Stopping Krawl Mode session for krawlId: {}, userId: {}", krawlId, userId);
 
-        KrawlSession session = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
+        KrawlSession session = krawlSessionRepository.findById(state.getSessionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
 
         session.abandon();
         session = krawlSessionRepository.save(session);
+        endSession(state, session);
 
         log.info("Stopped Krawl Mode session: {}", session.getId());
-        return buildSessionResponse(session);
+        return SessionResponses.toSessionResponse(state, session.getStatus(), session.getEndedAt());
     }
 
     /**
@@ -104,14 +142,11 @@ public class KrawlModeService {
      * @param userId The UUID of the user
      * @return KrawlSessionResponse with session information
      */
-    @Transactional(readOnly = true)
     public KrawlSessionResponse getSession(@NonNull UUID krawlId, @NonNull UUID userId) {
         log.debug("Getting Krawl Mode session for krawlId: {}, userId: {}", krawlId, userId);
 
-        KrawlSession session = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
-
-        return buildSessionResponse(session);
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
+        return SessionResponses.toSessionResponse(state, KrawlSession.SessionStatus.ACTIVE, null);
     }
 
     /**
@@ -126,15 +161,15 @@ public class KrawlModeService {
     public KrawlSessionResponse updateProgress(@NonNull UUID krawlId, @NonNull UUID userId, @NonNull UpdateProgressRequest request) {
         log.debug("Updating progress for krawlId: {}, userId: {}", krawlId, userId);
 
-        KrawlSession session = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
 
         if (request.getTotalDistanceMeters() != null) {
-            session.setTotalDistanceMeters(request.getTotalDistanceMeters());
-            session = krawlSessionRepository.save(session);
+            krawlSessionRepository.updateTotalDistance(state.getSessionId(), request.getTotalDistanceMeters());
+            activeSessionRegistry.distanceUpdated(state.getSessionId(), request.getTotalDistanceMeters());
+            state = state.withTotalDistance(request.getTotalDistanceMeters());
         }
 
-        return buildSessionResponse(session);
+        return SessionResponses.toSessionResponse(state, KrawlSession.SessionStatus.ACTIVE, null);
     }
 
     /**
@@ -144,125 +179,220 @@ public class KrawlModeService {
      * @param userId The UUID of the user
      * @param request Complete gem request
      * @return KrawlProgressResponse with updated progress
+     * @throws ResourceNotFoundException if there is no active session or the gem is not part of the krawl
      */
     @Transactional
     @SuppressWarnings("null") // JPA save() is guaranteed to return non-null per specification
     public KrawlProgressResponse completeGem(@NonNull UUID krawlId, @NonNull UUID userId, @NonNull CompleteGemRequest request) {
         log.debug("Completing gem {} for krawlId: {}, userId: {}", request.getGemId(), krawlId, userId);
 
-        KrawlSession session = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
 
-        // Validate gem exists
+        // Validate gem belongs to the krawl
         UUID gemId = Objects.requireNonNull(request.getGemId(), "Gem ID is required");
-        Gem gem = gemRepository.findById(gemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Gem", "id", gemId));
+        if (!state.containsGem(gemId)) {
+            throw new ResourceNotFoundException("Gem", "id", gemId);
+        }
 
         // Check if gem is already completed
-        if (krawlProgressRepository.existsBySessionIdAndGemId(session.getId(), gemId)) {
-            log.debug("Gem {} already completed in session {}", gemId, session.getId());
-        } else {
-            // Create progress entry
-            KrawlProgress.ArrivalMethod arrivalMethod = "MANUAL".equals(request.getArrivalMethod())
-                    ? KrawlProgress.ArrivalMethod.MANUAL
-                    : KrawlProgress.ArrivalMethod.AUTOMATIC;
-
-            KrawlProgress progress = KrawlProgress.builder()
-                    .session(session)
-                    .gem(gem)
-                    .distanceToGemMeters(request.getDistanceToGemMeters())
-                    .arrivalMethod(arrivalMethod)
-                    .build();
-
-            // JPA save() is guaranteed to return non-null per specification
-            KrawlProgress savedProgress = krawlProgressRepository.save(progress);
-            Objects.requireNonNull(savedProgress, "Progress save failed");
-            log.info("Marked gem {} as completed in session {}", gemId, session.getId());
+        if (state.isCompleted(gemId)) {
+            log.debug("Gem {} already completed in session {}", gemId, state.getSessionId());
+            return SessionResponses.toProgressResponse(state);
         }
 
-        // Check if all gems are completed
-        Krawl krawl = session.getKrawl();
-        long completedCount = krawlProgressRepository.countBySessionId(session.getId());
-        int totalGems = krawl.getGems().size();
+        // Create progress entry
+        KrawlProgress.ArrivalMethod arrivalMethod = arrivalMethod(request.getArrivalMethod());
+
+        KrawlProgress progress = KrawlProgress.builder()
+                .session(krawlSessionRepository.getReferenceById(state.getSessionId()))
+                .gem(gemRepository.getReferenceById(gemId))
+                .distanceToGemMeters(request.getDistanceToGemMeters())
+                .arrivalMethod(arrivalMethod)
+                .build();
 
-        if (completedCount >= totalGems) {
+        // JPA save() is guaranteed to return non-null per specification
+        KrawlProgress savedProgress = krawlProgressRepository.save(progress);
+        Objects.requireNonNull(savedProgress, "Progress save failed");
+        activeSessionRegistry.gemCompleted(state.getSessionId(), gemId, arrivalMethod, request.getDistanceToGemMeters());
+        krawlAnalyticsService.gemReached(state.getKrawlId(), gemId);
+        locationTrackingService.gemCompleted(state.getSessionId(), gemId);
+        log.info("Marked gem {} as completed in session {}", gemId, state.getSessionId());
+
+        // Check if all gems are completed
+        state = state.withCompleted(gemId);
+        if (state.isAllCompleted()) {
+            KrawlSession session = krawlSessionRepository.findById(state.getSessionId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
             session.complete();
             krawlSessionRepository.save(session);
+            endSession(state, session);
             log.info("All gems completed, marking session {} as completed", session.getId());
         }
 
-        return buildProgressResponse(session);
+        return SessionResponses.toProgressResponse(state);
     }
 
     /**
-     * Get progress for a session
+     * Apply events recorded while the client was offline, in one transaction.
+     *
+     * Events are identified by client-generated IDs, so a batch resent after a lost
+     * response is applied only once. Completions keep the time they were recorded and
+     * gems already completed are skipped; the last distance update wins. Locations are
+     * written to the trajectory in the same transaction, so an event ID is only ever
+     * recorded as synced together with what it carried.
      *
      * @param krawlId The UUID of the krawl
      * @param userId The UUID of the user
-     * @return KrawlProgressResponse with progress information
+     * @param request Events in the order they were recorded
+     * @return KrawlProgressResponse with the reconciled progress
+     * @throws IllegalArgumentException if an event is incomplete or has invalid coordinates
+     * @throws ResourceNotFoundException if there is no active session or a gem is not part of the krawl
      */
-    @Transactional(readOnly = true)
-    public KrawlProgressResponse getProgress(@NonNull UUID krawlId, @NonNull UUID userId) {
-        log.debug("Getting progress for krawlId: {}, userId: {}", krawlId, userId);
+    @Transactional
+    public KrawlProgressResponse syncSession(@NonNull UUID krawlId, @NonNull UUID userId, @NonNull SyncSessionRequest request) {
+        log.debug("Syncing {} offline events for krawlId: {}, userId: {}", request.getEvents().size(), krawlId, userId);
 
-        KrawlSession session = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
+        UUID sessionId = state.getSessionId();
+
+        // Reject the whole batch before anything is written
+        for (SyncSessionRequest.SyncEvent event : request.getEvents()) {
+            validateSyncEvent(state, event);
+        }
+
+        Set<UUID> newEventIds = new HashSet<>(sessionSyncStore.claimEvents(sessionId, request.getEvents().stream()
+                .map(SyncSessionRequest.SyncEvent::getEventId)
+                .distinct()
+                .collect(Collectors.toList())));
+
+        List<LocationSample> locations = new ArrayList<>();
+        Map<UUID, SessionSyncStore.Completion> completions = new LinkedHashMap<>();
+        Double totalDistanceMeters = null;
+        for (SyncSessionRequest.SyncEvent event : request.getEvents()) {
+            if (!newEventIds.remove(event.getEventId())) {
+                continue; // Synced before, or repeated within this batch
+            }
+            switch (event.getType()) {
+                case SYNC_LOCATION -> locations.add(new LocationSample(sessionId,
+                        event.getLatitude(), event.getLongitude(),
+                        event.getAccuracy(), event.getHeading(), event.getSpeed(),
+                        event.getRecordedAt()));
+                case SYNC_COMPLETE_GEM -> {
+                    if (!state.isCompleted(event.getGemId())) {
+                        completions.putIfAbsent(event.getGemId(), new SessionSyncStore.Completion(
+                                event.getGemId(), event.getRecordedAt(), event.getDistanceToGemMeters(),
+                                arrivalMethod(event.getArrivalMethod()).name()));
+                    }
+                }
+                default -> totalDistanceMeters = event.getTotalDistanceMeters();
+            }
+        }
+
+        Set<UUID> completedGemIds = sessionSyncStore.insertProgress(sessionId, new ArrayList<>(completions.values()));
+        for (SessionSyncStore.Completion completion : completions.values()) {
+            if (completedGemIds.contains(completion.getGemId())) {
+                activeSessionRegistry.gemCompleted(sessionId, completion.getGemId(),
+                        KrawlProgress.ArrivalMethod.valueOf(completion.getArrivalMethod()), completion.getDistanceToGemMeters());
+                locationTrackingService.gemCompleted(sessionId, completion.getGemId());
+                krawlAnalyticsService.gemReached(state.getKrawlId(), completion.getGemId());
+                state = state.withCompleted(completion.getGemId());
+            }
+        }
 
-        return buildProgressResponse(session);
+        if (totalDistanceMeters != null) {
+            krawlSessionRepository.updateTotalDistance(sessionId, totalDistanceMeters);
+            activeSessionRegistry.distanceUpdated(sessionId, totalDistanceMeters);
+            state = state.withTotalDistance(totalDistanceMeters);
+        }
+
+        if (!locations.isEmpty()) {
+            locationTrackingService.writeSynced(locations);
+        }
+
+        if (!completedGemIds.isEmpty() && state.isAllCompleted()) {
+            KrawlSession session = krawlSessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+            session.complete();
+            krawlSessionRepository.save(session);
+            endSession(state, session);
+            log.info("All gems completed, marking session {} as completed", sessionId);
+        }
+
+        log.info("Synced session {}: {} locations, {} gems completed", sessionId, locations.size(), completedGemIds.size());
+        return SessionResponses.toProgressResponse(state);
     }
 
     /**
-     * Build session response from entity
+     * Get progress for a session
+     *
+     * @param krawlId The UUID of the krawl
+     * @param userId The UUID of the user
+     * @return KrawlProgressResponse with progress information
      */
-    private KrawlSessionResponse buildSessionResponse(KrawlSession session) {
-        long completedGemsCount = krawlProgressRepository.countBySessionId(session.getId());
-        int totalGemsCount = session.getKrawl().getGems().size();
-
-        return KrawlSessionResponse.builder()
-                .sessionId(session.getId())
-                .krawlId(session.getKrawl().getId())
-                .userId(session.getUser().getId())
-                .startedAt(session.getStartedAt())
-                .endedAt(session.getEndedAt())
-                .status(session.getStatus().name())
-                .totalDistanceMeters(session.getTotalDistanceMeters())
-                .completedGemsCount(completedGemsCount)
-                .totalGemsCount(totalGemsCount)
-                .build();
+    public KrawlProgressResponse getProgress(@NonNull UUID krawlId, @NonNull UUID userId) {
+        log.debug("Getting progress for krawlId: {}, userId: {}", krawlId, userId);
+
+        return SessionResponses.toProgressResponse(activeSessionRegistry.getRequired(krawlId, userId));
     }
 
     /**
-     * Build progress response from session
+     * Open a Server-Sent Events stream of a session's progress.
+     * The current session and progress are sent first; arrival, progress and session
+     * events follow as they are committed, and the stream ends with the session.
+     *
+     * @param krawlId The UUID of the krawl
+     * @param userId The UUID of the user
+     * @return Emitter streaming the session's events
      */
-    private KrawlProgressResponse buildProgressResponse(KrawlSession session) {
-        long completedGemsCount = krawlProgressRepository.countBySessionId(session.getId());
-        int totalGemsCount = session.getKrawl().getGems().size();
-        double progressPercentage = totalGemsCount > 0
-                ? (completedGemsCount * 100.0) / totalGemsCount
-                : 0.0;
-
-        List<UUID> completedGemIds = krawlProgressRepository.findBySessionId(session.getId()).stream()
-                .map(progress -> progress.getGem().getId())
-                .collect(Collectors.toList());
+    public SseEmitter streamSession(@NonNull UUID krawlId, @NonNull UUID userId) {
+        log.debug("Opening session stream for krawlId: {}, userId: {}", krawlId, userId);
+
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
+        Map<String, Object> initialEvents = new LinkedHashMap<>();
+        initialEvents.put(SessionEventHub.EVENT_SESSION,
+                SessionResponses.toSessionResponse(state, KrawlSession.SessionStatus.ACTIVE, null));
+        initialEvents.put(SessionEventHub.EVENT_PROGRESS, SessionResponses.toProgressResponse(state));
+        return sessionEventHub.subscribe(state.getSessionId(), initialEvents);
+    }
 
-        // Find next gem ID
-        UUID nextGemId = null;
-        List<KrawlGem> gems = session.getKrawl().getGems();
-        for (KrawlGem krawlGem : gems) {
-            if (!completedGemIds.contains(krawlGem.getGem().getId())) {
-                nextGemId = krawlGem.getGem().getId();
-                break;
+    private static void validateSyncEvent(ActiveSession state, SyncSessionRequest.SyncEvent event) {
+        switch (event.getType()) {
+            case SYNC_LOCATION -> {
+                if (event.getLatitude() == null || event.getLongitude() == null) {
+                    throw new IllegalArgumentException("Event " + event.getEventId() + ": latitude and longitude are required");
+                }
+                if (event.getLatitude() < -90 || event.getLatitude() > 90
+                        || event.getLongitude() < -180 || event.getLongitude() > 180) {
+                    throw new IllegalArgumentException("Event " + event.getEventId() + ": coordinates are out of range");
+                }
+            }
+            case SYNC_COMPLETE_GEM -> {
+                if (event.getGemId() == null) {
+                    throw new IllegalArgumentException("Event " + event.getEventId() + ": gem ID is required");
+                }
+                if (!state.containsGem(event.getGemId())) {
+                    throw new ResourceNotFoundException("Gem", "id", event.getGemId());
+                }
+            }
+            default -> {
+                if (event.getTotalDistanceMeters() == null) {
+                    throw new IllegalArgumentException("Event " + event.getEventId() + ": total distance is required");
+                }
             }
         }
+    }
 
-        return KrawlProgressResponse.builder()
-                .sessionId(session.getId())
-                .completedGemsCount(completedGemsCount)
-                .totalGemsCount(totalGemsCount)
-                .progressPercentage(progressPercentage)
-                .completedGemIds(completedGemIds)
-                .nextGemId(nextGemId)
-                .build();
+    private static KrawlProgress.ArrivalMethod arrivalMethod(String value) {
+        return "MANUAL".equals(value) ? KrawlProgress.ArrivalMethod.MANUAL : KrawlProgress.ArrivalMethod.AUTOMATIC;
     }
-}
 
+    private void endSession(ActiveSession state, KrawlSession session) {
+        if (session.getStatus() == KrawlSession.SessionStatus.COMPLETED) {
+            krawlAnalyticsService.sessionCompleted(state.getKrawlId(), state.getStartedAt(), session.getEndedAt());
+        } else {
+            krawlAnalyticsService.sessionAbandoned(state.getKrawlId(), state.getNextGemId());
+        }
+        activeSessionRegistry.ended(state.getSessionId(), session.getStatus(), session.getEndedAt());
+        locationTrackingService.sessionEnded(state.getSessionId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.krawl.service;
+
+import com.krawl.dto.request.OptimizeKrawlOrderRequest;
+import com.krawl.dto.response.OptimizeKrawlOrderResponse;
+import com.krawl.entity.Gem;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.GemRepository;
+import com.krawl.service.routing.TourOptimizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for suggesting a visiting order for the Gems of a Krawl.
+ *
+ * Orders are optimized on straight-line (haversine) distances, which rank walking
+ * distances well within a city, so no routing call is needed. The search always
+ * returns within the configured time budget with the best order found so far.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KrawlOrderOptimizerService {
+
+    private final GemRepository gemRepository;
+
+    @Value("${krawl.routing.optimizer.time-budget-ms:500}")
+    private long timeBudgetMs;
+
+    /**
+     * Suggest a visiting order for a set of Gems.
+     *
+     * @param request Gem IDs in the creator's current order
+     * @return Gem IDs in the suggested order, with the walk length before and after
+     * @throws IllegalArgumentException if an ID is invalid or repeated
+     * @throws ResourceNotFoundException if a Gem does not exist
+     */
+    @Transactional(readOnly = true)
+    public OptimizeKrawlOrderResponse optimizeOrder(OptimizeKrawlOrderRequest request) {
+        Set<UUID> gemIds = new LinkedHashSet<>();
+        for (String gemId : request.getGemIds()) {
+            UUID id;
+            try {
+                id = UUID.fromString(gemId);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid Gem ID format: " + gemId);
+            }
+            if (!gemIds.add(id)) {
+                throw new IllegalArgumentException("Gem appears more than once: " + gemId);
+            }
+        }
+
+        Map<UUID, Gem> gemsById = gemRepository.findAllById(gemIds).stream()
+                .collect(Collectors.toMap(Gem::getId, Function.identity()));
+        List<Gem> gems = new ArrayList<>(gemIds.size());
+        for (UUID id : gemIds) {
+            Gem gem = gemsById.get(id);
+            if (gem == null) {
+                throw new ResourceNotFoundException("Gem", "id", id);
+            }
+            gems.add(gem);
+        }
+
+        List<double[]> points = toPoints(gems);
+        int[] order = optimizeOrder(gems, !Boolean.FALSE.equals(request.getFixStart()));
+        int[] original = new int[gems.size()];
+        for (int i = 0; i < original.length; i++) {
+            original[i] = i;
+        }
+
+        List<String> orderedIds = new ArrayList<>(order.length);
+        for (int index : order) {
+            orderedIds.add(gems.get(index).getId().toString());
+        }
+
+        return OptimizeKrawlOrderResponse.builder()
+                .gemIds(orderedIds)
+                .originalDistanceKm(TourOptimizer.pathLengthMeters(points, original) / 1000.0)
+                .optimizedDistanceKm(TourOptimizer.pathLengthMeters(points, order) / 1000.0)
+                .build();
+    }
+
+    /**
+     * Suggest a visiting order for already loaded Gems.
+     *
+     * @param gems Gems in the creator's current order
+     * @param fixStart Keep the first Gem as the starting point
+     * @return Visiting order as indexes into gems
+     */
+    public int[] optimizeOrder(List<Gem> gems, boolean fixStart) {
+        long start = System.nanoTime();
+        int[] order = TourOptimizer.optimize(toPoints(gems), fixStart, start + timeBudgetMs * 1_000_000);
+        log.debug("Optimized order of {} gems in {} ms", gems.size(), (System.nanoTime() - start) / 1_000_000);
+        return order;
+    }
+
+    private static List<double[]> toPoints(List<Gem> gems) {
+        return gems.stream()
+                .map(gem -> new double[]{gem.getLongitude(), gem.getLatitude()})
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,158 @@
+package com.krawl.service;
+
+import com.krawl.entity.Krawl;
+import com.krawl.entity.KrawlGem;
+import com.krawl.repository.KrawlRepository;
+import com.krawl.service.location.RouteDeviationTracker;
+import com.krawl.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Service for computing Krawl walking routes in the background.
+ *
+ * Krawl writes store a straight-line estimate with route status PENDING and return
+ * immediately. After the write commits, the walking route is computed on the route
+ * worker pool and stored if the gem list has not changed in the meantime
+ * (tracked by the krawl's route version).
+ *
+ * Routes whose computation was lost (queue full, restart) are picked up again by a
+ * periodic recovery job.
+ */
+@Service
+@Slf4j
+public class KrawlRouteService {
+
+    private static final long STALE_PENDING_MINUTES = 2;
+    private static final int RECOVERY_BATCH_SIZE = 50;
+
+    private final MapboxService mapboxService;
+    private final KrawlRepository krawlRepository;
+    private final Executor routeTaskExecutor;
+    private final KrawlSummaryService krawlSummaryService;
+    private final RouteDeviationTracker routeDeviationTracker;
+
+    public KrawlRouteService(
+            MapboxService mapboxService,
+            KrawlRepository krawlRepository,
+            @Qualifier("routeTaskExecutor") Executor routeTaskExecutor,
+            KrawlSummaryService krawlSummaryService,
+            RouteDeviationTracker routeDeviationTracker) {
+        this.mapboxService = mapboxService;
+        this.krawlRepository = krawlRepository;
+        this.routeTaskExecutor = routeTaskExecutor;
+        this.krawlSummaryService = krawlSummaryService;
+        this.routeDeviationTracker = routeDeviationTracker;
+    }
+
+    /**
+     * Store a straight-line route estimate on the krawl and mark its route as pending.
+     * Bumps the route version so results computed for an older gem list are discarded.
+     *
+     * @param krawl Krawl being created or updated (not yet saved)
+     * @param waypoints Gem coordinates in route order [longitude, latitude]
+     */
+    public void applyEstimate(Krawl krawl, List<double[]> waypoints) {
+        MapboxService.RouteResult estimate = mapboxService.estimateRoute(waypoints);
+
+        krawl.setEstimatedDurationMinutes(estimate.getDurationMinutes());
+        krawl.setEstimatedDistanceKm(estimate.getDistanceKm());
+        krawl.setRoutePolyline(estimate.getPolyline());
+        krawl.setRoutePolylineOverview(estimate.getOverviewPolyline());
+        krawl.setRoutePolylineStandard(estimate.getStandardPolyline());
+        krawl.setRouteStatus(Krawl.RouteStatus.PENDING);
+        krawl.setRouteVersion(krawl.getId() == null || krawl.getRouteVersion() == null ? 0 : krawl.getRouteVersion() + 1);
+        krawl.setRouteRequestedAt(LocalDateTime.now());
+        if (krawl.getId() != null) {
+            UUID krawlId = krawl.getId();
+            TransactionUtils.afterCommit(() -> routeDeviationTracker.invalidate(krawlId)); // Route no longer READY
+        }
+    }
+
+    /**
+     * Compute the walking route on the worker pool once the current transaction commits.
+     *
+     * @param krawlId Saved krawl ID
+     * @param routeVersion Route version the waypoints belong to
+     * @param waypoints Gem coordinates in route order [longitude, latitude]
+     */
+    public void scheduleRouteComputation(UUID krawlId, Integer routeVersion, List<double[]> waypoints) {
+        TransactionUtils.afterCommit(() -> submit(krawlId, routeVersion, waypoints));
+    }
+
+    /**
+     * Re-submit routes that have been pending for too long.
+     */
+    @Scheduled(fixedDelayString = "${krawl.routing.recovery-interval-ms:60000}")
+    public void recoverPendingRoutes() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(STALE_PENDING_MINUTES);
+        List<UUID> krawlIds = krawlRepository.findIdsByRouteStatusRequestedBefore(
+                Krawl.RouteStatus.PENDING, before, PageRequest.of(0, RECOVERY_BATCH_SIZE));
+
+        for (UUID krawlId : krawlIds) {
+            try {
+                krawlRepository.findByIdWithDetails(krawlId).ifPresent(krawl -> {
+                    List<double[]> waypoints = krawl.getGems().stream()
+                            .map(KrawlGem::getGem)
+                            .map(gem -> new double[]{gem.getLongitude(), gem.getLatitude()})
+                            .collect(Collectors.toList());
+                    // Claims the krawl: another node recovering it at the same time updates 0 rows
+                    if (krawlRepository.touchRouteRequest(krawlId, krawl.getRouteVersion(), before, LocalDateTime.now()) > 0) {
+                        submit(krawlId, krawl.getRouteVersion(), waypoints);
+                    }
+                });
+            } catch (Exception e) {
+                log.error("Failed to recover pending route for krawl {}", krawlId, e);
+            }
+        }
+
+        if (!krawlIds.isEmpty()) {
+            log.info("Re-submitted {} pending krawl routes", krawlIds.size());
+        }
+    }
+
+    private void submit(UUID krawlId, Integer routeVersion, List<double[]> waypoints) {
+        try {
+            routeTaskExecutor.execute(() -> computeRoute(krawlId, routeVersion, waypoints));
+        } catch (TaskRejectedException e) {
+            // Left PENDING; the recovery job will pick it up
+            log.warn("Route worker queue full, deferring route for krawl {}", krawlId);
+        }
+    }
+
+    /**
+     * Compute and store the walking route. Runs on the route worker pool.
+     */
+    void computeRoute(UUID krawlId, Integer routeVersion, List<double[]> waypoints) {
+        try {
+            long start = System.nanoTime();
+            MapboxService.RouteResult route = mapboxService.calculateRoute(waypoints);
+            Krawl.RouteStatus status = route.isEstimated() ? Krawl.RouteStatus.ESTIMATED : Krawl.RouteStatus.READY;
+
+            int updated = krawlRepository.updateRoute(krawlId, routeVersion, route.getPolyline(),
+                    route.getOverviewPolyline(), route.getStandardPolyline(),
+                    route.getDistanceKm(), route.getDurationMinutes(), status);
+
+            if (updated == 0) {
+                log.debug("Discarded stale route for krawl {} (version {})", krawlId, routeVersion);
+            } else {
+                krawlSummaryService.refresh(krawlId); // Duration shown on krawl cards
+                routeDeviationTracker.invalidate(krawlId);
+                log.debug("Route computed for krawl {}: {} in {} ms", krawlId, status,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (Exception e) {
+            log.error("Failed to compute route for krawl {}", krawlId, e);
+        }
+    }
+}
@@ -17,11 +17,11 @@ import com.krawl.exception.ForbiddenException;
 import com.krawl.exception.ResourceNotFoundException;
 import com.krawl.repository.GemRepository;
 import com.krawl.repository.KrawlCommentRepository;
-import com.krawl.repository.KrawlGemRepository;
 import com.krawl.repository.KrawlRatingRepository;
 import com.krawl.repository.KrawlRepository;
 import com.krawl.repository.KrawlVouchRepository;
 import com.krawl.repository.UserRepository;
+import com.krawl.util.PolylineUtils;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +32,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -48,10 +52,11 @@ public class KrawlService {
     private final KrawlRatingRepository krawlRatingRepository;
     private final KrawlCommentRepository krawlCommentRepository;
     private final GemRepository gemRepository;
-    private final KrawlGemRepository krawlGemRepository;
     private final UserRepository userRepository;
     private final BoundaryValidationService boundaryValidationService;
-    private final MapboxService mapboxService;
+    private final KrawlRouteService krawlRouteService;
+    private final KrawlOrderOptimizerService krawlOrderOptimizerService;
+    private final KrawlSummaryService krawlSummaryService;
 
     /**
      * Get detailed information about a specific krawl
@@ -89,9 +94,10 @@ public class KrawlService {
                 .isVouchedByCurrentUser(isVouchedByCurrentUser)
                 .build();
 
+        // Gems arrive in route order from the query; ratings are resolved in one grouped query
+        Map<UUID, Double> gemRatings = findGemRatings(krawl.getGems());
         List<KrawlGemResponse> gemResponses = krawl.getGems().stream()
-                .sorted((kg1, kg2) -> Integer.compare(kg1.getOrder(), kg2.getOrder()))
-                .map(this::mapToGemResponse)
+                .map(krawlGem -> mapToGemResponse(krawlGem, gemRatings))
                 .collect(Collectors.toList());
 
         KrawlCreatorResponse creator = KrawlCreatorResponse.builder()
@@ -112,7 +118,8 @@ public class KrawlService {
                 .rating(averageRating)
                 .estimatedDurationMinutes(krawl.getEstimatedDurationMinutes())
                 .estimatedDistanceKm(krawl.getEstimatedDistanceKm())
-                .routePolyline(krawl.getRoutePolyline())
+                .routePolyline(krawl.routePolylineFor(Krawl.RouteResolution.STANDARD))
+                .routeStatus(krawl.getRouteStatus().name())
                 .createdAt(krawl.getCreatedAt())
                 .updatedAt(krawl.getUpdatedAt())
                 .tags(krawl.getTags())
@@ -123,6 +130,27 @@ public class KrawlService {
                 .build();
     }
 
+    /**
+     * Get the current route of a krawl and whether it is still being computed.
+     *
+     * @param resolution Polyline resolution matching the client's zoom level
+     */
+    @Transactional(readOnly = true)
+    public KrawlRouteResponse getKrawlRoute(@NonNull UUID krawlId, @NonNull Krawl.RouteResolution resolution) {
+        Krawl krawl = krawlRepository.findById(krawlId)
+                .orElseThrow(() -> new ResourceNotFoundException("Krawl", "id", krawlId));
+
+        return KrawlRouteResponse.builder()
+                .krawlId(krawl.getId().toString())
+                .routeStatus(krawl.getRouteStatus().name())
+                .estimatedDurationMinutes(krawl.getEstimatedDurationMinutes())
+                .estimatedDistanceKm(krawl.getEstimatedDistanceKm())
+                .routePolyline(krawl.routePolylineFor(resolution))
+                .resolution(resolution.name())
+                .polylinePrecision(PolylineUtils.DEFAULT_PRECISION)
+                .build();
+    }
+
     /**
      * Increment view count for a krawl
      */
@@ -140,14 +168,32 @@ public class KrawlService {
         return com.krawl.util.RatingBreakdownHelper.buildRatingBreakdown(breakdownData);
     }
 
-    private KrawlGemResponse mapToGemResponse(KrawlGem krawlGem) {
+    /**
+     * Average rating of every gem in a krawl, keyed by gem ID (unrated gems are absent).
+     */
+    private Map<UUID, Double> findGemRatings(List<KrawlGem> krawlGems) {
+        if (krawlGems.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> gemIds = krawlGems.stream()
+                .map(krawlGem -> krawlGem.getGem().getId())
+                .collect(Collectors.toList());
+
+        Map<UUID, Double> ratings = new HashMap<>();
+        for (Object[] row : gemRepository.calculateAverageRatings(gemIds)) {
+            ratings.put((UUID) row[0], ((Number) row[1]).doubleValue());
+        }
+        return ratings;
+    }
+
+    private KrawlGemResponse mapToGemResponse(KrawlGem krawlGem, Map<UUID, Double> gemRatings) {
         Gem gem = krawlGem.getGem();
         GemCoordinatesResponse coordinates = GemCoordinatesResponse.builder()
                 .longitude(gem.getLongitude())
                 .latitude(gem.getLatitude())
                 .build();
 
-        Double gemRating = gemRepository.calculateAverageRating(gem.getId());
+        Double gemRating = gemRatings.get(gem.getId());
 
         return KrawlGemResponse.builder()
                 .id(gem.getId().toString())
@@ -208,6 +254,21 @@ public class KrawlService {
             gems.add(gem);
         }
 
+        if (Boolean.TRUE.equals(request.getOptimizeOrder())) {
+            // Reorder before any routing; notes and secrets move with their gems
+            int[] order = krawlOrderOptimizerService.optimizeOrder(gems, true);
+            List<Gem> orderedGems = new ArrayList<>(gems.size());
+            List<CreateKrawlRequest.GemInKrawlRequest> orderedRequests = new ArrayList<>(gems.size());
+            for (int i = 0; i < order.length; i++) {
+                orderedGems.add(gems.get(order[i]));
+                CreateKrawlRequest.GemInKrawlRequest gemRequest = gemRequests.get(order[i]);
+                gemRequest.setSequenceOrder(i + 1);
+                orderedRequests.add(gemRequest);
+            }
+            gems = orderedGems;
+            gemRequests = orderedRequests;
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
@@ -215,14 +276,6 @@ public class KrawlService {
                 .map(gem -> new double[]{gem.getLongitude(), gem.getLatitude()})
                 .collect(Collectors.toList());
 
-        MapboxService.RouteResult routeResult;
-        try {
-            routeResult = mapboxService.calculateRoute(waypoints);
-        } catch (Exception e) {
-            log.error("Failed to calculate route", e);
-            routeResult = mapboxService.calculateRoute(waypoints); 
-        }
-
         Krawl krawl = Krawl.builder()
                 .name(request.getName())
                 .description(request.getDescription())
@@ -231,14 +284,14 @@ public class KrawlService {
                 .difficulty(request.getDifficulty())
                 .coverImage(request.getCoverImage())
                 .cloudinaryPublicId(request.getCoverImagePublicId())
-                .estimatedDurationMinutes(routeResult.getDurationMinutes())
-                .estimatedDistanceKm(routeResult.getDistanceKm())
-                .routePolyline(routeResult.getPolyline())
                 .tags(request.getTags() != null ? new ArrayList<>(request.getTags()) : new ArrayList<>())
                 .createdBy(user)
                 .gems(new ArrayList<>())
                 .build();
 
+        // Straight-line estimate now; the walking route is computed in the background
+        krawlRouteService.applyEstimate(krawl, waypoints);
+
         Krawl savedKrawl = krawlRepository.save(krawl);
         Objects.requireNonNull(savedKrawl, "Krawl save failed");
 
@@ -255,6 +308,8 @@ public class KrawlService {
         }
 
         savedKrawl = Objects.requireNonNull(krawlRepository.save(savedKrawl));
+        krawlRouteService.scheduleRouteComputation(savedKrawl.getId(), savedKrawl.getRouteVersion(), waypoints);
+        krawlSummaryService.refresh(savedKrawl.getId());
         log.info("Krawl created: {} for user: {}", savedKrawl.getId(), userId);
 
         return savedKrawl.getId();
@@ -283,63 +338,101 @@ public class KrawlService {
         if (request.getCoverImagePublicId() != null) krawl.setCloudinaryPublicId(request.getCoverImagePublicId());
         if (request.getTags() != null) krawl.setTags(new ArrayList<>(request.getTags()));
 
+        List<double[]> routeWaypoints = null;
         if (request.getGems() != null) {
             if (request.getGems().size() < 2) {
                 throw new IllegalArgumentException("At least 2 Gems are required");
             }
 
-            krawlGemRepository.deleteByKrawlId(krawlId);
-            krawl.getGems().clear();
-
-            List<Gem> gems = new ArrayList<>();
-            for (UpdateKrawlRequest.GemInKrawlRequest gemRequest : request.getGems()) {
-                UUID gemId;
-                try {
-                    gemId = Objects.requireNonNull(UUID.fromString(gemRequest.getGemId()));
-                } catch (Exception e) {
-                    throw new IllegalArgumentException("Invalid Gem ID format: " + gemRequest.getGemId());
-                }
-                
-                Gem gem = gemRepository.findById(gemId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Gem", "id", gemId));
-                
-                boundaryValidationService.validateBoundary(gem.getLatitude(), gem.getLongitude());
-                gems.add(gem);
-            }
+            routeWaypoints = applyGemChanges(krawl, request.getGems());
+        }
+
+        Krawl updatedKrawl = Objects.requireNonNull(krawlRepository.save(krawl));
+        if (routeWaypoints != null) {
+            krawlRouteService.scheduleRouteComputation(updatedKrawl.getId(), updatedKrawl.getRouteVersion(), routeWaypoints);
+        }
+        krawlSummaryService.refresh(updatedKrawl.getId());
+        log.info("Krawl updated: {} for user: {}", updatedKrawl.getId(), userId);
 
-            List<double[]> waypoints = gems.stream()
-                    .map(gem -> new double[]{gem.getLongitude(), gem.getLatitude()})
-                    .collect(Collectors.toList());
+        return updatedKrawl.getId();
+    }
 
-            MapboxService.RouteResult routeResult;
+    /**
+     * Bring a krawl's gem list in line with the requested one, touching only what changed:
+     * gems already in the krawl are updated in place, new gems are inserted and dropped
+     * gems are removed (flushed together in JDBC batches).
+     *
+     * @return Waypoints in the new order if the ordered gem list changed, otherwise null
+     */
+    private List<double[]> applyGemChanges(Krawl krawl, List<UpdateKrawlRequest.GemInKrawlRequest> gemRequests) {
+        List<UUID> requestedIds = new ArrayList<>(gemRequests.size());
+        Set<UUID> seen = new HashSet<>();
+        for (UpdateKrawlRequest.GemInKrawlRequest gemRequest : gemRequests) {
+            UUID gemId;
             try {
-                routeResult = mapboxService.calculateRoute(waypoints);
+                gemId = Objects.requireNonNull(UUID.fromString(gemRequest.getGemId()));
             } catch (Exception e) {
-                log.error("Failed to calculate route", e);
-                routeResult = mapboxService.calculateRoute(waypoints);
+                throw new IllegalArgumentException("Invalid Gem ID format: " + gemRequest.getGemId());
+            }
+            if (!seen.add(gemId)) {
+                throw new IllegalArgumentException("Gem appears more than once: " + gemRequest.getGemId());
+            }
+            requestedIds.add(gemId);
+        }
+
+        // One query for all gems; existing gem proxies are initialized from the same result
+        Map<UUID, Gem> gemsById = gemRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Gem::getId, gem -> gem));
+        List<Gem> gems = new ArrayList<>(requestedIds.size());
+        for (UUID gemId : requestedIds) {
+            Gem gem = gemsById.get(gemId);
+            if (gem == null) {
+                throw new ResourceNotFoundException("Gem", "id", gemId);
             }
+            boundaryValidationService.validateBoundary(gem.getLatitude(), gem.getLongitude());
+            gems.add(gem);
+        }
 
-            krawl.setEstimatedDurationMinutes(routeResult.getDurationMinutes());
-            krawl.setEstimatedDistanceKm(routeResult.getDistanceKm());
-            krawl.setRoutePolyline(routeResult.getPolyline());
+        // Gems arrive in route order (@OrderBy)
+        List<UUID> previousIds = krawl.getGems().stream()
+                .map(krawlGem -> krawlGem.getGem().getId())
+                .collect(Collectors.toList());
+        Map<UUID, KrawlGem> existing = new HashMap<>();
+        for (KrawlGem krawlGem : krawl.getGems()) {
+            existing.put(krawlGem.getGem().getId(), krawlGem);
+        }
+
+        krawl.getGems().removeIf(krawlGem -> !gemsById.containsKey(krawlGem.getGem().getId()));
 
-            for (int i = 0; i < gems.size(); i++) {
-                UpdateKrawlRequest.GemInKrawlRequest gemRequest = request.getGems().get(i);
-                KrawlGem krawlGem = KrawlGem.builder()
+        for (int i = 0; i < gems.size(); i++) {
+            UpdateKrawlRequest.GemInKrawlRequest gemRequest = gemRequests.get(i);
+            KrawlGem krawlGem = existing.get(requestedIds.get(i));
+            if (krawlGem == null) {
+                krawl.getGems().add(KrawlGem.builder()
                         .krawl(krawl)
                         .gem(gems.get(i))
                         .order(gemRequest.getSequenceOrder())
                         .creatorNote(gemRequest.getCreatorNote())
                         .lokalSecret(gemRequest.getLokalSecret())
-                        .build();
-                krawl.getGems().add(krawlGem);
+                        .build());
+            } else {
+                // Unchanged values leave the row clean, so no UPDATE is issued for it
+                krawlGem.setOrder(gemRequest.getSequenceOrder());
+                krawlGem.setCreatorNote(gemRequest.getCreatorNote());
+                krawlGem.setLokalSecret(gemRequest.getLokalSecret());
             }
         }
 
-        Krawl updatedKrawl = Objects.requireNonNull(krawlRepository.save(krawl));
-        log.info("Krawl updated: {} for user: {}", updatedKrawl.getId(), userId);
+        if (previousIds.equals(requestedIds)) {
+            log.debug("Gem order unchanged for krawl {}, keeping route", krawl.getId());
+            return null;
+        }
 
-        return updatedKrawl.getId();
+        List<double[]> waypoints = gems.stream()
+                .map(gem -> new double[]{gem.getLongitude(), gem.getLatitude()})
+                .collect(Collectors.toList());
+        krawlRouteService.applyEstimate(krawl, waypoints);
+        return waypoints;
     }
 
     /**
@@ -373,6 +466,7 @@ public class KrawlService {
                     .build();
             krawlVouchRepository.save(Objects.requireNonNull(newVouch));
         }
+        krawlSummaryService.refresh(krawlId);
 
         Integer vouchCount = krawlRepository.countVouchesByKrawlId(krawlId);
         log.debug("New vouch count for krawlId {}: {}", krawlId, vouchCount);
@@ -429,6 +523,7 @@ public class KrawlService {
 
         KrawlRating savedRating = krawlRatingRepository.save(rating);
         rating = Objects.requireNonNull(savedRating, "Rating save failed");
+        krawlSummaryService.refresh(krawlId);
 
         Double newAverageRating = krawlRepository.calculateAverageRating(krawlId);
         Long totalRatings = krawlRepository.countRatingsByKrawlId(krawlId);
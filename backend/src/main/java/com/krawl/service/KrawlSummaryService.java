@@ -0,0 +1,113 @@
+package com.krawl.service;
+
+import com.krawl.dto.response.KrawlDiscoveryResponse;
+import com.krawl.entity.KrawlSummary;
+import com.krawl.repository.KrawlSummaryRepository;
+import com.krawl.repository.projection.KrawlDiscoveryRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the krawl_summaries read model.
+ *
+ * Summaries are recomputed from the source tables inside the writer's transaction,
+ * so a list read right after a write already sees it. A refresh touches only the
+ * rows of one Krawl (its gems, ratings and vouches), all through indexed lookups.
+ * The Krawl row is locked first, so concurrent writers (two vouches, a vouch and a
+ * rating) refresh one after the other and the last refresh counts both.
+ *
+ * Also serves map discovery from the summaries' PostGIS start point and route geometry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KrawlSummaryService {
+
+    private final KrawlSummaryRepository krawlSummaryRepository;
+
+    /**
+     * Recompute the summary of a Krawl after it, its gems, ratings or vouches changed.
+     */
+    @Transactional
+    public void refresh(@NonNull UUID krawlId) {
+        List<UUID> krawlIds = List.of(krawlId);
+        krawlSummaryRepository.lockForRefresh(krawlIds);
+        krawlSummaryRepository.refresh(krawlIds);
+    }
+
+    /**
+     * Recompute the summaries of every Krawl that includes a Gem, after the Gem moved.
+     */
+    @Transactional
+    public void refreshForGem(@NonNull UUID gemId) {
+        List<UUID> krawlIds = krawlSummaryRepository.findKrawlIdsByGemId(gemId);
+        if (!krawlIds.isEmpty()) {
+            krawlSummaryRepository.lockForRefresh(krawlIds);
+            krawlSummaryRepository.refresh(krawlIds);
+            log.debug("Refreshed {} krawl summaries for gem {}", krawlIds.size(), gemId);
+        }
+    }
+
+    /**
+     * Krawls starting within a radius of a point, nearest first.
+     */
+    @Transactional(readOnly = true)
+    public List<KrawlDiscoveryResponse> findStartingNear(double latitude, double longitude, double radiusMeters, int limit) {
+        return krawlSummaryRepository.findStartingNear(latitude, longitude, radiusMeters, limit).stream()
+                .map(this::mapToDiscoveryResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Krawls whose route passes through a bounding box, best rated first.
+     */
+    @Transactional(readOnly = true)
+    public List<KrawlDiscoveryResponse> findRouteIntersecting(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        return krawlSummaryRepository.findRouteIntersecting(minLat, minLng, maxLat, maxLng, limit).stream()
+                .map(this::mapToDiscoveryResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Load summaries by Krawl ID in one query.
+     *
+     * @return Summaries keyed by Krawl ID; Krawls without a summary are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, KrawlSummary> findByIds(Collection<UUID> krawlIds) {
+        if (krawlIds.isEmpty()) {
+            return Map.of();
+        }
+        return krawlSummaryRepository.findAllById(krawlIds).stream()
+                .collect(Collectors.toMap(KrawlSummary::getKrawlId, Function.identity()));
+    }
+
+    private KrawlDiscoveryResponse mapToDiscoveryResponse(KrawlDiscoveryRow row) {
+        boolean rated = row.getRatingCount() != null && row.getRatingCount() > 0;
+        return KrawlDiscoveryResponse.builder()
+                .id(row.getKrawlId().toString())
+                .name(row.getName())
+                .description(row.getDescription())
+                .category(row.getCategory())
+                .difficulty(row.getDifficulty())
+                .coverImage(row.getCoverImage())
+                .estimatedDurationMinutes(row.getEstimatedDurationMinutes())
+                .gemCount(row.getGemCount())
+                .startLatitude(row.getStartLatitude())
+                .startLongitude(row.getStartLongitude())
+                .averageRating(rated ? row.getAverageRating() : null)
+                .vouchCount(row.getVouchCount())
+                .distanceMeters(row.getDistanceMeters())
+                .build();
+    }
+}
@@ -2,8 +2,7 @@ package com.krawl.service;
 
 import com.krawl.dto.response.*;
 import com.krawl.entity.Gem;
-import com.krawl.entity.Krawl;
-import com.krawl.entity.SavedKrawl;
+import com.krawl.entity.KrawlSummary;
 import com.krawl.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +36,7 @@ public class LandingService {
     private final GemVouchRepository gemVouchRepository;
     private final KrawlVouchRepository krawlVouchRepository;
     private final KrawlSessionRepository krawlSessionRepository;
-    private final SavedKrawlRepository savedKrawlRepository;
+    private final KrawlSummaryRepository krawlSummaryRepository;
     
     private static final int ACTIVE_USER_DAYS = 30;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
@@ -113,103 +112,18 @@ public class LandingService {
         log.debug("Getting featured Krawls with limit: {}", limit);
         
         try {
-            List<Object[]> results = krawlRepository.findFeaturedKrawls(limit);
-            List<FeaturedKrawlResponse> featuredKrawls = new ArrayList<>();
-            
-            if (results == null || results.isEmpty()) {
-                log.debug("No featured Krawls found, returning empty list");
-                return featuredKrawls;
-            }
-            
-            for (Object[] row : results) {
-                if (row == null || row.length < 1) {
-                    log.warn("Skipping null or empty row in featured Krawls results");
-                    continue;
-                }
-                
-                try {
-                    // Extract Krawl ID from row[0]
-                    UUID krawlId = null;
-                    if (row[0] instanceof UUID) {
-                        krawlId = (UUID) row[0];
-                    } else if (row[0] instanceof java.util.UUID) {
-                        krawlId = (UUID) row[0];
-                    } else if (row[0] != null) {
-                        try {
-                            // Handle case where UUID is returned as byte array or string
-                            if (row[0] instanceof String) {
-                                krawlId = UUID.fromString((String) row[0]);
-                            } else if (row[0] instanceof byte[]) {
-                                java.nio.ByteBuffer bb = java.nio.ByteBuffer.wrap((byte[]) row[0]);
-                                long mostSignificantBits = bb.getLong();
-                                long leastSignificantBits = bb.getLong();
-                                krawlId = new UUID(mostSignificantBits, leastSignificantBits);
-                            } else {
-                                krawlId = UUID.fromString(row[0].toString());
-                            }
-                        } catch (Exception e) {
-                            log.warn("Could not parse Krawl ID from row[0]: {}", row[0], e);
-                            continue;
-                        }
-                    } else {
-                        log.warn("Krawl ID is null in row, skipping");
-                        continue;
-                    }
-                    
-                    // Ensure krawlId is not null before fetching
-                    if (krawlId == null) {
-                        log.warn("Krawl ID is null after parsing, skipping");
-                        continue;
-                    }
-                    
-                    // Fetch the Krawl entity
-                    final UUID finalKrawlId = krawlId; // Final variable for lambda
-                    Krawl krawl = krawlRepository.findById(finalKrawlId).orElse(null);
-                    if (krawl == null) {
-                        log.warn("Krawl not found for ID: {}, skipping", krawlId);
-                        continue;
-                    }
-                    
-                    // Extract average rating from row[1]
-                    Double avgRating = null;
-                    if (row.length > 1 && row[1] != null) {
-                        try {
-                            if (row[1] instanceof Number) {
-                                avgRating = ((Number) row[1]).doubleValue();
-                            } else {
-                                avgRating = Double.parseDouble(row[1].toString());
-                            }
-                            // Set to null if rating is 0.0 (meaning no ratings)
-                            if (avgRating != null && avgRating == 0.0) {
-                                avgRating = null;
-                            }
-                        } catch (Exception e) {
-                            log.warn("Could not parse average rating from row[1]: {}", row[1], e);
-                        }
-                    }
-                    
-                    // Count gems in this krawl
-                    int gemsCount = krawl.getGems() != null ? krawl.getGems().size() : 0;
-                    
-                    FeaturedKrawlResponse response = FeaturedKrawlResponse.builder()
-                        .id(krawl.getId().toString())
-                        .name(krawl.getName())
-                        .description(krawl.getDescription())
-                        .coverImage(krawl.getCoverImage())
-                        .rating(avgRating)
-                        .difficulty(krawl.getDifficulty())
-                        .estimatedDurationMinutes(krawl.getEstimatedDurationMinutes())
-                        .gemsCount(gemsCount)
-                        .build();
-                    
-                    featuredKrawls.add(response);
-                } catch (Exception e) {
-                    log.error("Error processing featured Krawl row", e);
-                    // Continue processing other rows
-                }
-            }
-            
-            return featuredKrawls;
+            return krawlSummaryRepository.findFeatured(PageRequest.of(0, limit)).stream()
+                .map(summary -> FeaturedKrawlResponse.builder()
+                    .id(summary.getKrawlId().toString())
+                    .name(summary.getName())
+                    .description(summary.getDescription())
+                    .coverImage(summary.getCoverImage())
+                    .rating(summary.getRatingOrNull())
+                    .difficulty(summary.getDifficulty())
+                    .estimatedDurationMinutes(summary.getEstimatedDurationMinutes())
+                    .gemsCount(summary.getGemCount())
+                    .build())
+                .collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Error fetching featured Krawls", e);
             // Return empty list instead of throwing exception
@@ -252,23 +166,17 @@ public class LandingService {
         
         // Get saved Krawls for user (limit to 10)
         Pageable savedKrawlPageable = PageRequest.of(0, 10);
-        List<UserActivityItemResponse> savedKrawls = savedKrawlRepository
-            .findByUserIdOrderBySavedAtDesc(userId, savedKrawlPageable)
+        List<UserActivityItemResponse> savedKrawls = krawlSummaryRepository
+            .findSavedByUserId(userId, savedKrawlPageable)
             .stream()
-            .map(SavedKrawl::getKrawl)
             .map(this::mapKrawlToActivityItem)
             .collect(Collectors.toList());
         
-        // Get completed Krawls (from sessions)
-        List<UserActivityItemResponse> completedKrawls = krawlSessionRepository
-            .findByUserId(userId)
+        // Get completed Krawls (from sessions, limit to 10)
+        List<UserActivityItemResponse> completedKrawls = krawlSummaryRepository
+            .findCompletedByUserId(userId, PageRequest.of(0, 10))
             .stream()
-            .filter(session -> session.getStatus() == com.krawl.entity.KrawlSession.SessionStatus.COMPLETED)
-            .limit(10)
-            .map(session -> {
-                Krawl krawl = session.getKrawl();
-                return mapKrawlToActivityItem(krawl);
-            })
+            .map(this::mapKrawlToActivityItem)
             .collect(Collectors.toList());
         
         return UserActivityResponse.builder()
@@ -291,16 +199,15 @@ public class LandingService {
             .build();
     }
     
-    private UserActivityItemResponse mapKrawlToActivityItem(Krawl krawl) {
-        int gemsCount = krawl.getGems() != null ? krawl.getGems().size() : 0;
+    private UserActivityItemResponse mapKrawlToActivityItem(KrawlSummary krawl) {
         return UserActivityItemResponse.builder()
-            .id(krawl.getId().toString())
+            .id(krawl.getKrawlId().toString())
             .type("krawl")
             .name(krawl.getName())
             .coverImage(krawl.getCoverImage())
             .createdAt(krawl.getCreatedAt() != null ? krawl.getCreatedAt().format(DATE_FORMATTER) : null)
             .difficulty(krawl.getDifficulty())
-            .gemsCount(gemsCount)
+            .gemsCount(krawl.getGemCount())
             .build();
     }
 }
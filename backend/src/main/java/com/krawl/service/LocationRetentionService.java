@@ -0,0 +1,191 @@
+package com.krawl.service;
+
+import com.krawl.entity.KrawlSession;
+import com.krawl.repository.KrawlLocationHistoryRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Retention for Krawl Mode location history.
+ *
+ * krawl_location_history and krawl_trajectory_chunks are partitioned by month
+ * (partitions named {@code <table>_pYYYYMM}). A daily job creates the partitions for the
+ * coming months and detaches and drops every partition that ends before the retention
+ * window, so old history goes without row-by-row deletes or table bloat. Rows stamped
+ * outside every monthly partition (a wrong device clock) land in {@code <table>_default},
+ * whose expired rows the job deletes. Every node schedules the job; a Postgres advisory
+ * lock lets only one of them run it at a time.
+ *
+ * Single sessions (privacy opt-outs) are purged by session ID, which is an index probe
+ * per partition.
+ */
+@Service
+@Slf4j
+public class LocationRetentionService {
+
+    static final List<String> PARTITIONED_TABLES = List.of("krawl_location_history", "krawl_trajectory_chunks");
+
+    // Partition key of each table in PARTITIONED_TABLES
+    private static final Map<String, String> PARTITION_KEYS = Map.of(
+            "krawl_location_history", "recorded_at",
+            "krawl_trajectory_chunks", "chunk_start");
+
+    private static final String LOCK_NAME = "location-retention";
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KrawlLocationHistoryRepository krawlLocationHistoryRepository;
+    private final KrawlSessionRepository krawlSessionRepository;
+    private final LocationTrackingService locationTrackingService;
+    private final int retentionDays;
+    private final int monthsAhead;
+
+    public LocationRetentionService(
+            JdbcTemplate jdbcTemplate,
+            KrawlLocationHistoryRepository krawlLocationHistoryRepository,
+            KrawlSessionRepository krawlSessionRepository,
+            LocationTrackingService locationTrackingService,
+            @Value("${krawl.location.retention.days:365}") int retentionDays,
+            @Value("${krawl.location.retention.months-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.krawlLocationHistoryRepository = krawlLocationHistoryRepository;
+        this.krawlSessionRepository = krawlSessionRepository;
+        this.locationTrackingService = locationTrackingService;
+        this.retentionDays = retentionDays;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Create upcoming partitions and drop expired ones. Skipped when another node is
+     * running it. Runs on one connection, which holds the session-level advisory lock;
+     * each statement commits on its own, so a failure on one table does not hold locks on
+     * the other.
+     */
+    @Scheduled(cron = "${krawl.location.retention.cron:0 30 3 * * ?}") // Daily at 3:30 AM
+    public void maintainPartitions() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            JdbcTemplate locked = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(locked.queryForObject(
+                    "SELECT pg_try_advisory_lock(hashtext(?))", Boolean.class, LOCK_NAME))) {
+                log.info("Location retention skipped: running on another node");
+                return null;
+            }
+            try {
+                maintainPartitions(locked);
+            } finally {
+                locked.queryForObject("SELECT pg_advisory_unlock(hashtext(?))", Boolean.class, LOCK_NAME);
+            }
+            return null;
+        });
+    }
+
+    private void maintainPartitions(JdbcTemplate jdbc) {
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = today.minusDays(retentionDays);
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                Integer created = jdbc.queryForObject(
+                        "SELECT krawl_create_monthly_partitions(?, ?, ?)", Integer.class,
+                        table, Date.valueOf(today.withDayOfMonth(1)), Date.valueOf(today.plusMonths(monthsAhead)));
+                int dropped = dropPartitionsBefore(jdbc, table, cutoff);
+                // Table and column names are constants, not input
+                int strays = jdbc.update("DELETE FROM " + table + "_default WHERE " + PARTITION_KEYS.get(table) + " < ?",
+                        Date.valueOf(cutoff));
+                log.info("Location retention for {}: {} partitions created, {} dropped, {} default rows deleted (cutoff {})",
+                        table, created, dropped, strays, cutoff);
+            } catch (RuntimeException e) {
+                log.error("Location retention for {} failed: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Detach and drop the partitions of a table that end on or before the cutoff.
+     *
+     * @param jdbc Template on the connection holding the retention lock
+     * @return Number of partitions dropped
+     */
+    int dropPartitionsBefore(JdbcTemplate jdbc, String table, LocalDate cutoff) {
+        List<String> partitions = jdbc.queryForList("""
+                        SELECT child.relname FROM pg_inherits i
+                        JOIN pg_class child ON child.oid = i.inhrelid
+                        JOIN pg_class parent ON parent.oid = i.inhparent
+                        WHERE parent.relname = ?
+                        ORDER BY child.relname
+                        """,
+                String.class, table);
+
+        int dropped = 0;
+        for (String partition : partitions) {
+            LocalDate month = partitionMonth(table, partition);
+            if (month == null || month.plusMonths(1).isAfter(cutoff)) {
+                continue;
+            }
+            // Table names come from PARTITIONED_TABLES and pg_class, not from input
+            jdbc.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            jdbc.execute("DROP TABLE " + partition);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Delete the location history of one session.
+     *
+     * @param sessionId Session to purge
+     */
+    public void purgeSession(UUID sessionId) {
+        int rows = krawlLocationHistoryRepository.deleteBySessionId(sessionId);
+        int chunks = locationTrackingService.purgeSession(sessionId);
+        log.info("Purged location history of session {}: {} rows, {} trajectory chunks", sessionId, rows, chunks);
+    }
+
+    /**
+     * Delete the location history of every session of a user.
+     *
+     * @param userId User whose history is purged
+     */
+    public void purgeUser(UUID userId) {
+        for (KrawlSession session : krawlSessionRepository.findByUserId(userId)) {
+            purgeSession(session.getId());
+        }
+    }
+
+    /**
+     * First day of the month a partition covers, or null for partitions not named by
+     * krawl_create_monthly_partitions.
+     */
+    private static LocalDate partitionMonth(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix) || partition.length() != prefix.length() + 6) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(prefix.length()) + "01", PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,79 +1,382 @@
 package com.krawl.service;
 
 import com.krawl.dto.request.LocationUpdateRequest;
-import com.krawl.entity.KrawlLocationHistory;
-import com.krawl.entity.KrawlSession;
+import com.krawl.dto.response.LocationUpdateResponse;
+import com.krawl.dto.response.RouteDeviationResponse;
 import com.krawl.exception.ResourceNotFoundException;
-import com.krawl.repository.KrawlLocationHistoryRepository;
-import com.krawl.repository.KrawlSessionRepository;
-import lombok.RequiredArgsConstructor;
+import com.krawl.service.location.GeofenceArrival;
+import com.krawl.service.location.GeofenceTracker;
+import com.krawl.service.location.LocationSample;
+import com.krawl.service.location.RingBuffer;
+import com.krawl.service.location.RouteDeviation;
+import com.krawl.service.location.RouteDeviationTracker;
+import com.krawl.service.location.TrajectoryStore;
+import com.krawl.service.session.ActiveSessionRegistry;
+import com.krawl.service.session.SessionEventHub;
+import com.krawl.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+/**
+ * Ingests Krawl Mode location updates.
+ *
+ * Request threads only validate the update, resolve the active session from memory
+ * (ActiveSessionRegistry) and append the sample to a lock-free ring buffer; they open a
+ * transaction only to record a gem arrival.
+ * A single background writer drains the buffer in arrival order and appends the samples
+ * to each session's compressed trajectory (see TrajectoryStore), so points are stored in
+ * the order they were accepted.
+ *
+ * Each accepted fix is also tested against the session's remaining gems (GeofenceTracker).
+ * Arrivals are recorded as AUTOMATIC progress before the response is sent, and only the
+ * recorded ones are returned, so the client does not need to call complete-gem itself
+ * and never shows a gem as reached that the server has not stored.
+ * Fixes are also matched against the krawl's walking route (RouteDeviationTracker); leaving
+ * or rejoining it is returned to the caller and pushed on the session stream.
+ *
+ * Locations synced after the client was offline skip the buffer: they are written in the
+ * sync's own transaction, so they are stored exactly when the sync's event IDs are. The
+ * writer is held only while they are written; until the sync commits or rolls back, the
+ * writer holds back buffered samples of that session (and only that session), so they are
+ * never encoded against points that may be rolled back.
+ *
+ * When the buffer is full the update is refused (the caller answers 503 so the client
+ * retries later) and counted as dropped. Metrics:
+ * - krawl.location.accepted / krawl.location.dropped{reason=buffer_full|write_failed}
+ * - krawl.location.buffer.size, krawl.location.flush (batch write time)
+ * - krawl.geofence.arrivals, krawl.route.deviations{direction=off|on}
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class LocationTrackingService {
 
-    private final KrawlLocationHistoryRepository locationHistoryRepository;
-    private final KrawlSessionRepository krawlSessionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final TrajectoryStore trajectoryStore;
+    private final GeofenceTracker geofenceTracker;
+    private final KrawlArrivalService krawlArrivalService;
+    private final RouteDeviationTracker routeDeviationTracker;
+    private final SessionEventHub sessionEventHub;
+    private final RingBuffer<LocationSample> buffer;
+    private final int batchSize;
+
+    // Single writer of the trajectory store; guards the fields below
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final Condition syncCompleted = writerLock.newCondition();
+    // Sessions whose synced locations are written but not yet committed
+    private final Set<UUID> syncingSessions = new HashSet<>();
+    // Buffered samples of syncing sessions, in arrival order
+    private final List<LocationSample> heldBack = new ArrayList<>();
+    private final long syncWaitMillis;
+
+    private final Counter acceptedCounter;
+    private final Counter bufferFullCounter;
+    private final Counter writeFailedCounter;
+    private final Timer flushTimer;
+    private final Counter arrivalCounter;
+    private final Counter offRouteCounter;
+    private final Counter onRouteCounter;
+
+    public LocationTrackingService(
+            ActiveSessionRegistry activeSessionRegistry,
+            TrajectoryStore trajectoryStore,
+            GeofenceTracker geofenceTracker,
+            KrawlArrivalService krawlArrivalService,
+            RouteDeviationTracker routeDeviationTracker,
+            SessionEventHub sessionEventHub,
+            MeterRegistry meterRegistry,
+            @Value("${krawl.location.buffer-capacity:16384}") int bufferCapacity,
+            @Value("${krawl.location.batch-size:500}") int batchSize,
+            @Value("${krawl.location.sync-wait-ms:5000}") long syncWaitMillis) {
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.trajectoryStore = trajectoryStore;
+        this.geofenceTracker = geofenceTracker;
+        this.krawlArrivalService = krawlArrivalService;
+        this.routeDeviationTracker = routeDeviationTracker;
+        this.sessionEventHub = sessionEventHub;
+        this.buffer = new RingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.syncWaitMillis = syncWaitMillis;
+
+        this.acceptedCounter = meterRegistry.counter("krawl.location.accepted");
+        this.bufferFullCounter = meterRegistry.counter("krawl.location.dropped", "reason", "buffer_full");
+        this.writeFailedCounter = meterRegistry.counter("krawl.location.dropped", "reason", "write_failed");
+        this.flushTimer = meterRegistry.timer("krawl.location.flush");
+        this.arrivalCounter = meterRegistry.counter("krawl.geofence.arrivals");
+        this.offRouteCounter = meterRegistry.counter("krawl.route.deviations", "direction", "off");
+        this.onRouteCounter = meterRegistry.counter("krawl.route.deviations", "direction", "on");
+        Gauge.builder("krawl.location.buffer.size", buffer, RingBuffer::size).register(meterRegistry);
+    }
 
     /**
-     * Store location update for a session
-     * Note: This is optional and can be disabled for privacy reasons
+     * Accept a location update for the user's active session on a Krawl.
      *
-     * @param sessionId The UUID of the session
+     * @param krawlId The UUID of the krawl
+     * @param userId The UUID of the user
      * @param request Location update request
-     * @return Stored location history entry
+     * @return Not accepted if the write buffer is full; otherwise the gems reached with this fix
+     * @throws IllegalArgumentException if the coordinates are invalid
+     * @throws ResourceNotFoundException if the user has no active session on the krawl
      */
-    @Transactional
-    public KrawlLocationHistory storeLocationUpdate(UUID sessionId, LocationUpdateRequest request) {
-        log.debug("Storing location update for session: {}", sessionId);
+    public LocationUpdateResponse submit(UUID krawlId, UUID userId, LocationUpdateRequest request) {
+        validateLocation(request);
+        UUID sessionId = activeSessionRegistry.getRequired(krawlId, userId).getSessionId();
 
-        // Validate session exists and is active
-        @SuppressWarnings("null") // orElseThrow() guarantees non-null
-        KrawlSession session = krawlSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session", "id", sessionId));
+        LocationSample sample = new LocationSample(sessionId,
+                request.getLatitude(), request.getLongitude(),
+                request.getAccuracy(), request.getHeading(), request.getSpeed(),
+                LocalDateTime.now());
 
-        if (!session.isActive()) {
-            log.warn("Attempted to store location for inactive session: {}", sessionId);
-            throw new IllegalArgumentException("Cannot store location for inactive session");
+        if (!buffer.offer(sample)) {
+            bufferFullCounter.increment();
+            log.debug("Location buffer full, refusing update for session {}", sessionId);
+            return LocationUpdateResponse.builder().accepted(false).arrivedGemIds(List.of()).build();
         }
+        acceptedCounter.increment();
 
-        // Validate location coordinates
-        if (request.getLatitude() == null || request.getLongitude() == null) {
-            throw new IllegalArgumentException("Latitude and longitude are required");
+        List<GeofenceArrival> arrivals = geofenceTracker.check(sessionId,
+                request.getLatitude(), request.getLongitude(), request.getAccuracy());
+        List<UUID> arrivedGemIds = new ArrayList<>(arrivals.size());
+        for (GeofenceArrival arrival : arrivals) {
+            if (recordArrival(arrival)) {
+                arrivedGemIds.add(arrival.getGemId());
+            }
         }
 
-        if (request.getLatitude() < -90 || request.getLatitude() > 90) {
-            throw new IllegalArgumentException("Latitude must be between -90 and 90");
-        }
+        RouteDeviationResponse routeDeviation = checkRoute(sessionId, krawlId, request);
+        return LocationUpdateResponse.builder()
+                .accepted(true)
+                .arrivedGemIds(arrivedGemIds)
+                .routeDeviation(routeDeviation)
+                .build();
+    }
 
-        if (request.getLongitude() < -180 || request.getLongitude() > 180) {
-            throw new IllegalArgumentException("Longitude must be between -180 and 180");
+    /**
+     * @return true if the arrival is stored and can be reported to the client
+     */
+    private boolean recordArrival(GeofenceArrival arrival) {
+        try {
+            KrawlArrivalService.Outcome outcome = krawlArrivalService.recordArrival(arrival);
+            if (outcome == KrawlArrivalService.Outcome.IGNORED) {
+                return false;
+            }
+            arrivalCounter.increment();
+            if (outcome == KrawlArrivalService.Outcome.SESSION_COMPLETED) {
+                geofenceTracker.sessionEnded(arrival.getSessionId());
+                routeDeviationTracker.sessionEnded(arrival.getSessionId());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // The geofence already counts the gem as reached: reload it so the next fix retries
+            geofenceTracker.invalidate(arrival.getSessionId());
+            log.warn("Could not record arrival at gem {} in session {}: {}",
+                    arrival.getGemId(), arrival.getSessionId(), e.getMessage());
+            return false;
         }
+    }
 
-        // Create location history entry
-        KrawlLocationHistory locationHistory = KrawlLocationHistory.builder()
-                .session(session)
-                .latitude(request.getLatitude())
-                .longitude(request.getLongitude())
-                .accuracy(request.getAccuracy())
-                .heading(request.getHeading())
-                .speed(request.getSpeed())
-                .recordedAt(LocalDateTime.now())
+    private RouteDeviationResponse checkRoute(UUID sessionId, UUID krawlId, LocationUpdateRequest request) {
+        RouteDeviation deviation = routeDeviationTracker.check(sessionId, krawlId,
+                request.getLatitude(), request.getLongitude(), request.getAccuracy());
+        if (deviation == null) {
+            return null;
+        }
+        (deviation.isOffRoute() ? offRouteCounter : onRouteCounter).increment();
+        RouteDeviationResponse response = RouteDeviationResponse.builder()
+                .sessionId(sessionId)
+                .offRoute(deviation.isOffRoute())
+                .distanceFromRouteMeters(deviation.getNearest().getDistanceMeters())
+                .rejoinLatitude(deviation.getNearest().getLatitude())
+                .rejoinLongitude(deviation.getNearest().getLongitude())
                 .build();
+        sessionEventHub.publish(sessionId,
+                deviation.isOffRoute() ? SessionEventHub.EVENT_OFF_ROUTE : SessionEventHub.EVENT_ON_ROUTE, response);
+        return response;
+    }
+
+    /**
+     * Stop watching the gems of a session that completed or was abandoned.
+     */
+    public void sessionEnded(UUID sessionId) {
+        TransactionUtils.afterCommit(() -> {
+            geofenceTracker.sessionEnded(sessionId);
+            routeDeviationTracker.sessionEnded(sessionId);
+        });
+    }
+
+    /**
+     * Stop watching a gem that was completed through the API.
+     */
+    public void gemCompleted(UUID sessionId, UUID gemId) {
+        TransactionUtils.afterCommit(() -> geofenceTracker.gemCompleted(sessionId, gemId));
+    }
+
+    /**
+     * Write locations recorded while the client was offline, in the order given, as part of
+     * the current transaction: they are stored if and only if it commits, and a failure
+     * rolls it back. The trajectory writer is held only for the write itself; until the
+     * transaction completes the sessions' buffered samples are held back.
+     * Synced fixes are not checked against the geofence; the client reports the gems it
+     * completed offline itself.
+     *
+     * @throws IllegalStateException if no transaction is active, or another sync of the
+     *         same session did not complete within krawl.location.sync-wait-ms
+     */
+    public void writeSynced(List<LocationSample> samples) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Synced locations must be written in a transaction");
+        }
+        Set<UUID> sessionIds = samples.stream().map(LocationSample::getSessionId).collect(Collectors.toSet());
+        writerLock.lock();
+        boolean registered = false;
+        try {
+            awaitOtherSyncs(sessionIds);
+            syncingSessions.addAll(sessionIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    syncCompleted(sessionIds, status == STATUS_COMMITTED ? samples.size() : -1);
+                }
+            });
+            registered = true;
+            trajectoryStore.appendInTransaction(samples); // On failure the rollback clears the sessions
+        } catch (RuntimeException e) {
+            if (!registered) {
+                syncingSessions.removeAll(sessionIds);
+                syncCompleted.signalAll();
+            }
+            throw e;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Wait, releasing the writer meanwhile, until none of these sessions has a sync in flight.
+     * Its writes are uncommitted and hold the session's chunk rows locked.
+     */
+    private void awaitOtherSyncs(Set<UUID> sessionIds) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(syncWaitMillis);
+        while (sessionIds.stream().anyMatch(syncingSessions::contains)) {
+            if (remainingNanos <= 0) {
+                throw new IllegalStateException("Another sync of this session is still in progress");
+            }
+            try {
+                remainingNanos = syncCompleted.awaitNanos(remainingNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for another sync of this session", e);
+            }
+        }
+    }
 
-        @SuppressWarnings("null") // JPA save() is guaranteed to return non-null per specification
-        KrawlLocationHistory savedLocationHistory = locationHistoryRepository.save(locationHistory);
-        locationHistory = savedLocationHistory;
-        log.debug("Stored location update: {}", locationHistory.getId());
+    /**
+     * @param written Number of samples committed, or -1 if the sync rolled back
+     */
+    private void syncCompleted(Set<UUID> sessionIds, int written) {
+        writerLock.lock();
+        try {
+            syncingSessions.removeAll(sessionIds);
+            if (written >= 0) {
+                acceptedCounter.increment(written);
+            } else {
+                trajectoryStore.forgetSessions(sessionIds);
+            }
+            syncCompleted.signalAll();
+        } finally {
+            writerLock.unlock();
+        }
+    }
 
-        return locationHistory;
+    /**
+     * Delete a session's stored trajectory. Buffered samples are written first so none
+     * of the session's points outlive the purge.
+     *
+     * @return Number of trajectory chunks deleted
+     * @throws IllegalStateException if a sync of the session did not complete within
+     *         krawl.location.sync-wait-ms
+     */
+    public int purgeSession(UUID sessionId) {
+        writerLock.lock();
+        try {
+            awaitOtherSyncs(Set.of(sessionId));
+            writeSamples();
+            return trajectoryStore.deleteSession(sessionId);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Write buffered samples. Runs on its own single-thread scheduler (see SchedulingConfig),
+     * so batch jobs never hold it up and the single caller keeps writes in order.
+     */
+    @Scheduled(fixedDelayString = "${krawl.location.flush-interval-ms:250}", scheduler = "locationWriterScheduler")
+    public void flush() {
+        writerLock.lock();
+        try {
+            writeSamples();
+        } finally {
+            writerLock.unlock();
+        }
+        geofenceTracker.evictIdle();
+        routeDeviationTracker.evictIdle();
+    }
+
+    private void writeSamples() {
+        // Samples held back earlier go first, so each session stays in order
+        List<LocationSample> held = new ArrayList<>(heldBack);
+        heldBack.clear();
+        writeBatch(held);
+        // Held back samples stay out of the buffer; stop draining once they would fill it again
+        while (heldBack.size() < buffer.capacity()) {
+            List<LocationSample> drained = new ArrayList<>(Math.min(batchSize, buffer.size()));
+            if (buffer.drainTo(drained, batchSize) == 0) {
+                return;
+            }
+            writeBatch(drained);
+        }
+    }
+
+    private void writeBatch(List<LocationSample> samples) {
+        List<LocationSample> batch = new ArrayList<>(samples.size());
+        for (LocationSample sample : samples) {
+            (syncingSessions.contains(sample.getSessionId()) ? heldBack : batch).add(sample);
+        }
+        if (!batch.isEmpty()) {
+            long start = System.nanoTime();
+            int failed = trajectoryStore.append(batch);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (failed > 0) {
+                writeFailedCounter.increment(failed);
+                log.warn("Dropped {} of {} location updates that could not be written", failed, batch.size());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Writing {} buffered location updates before shutdown", buffer.size());
+        flush();
     }
 
     /**
@@ -101,6 +404,18 @@ public class LocationTrackingService {
 
         return R * c;
     }
-}
 
+    private static void validateLocation(LocationUpdateRequest request) {
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required");
+        }
+
+        if (request.getLatitude() < -90 || request.getLatitude() > 90) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90");
+        }
 
+        if (request.getLongitude() < -180 || request.getLongitude() > 180) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180");
+        }
+    }
+}
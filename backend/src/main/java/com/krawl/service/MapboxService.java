@@ -2,22 +2,27 @@ package com.krawl.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.util.PolylineUtils;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Service for interacting with Mapbox Directions API.
  * Calculates routes between waypoints and returns polyline, distance, and duration.
+ * Routes are assembled from per-leg results cached by {@link RouteLegCacheService}.
+ * With krawl.routing.engine=offline, routes come from {@link OfflineRoutingService} instead.
  */
 @Service
 @Slf4j
@@ -25,17 +30,32 @@ public class MapboxService {
 
     private final WebClient.Builder webClientBuilder;
     private final ObjectMapper objectMapper;
+    private final RouteLegCacheService routeLegCacheService;
+    private final OfflineRoutingService offlineRoutingService;
     
     @Value("${mapbox.access-token:}")
     private String mapboxAccessToken;
+
+    @Value("${krawl.routing.engine:mapbox}")
+    private String routingEngine;
+
+    @Value("${krawl.routing.max-concurrent-requests:4}")
+    private int maxConcurrentRequests;
     
     private static final int TIMEOUT_MS = 10000; // 10 seconds
+    private static final int MAX_WAYPOINTS_PER_REQUEST = 25; // Directions API limit for walking
+    // Douglas-Peucker tolerances for the simplified route variants
+    private static final double OVERVIEW_TOLERANCE_METERS = 15.0;
+    private static final double STANDARD_TOLERANCE_METERS = 3.0;
     
     private WebClient webClient;
 
-    public MapboxService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public MapboxService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
+                         RouteLegCacheService routeLegCacheService, OfflineRoutingService offlineRoutingService) {
         this.webClientBuilder = webClientBuilder;
         this.objectMapper = objectMapper;
+        this.routeLegCacheService = routeLegCacheService;
+        this.offlineRoutingService = offlineRoutingService;
     }
 
     @PostConstruct
@@ -47,6 +67,11 @@ public class MapboxService {
 
     /**
      * Calculate route between multiple waypoints.
+     * Legs between consecutive waypoints are served from the route leg cache; the
+     * Directions API is only called for legs that have not been routed before.
+     * Long routes are split into chunks within the API waypoint limit; chunks share their
+     * boundary waypoint and are requested concurrently, then stitched in route order.
+     * Legs Mapbox could not route are filled in by the offline router when it is loaded.
      *
      * @param waypoints List of coordinates [longitude, latitude]
      * @return RouteResult with polyline, distance (km), and duration (minutes)
@@ -56,89 +81,178 @@ public class MapboxService {
             throw new IllegalArgumentException("At least 2 waypoints are required");
         }
 
+        if ("offline".equalsIgnoreCase(routingEngine) && offlineRoutingService.isAvailable()) {
+            return assembleRoute(offlineRoutingService.routeLegs(waypoints));
+        }
+
         if (mapboxAccessToken == null || mapboxAccessToken.isEmpty()) {
             log.warn("Mapbox access token not configured, using fallback route");
             return createFallbackRoute(waypoints);
         }
 
         try {
-            // Build coordinates string: "lng,lat;lng,lat;..."
-            String coordinates = waypoints.stream()
-                    .map(wp -> wp[0] + "," + wp[1])
-                    .reduce((a, b) -> a + ";" + b)
-                    .orElse("");
-
-            String url = String.format("/directions/v5/mapbox/walking/%s?geometries=geojson&overview=full&access_token=%s",
-                    coordinates, mapboxAccessToken);
-            Objects.requireNonNull(url, "URL cannot be null");
-
-            log.debug("Calling Mapbox Directions API for {} waypoints", waypoints.size());
-
-            String response = webClient
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(TIMEOUT_MS))
-                    .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
-                            .maxBackoff(Duration.ofSeconds(2))
-                            .filter(throwable -> throwable instanceof WebClientException))
-                    .block();
-
-            if (response == null) {
-                log.warn("Mapbox API returned null response, using fallback route");
-                return createFallbackRoute(waypoints);
-            }
+            List<RouteLegCacheService.Leg> legs =
+                    routeLegCacheService.resolveLegs(waypoints, this::fetchLegs,
+                            MAX_WAYPOINTS_PER_REQUEST - 1, maxConcurrentRequests);
+            return assembleRoute(replaceEstimatedLegs(waypoints, legs));
+        } catch (Exception e) {
+            log.error("Error calculating route", e);
+            return createFallbackRoute(waypoints);
+        }
+    }
+
+    /**
+     * Fetch walking legs between consecutive waypoints from the Mapbox Directions API.
+     *
+     * @param waypoints List of coordinates [longitude, latitude] (at most MAX_WAYPOINTS_PER_REQUEST)
+     * @return One leg per consecutive waypoint pair, emitted when the response arrives
+     */
+    private Mono<List<RouteLegCacheService.Leg>> fetchLegs(List<double[]> waypoints) {
+        // Build coordinates string: "lng,lat;lng,lat;..."
+        String coordinates = waypoints.stream()
+                .map(wp -> wp[0] + "," + wp[1])
+                .reduce((a, b) -> a + ";" + b)
+                .orElse("");
+
+        // Steps carry per-leg geometry, so each leg can be cached on its own
+        String url = String.format("/directions/v5/mapbox/walking/%s?geometries=geojson&overview=false&steps=true&access_token=%s",
+                coordinates, mapboxAccessToken);
+        Objects.requireNonNull(url, "URL cannot be null");
+
+        log.debug("Calling Mapbox Directions API for {} waypoints", waypoints.size());
+
+        return webClient
+                .get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(TIMEOUT_MS))
+                .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(2))
+                        .filter(throwable -> throwable instanceof WebClientException))
+                .switchIfEmpty(Mono.error(new IllegalStateException("Mapbox API returned null response")))
+                .flatMap(response -> Mono.fromCallable(() -> parseLegs(response)));
+    }
 
-            JsonNode jsonResponse = objectMapper.readTree(response);
-
-            if (jsonResponse.has("routes") && jsonResponse.get("routes").isArray()
-                    && jsonResponse.get("routes").size() > 0) {
-                JsonNode route = jsonResponse.get("routes").get(0);
-                JsonNode geometry = route.get("geometry");
-                double distance = route.get("distance").asDouble(); // meters
-                double duration = route.get("duration").asDouble(); // seconds
-
-                // Extract coordinates from GeoJSON geometry
-                List<double[]> routeCoordinates = new ArrayList<>();
-                if (geometry.has("coordinates") && geometry.get("coordinates").isArray()) {
-                    for (JsonNode coord : geometry.get("coordinates")) {
-                        if (coord.isArray() && coord.size() >= 2) {
-                            routeCoordinates.add(new double[]{
-                                    coord.get(0).asDouble(),
-                                    coord.get(1).asDouble()
-                            });
+    /**
+     * Parse per-leg geometry, distance and duration from a Directions API response.
+     */
+    private List<RouteLegCacheService.Leg> parseLegs(String response) throws Exception {
+        JsonNode jsonResponse = objectMapper.readTree(response);
+        if (!jsonResponse.has("routes") || !jsonResponse.get("routes").isArray()
+                || jsonResponse.get("routes").size() == 0) {
+            throw new IllegalStateException("No route found in Mapbox response");
+        }
+
+        List<RouteLegCacheService.Leg> legs = new ArrayList<>();
+        for (JsonNode leg : jsonResponse.get("routes").get(0).path("legs")) {
+            List<double[]> legCoordinates = new ArrayList<>();
+            for (JsonNode step : leg.path("steps")) {
+                for (JsonNode coord : step.path("geometry").path("coordinates")) {
+                    if (coord.isArray() && coord.size() >= 2) {
+                        double[] point = new double[]{coord.get(0).asDouble(), coord.get(1).asDouble()};
+                        // Consecutive steps share their joining point
+                        if (legCoordinates.isEmpty() || !Arrays.equals(legCoordinates.get(legCoordinates.size() - 1), point)) {
+                            legCoordinates.add(point);
                         }
                     }
                 }
+            }
 
-                // Encode to polyline (simplified - stores as JSON string for now)
-                // For production, consider using a proper polyline encoding library
-                String polyline = encodePolyline(routeCoordinates);
-
-                return RouteResult.builder()
-                        .polyline(polyline)
-                        .distanceKm(distance / 1000.0)
-                        .durationMinutes((int) Math.round(duration / 60.0))
-                        .coordinates(routeCoordinates)
-                        .build();
-            } else {
-                log.warn("No route found in Mapbox response, using fallback");
-                return createFallbackRoute(waypoints);
+            double[] flat = new double[legCoordinates.size() * 2];
+            for (int i = 0; i < legCoordinates.size(); i++) {
+                flat[i * 2] = legCoordinates.get(i)[0];
+                flat[i * 2 + 1] = legCoordinates.get(i)[1];
             }
-        } catch (Exception e) {
-            log.error("Error calling Mapbox Directions API", e);
-            return createFallbackRoute(waypoints);
+            legs.add(new RouteLegCacheService.Leg(flat,
+                    leg.path("distance").asDouble(), // meters
+                    leg.path("duration").asDouble(), // seconds
+                    false));
+        }
+        return legs;
+    }
+
+    /**
+     * Swap straight-line legs for offline walking routes where possible.
+     * Offline legs are not written to the leg cache, so Mapbox is asked again next time.
+     */
+    private List<RouteLegCacheService.Leg> replaceEstimatedLegs(List<double[]> waypoints,
+                                                               List<RouteLegCacheService.Leg> legs) {
+        if (!offlineRoutingService.isAvailable()) {
+            return legs;
         }
+        List<RouteLegCacheService.Leg> result = new ArrayList<>(legs);
+        for (int i = 0; i < result.size(); i++) {
+            if (result.get(i).isEstimated()) {
+                RouteLegCacheService.Leg leg = offlineRoutingService.routeLeg(waypoints.get(i), waypoints.get(i + 1));
+                if (leg != null) {
+                    result.set(i, leg);
+                }
+            }
+        }
+        return result;
     }
 
     /**
-     * Create fallback route (straight line) when Mapbox API fails.
+     * Join legs into a full route. The route is marked estimated if any leg is.
+     */
+    private RouteResult assembleRoute(List<RouteLegCacheService.Leg> legs) {
+        List<double[]> routeCoordinates = new ArrayList<>();
+        double distance = 0.0; // meters
+        double duration = 0.0; // seconds
+        boolean estimated = false;
+
+        for (RouteLegCacheService.Leg leg : legs) {
+            double[] flat = leg.getCoordinates();
+            for (int i = 0; i + 1 < flat.length; i += 2) {
+                double[] point = new double[]{flat[i], flat[i + 1]};
+                // Each leg starts where the previous one ended
+                if (i == 0 && !routeCoordinates.isEmpty()
+                        && Arrays.equals(routeCoordinates.get(routeCoordinates.size() - 1), point)) {
+                    continue;
+                }
+                routeCoordinates.add(point);
+            }
+            distance += leg.getDistanceMeters();
+            duration += leg.getDurationSeconds();
+            estimated |= leg.isEstimated();
+        }
+
+        return buildResult(routeCoordinates, distance / 1000.0, (int) Math.round(duration / 60.0), estimated);
+    }
+
+    /**
+     * Straight-line route estimate between waypoints. Makes no network call.
+     *
+     * @param waypoints List of coordinates [longitude, latitude]
+     * @return RouteResult marked as estimated
+     */
+    public RouteResult estimateRoute(List<double[]> waypoints) {
+        if (waypoints == null || waypoints.size() < 2) {
+            throw new IllegalArgumentException("At least 2 waypoints are required");
+        }
+        return createStraightLineRoute(waypoints);
+    }
+
+    /**
+     * Create fallback route when Mapbox is unavailable: offline walking route if
+     * the offline router is loaded, otherwise a straight line.
      */
     private RouteResult createFallbackRoute(List<double[]> waypoints) {
-        // Simple polyline encoding (stores coordinates as JSON string)
-        String polyline = encodePolyline(waypoints);
-        
+        if (offlineRoutingService.isAvailable()) {
+            try {
+                return assembleRoute(offlineRoutingService.routeLegs(waypoints));
+            } catch (Exception e) {
+                log.error("Error calculating offline route", e);
+            }
+        }
+        return createStraightLineRoute(waypoints);
+    }
+
+    /**
+     * Straight-line route between waypoints.
+     */
+    private RouteResult createStraightLineRoute(List<double[]> waypoints) {
         // Calculate straight-line distance
         double totalDistance = 0.0;
         for (int i = 0; i < waypoints.size() - 1; i++) {
@@ -148,33 +262,26 @@ public class MapboxService {
         // Estimate walking time: ~12 minutes per km
         int estimatedMinutes = (int) Math.round(totalDistance * 12.0);
 
-        return RouteResult.builder()
-                .polyline(polyline)
-                .distanceKm(totalDistance)
-                .durationMinutes(estimatedMinutes)
-                .coordinates(waypoints)
-                .build();
+        return buildResult(waypoints, totalDistance, estimatedMinutes, true);
     }
 
     /**
-     * Simple polyline encoding (stores coordinates as JSON string).
-     * For production, consider using a proper polyline encoding library like Google's polyline algorithm.
+     * Encode the route at full resolution and at each simplified zoom band.
      */
-    private String encodePolyline(List<double[]> coordinates) {
-        try {
-            // Store as JSON array string for simplicity
-            // Format: "[[lng1,lat1],[lng2,lat2],...]"
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < coordinates.size(); i++) {
-                if (i > 0) sb.append(",");
-                sb.append("[").append(coordinates.get(i)[0]).append(",").append(coordinates.get(i)[1]).append("]");
-            }
-            sb.append("]");
-            return sb.toString();
-        } catch (Exception e) {
-            log.error("Error encoding polyline", e);
-            return "[]";
-        }
+    private RouteResult buildResult(List<double[]> coordinates, double distanceKm, int durationMinutes, boolean estimated) {
+        List<double[]> standard = PolylineUtils.simplify(coordinates, STANDARD_TOLERANCE_METERS);
+        // Overview is simplified from the standard variant, which already dropped most points
+        List<double[]> overview = PolylineUtils.simplify(standard, OVERVIEW_TOLERANCE_METERS);
+
+        return RouteResult.builder()
+                .polyline(PolylineUtils.encode(coordinates, PolylineUtils.DEFAULT_PRECISION))
+                .standardPolyline(PolylineUtils.encode(standard, PolylineUtils.DEFAULT_PRECISION))
+                .overviewPolyline(PolylineUtils.encode(overview, PolylineUtils.DEFAULT_PRECISION))
+                .distanceKm(distanceKm)
+                .durationMinutes(durationMinutes)
+                .coordinates(coordinates)
+                .estimated(estimated)
+                .build();
     }
 
     /**
@@ -200,9 +307,14 @@ public class MapboxService {
     @lombok.Data
     @lombok.Builder
     public static class RouteResult {
+        // Encoded polylines (precision 5)
         private String polyline;
+        private String standardPolyline;
+        private String overviewPolyline;
         private Double distanceKm;
         private Integer durationMinutes;
         private List<double[]> coordinates;
+        // True when this is a straight-line estimate rather than a walking route
+        private boolean estimated;
     }
 }
@@ -0,0 +1,142 @@
+package com.krawl.service;
+
+import com.krawl.service.routing.AStarRouter;
+import com.krawl.service.routing.OsmPedestrianGraphLoader;
+import com.krawl.service.routing.PedestrianGraph;
+import com.krawl.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process walking router over a local OpenStreetMap XML extract (.osm). PBF extracts
+ * are not read; see OsmPedestrianGraphLoader.
+ *
+ * Used instead of the Mapbox Directions API when krawl.routing.engine is "offline",
+ * and as the fallback for legs Mapbox cannot route (no access token, API errors).
+ * Without a configured extract it is unavailable and callers keep the straight-line estimate.
+ */
+@Service
+@Slf4j
+public class OfflineRoutingService {
+
+    // Waypoints further than this from the walking network are not snapped
+    private static final double MAX_SNAP_DISTANCE_METERS = 300.0;
+    // Walking pace: ~12 minutes per km, matching the straight-line estimate
+    private static final double SECONDS_PER_METER = 0.72;
+
+    @Value("${krawl.routing.offline.graph-path:}")
+    private String graphPath;
+
+    private volatile AStarRouter router;
+
+    /**
+     * Load the walking network once the application is ready, if an extract is configured.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (graphPath == null || graphPath.isBlank()) {
+            log.info("Offline routing disabled: no krawl.routing.offline.graph-path configured");
+            return;
+        }
+        Path path = Path.of(graphPath);
+        if (path.getFileName().toString().toLowerCase().endsWith(".pbf")) {
+            log.error("Offline routing disabled: {} is a PBF extract; only OpenStreetMap XML (.osm) is supported", path);
+            return;
+        }
+        if (!Files.isReadable(path)) {
+            log.warn("Offline routing disabled: cannot read {}", path);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            PedestrianGraph graph = OsmPedestrianGraphLoader.load(input);
+            setGraph(graph);
+            log.info("Offline routing graph loaded from {}: {} nodes, {} edges in {} ms",
+                    path, graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to load offline routing graph from {}", path, e);
+        }
+    }
+
+    /**
+     * Whether a walking network is loaded.
+     */
+    public boolean isAvailable() {
+        return router != null;
+    }
+
+    /**
+     * Route every leg of a multi-waypoint walk. Legs that cannot be routed
+     * (waypoint far from the network, disconnected) fall back to a straight line.
+     *
+     * @param waypoints List of coordinates [longitude, latitude]
+     * @return One leg per consecutive waypoint pair
+     */
+    public List<RouteLegCacheService.Leg> routeLegs(List<double[]> waypoints) {
+        List<RouteLegCacheService.Leg> legs = new ArrayList<>(waypoints.size() - 1);
+        for (int i = 0; i < waypoints.size() - 1; i++) {
+            RouteLegCacheService.Leg leg = routeLeg(waypoints.get(i), waypoints.get(i + 1));
+            legs.add(leg != null ? leg : RouteLegCacheService.estimateLeg(waypoints.get(i), waypoints.get(i + 1)));
+        }
+        return legs;
+    }
+
+    /**
+     * Route a single leg.
+     *
+     * @param from Start [longitude, latitude]
+     * @param to End [longitude, latitude]
+     * @return Walking leg, or null if it cannot be routed on the network
+     */
+    public RouteLegCacheService.Leg routeLeg(double[] from, double[] to) {
+        AStarRouter currentRouter = router;
+        if (currentRouter == null) {
+            return null;
+        }
+        PedestrianGraph currentGraph = currentRouter.getGraph();
+
+        int source = currentGraph.nearestNode(from[1], from[0], MAX_SNAP_DISTANCE_METERS);
+        int target = currentGraph.nearestNode(to[1], to[0], MAX_SNAP_DISTANCE_METERS);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+
+        AStarRouter.Path path = currentRouter.route(source, target);
+        if (path == null) {
+            return null;
+        }
+
+        // Waypoint -> snapped node -> path -> snapped node -> waypoint
+        int[] nodes = path.getNodes();
+        double[] coordinates = new double[(nodes.length + 2) * 2];
+        coordinates[0] = from[0];
+        coordinates[1] = from[1];
+        for (int i = 0; i < nodes.length; i++) {
+            coordinates[(i + 1) * 2] = currentGraph.longitudeOf(nodes[i]);
+            coordinates[(i + 1) * 2 + 1] = currentGraph.latitudeOf(nodes[i]);
+        }
+        coordinates[coordinates.length - 2] = to[0];
+        coordinates[coordinates.length - 1] = to[1];
+
+        double distance = path.getLengthMeters()
+                + GeoUtils.equirectangularMeters(from[1], from[0], currentGraph.latitudeOf(source), currentGraph.longitudeOf(source))
+                + GeoUtils.equirectangularMeters(to[1], to[0], currentGraph.latitudeOf(target), currentGraph.longitudeOf(target));
+
+        return new RouteLegCacheService.Leg(coordinates, distance, distance * SECONDS_PER_METER, false);
+    }
+
+    void setGraph(PedestrianGraph graph) {
+        this.router = new AStarRouter(graph);
+    }
+}
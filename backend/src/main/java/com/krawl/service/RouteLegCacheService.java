@@ -0,0 +1,318 @@
+package com.krawl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.entity.RouteLeg;
+import com.krawl.repository.RouteLegRepository;
+import com.krawl.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leg-level cache for walking routes.
+ *
+ * A route through N waypoints is N - 1 legs. Each leg is keyed by its two endpoints
+ * rounded to ~1 m and looked up in three tiers:
+ * 1. Bounded in-memory LRU
+ * 2. route_legs table (one batched lookup for all memory misses)
+ * 3. The routing API, only for legs that are actually new; separate runs of new legs
+ *    are requested concurrently and joined back in route order
+ *
+ * Concurrent requests for the same new leg are coalesced: the first caller fetches
+ * it and everyone else waits for that result (single flight).
+ *
+ * Legs that could not be routed are returned as straight-line estimates and never cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteLegCacheService {
+
+    // Walking pace used for straight-line estimates: ~12 minutes per km
+    private static final double ESTIMATED_SECONDS_PER_METER = 0.72;
+    private static final double COORDINATE_SCALE = 1e5; // 5 decimal places (~1 m)
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+    // Owners give up before waiters do, so waiters get the owner's result or estimates
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(IN_FLIGHT_WAIT_SECONDS - 5);
+
+    private final RouteLegRepository routeLegRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${krawl.routing.leg-cache-size:10000}")
+    private int legCacheSize;
+
+    private Map<String, Leg> memory;
+    private final Map<String, CompletableFuture<Leg>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(1, legCacheSize);
+        memory = Collections.synchronizedMap(new LinkedHashMap<String, Leg>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Leg> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * Fetches walking legs for consecutive waypoints from the routing API.
+     */
+    @FunctionalInterface
+    public interface LegFetcher {
+        /**
+         * @param waypoints Consecutive waypoints [longitude, latitude]
+         * @return One leg per consecutive pair (waypoints.size() - 1 legs), emitted when the call completes
+         */
+        Mono<List<Leg>> fetch(List<double[]> waypoints);
+    }
+
+    /**
+     * Resolve every leg of a route, calling the fetcher only for legs that are not cached.
+     * Missing legs that are adjacent are fetched together in one call of at most
+     * {@code maxLegsPerFetch} legs, and separate calls run concurrently.
+     *
+     * @param waypoints Route waypoints in order [longitude, latitude]
+     * @param fetcher Routing API call for uncached legs
+     * @param maxLegsPerFetch Maximum number of legs per fetcher call
+     * @param maxConcurrentFetches Maximum number of fetcher calls in flight for this route
+     * @return One leg per consecutive waypoint pair, in route order
+     */
+    public List<Leg> resolveLegs(List<double[]> waypoints, LegFetcher fetcher, int maxLegsPerFetch,
+                                 int maxConcurrentFetches) {
+        int legCount = waypoints.size() - 1;
+        Leg[] legs = new Leg[legCount];
+        String[] keys = new String[legCount];
+
+        // 1. Memory
+        Set<String> misses = new LinkedHashSet<>();
+        for (int i = 0; i < legCount; i++) {
+            keys[i] = legKey(waypoints.get(i), waypoints.get(i + 1));
+            legs[i] = memory.get(keys[i]);
+            if (legs[i] == null) {
+                misses.add(keys[i]);
+            }
+        }
+
+        // 2. Database
+        if (!misses.isEmpty()) {
+            for (RouteLeg stored : routeLegRepository.findAllById(misses)) {
+                Leg leg = fromEntity(stored);
+                if (leg != null) {
+                    memory.put(stored.getLegKey(), leg);
+                }
+            }
+            for (int i = 0; i < legCount; i++) {
+                if (legs[i] == null) {
+                    legs[i] = memory.get(keys[i]);
+                }
+            }
+        }
+
+        // 3. Routing API, single flight per leg key
+        Map<Integer, CompletableFuture<Leg>> owned = new LinkedHashMap<>();
+        Map<Integer, CompletableFuture<Leg>> waiting = new HashMap<>();
+        try {
+            for (int i = 0; i < legCount; i++) {
+                if (legs[i] != null) {
+                    continue;
+                }
+                CompletableFuture<Leg> future = new CompletableFuture<>();
+                CompletableFuture<Leg> existing = inFlight.putIfAbsent(keys[i], future);
+                if (existing == null) {
+                    owned.put(i, future);
+                } else {
+                    waiting.put(i, existing);
+                }
+            }
+
+            if (!owned.isEmpty()) {
+                fetchOwnedLegs(waypoints, keys, legs, owned, fetcher,
+                        Math.max(1, maxLegsPerFetch), Math.max(1, maxConcurrentFetches));
+            }
+        } finally {
+            // Whatever failed above, waiters get an answer and no key stays in flight
+            for (Map.Entry<Integer, CompletableFuture<Leg>> entry : owned.entrySet()) {
+                int i = entry.getKey();
+                CompletableFuture<Leg> future = entry.getValue();
+                if (!future.isDone()) {
+                    future.complete(estimateLeg(waypoints.get(i), waypoints.get(i + 1)));
+                }
+                inFlight.remove(keys[i], future);
+            }
+        }
+
+        for (Map.Entry<Integer, CompletableFuture<Leg>> entry : waiting.entrySet()) {
+            int i = entry.getKey();
+            try {
+                legs[i] = entry.getValue().get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("Timed out waiting for in-flight route leg {}", keys[i]);
+                legs[i] = estimateLeg(waypoints.get(i), waypoints.get(i + 1));
+            }
+        }
+
+        List<Leg> result = new ArrayList<>(legCount);
+        Collections.addAll(result, legs);
+        return result;
+    }
+
+    /**
+     * Number of legs currently held in memory.
+     */
+    public int size() {
+        return memory.size();
+    }
+
+    private void fetchOwnedLegs(List<double[]> waypoints, String[] keys, Leg[] legs,
+                                Map<Integer, CompletableFuture<Leg>> owned, LegFetcher fetcher,
+                                int maxLegsPerFetch, int maxConcurrentFetches) {
+        // Split missing legs into runs of adjacent legs, up to the per-call limit.
+        // Consecutive runs share their boundary waypoint, so the fetched legs join up.
+        List<Integer> indexes = new ArrayList<>(owned.keySet());
+        List<int[]> runs = new ArrayList<>();
+        int runStart = 0;
+        while (runStart < indexes.size()) {
+            int runEnd = runStart;
+            while (runEnd + 1 < indexes.size()
+                    && indexes.get(runEnd + 1) == indexes.get(runEnd) + 1
+                    && runEnd + 1 - runStart < maxLegsPerFetch) {
+                runEnd++;
+            }
+            runs.add(new int[]{indexes.get(runStart), indexes.get(runEnd)});
+            runStart = runEnd + 1;
+        }
+
+        // Fetch all runs concurrently, at most maxConcurrentFetches in flight
+        Map<Integer, List<Leg>> fetched = Map.of();
+        try {
+            fetched = Flux.range(0, runs.size())
+                    .flatMap(r -> fetchRun(waypoints, runs.get(r), fetcher).map(result -> Map.entry(r, result)),
+                            maxConcurrentFetches)
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .block(FETCH_TIMEOUT);
+        } catch (Exception e) {
+            log.error("Failed to fetch {} route leg runs", runs.size(), e);
+        }
+
+        for (int r = 0; r < runs.size(); r++) {
+            int firstLeg = runs.get(r)[0];
+            int lastLeg = runs.get(r)[1];
+            List<Leg> runLegs = fetched != null ? fetched.get(r) : null;
+            for (int i = firstLeg; i <= lastLeg; i++) {
+                Leg leg = runLegs != null && !runLegs.isEmpty()
+                        ? runLegs.get(i - firstLeg)
+                        : estimateLeg(waypoints.get(i), waypoints.get(i + 1));
+                legs[i] = leg;
+                if (!leg.isEstimated()) {
+                    store(keys[i], leg);
+                }
+                owned.get(i).complete(leg);
+            }
+        }
+    }
+
+    /**
+     * Fetch one run of legs. Emits an empty list if the call fails or returns the wrong number of legs.
+     */
+    private Mono<List<Leg>> fetchRun(List<double[]> waypoints, int[] run, LegFetcher fetcher) {
+        int expected = run[1] - run[0] + 1;
+        return Mono.defer(() -> fetcher.fetch(waypoints.subList(run[0], run[1] + 2)))
+                .map(result -> {
+                    if (result.size() != expected) {
+                        log.warn("Routing API returned {} legs, expected {}", result.size(), expected);
+                        return List.<Leg>of();
+                    }
+                    return result;
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to fetch {} route legs", expected, e);
+                    return Mono.just(List.of());
+                })
+                .defaultIfEmpty(List.of());
+    }
+
+    private void store(String key, Leg leg) {
+        memory.put(key, leg);
+        try {
+            routeLegRepository.insertIfAbsent(key, objectMapper.writeValueAsString(toPairs(leg.getCoordinates())),
+                    leg.getDistanceMeters(), leg.getDurationSeconds());
+        } catch (Exception e) {
+            // The in-memory copy is still usable; the leg will be fetched again after a restart
+            log.warn("Failed to persist route leg {}", key, e);
+        }
+    }
+
+    private Leg fromEntity(RouteLeg stored) {
+        try {
+            double[][] pairs = objectMapper.readValue(stored.getCoordinates(), double[][].class);
+            double[] coordinates = new double[pairs.length * 2];
+            for (int i = 0; i < pairs.length; i++) {
+                coordinates[i * 2] = pairs[i][0];
+                coordinates[i * 2 + 1] = pairs[i][1];
+            }
+            return new Leg(coordinates, stored.getDistanceMeters(), stored.getDurationSeconds(), false);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable route leg {}", stored.getLegKey());
+            return null;
+        }
+    }
+
+    private static double[][] toPairs(double[] coordinates) {
+        double[][] pairs = new double[coordinates.length / 2][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new double[]{coordinates[i * 2], coordinates[i * 2 + 1]};
+        }
+        return pairs;
+    }
+
+    /**
+     * Cache key for the leg between two waypoints, endpoints rounded to ~1 m.
+     */
+    static String legKey(double[] from, double[] to) {
+        return Math.round(from[0] * COORDINATE_SCALE) + "," + Math.round(from[1] * COORDINATE_SCALE)
+                + ";" + Math.round(to[0] * COORDINATE_SCALE) + "," + Math.round(to[1] * COORDINATE_SCALE);
+    }
+
+    /**
+     * Straight-line estimate for a leg that could not be routed.
+     */
+    static Leg estimateLeg(double[] from, double[] to) {
+        double distance = GeoUtils.haversineMeters(from[1], from[0], to[1], to[0]);
+        return new Leg(new double[]{from[0], from[1], to[0], to[1]}, distance,
+                distance * ESTIMATED_SECONDS_PER_METER, true);
+    }
+
+    /**
+     * A walking route leg. Coordinates are stored flat: lng0, lat0, lng1, lat1, ...
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Leg {
+        private final double[] coordinates;
+        private final double distanceMeters;
+        private final double durationSeconds;
+        // True when this is a straight-line estimate rather than a walking route
+        private final boolean estimated;
+    }
+}
@@ -8,6 +8,7 @@ import com.krawl.dto.response.SearchResultsResponse.GemSearchResult;
 import com.krawl.dto.response.SearchResultsResponse.KrawlSearchResult;
 import com.krawl.entity.Gem;
 import com.krawl.entity.Krawl;
+import com.krawl.entity.KrawlSummary;
 import com.krawl.entity.SearchQuery;
 import com.krawl.entity.User;
 import com.krawl.repository.GemRepository;
@@ -24,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -42,6 +44,7 @@ public class SearchService {
     private final GemRepository gemRepository;
     private final KrawlRepository krawlRepository;
     private final SearchQueryRepository searchQueryRepository;
+    private final KrawlSummaryService krawlSummaryService;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -240,50 +243,44 @@ public class SearchService {
 
     /**
      * Search krawls and map results to DTOs.
+     * Cards come from the krawl summary read model, loaded for the whole page at once.
      */
     private List<KrawlSearchResult> searchKrawls(String query, int limit, int offset) {
         List<Object[]> results = krawlRepository.searchKrawls(query, limit, offset);
-        List<KrawlSearchResult> krawlResults = new ArrayList<>();
-
+        List<UUID> krawlIds = new ArrayList<>(results.size());
         for (Object[] row : results) {
             try {
-                UUID krawlId = getUUID(row, 0);
-                Krawl krawl = entityManager.find(Krawl.class, krawlId);
-
-                if (krawl != null) {
-                    Double relevanceScore = getDouble(row, row.length - 1);
-                    Integer vouchCount = krawlRepository.countVouchesByKrawlId(krawl.getId());
-                    Double averageRating = krawlRepository.calculateAverageRating(krawl.getId());
-
-                    // Calculate center point from first gem in krawl
-                    Double latitude = null;
-                    Double longitude = null;
-                    if (krawl.getGems() != null && !krawl.getGems().isEmpty()) {
-                        Gem firstGem = krawl.getGems().get(0).getGem();
-                        if (firstGem != null) {
-                            latitude = firstGem.getLatitude();
-                            longitude = firstGem.getLongitude();
-                        }
-                    }
-
-                    krawlResults.add(KrawlSearchResult.builder()
-                            .id(krawl.getId().toString())
-                            .name(krawl.getName())
-                            .description(krawl.getDescription())
-                            .category(krawl.getCategory())
-                            .difficulty(krawl.getDifficulty())
-                            .coverImage(krawl.getCoverImage())
-                            .gemCount(krawl.getGems() != null ? krawl.getGems().size() : 0)
-                            .latitude(latitude)
-                            .longitude(longitude)
-                            .relevanceScore(relevanceScore)
-                            .vouchCount(vouchCount != null ? vouchCount : 0)
-                            .averageRating(averageRating != null ? averageRating : 0.0)
-                            .build());
-                }
+                krawlIds.add(getUUID(row, 0));
             } catch (Exception e) {
                 log.error("Error mapping krawl search result: {}", e.getMessage(), e);
+                krawlIds.add(null);
+            }
+        }
+
+        Map<UUID, KrawlSummary> summaries = krawlSummaryService.findByIds(
+                krawlIds.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        List<KrawlSearchResult> krawlResults = new ArrayList<>();
+
+        for (int i = 0; i < results.size(); i++) {
+            KrawlSummary summary = krawlIds.get(i) != null ? summaries.get(krawlIds.get(i)) : null;
+            if (summary == null) {
+                continue;
             }
+            Object[] row = results.get(i);
+            krawlResults.add(KrawlSearchResult.builder()
+                    .id(summary.getKrawlId().toString())
+                    .name(summary.getName())
+                    .description(summary.getDescription())
+                    .category(summary.getCategory())
+                    .difficulty(summary.getDifficulty())
+                    .coverImage(summary.getCoverImage())
+                    .gemCount(summary.getGemCount())
+                    .latitude(summary.getStartLatitude())
+                    .longitude(summary.getStartLongitude())
+                    .relevanceScore(getDouble(row, row.length - 1))
+                    .vouchCount(summary.getVouchCount())
+                    .averageRating(summary.getAverageRating())
+                    .build());
         }
 
         return krawlResults;
@@ -0,0 +1,169 @@
+package com.krawl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.dto.response.SessionReplayResponse;
+import com.krawl.entity.KrawlSession;
+import com.krawl.exception.ForbiddenException;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.service.location.TrajectoryDownsampler;
+import com.krawl.service.location.TrajectoryPoint;
+import com.krawl.service.location.TrajectoryStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Replay of a Krawl Mode session's recorded trajectory.
+ *
+ * The trajectory is read through a forward-only cursor, downsampled on the fly to a
+ * point budget (TrajectoryDownsampler) and written to the response as it goes. Only two
+ * downsampling buckets are held at a time, about {@code 2 * totalPoints / maxPoints}
+ * points, so a long session replayed at a small budget still holds a few of its points
+ * per kept point rather than the whole trajectory. Sessions recorded before trajectory
+ * chunks existed are read from krawl_location_history the same way.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionReplayService {
+
+    public static final int MAX_POINTS_LIMIT = 5000;
+
+    private static final int LEGACY_FETCH_SIZE = 1000;
+
+    private static final String LEGACY_SELECT_SQL = """
+            SELECT recorded_at, latitude, longitude, accuracy, heading, speed
+            FROM krawl_location_history
+            WHERE session_id = ? AND latitude IS NOT NULL AND longitude IS NOT NULL
+            ORDER BY recorded_at
+            """;
+
+    private final KrawlSessionRepository krawlSessionRepository;
+    private final TrajectoryStore trajectoryStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Check that a session can be replayed by a user. Call before starting the response,
+     * so errors still get a proper status.
+     *
+     * @param krawlId The UUID of the krawl
+     * @param sessionId The UUID of the session
+     * @param userId The UUID of the user asking; must own the session
+     * @param maxPoints Point budget, from 2 to MAX_POINTS_LIMIT
+     * @throws IllegalArgumentException if the point budget is out of range
+     * @throws ResourceNotFoundException if the session is not found for the krawl
+     * @throws ForbiddenException if the session belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public void validateReplay(UUID krawlId, UUID sessionId, UUID userId, int maxPoints) {
+        if (maxPoints < 2 || maxPoints > MAX_POINTS_LIMIT) {
+            throw new IllegalArgumentException("maxPoints must be between 2 and " + MAX_POINTS_LIMIT);
+        }
+        KrawlSession session = krawlSessionRepository.findById(sessionId)
+                .filter(found -> found.getKrawl().getId().equals(krawlId))
+                .orElseThrow(() -> new ResourceNotFoundException("Krawl session", "id", sessionId));
+        if (!session.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("You can only replay your own Krawl Mode sessions");
+        }
+    }
+
+    /**
+     * Write a session's downsampled trajectory as JSON (SessionReplayResponse).
+     *
+     * Runs in one repeatable-read transaction, so the point count and the points come from
+     * the same snapshot even while the session is still recording.
+     *
+     * @param sessionId The UUID of the session, checked with validateReplay
+     * @param maxPoints Point budget
+     * @param out Response body
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void writeReplay(UUID sessionId, int maxPoints, OutputStream out) throws IOException {
+        long totalPoints = trajectoryStore.countPoints(sessionId);
+        boolean legacy = totalPoints == 0;
+        if (legacy) {
+            totalPoints = countLegacyPoints(sessionId);
+        }
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false); // The container owns the stream
+            generator.writeStartObject();
+            generator.writeObjectField("sessionId", sessionId);
+            generator.writeNumberField("totalPoints", totalPoints);
+            generator.writeNumberField("maxPoints", maxPoints);
+            generator.writeArrayFieldStart("points");
+
+            TrajectoryDownsampler downsampler = new TrajectoryDownsampler(totalPoints, maxPoints,
+                    point -> writePoint(generator, point));
+            try {
+                if (legacy) {
+                    streamLegacyPoints(sessionId, downsampler::accept);
+                } else {
+                    trajectoryStore.streamSession(sessionId, downsampler::accept);
+                }
+                downsampler.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // Client went away
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        log.debug("Replayed session {}: {} points down to at most {}", sessionId, totalPoints, maxPoints);
+    }
+
+    private long countLegacyPoints(UUID sessionId) {
+        Long count = jdbcTemplate.queryForObject("""
+                        SELECT COUNT(*) FROM krawl_location_history
+                        WHERE session_id = ? AND latitude IS NOT NULL AND longitude IS NOT NULL
+                        """,
+                Long.class, sessionId);
+        return count != null ? count : 0;
+    }
+
+    private void streamLegacyPoints(UUID sessionId, Consumer<TrajectoryPoint> consumer) {
+        jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(LEGACY_SELECT_SQL);
+                    statement.setFetchSize(LEGACY_FETCH_SIZE);
+                    statement.setObject(1, sessionId);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(new TrajectoryPoint(
+                        rs.getTimestamp("recorded_at").toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                        rs.getDouble("latitude"), rs.getDouble("longitude"),
+                        rs.getObject("accuracy", Double.class), rs.getObject("heading", Double.class),
+                        rs.getObject("speed", Double.class))));
+    }
+
+    private static void writePoint(JsonGenerator generator, TrajectoryPoint point) {
+        try {
+            generator.writeObject(SessionReplayResponse.ReplayPoint.builder()
+                    .recordedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(point.getEpochMillis()), ZoneOffset.UTC))
+                    .latitude(point.getLatitude())
+                    .longitude(point.getLongitude())
+                    .accuracy(point.getAccuracy())
+                    .heading(point.getHeading())
+                    .speed(point.getSpeed())
+                    .build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
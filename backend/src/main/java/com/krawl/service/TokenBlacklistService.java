@@ -2,83 +2,157 @@ package com.krawl.service;
 
 import com.krawl.entity.RevokedToken;
 import com.krawl.repository.RevokedTokenRepository;
+import com.krawl.util.DigestBloomFilter;
+import com.krawl.util.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for managing token blacklist.
  * Handles token revocation and blacklist checking.
+ *
+ * Tokens are stored as SHA-256 hashes, never as the raw JWT. Every node keeps the
+ * unexpired revocations in memory: a Bloom filter answers the common "not revoked" case,
+ * and an exact map of hash to expiry confirms the rest, so checking a token costs no
+ * database round trip. The set is loaded at startup and refreshed incrementally every few
+ * seconds ({@code krawl.security.revocation.refresh-ms}) on a scheduler thread of its own,
+ * so batch jobs never delay it. Until the first load completes, checks go to the database.
+ *
+ * A revocation made on another node applies here at most refresh-ms plus the duration of
+ * one refresh query after it commits, as long as the database is reachable and the
+ * revocation committed within REFRESH_OVERLAP (2 minutes) of its revoked_at stamp, as
+ * read by this node's clock. Each refresh re-reads that overlap, so clock skew and slow
+ * commits up to it are covered; a revocation outside it applies at the next full reload
+ * (daily cleanup or restart).
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TokenBlacklistService {
-    
-    private static final int TOKEN_PREVIEW_LENGTH = 10; // Length of token preview in logs
-    
+
+    private static final int MIN_FILTER_CAPACITY = 10_000;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.001;
+    // Each refresh re-reads revocations stamped this long before the previous one, to catch
+    // rows committed late or stamped by another node's clock
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(2);
+    private static final HexFormat HEX = HexFormat.of();
+
     private final RevokedTokenRepository revokedTokenRepository;
-    
+
+    private final Object writeLock = new Object();
+    private volatile RevokedSet revokedSet = new RevokedSet(MIN_FILTER_CAPACITY);
+    private volatile Instant refreshedAt; // Null until the first load
+
     /**
      * Adds a token to the blacklist.
-     * 
+     *
      * @param token Token to blacklist
      * @param expiresAt Token expiration time (blacklist entry expires at same time)
      */
     @Transactional
     @SuppressWarnings("null") // Lombok @Builder always returns non-null when all required fields provided
     public void addToBlacklist(String token, Instant expiresAt) {
+        byte[] digest = sha256(token);
+        String tokenHash = HEX.formatHex(digest);
+
         // Check if already blacklisted (idempotent)
-        if (revokedTokenRepository.existsByToken(token)) {
-            log.debug("Token already blacklisted: {}", 
-                token.substring(0, Math.min(TOKEN_PREVIEW_LENGTH, token.length())) + "...");
+        if (revokedTokenRepository.existsByTokenHash(tokenHash)) {
+            log.debug("Token already blacklisted: {}...", tokenHash.substring(0, 10));
             return;
         }
-        
+
         RevokedToken revokedToken = RevokedToken.builder()
-            .token(token)
+            .tokenHash(tokenHash)
             .expiresAt(expiresAt)
             .revokedAt(Instant.now())
             .build();
-        
+
         revokedTokenRepository.save(revokedToken);
+        TransactionUtils.afterCommit(() -> remember(digest, expiresAt));
         log.debug("Token added to blacklist, expires at: {}", expiresAt);
     }
-    
+
     /**
-     * Checks if a token is blacklisted.
-     * Uses read-only transaction for consistency.
-     * 
+     * Checks if a token is blacklisted, from memory once the revocations are loaded.
+     *
      * @param token Token to check
      * @return true if token is blacklisted, false otherwise
      */
-    @Transactional(readOnly = true)
     public boolean isBlacklisted(String token) {
-        Optional<RevokedToken> revokedTokenOpt = revokedTokenRepository.findByToken(token);
-        
-        if (revokedTokenOpt.isEmpty()) {
-            return false;
+        byte[] digest = sha256(token);
+        if (refreshedAt == null) {
+            return revokedTokenRepository.existsByTokenHashAndExpiresAtAfter(HEX.formatHex(digest), Instant.now());
+        }
+        return revokedSet.contains(digest, Instant.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Replace the in-memory revocations with every unexpired one in the database.
+     */
+    public void reload() {
+        Instant startedAt = Instant.now();
+        try {
+            List<RevokedToken> entries = revokedTokenRepository.findByExpiresAtAfter(startedAt);
+            RevokedSet loaded = new RevokedSet(Math.max(MIN_FILTER_CAPACITY, entries.size() * 2));
+            entries.forEach(entry -> loaded.add(HEX.parseHex(entry.getTokenHash()), entry.getExpiresAt()));
+            synchronized (writeLock) {
+                revokedSet = loaded;
+                refreshedAt = startedAt;
+            }
+            log.info("Loaded {} revoked tokens", entries.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to load revoked tokens: {}", e.getMessage(), e);
         }
-        
-        // Check if blacklist entry has expired
-        RevokedToken entry = revokedTokenOpt.get();
-        if (entry.getExpiresAt().isBefore(Instant.now())) {
-            // Entry expired, remove it
-            revokedTokenRepository.delete(entry);
-            return false;
+    }
+
+    /**
+     * Pick up tokens revoked on other nodes since the previous refresh.
+     */
+    @Scheduled(fixedDelayString = "${krawl.security.revocation.refresh-ms:5000}", scheduler = "revocationRefreshScheduler")
+    public void refresh() {
+        Instant previous = refreshedAt;
+        if (previous == null) {
+            reload();
+            return;
+        }
+        Instant startedAt = Instant.now();
+        try {
+            List<RevokedToken> entries = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                    previous.minus(REFRESH_OVERLAP), startedAt);
+            synchronized (writeLock) {
+                entries.forEach(entry -> remember(HEX.parseHex(entry.getTokenHash()), entry.getExpiresAt()));
+                refreshedAt = startedAt;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh revoked tokens: {}", e.getMessage());
         }
-        
-        return true;
     }
-    
+
     /**
      * Scheduled task to clean up expired blacklist entries.
-     * Runs daily at 2 AM.
+     * Runs daily at 2 AM. Reloads the in-memory set afterwards so expired entries
+     * leave the Bloom filter too.
      */
     @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
     @Transactional
@@ -86,6 +160,62 @@ public class TokenBlacklistService {
         Instant now = Instant.now();
         long deleted = revokedTokenRepository.deleteByExpiresAtBefore(now);
         log.info("Cleaned up {} expired blacklist entries", deleted);
+        reload();
+    }
+
+    private void remember(byte[] digest, Instant expiresAt) {
+        synchronized (writeLock) {
+            RevokedSet current = revokedSet;
+            if (current.size() >= current.capacity()) {
+                // Full: a fuller filter gives more false positives, so rebuild it twice the size
+                RevokedSet grown = new RevokedSet(current.capacity() * 2);
+                current.expiries.forEach((hash, expiry) -> grown.add(HEX.parseHex(hash), expiry));
+                revokedSet = grown;
+                current = grown;
+            }
+            current.add(digest, expiresAt);
+        }
     }
-}
 
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Revoked token hashes with their expiry, behind a Bloom filter. Added to under
+     * writeLock; read without locking.
+     */
+    private static final class RevokedSet {
+        private final DigestBloomFilter filter;
+        private final Map<String, Instant> expiries = new ConcurrentHashMap<>();
+
+        private RevokedSet(int capacity) {
+            this.filter = new DigestBloomFilter(capacity, FILTER_FALSE_POSITIVE_RATE);
+        }
+
+        void add(byte[] digest, Instant expiresAt) {
+            expiries.put(HEX.formatHex(digest), expiresAt);
+            filter.add(digest);
+        }
+
+        boolean contains(byte[] digest, Instant now) {
+            if (!filter.mightContain(digest)) {
+                return false;
+            }
+            Instant expiresAt = expiries.get(HEX.formatHex(digest));
+            return expiresAt != null && expiresAt.isAfter(now);
+        }
+
+        int size() {
+            return expiries.size();
+        }
+
+        int capacity() {
+            return filter.getCapacity();
+        }
+    }
+}
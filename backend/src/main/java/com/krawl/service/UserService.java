@@ -11,6 +11,7 @@ import com.krawl.exception.AuthException;
 import com.krawl.exception.ForbiddenException;
 import com.krawl.exception.ResourceNotFoundException;
 import com.krawl.repository.*;
+import com.krawl.util.TransactionUtils;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +43,7 @@ public class UserService {
     private final GemService gemService;
     private final KrawlService krawlService;
     private final EmailService emailService;
+    private final LocationRetentionService locationRetentionService;
 
     /**
      * Result class for user creation/update operations.
@@ -521,6 +523,9 @@ public class UserService {
         user.setAppPreferences(null);
 
         userRepository.save(user);
+
+        // Location history is personal data: purge it once the account is anonymized
+        TransactionUtils.afterCommit(() -> locationRetentionService.purgeUser(userId));
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A gem reached by a Krawl Mode session, as detected from its location stream.
+ */
+@Getter
+@AllArgsConstructor
+public class GeofenceArrival {
+
+    private final UUID sessionId;
+    private final UUID gemId;
+    private final double distanceMeters;
+}
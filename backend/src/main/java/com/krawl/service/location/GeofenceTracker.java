@@ -0,0 +1,111 @@
+package com.krawl.service.location;
+
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.repository.projection.RemainingGemRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the remaining gem positions of active Krawl Mode sessions in memory and detects
+ * arrivals from their location fixes.
+ *
+ * A session's geofence is loaded with one query on its first fix and then updated in
+ * place; sessions that stop reporting are evicted and reloaded if they resume. The query
+ * runs outside the map's locks, so a slow load never holds up other sessions' fixes; two
+ * first fixes of the same session may both load, and the first one stored wins.
+ */
+@Component
+@Slf4j
+public class GeofenceTracker {
+
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    private final KrawlSessionRepository krawlSessionRepository;
+    private final double arrivalRadiusMeters;
+    private final double exitRadiusMeters;
+    private final int requiredFixes;
+    private final double maxAccuracyMeters;
+
+    private final Map<UUID, SessionGeofence> geofences = new ConcurrentHashMap<>();
+
+    public GeofenceTracker(
+            KrawlSessionRepository krawlSessionRepository,
+            @Value("${krawl.geofence.arrival-radius-meters:30}") double arrivalRadiusMeters,
+            @Value("${krawl.geofence.exit-radius-meters:45}") double exitRadiusMeters,
+            @Value("${krawl.geofence.required-fixes:2}") int requiredFixes,
+            @Value("${krawl.geofence.max-accuracy-meters:50}") double maxAccuracyMeters) {
+        this.krawlSessionRepository = krawlSessionRepository;
+        this.arrivalRadiusMeters = arrivalRadiusMeters;
+        this.exitRadiusMeters = exitRadiusMeters;
+        this.requiredFixes = requiredFixes;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+    }
+
+    /**
+     * Test a fix of a session against its remaining gems.
+     *
+     * @return Gems reached with this fix
+     */
+    public List<GeofenceArrival> check(UUID sessionId, double latitude, double longitude, Double accuracy) {
+        SessionGeofence geofence = geofences.get(sessionId);
+        if (geofence == null) {
+            SessionGeofence loaded = load(sessionId);
+            SessionGeofence existing = geofences.putIfAbsent(sessionId, loaded);
+            geofence = existing != null ? existing : loaded;
+        }
+        return geofence.update(latitude, longitude, accuracy);
+    }
+
+    /**
+     * Stop watching a gem that was completed through the API.
+     */
+    public void gemCompleted(UUID sessionId, UUID gemId) {
+        SessionGeofence geofence = geofences.get(sessionId);
+        if (geofence != null) {
+            geofence.markReached(gemId);
+        }
+    }
+
+    public void sessionEnded(UUID sessionId) {
+        geofences.remove(sessionId);
+    }
+
+    /**
+     * Forget a session's geofence so the next fix reloads its remaining gems, for example
+     * after an arrival it reported could not be recorded.
+     */
+    public void invalidate(UUID sessionId) {
+        geofences.remove(sessionId);
+    }
+
+    /**
+     * Drop geofences of sessions that have not reported for a while.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        geofences.values().removeIf(geofence -> now - geofence.getLastUsedNanos() > IDLE_EVICTION_NANOS);
+    }
+
+    private SessionGeofence load(UUID sessionId) {
+        List<RemainingGemRow> rows = krawlSessionRepository.findRemainingGems(sessionId);
+        List<UUID> gemIds = new ArrayList<>(rows.size());
+        List<double[]> positions = new ArrayList<>(rows.size());
+        for (RemainingGemRow row : rows) {
+            if (row.getLatitude() != null && row.getLongitude() != null) {
+                gemIds.add(row.getGemId());
+                positions.add(new double[]{row.getLatitude(), row.getLongitude()});
+            }
+        }
+        log.debug("Loaded geofence for session {} with {} remaining gems", sessionId, gemIds.size());
+        return new SessionGeofence(sessionId, gemIds, positions,
+                arrivalRadiusMeters, exitRadiusMeters, requiredFixes, maxAccuracyMeters);
+    }
+}
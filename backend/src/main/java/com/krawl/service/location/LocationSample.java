@@ -0,0 +1,22 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A location update accepted for a Krawl Mode session, waiting to be written to history.
+ */
+@Getter
+@AllArgsConstructor
+public class LocationSample {
+    private final UUID sessionId;
+    private final double latitude;
+    private final double longitude;
+    private final Double accuracy;
+    private final Double heading;
+    private final Double speed;
+    private final LocalDateTime recordedAt;
+}
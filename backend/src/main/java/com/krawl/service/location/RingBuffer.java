@@ -0,0 +1,118 @@
+package com.krawl.service.location;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer queue backed by a ring of slots.
+ *
+ * Each slot carries a sequence number telling producers and consumers whose turn it is,
+ * so claiming a slot is a single CAS and a full or empty ring is detected without locks.
+ * Elements come out in the order their slots were claimed.
+ *
+ * @param <E> Element type
+ */
+public final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Next position a producer claims
+    private final AtomicLong head = new AtomicLong(); // Next position a consumer reads
+
+    /**
+     * @param capacity Minimum capacity; rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Append an element.
+     *
+     * @return false if the ring is full (the element is not added)
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1); // Publish to consumers
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // Slot not yet consumed from the previous lap
+            } else {
+                position = tail.get(); // Another producer claimed it
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element.
+     *
+     * @return The element, or null if the ring is empty
+     */
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, position + mask + 1); // Free for the next lap
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null; // Empty, or the producer has not published yet
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements elements, oldest first, into sink.
+     *
+     * @return Number of elements moved
+     */
+    public int drainTo(List<? super E> sink, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            sink.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of elements (exact when no producer or consumer is active).
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,18 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * A Krawl Mode session leaving or rejoining its krawl's route.
+ */
+@Getter
+@AllArgsConstructor
+public class RouteDeviation {
+
+    private final UUID sessionId;
+    private final boolean offRoute;
+    private final RouteMatch nearest; // Where to rejoin the route
+}
@@ -0,0 +1,166 @@
+package com.krawl.service.location;
+
+import com.krawl.entity.Krawl;
+import com.krawl.repository.KrawlRepository;
+import com.krawl.util.PolylineUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects Krawl Mode sessions straying from their krawl's walking route.
+ *
+ * Each krawl's route polyline is loaded and indexed (RouteIndex) on the first fix of any
+ * of its sessions and shared by them, so a fix costs one nearest-segment query. Only
+ * computed walking routes are used: straight-line estimates cut through blocks and would
+ * flag every walker. The query runs outside the map's locks, so a slow load never holds up
+ * other krawls' fixes; concurrent loads of the same route keep the most recent one.
+ *
+ * Hysteresis against GPS jitter: a session goes off route after {@code requiredFixes}
+ * consecutive fixes farther than {@code offRouteMeters} from the route, and is back on
+ * route with the first fix within {@code onRouteMeters}. Fixes less accurate than
+ * {@code maxAccuracyMeters} are ignored.
+ */
+@Component
+@Slf4j
+public class RouteDeviationTracker {
+
+    private static final long IDLE_EVICTION_NANOS = TimeUnit.MINUTES.toNanos(30);
+    private static final long ROUTE_REFRESH_NANOS = TimeUnit.MINUTES.toNanos(10); // Picks up routes changed elsewhere
+
+    private final KrawlRepository krawlRepository;
+    private final double offRouteMeters;
+    private final double onRouteMeters;
+    private final int requiredFixes;
+    private final double maxAccuracyMeters;
+
+    private final Map<UUID, CachedRoute> routes = new ConcurrentHashMap<>();
+    private final Map<UUID, SessionState> sessions = new ConcurrentHashMap<>();
+
+    public RouteDeviationTracker(
+            KrawlRepository krawlRepository,
+            @Value("${krawl.route-deviation.off-route-meters:40}") double offRouteMeters,
+            @Value("${krawl.route-deviation.on-route-meters:25}") double onRouteMeters,
+            @Value("${krawl.route-deviation.required-fixes:2}") int requiredFixes,
+            @Value("${krawl.route-deviation.max-accuracy-meters:50}") double maxAccuracyMeters) {
+        this.krawlRepository = krawlRepository;
+        this.offRouteMeters = offRouteMeters;
+        this.onRouteMeters = Math.min(onRouteMeters, offRouteMeters);
+        this.requiredFixes = Math.max(1, requiredFixes);
+        this.maxAccuracyMeters = maxAccuracyMeters;
+    }
+
+    /**
+     * Test a fix of a session against its krawl's route.
+     *
+     * @return The deviation if the session left or rejoined the route with this fix, otherwise null
+     */
+    public RouteDeviation check(UUID sessionId, UUID krawlId, double latitude, double longitude, Double accuracy) {
+        if (accuracy != null && accuracy > maxAccuracyMeters) {
+            return null;
+        }
+        RouteIndex route = route(krawlId);
+        if (route == null) {
+            return null;
+        }
+
+        RouteMatch nearest = route.nearest(latitude, longitude);
+        Boolean offRoute = sessions.computeIfAbsent(sessionId, id -> new SessionState())
+                .update(nearest.getDistanceMeters());
+        if (offRoute == null) {
+            return null;
+        }
+        log.debug("Session {} {} route ({} m away)", sessionId, offRoute ? "left" : "rejoined",
+                Math.round(nearest.getDistanceMeters()));
+        return new RouteDeviation(sessionId, offRoute, nearest);
+    }
+
+    /**
+     * Drop the cached route of a krawl whose route changed.
+     */
+    public void invalidate(UUID krawlId) {
+        routes.remove(krawlId);
+    }
+
+    public void sessionEnded(UUID sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Drop routes and session states that have not been used for a while.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        routes.values().removeIf(route -> now - route.lastUsedNanos > IDLE_EVICTION_NANOS);
+        sessions.values().removeIf(state -> now - state.lastUsedNanos > IDLE_EVICTION_NANOS);
+    }
+
+    private RouteIndex route(UUID krawlId) {
+        long now = System.nanoTime();
+        CachedRoute cached = routes.get(krawlId);
+        if (cached == null || now - cached.loadedAtNanos > ROUTE_REFRESH_NANOS) {
+            cached = routes.merge(krawlId, load(krawlId), (existing, loaded) ->
+                    existing.loadedAtNanos - loaded.loadedAtNanos > 0 ? existing : loaded);
+        }
+        cached.lastUsedNanos = now;
+        return cached.index;
+    }
+
+    private CachedRoute load(UUID krawlId) {
+        String polyline = krawlRepository.findRoutePolyline(krawlId, Krawl.RouteStatus.READY).orElse(null);
+        RouteIndex index = null;
+        if (polyline != null) {
+            try {
+                List<double[]> coordinates = PolylineUtils.decode(polyline, PolylineUtils.DEFAULT_PRECISION);
+                if (coordinates.size() >= 2) {
+                    index = new RouteIndex(coordinates);
+                    log.debug("Indexed route of krawl {} with {} segments", krawlId, index.getSegmentCount());
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not index route of krawl {}: {}", krawlId, e.getMessage());
+            }
+        }
+        return new CachedRoute(index); // Also caches the absence of a route
+    }
+
+    private static final class CachedRoute {
+        private final RouteIndex index;
+        private final long loadedAtNanos = System.nanoTime();
+        private volatile long lastUsedNanos = loadedAtNanos;
+
+        private CachedRoute(RouteIndex index) {
+            this.index = index;
+        }
+    }
+
+    private final class SessionState {
+        private boolean offRoute;
+        private int streak;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        /**
+         * @return TRUE when the session just left the route, FALSE when it just rejoined, otherwise null
+         */
+        synchronized Boolean update(double distanceMeters) {
+            lastUsedNanos = System.nanoTime();
+            if (!offRoute) {
+                streak = distanceMeters > offRouteMeters ? streak + 1 : 0;
+                if (streak >= requiredFixes) {
+                    offRoute = true;
+                    streak = 0;
+                    return Boolean.TRUE;
+                }
+            } else if (distanceMeters <= onRouteMeters) {
+                offRoute = false;
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.krawl.service.location;
+
+import com.krawl.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Spatial index over the segments of a route polyline, for nearest-point queries.
+ *
+ * Vertices are projected once to local meters (equirectangular, around the first vertex)
+ * and the segments are bulk-loaded into a packed R-tree (Sort-Tile-Recursive). A query
+ * walks the tree best-first by bounding box distance, so it visits O(log n) nodes instead
+ * of every segment. Immutable once built; safe to share between threads.
+ */
+public class RouteIndex {
+
+    private static final int NODE_CAPACITY = 8;
+
+    private final double originLatitude;
+    private final double originLongitude;
+    private final double metersPerDegreeLon;
+    private final double[] x; // Vertex meters east of the origin
+    private final double[] y; // Vertex meters north of the origin
+    private final Node root;
+
+    /**
+     * @param coordinates Route vertices [longitude, latitude], at least two
+     */
+    public RouteIndex(List<double[]> coordinates) {
+        if (coordinates.size() < 2) {
+            throw new IllegalArgumentException("A route needs at least two points");
+        }
+        int count = coordinates.size();
+        this.originLongitude = coordinates.get(0)[0];
+        this.originLatitude = coordinates.get(0)[1];
+        this.metersPerDegreeLon = GeoUtils.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(originLatitude));
+        this.x = new double[count];
+        this.y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = (coordinates.get(i)[0] - originLongitude) * metersPerDegreeLon;
+            y[i] = (coordinates.get(i)[1] - originLatitude) * GeoUtils.METERS_PER_DEGREE_LAT;
+        }
+
+        List<Node> level = new ArrayList<>(count - 1);
+        for (int segment = 0; segment < count - 1; segment++) {
+            level.add(Node.segment(segment, x[segment], y[segment], x[segment + 1], y[segment + 1]));
+        }
+        while (level.size() > 1) {
+            level = pack(level);
+        }
+        this.root = level.get(0);
+    }
+
+    public int getSegmentCount() {
+        return x.length - 1;
+    }
+
+    /**
+     * Find the point of the route nearest to a position.
+     *
+     * @param latitude Position latitude
+     * @param longitude Position longitude
+     * @return Nearest point on the route and its distance
+     */
+    public RouteMatch nearest(double latitude, double longitude) {
+        double px = (longitude - originLongitude) * metersPerDegreeLon;
+        double py = (latitude - originLatitude) * GeoUtils.METERS_PER_DEGREE_LAT;
+
+        double bestDistanceSquared = Double.MAX_VALUE;
+        int bestSegment = -1;
+        double bestT = 0;
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                Comparator.comparingDouble((Candidate candidate) -> candidate.distanceSquared));
+        queue.add(new Candidate(root, root.boxDistanceSquared(px, py)));
+        while (!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.distanceSquared >= bestDistanceSquared) {
+                break; // Nothing left can be closer
+            }
+            Node node = candidate.node;
+            if (node.segment >= 0) {
+                int s = node.segment;
+                double t = projection(px, py, s);
+                double ex = px - (x[s] + t * (x[s + 1] - x[s]));
+                double ey = py - (y[s] + t * (y[s + 1] - y[s]));
+                double d = ex * ex + ey * ey;
+                if (d < bestDistanceSquared) {
+                    bestDistanceSquared = d;
+                    bestSegment = s;
+                    bestT = t;
+                }
+            } else {
+                for (Node child : node.children) {
+                    double d = child.boxDistanceSquared(px, py);
+                    if (d < bestDistanceSquared) {
+                        queue.add(new Candidate(child, d));
+                    }
+                }
+            }
+        }
+
+        double mx = x[bestSegment] + bestT * (x[bestSegment + 1] - x[bestSegment]);
+        double my = y[bestSegment] + bestT * (y[bestSegment + 1] - y[bestSegment]);
+        return new RouteMatch(Math.sqrt(bestDistanceSquared),
+                originLatitude + my / GeoUtils.METERS_PER_DEGREE_LAT,
+                originLongitude + mx / metersPerDegreeLon,
+                bestSegment);
+    }
+
+    /**
+     * Position along segment s of the point nearest to (px, py), from 0 to 1.
+     */
+    private double projection(double px, double py, int s) {
+        double dx = x[s + 1] - x[s];
+        double dy = y[s + 1] - y[s];
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return 0;
+        }
+        double t = ((px - x[s]) * dx + (py - y[s]) * dy) / lengthSquared;
+        return Math.max(0, Math.min(1, t));
+    }
+
+    /**
+     * One level of Sort-Tile-Recursive packing: sort by x into vertical slices, sort each
+     * slice by y and group runs of NODE_CAPACITY into parent nodes.
+     */
+    private static List<Node> pack(List<Node> nodes) {
+        int parentCount = (nodes.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        Node[] sorted = nodes.toArray(new Node[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(Node::centerX));
+        List<Node> parents = new ArrayList<>(parentCount);
+        for (int sliceStart = 0; sliceStart < sorted.length; sliceStart += sliceSize) {
+            int sliceEnd = Math.min(sliceStart + sliceSize, sorted.length);
+            Arrays.sort(sorted, sliceStart, sliceEnd, Comparator.comparingDouble(Node::centerY));
+            for (int start = sliceStart; start < sliceEnd; start += NODE_CAPACITY) {
+                parents.add(Node.parent(Arrays.copyOfRange(sorted, start, Math.min(start + NODE_CAPACITY, sliceEnd))));
+            }
+        }
+        return parents;
+    }
+
+    private static final class Candidate {
+        private final Node node;
+        private final double distanceSquared;
+
+        private Candidate(Node node, double distanceSquared) {
+            this.node = node;
+            this.distanceSquared = distanceSquared;
+        }
+    }
+
+    /**
+     * R-tree node: a single segment (leaf entry) or a group of child nodes.
+     */
+    private static final class Node {
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+        private final int segment;     // Segment index, or -1 for inner nodes
+        private final Node[] children;
+
+        private Node(double minX, double minY, double maxX, double maxY, int segment, Node[] children) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.segment = segment;
+            this.children = children;
+        }
+
+        static Node segment(int segment, double x1, double y1, double x2, double y2) {
+            return new Node(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2), segment, null);
+        }
+
+        static Node parent(Node[] children) {
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (Node child : children) {
+                minX = Math.min(minX, child.minX);
+                minY = Math.min(minY, child.minY);
+                maxX = Math.max(maxX, child.maxX);
+                maxY = Math.max(maxY, child.maxY);
+            }
+            return new Node(minX, minY, maxX, maxY, -1, children);
+        }
+
+        double centerX() {
+            return (minX + maxX) / 2;
+        }
+
+        double centerY() {
+            return (minY + maxY) / 2;
+        }
+
+        double boxDistanceSquared(double px, double py) {
+            double dx = Math.max(0, Math.max(minX - px, px - maxX));
+            double dy = Math.max(0, Math.max(minY - py, py - maxY));
+            return dx * dx + dy * dy;
+        }
+    }
+}
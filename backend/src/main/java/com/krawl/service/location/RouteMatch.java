@@ -0,0 +1,16 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Nearest point of a route to a position.
+ */
+@Getter
+@AllArgsConstructor
+public class RouteMatch {
+    private final double distanceMeters;
+    private final double latitude;
+    private final double longitude;
+    private final int segmentIndex;
+}
@@ -0,0 +1,122 @@
+package com.krawl.service.location;
+
+import com.krawl.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Arrival detection for the remaining gems of one Krawl Mode session.
+ *
+ * Gem positions are projected once to local meters (equirectangular, around the first
+ * gem), so each fix costs a few multiplications per remaining gem and no trigonometry.
+ *
+ * Hysteresis against GPS jitter: a gem counts as reached after {@code requiredFixes}
+ * consecutive fixes inside the arrival radius. Fixes between the arrival and exit radius
+ * neither count nor reset the streak; only a fix beyond the exit radius resets it.
+ * Fixes less accurate than {@code maxAccuracyMeters} are ignored.
+ */
+public class SessionGeofence {
+
+    private final UUID sessionId;
+    private final UUID[] gemIds;
+    private final double[] x; // Meters east of the origin
+    private final double[] y; // Meters north of the origin
+    private final int[] streaks;
+    private final boolean[] reached;
+    private final double originLatitude;
+    private final double originLongitude;
+    private final double metersPerDegreeLon;
+    private final double arrivalRadiusSquared;
+    private final double exitRadiusSquared;
+    private final int requiredFixes;
+    private final double maxAccuracyMeters;
+    private int remaining;
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    public SessionGeofence(UUID sessionId, List<UUID> gemIds, List<double[]> positions,
+                           double arrivalRadiusMeters, double exitRadiusMeters,
+                           int requiredFixes, double maxAccuracyMeters) {
+        int count = gemIds.size();
+        this.sessionId = sessionId;
+        this.gemIds = gemIds.toArray(new UUID[0]);
+        this.x = new double[count];
+        this.y = new double[count];
+        this.streaks = new int[count];
+        this.reached = new boolean[count];
+        this.originLatitude = count > 0 ? positions.get(0)[0] : 0;
+        this.originLongitude = count > 0 ? positions.get(0)[1] : 0;
+        this.metersPerDegreeLon = GeoUtils.METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(originLatitude));
+        this.arrivalRadiusSquared = arrivalRadiusMeters * arrivalRadiusMeters;
+        this.exitRadiusSquared = Math.max(exitRadiusMeters, arrivalRadiusMeters) * Math.max(exitRadiusMeters, arrivalRadiusMeters);
+        this.requiredFixes = Math.max(1, requiredFixes);
+        this.maxAccuracyMeters = maxAccuracyMeters;
+        this.remaining = count;
+        for (int i = 0; i < count; i++) {
+            double[] position = positions.get(i); // [latitude, longitude]
+            x[i] = (position[1] - originLongitude) * metersPerDegreeLon;
+            y[i] = (position[0] - originLatitude) * GeoUtils.METERS_PER_DEGREE_LAT;
+        }
+    }
+
+    /**
+     * Test a fix against the remaining gems.
+     *
+     * @param latitude Fix latitude
+     * @param longitude Fix longitude
+     * @param accuracy Reported accuracy in meters, or null
+     * @return Gems reached with this fix (usually none)
+     */
+    public synchronized List<GeofenceArrival> update(double latitude, double longitude, Double accuracy) {
+        lastUsedNanos = System.nanoTime();
+        if (remaining == 0 || (accuracy != null && accuracy > maxAccuracyMeters)) {
+            return List.of();
+        }
+
+        double px = (longitude - originLongitude) * metersPerDegreeLon;
+        double py = (latitude - originLatitude) * GeoUtils.METERS_PER_DEGREE_LAT;
+        List<GeofenceArrival> arrivals = null;
+        for (int i = 0; i < gemIds.length; i++) {
+            if (reached[i]) {
+                continue;
+            }
+            double dx = px - x[i];
+            double dy = py - y[i];
+            double distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared <= arrivalRadiusSquared) {
+                if (++streaks[i] >= requiredFixes) {
+                    reached[i] = true;
+                    remaining--;
+                    if (arrivals == null) {
+                        arrivals = new ArrayList<>(1);
+                    }
+                    arrivals.add(new GeofenceArrival(sessionId, gemIds[i], Math.sqrt(distanceSquared)));
+                }
+            } else if (distanceSquared > exitRadiusSquared) {
+                streaks[i] = 0;
+            }
+        }
+        return arrivals != null ? arrivals : List.of();
+    }
+
+    /**
+     * Stop watching a gem completed by other means (for example marked manually).
+     */
+    public synchronized void markReached(UUID gemId) {
+        for (int i = 0; i < gemIds.length; i++) {
+            if (!reached[i] && gemIds[i].equals(gemId)) {
+                reached[i] = true;
+                remaining--;
+            }
+        }
+    }
+
+    public synchronized int getRemaining() {
+        return remaining;
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+}
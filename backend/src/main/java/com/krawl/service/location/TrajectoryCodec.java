@@ -0,0 +1,143 @@
+package com.krawl.service.location;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of trajectory chunks.
+ *
+ * A chunk is a format byte followed by one record per point. Time and position are
+ * delta-encoded against the previous point of the chunk (the chunk start time and 0,0
+ * for the first point) as zigzag varints, so a walker's fix a few seconds and meters
+ * from the last one takes about four bytes. Speed, heading and accuracy are stored
+ * absolute as unsigned varints, offset by one so that 0 means "not reported".
+ *
+ * Quantization: time 1 ms, latitude/longitude 1e-6 degrees (~0.1 m), speed 0.1 m/s,
+ * heading 1 degree, accuracy 1 m.
+ *
+ * Records only ever follow each other, so points can be appended to a stored chunk by
+ * concatenating {@link #encode} output, given the chunk's last point.
+ */
+public final class TrajectoryCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final double COORDINATE_SCALE = 1e6;
+    private static final double SPEED_SCALE = 10;
+
+    private TrajectoryCodec() {
+    }
+
+    /**
+     * Encode points for a chunk.
+     *
+     * @param points Points to encode, in order
+     * @param previous Last point already stored in the chunk, or null to start a new chunk
+     * @param chunkStartMillis Chunk start time (epoch ms), the time base of the first point
+     * @return Bytes to store (new chunk) or to append (existing chunk)
+     */
+    public static byte[] encode(List<TrajectoryPoint> points, TrajectoryPoint previous, long chunkStartMillis) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(points.size() * 8 + 1);
+        long lastTime = chunkStartMillis;
+        long lastLat = 0;
+        long lastLon = 0;
+        if (previous == null) {
+            out.write(FORMAT_VERSION);
+        } else {
+            lastTime = previous.getEpochMillis();
+            lastLat = quantizeCoordinate(previous.getLatitude());
+            lastLon = quantizeCoordinate(previous.getLongitude());
+        }
+
+        for (TrajectoryPoint point : points) {
+            long lat = quantizeCoordinate(point.getLatitude());
+            long lon = quantizeCoordinate(point.getLongitude());
+            writeSigned(out, point.getEpochMillis() - lastTime);
+            writeSigned(out, lat - lastLat);
+            writeSigned(out, lon - lastLon);
+            writeOptional(out, point.getSpeed() == null ? -1 : Math.max(0, Math.round(point.getSpeed() * SPEED_SCALE)));
+            writeOptional(out, point.getHeading() == null ? -1 : Math.floorMod(Math.round(point.getHeading()), 360));
+            writeOptional(out, point.getAccuracy() == null ? -1 : Math.max(0, Math.round(point.getAccuracy())));
+            lastTime = point.getEpochMillis();
+            lastLat = lat;
+            lastLon = lon;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode every point of a chunk.
+     *
+     * @param data Chunk bytes
+     * @param chunkStartMillis Chunk start time (epoch ms)
+     * @return Points in stored order
+     * @throws IllegalArgumentException if the chunk is malformed or of an unknown format
+     */
+    public static List<TrajectoryPoint> decode(byte[] data, long chunkStartMillis) {
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported trajectory chunk format");
+        }
+        List<TrajectoryPoint> points = new ArrayList<>();
+        int[] index = {1};
+        long time = chunkStartMillis;
+        long lat = 0;
+        long lon = 0;
+        while (index[0] < data.length) {
+            time += readSigned(data, index);
+            lat += readSigned(data, index);
+            lon += readSigned(data, index);
+            long speed = readUnsigned(data, index) - 1;
+            long heading = readUnsigned(data, index) - 1;
+            long accuracy = readUnsigned(data, index) - 1;
+            points.add(new TrajectoryPoint(time,
+                    lat / COORDINATE_SCALE,
+                    lon / COORDINATE_SCALE,
+                    accuracy < 0 ? null : (double) accuracy,
+                    heading < 0 ? null : (double) heading,
+                    speed < 0 ? null : speed / SPEED_SCALE));
+        }
+        return points;
+    }
+
+    private static long quantizeCoordinate(double degrees) {
+        return Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    private static void writeOptional(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, value + 1); // 0 = absent
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readSigned(byte[] data, int[] index) {
+        long value = readUnsigned(data, index);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readUnsigned(byte[] data, int[] index) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            if (index[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Malformed trajectory chunk");
+            }
+            byte b = data[index[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.krawl.service.location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass Largest-Triangle-Three-Buckets downsampling of a trajectory to a point budget.
+ *
+ * The first and last points are kept; the points in between are split into
+ * {@code maxPoints - 2} buckets by position, and each bucket keeps the point forming the
+ * largest triangle with the point kept before it and the average of the next bucket.
+ * Areas are computed on a local planar projection, so the kept points follow the shape
+ * of the walk rather than its timing.
+ *
+ * Points are pushed in order and kept points are handed to the output as soon as the
+ * following bucket is complete. Picking from a bucket needs the point kept from the one
+ * before it and the average of the one after it, so the candidates and the following
+ * bucket are both held: about {@code 2 * (totalPoints - 2) / (maxPoints - 2)} points.
+ * Memory therefore grows with the ratio of session length to point budget, not with the
+ * length alone. The total number of points must be known up front; a stream that turns
+ * out longer puts the extra points in the last bucket, which then grows with them.
+ */
+public class TrajectoryDownsampler {
+
+    private final int maxPoints;
+    private final Consumer<TrajectoryPoint> output;
+    private final boolean passThrough;
+    private final double bucketSize;
+
+    private long index;
+    private double lonScale;
+    private TrajectoryPoint kept;       // Last point handed to the output
+    private TrajectoryPoint pending;    // Latest point, held back in case it is the last
+    private List<TrajectoryPoint> candidates = new ArrayList<>();
+    private List<TrajectoryPoint> next = new ArrayList<>();
+    private long candidateBucket;
+
+    /**
+     * @param totalPoints Number of points that will be pushed
+     * @param maxPoints Point budget, at least 2
+     * @param output Receives the kept points in order
+     */
+    public TrajectoryDownsampler(long totalPoints, int maxPoints, Consumer<TrajectoryPoint> output) {
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("maxPoints must be at least 2");
+        }
+        this.maxPoints = maxPoints;
+        this.output = output;
+        this.passThrough = totalPoints <= maxPoints;
+        this.bucketSize = passThrough ? 0 : (double) (totalPoints - 2) / Math.max(1, maxPoints - 2);
+    }
+
+    public void accept(TrajectoryPoint point) {
+        if (passThrough) {
+            output.accept(point);
+            return;
+        }
+        long position = index++;
+        if (position == 0) {
+            lonScale = Math.cos(Math.toRadians(point.getLatitude()));
+            emit(point);
+            return;
+        }
+        if (pending != null) {
+            place(pending, position - 1);
+        }
+        pending = point;
+    }
+
+    /**
+     * Hand the remaining kept points to the output. Call once after the last point.
+     */
+    public void finish() {
+        if (passThrough || pending == null) {
+            return;
+        }
+        if (maxPoints > 2) {
+            if (!next.isEmpty()) {
+                if (!candidates.isEmpty()) {
+                    emit(select(candidates, centroid(next)));
+                }
+                emit(select(next, pending));
+            } else if (!candidates.isEmpty()) {
+                emit(select(candidates, pending));
+            }
+        }
+        emit(pending);
+        pending = null;
+    }
+
+    private void place(TrajectoryPoint point, long position) {
+        if (maxPoints == 2) {
+            return; // Only the first and last points are kept
+        }
+        long bucket = Math.min((long) ((position - 1) / bucketSize), maxPoints - 3);
+        while (bucket > candidateBucket + 1) {
+            // The bucket after the candidates is complete: pick from the candidates and move on
+            if (!candidates.isEmpty()) {
+                emit(select(candidates, centroid(next)));
+            }
+            candidates = next;
+            next = new ArrayList<>();
+            candidateBucket++;
+        }
+        (bucket == candidateBucket ? candidates : next).add(point);
+    }
+
+    private TrajectoryPoint select(List<TrajectoryPoint> bucket, TrajectoryPoint following) {
+        double ax = x(kept);
+        double ay = kept.getLatitude();
+        double cx = x(following);
+        double cy = following.getLatitude();
+        TrajectoryPoint best = bucket.get(0);
+        double bestArea = -1;
+        for (TrajectoryPoint point : bucket) {
+            double area = Math.abs((ax - cx) * (point.getLatitude() - ay) - (ax - x(point)) * (cy - ay));
+            if (area > bestArea) {
+                bestArea = area;
+                best = point;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Average position of a bucket, as a point for the triangle calculation.
+     */
+    private TrajectoryPoint centroid(List<TrajectoryPoint> bucket) {
+        double latitude = 0;
+        double longitude = 0;
+        for (TrajectoryPoint point : bucket) {
+            latitude += point.getLatitude();
+            longitude += point.getLongitude();
+        }
+        return new TrajectoryPoint(0, latitude / bucket.size(), longitude / bucket.size(), null, null, null);
+    }
+
+    private double x(TrajectoryPoint point) {
+        return point.getLongitude() * lonScale;
+    }
+
+    private void emit(TrajectoryPoint point) {
+        kept = point;
+        output.accept(point);
+    }
+}
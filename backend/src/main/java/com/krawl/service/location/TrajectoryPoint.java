@@ -0,0 +1,18 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A point of a session trajectory, as stored in trajectory chunks (quantized, see {@link TrajectoryCodec}).
+ */
+@Getter
+@AllArgsConstructor
+public class TrajectoryPoint {
+    private final long epochMillis;
+    private final double latitude;
+    private final double longitude;
+    private final Double accuracy;
+    private final Double heading;
+    private final Double speed;
+}
@@ -0,0 +1,333 @@
+package com.krawl.service.location;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Compressed trajectory storage for Krawl Mode sessions (krawl_trajectory_chunks).
+ *
+ * Points are packed per session into chunks covering a fixed time bucket. Appending
+ * to the open chunk concatenates encoded records onto its data, so a session writes
+ * one row per bucket. The last point of each open chunk is kept in memory to encode
+ * the next deltas; after a restart it is recovered by decoding the stored chunk.
+ *
+ * A batch of new chunks and appends is written in one transaction. An append that
+ * matches no row (the chunk was purged, or its partition dropped) fails the batch like
+ * any other error, and the retry chunk by chunk counts its points as not written.
+ *
+ * Timestamps are server-local wall times, converted to epoch milliseconds as UTC for
+ * encoding only, so they round-trip unchanged.
+ */
+@Component
+@Slf4j
+public class TrajectoryStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO krawl_trajectory_chunks
+                (session_id, chunk_start, first_recorded_at, last_recorded_at, point_count, data)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String APPEND_SQL = """
+            UPDATE krawl_trajectory_chunks
+            SET data = data || ?, point_count = point_count + ?, last_recorded_at = ?
+            WHERE session_id = ? AND chunk_start = ?
+            """;
+
+    private static final String SELECT_SESSION_SQL = """
+            SELECT chunk_start, data FROM krawl_trajectory_chunks
+            WHERE session_id = ?
+            ORDER BY chunk_start
+            """;
+
+    private static final int STREAM_FETCH_SIZE = 16; // Chunks per cursor fetch
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long chunkMillis;
+
+    // Open chunk per session. Only the single location writer appends, so no locking.
+    private final Map<UUID, OpenChunk> openChunks = new HashMap<>();
+
+    public TrajectoryStore(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${krawl.location.chunk-minutes:10}") long chunkMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkMillis = Duration.ofMinutes(chunkMinutes).toMillis();
+    }
+
+    /**
+     * Append samples to their sessions' trajectories. Samples of a session must be in order.
+     * Not thread-safe: called only by the location writer.
+     *
+     * @return Number of samples that could not be written
+     */
+    public int append(List<LocationSample> samples) {
+        List<ChunkWrite> writes = planWrites(samples);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                executeInserts(writes.stream().filter(write -> write.previous == null).toList());
+                executeAppends(writes.stream().filter(write -> write.previous != null).toList());
+            });
+            writes.forEach(this::remember);
+            evictIdleChunks();
+            return 0;
+        } catch (DataAccessException e) {
+            // For example a session deleted while its points were queued. Nothing was written:
+            // retry each chunk on its own
+            log.warn("Trajectory batch of {} chunks rejected, retrying one by one: {}", writes.size(), e.getMessage());
+            writes.forEach(write -> openChunks.remove(write.sessionId));
+            return writeIndividually(samples);
+        }
+    }
+
+    /**
+     * Append samples as part of the caller's transaction. Nothing is retried: a failure is
+     * thrown so the caller's transaction rolls back, and the caller must then
+     * {@link #forgetSessions forget} the sessions, whose open chunks were updated here.
+     * Not thread-safe: called only while holding the location writer.
+     */
+    public void appendInTransaction(List<LocationSample> samples) {
+        List<ChunkWrite> writes = planWrites(samples);
+        executeInserts(writes.stream().filter(write -> write.previous == null).toList());
+        executeAppends(writes.stream().filter(write -> write.previous != null).toList());
+        writes.forEach(this::remember);
+    }
+
+    /**
+     * Forget the open chunks of sessions whose writes were rolled back; they are reloaded
+     * from the database on the next append.
+     */
+    public void forgetSessions(Collection<UUID> sessionIds) {
+        sessionIds.forEach(openChunks::remove);
+    }
+
+    /**
+     * Read a session's trajectory.
+     *
+     * @param sessionId Session
+     * @return Points in recorded order
+     */
+    public List<TrajectoryPoint> readSession(UUID sessionId) {
+        List<TrajectoryPoint> points = new ArrayList<>();
+        streamSession(sessionId, points::add);
+        return points;
+    }
+
+    /**
+     * Read a session's trajectory chunk by chunk. Inside a transaction the rows are fetched
+     * through a cursor, so only one chunk is decoded at a time however long the session.
+     *
+     * @param sessionId Session
+     * @param consumer Receives the points in recorded order
+     */
+    public void streamSession(UUID sessionId, Consumer<TrajectoryPoint> consumer) {
+        jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_SESSION_SQL);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    statement.setObject(1, sessionId);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> TrajectoryCodec.decode(rs.getBytes("data"),
+                        toEpochMillis(rs.getTimestamp("chunk_start").toLocalDateTime())).forEach(consumer));
+    }
+
+    /**
+     * Delete a session's trajectory. Not thread-safe: called only by the location writer,
+     * so the session's open chunk is forgotten along with its rows.
+     *
+     * @return Number of chunks deleted
+     */
+    public int deleteSession(UUID sessionId) {
+        openChunks.remove(sessionId);
+        return jdbcTemplate.update("DELETE FROM krawl_trajectory_chunks WHERE session_id = ?", sessionId);
+    }
+
+    /**
+     * Total number of points stored for a session, without decoding.
+     */
+    public long countPoints(UUID sessionId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(point_count), 0) FROM krawl_trajectory_chunks WHERE session_id = ?",
+                Long.class, sessionId);
+        return count != null ? count : 0;
+    }
+
+    private List<ChunkWrite> planWrites(List<LocationSample> samples) {
+        Map<UUID, List<LocationSample>> bySession = new LinkedHashMap<>();
+        for (LocationSample sample : samples) {
+            bySession.computeIfAbsent(sample.getSessionId(), id -> new ArrayList<>()).add(sample);
+        }
+
+        List<ChunkWrite> writes = new ArrayList<>();
+        bySession.forEach((sessionId, sessionSamples) -> {
+            ChunkWrite current = null;
+            for (LocationSample sample : sessionSamples) {
+                TrajectoryPoint point = toPoint(sample);
+                long bucket = Math.floorDiv(point.getEpochMillis(), chunkMillis) * chunkMillis;
+                // A point from an earlier bucket (clock jitter) stays in the open chunk
+                if (current == null || bucket > current.chunkStartMillis) {
+                    current = openChunk(sessionId, bucket);
+                    writes.add(current);
+                }
+                current.points.add(point);
+            }
+        });
+        return writes;
+    }
+
+    private ChunkWrite openChunk(UUID sessionId, long bucket) {
+        OpenChunk open = openChunks.get(sessionId);
+        if (open == null || open.chunkStartMillis != bucket) {
+            open = loadChunk(sessionId, bucket);
+        }
+        return open != null
+                ? new ChunkWrite(sessionId, open.chunkStartMillis, open.lastPoint)
+                : new ChunkWrite(sessionId, bucket, null);
+    }
+
+    private OpenChunk loadChunk(UUID sessionId, long bucket) {
+        List<byte[]> data = jdbcTemplate.query(
+                "SELECT data FROM krawl_trajectory_chunks WHERE session_id = ? AND chunk_start = ?",
+                (rs, rowNum) -> rs.getBytes("data"),
+                sessionId, toTimestamp(bucket));
+        if (data.isEmpty()) {
+            return null;
+        }
+        List<TrajectoryPoint> points = TrajectoryCodec.decode(data.get(0), bucket);
+        return new OpenChunk(bucket, points.get(points.size() - 1));
+    }
+
+    private void executeInserts(List<ChunkWrite> inserts) {
+        if (inserts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, write) -> {
+            ps.setObject(1, write.sessionId);
+            ps.setTimestamp(2, toTimestamp(write.chunkStartMillis));
+            ps.setTimestamp(3, toTimestamp(write.points.get(0).getEpochMillis()));
+            ps.setTimestamp(4, toTimestamp(write.lastPoint().getEpochMillis()));
+            ps.setInt(5, write.points.size());
+            ps.setBytes(6, TrajectoryCodec.encode(write.points, null, write.chunkStartMillis));
+        });
+    }
+
+    private void executeAppends(List<ChunkWrite> appends) {
+        if (appends.isEmpty()) {
+            return;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(APPEND_SQL, appends, appends.size(), (ps, write) -> {
+            ps.setBytes(1, TrajectoryCodec.encode(write.points, write.previous, write.chunkStartMillis));
+            ps.setInt(2, write.points.size());
+            ps.setTimestamp(3, toTimestamp(write.lastPoint().getEpochMillis()));
+            ps.setObject(4, write.sessionId);
+            ps.setTimestamp(5, toTimestamp(write.chunkStartMillis));
+        });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    // The chunk is gone: fail rather than report the points as written
+                    throw new JdbcUpdateAffectedIncorrectNumberOfRowsException(APPEND_SQL, 1, 0);
+                }
+            }
+        }
+    }
+
+    private int writeIndividually(List<LocationSample> samples) {
+        int failed = 0;
+        for (ChunkWrite write : planWrites(samples)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (write.previous == null) {
+                        executeInserts(List.of(write));
+                    } else {
+                        executeAppends(List.of(write));
+                    }
+                });
+                remember(write);
+            } catch (DataAccessException e) {
+                failed += write.points.size();
+                openChunks.remove(write.sessionId);
+                log.debug("Dropped {} points for session {}: {}", write.points.size(), write.sessionId, e.getMessage());
+            }
+        }
+        return failed;
+    }
+
+    private void remember(ChunkWrite write) {
+        OpenChunk open = openChunks.get(write.sessionId);
+        if (open == null || open.chunkStartMillis <= write.chunkStartMillis) {
+            openChunks.put(write.sessionId, new OpenChunk(write.chunkStartMillis, write.lastPoint()));
+        }
+    }
+
+    /**
+     * Forget chunks of sessions that have not reported for two buckets (ended or idle sessions).
+     */
+    private void evictIdleChunks() {
+        long cutoff = toEpochMillis(LocalDateTime.now()) - 2 * chunkMillis;
+        openChunks.values().removeIf(open -> open.lastPoint.getEpochMillis() < cutoff);
+    }
+
+    private static TrajectoryPoint toPoint(LocationSample sample) {
+        return new TrajectoryPoint(toEpochMillis(sample.getRecordedAt()),
+                sample.getLatitude(), sample.getLongitude(),
+                sample.getAccuracy(), sample.getHeading(), sample.getSpeed());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Timestamp toTimestamp(long epochMillis) {
+        return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+    }
+
+    @AllArgsConstructor
+    private static class OpenChunk {
+        private final long chunkStartMillis;
+        private final TrajectoryPoint lastPoint;
+    }
+
+    private static class ChunkWrite {
+        private final UUID sessionId;
+        private final long chunkStartMillis;
+        private final TrajectoryPoint previous; // Last stored point, null for a new chunk
+        private final List<TrajectoryPoint> points = new ArrayList<>();
+
+        ChunkWrite(UUID sessionId, long chunkStartMillis, TrajectoryPoint previous) {
+            this.sessionId = sessionId;
+            this.chunkStartMillis = chunkStartMillis;
+            this.previous = previous;
+        }
+
+        TrajectoryPoint lastPoint() {
+            return points.get(points.size() - 1);
+        }
+    }
+}
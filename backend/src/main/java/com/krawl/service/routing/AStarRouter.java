@@ -0,0 +1,206 @@
+package com.krawl.service.routing;
+
+import com.krawl.util.GeoUtils;
+
+import java.util.Arrays;
+
+/**
+ * A* shortest walking path over a {@link PedestrianGraph}.
+ *
+ * Search state is kept in primitive arrays reused across queries on the same thread;
+ * a generation stamp marks which entries belong to the current query, so nothing
+ * is cleared or allocated per route.
+ */
+public final class AStarRouter {
+
+    private final PedestrianGraph graph;
+    private final ThreadLocal<SearchState> searchState;
+
+    public AStarRouter(PedestrianGraph graph) {
+        this.graph = graph;
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(graph.nodeCount));
+    }
+
+    public PedestrianGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Find the shortest path between two nodes.
+     *
+     * @return Path result, or null if the target is unreachable
+     */
+    public Path route(int source, int target) {
+        if (source == target) {
+            return new Path(new int[]{source}, 0.0);
+        }
+
+        SearchState state = searchState.get();
+        int stamp = state.nextStamp();
+        double targetLat = graph.latitudes[target];
+        double targetLon = graph.longitudes[target];
+
+        state.open(source, stamp, 0.0, -1);
+        state.heap.push(source, heuristic(source, targetLat, targetLon));
+
+        while (!state.heap.isEmpty()) {
+            int node = state.heap.pop();
+            if (state.closed[node] == stamp) {
+                continue; // Stale heap entry
+            }
+            state.closed[node] = stamp;
+
+            if (node == target) {
+                return buildPath(state, target);
+            }
+
+            double nodeCost = state.cost[node];
+            for (int e = graph.edgeStart[node]; e < graph.edgeStart[node + 1]; e++) {
+                int next = graph.edgeTarget[e];
+                if (state.closed[next] == stamp) {
+                    continue;
+                }
+                double cost = nodeCost + graph.edgeLength[e];
+                if (state.seen[next] != stamp || cost < state.cost[next]) {
+                    state.open(next, stamp, cost, node);
+                    state.heap.push(next, cost + heuristic(next, targetLat, targetLon));
+                }
+            }
+        }
+        return null;
+    }
+
+    private double heuristic(int node, double targetLat, double targetLon) {
+        return GeoUtils.equirectangularMeters(graph.latitudes[node], graph.longitudes[node], targetLat, targetLon);
+    }
+
+    private Path buildPath(SearchState state, int target) {
+        int length = 0;
+        for (int n = target; n >= 0; n = state.parent[n]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int i = length - 1;
+        for (int n = target; n >= 0; n = state.parent[n]) {
+            nodes[i--] = n;
+        }
+        return new Path(nodes, state.cost[target]);
+    }
+
+    /**
+     * Shortest path as node indexes from source to target, with its length in meters.
+     */
+    public static final class Path {
+        private final int[] nodes;
+        private final double lengthMeters;
+
+        Path(int[] nodes, double lengthMeters) {
+            this.nodes = nodes;
+            this.lengthMeters = lengthMeters;
+        }
+
+        public int[] getNodes() {
+            return nodes;
+        }
+
+        public double getLengthMeters() {
+            return lengthMeters;
+        }
+    }
+
+    private static final class SearchState {
+        final double[] cost;
+        final int[] parent;
+        final int[] seen;
+        final int[] closed;
+        final MinHeap heap = new MinHeap();
+        int stamp;
+
+        SearchState(int nodeCount) {
+            cost = new double[nodeCount];
+            parent = new int[nodeCount];
+            seen = new int[nodeCount];
+            closed = new int[nodeCount];
+        }
+
+        int nextStamp() {
+            heap.clear();
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(closed, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+
+        void open(int node, int stamp, double nodeCost, int parentNode) {
+            seen[node] = stamp;
+            cost[node] = nodeCost;
+            parent[node] = parentNode;
+        }
+    }
+
+    /**
+     * Binary min-heap of (priority, node) with lazy deletion.
+     */
+    private static final class MinHeap {
+        private double[] priorities = new double[256];
+        private int[] nodes = new int[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int node, double priority) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] <= priority) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                priorities[i] = priorities[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            priorities[i] = priority;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                int node = nodes[size];
+                double priority = priorities[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                        child++;
+                    }
+                    if (priorities[child] >= priority) {
+                        break;
+                    }
+                    nodes[i] = nodes[child];
+                    priorities[i] = priorities[child];
+                    i = child;
+                }
+                nodes[i] = node;
+                priorities[i] = priority;
+            }
+            return top;
+        }
+    }
+}
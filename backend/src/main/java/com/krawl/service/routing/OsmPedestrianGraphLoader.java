@@ -0,0 +1,173 @@
+package com.krawl.service.routing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Builds a {@link PedestrianGraph} from an OpenStreetMap XML extract (.osm).
+ *
+ * Only the XML format is read; PBF extracts (.osm.pbf) are not supported and must be
+ * converted first, e.g. {@code osmium cat cebu.osm.pbf -o cebu.osm}.
+ *
+ * The extract is streamed once with StAX. Node coordinates are held in sorted primitive
+ * arrays and looked up by binary search; only nodes referenced by walkable ways become
+ * graph nodes. Ways are treated as two-way, since one-way restrictions do not apply on foot.
+ */
+public final class OsmPedestrianGraphLoader {
+
+    private static final Set<String> WALKABLE_HIGHWAYS = Set.of(
+            "footway", "pedestrian", "path", "steps", "living_street", "residential",
+            "service", "unclassified", "track", "cycleway", "road", "corridor",
+            "tertiary", "tertiary_link", "secondary", "secondary_link", "primary", "primary_link");
+
+    private static final Set<String> NO_ACCESS = Set.of("no", "private");
+    private static final Set<String> FOOT_ALLOWED = Set.of("yes", "designated", "permissive");
+
+    private OsmPedestrianGraphLoader() {
+    }
+
+    public static PedestrianGraph load(InputStream input) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+
+        // OSM nodes, by id
+        int osmNodeCount = 0;
+        long[] osmIds = new long[1 << 16];
+        double[] osmLats = new double[1 << 16];
+        double[] osmLons = new double[1 << 16];
+        boolean sorted = true;
+        int[] order = null;
+        int[] graphNodeOf = null;
+
+        PedestrianGraph.Builder builder = new PedestrianGraph.Builder();
+
+        // Current way
+        boolean inWay = false;
+        int refCount = 0;
+        long[] refs = new long[256];
+        String highway = null;
+        String foot = null;
+        String access = null;
+
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("node".equals(name)) {
+                        if (osmNodeCount == osmIds.length) {
+                            osmIds = Arrays.copyOf(osmIds, osmNodeCount * 2);
+                            osmLats = Arrays.copyOf(osmLats, osmNodeCount * 2);
+                            osmLons = Arrays.copyOf(osmLons, osmNodeCount * 2);
+                        }
+                        long id = Long.parseLong(reader.getAttributeValue(null, "id"));
+                        if (osmNodeCount > 0 && id < osmIds[osmNodeCount - 1]) {
+                            sorted = false;
+                        }
+                        osmIds[osmNodeCount] = id;
+                        osmLats[osmNodeCount] = Double.parseDouble(reader.getAttributeValue(null, "lat"));
+                        osmLons[osmNodeCount] = Double.parseDouble(reader.getAttributeValue(null, "lon"));
+                        osmNodeCount++;
+                    } else if ("way".equals(name)) {
+                        if (graphNodeOf == null) {
+                            // All nodes precede ways in an OSM extract
+                            if (!sorted) {
+                                order = sortById(osmIds, osmNodeCount);
+                            }
+                            graphNodeOf = new int[osmNodeCount];
+                            Arrays.fill(graphNodeOf, -1);
+                        }
+                        inWay = true;
+                        refCount = 0;
+                        highway = null;
+                        foot = null;
+                        access = null;
+                    } else if (inWay && "nd".equals(name)) {
+                        if (refCount == refs.length) {
+                            refs = Arrays.copyOf(refs, refCount * 2);
+                        }
+                        refs[refCount++] = Long.parseLong(reader.getAttributeValue(null, "ref"));
+                    } else if (inWay && "tag".equals(name)) {
+                        String key = reader.getAttributeValue(null, "k");
+                        String value = reader.getAttributeValue(null, "v");
+                        if ("highway".equals(key)) {
+                            highway = value;
+                        } else if ("foot".equals(key)) {
+                            foot = value;
+                        } else if ("access".equals(key)) {
+                            access = value;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && inWay && "way".equals(reader.getLocalName())) {
+                    inWay = false;
+                    if (!isWalkable(highway, foot, access)) {
+                        continue;
+                    }
+                    int previous = -1;
+                    for (int i = 0; i < refCount; i++) {
+                        int osmIndex = indexOf(osmIds, osmNodeCount, order, refs[i]);
+                        if (osmIndex < 0) {
+                            previous = -1; // Node outside the extract
+                            continue;
+                        }
+                        int node = graphNodeOf[osmIndex];
+                        if (node < 0) {
+                            node = builder.addNode(osmLats[osmIndex], osmLons[osmIndex]);
+                            graphNodeOf[osmIndex] = node;
+                        }
+                        if (previous >= 0) {
+                            builder.addUndirectedEdge(previous, node);
+                        }
+                        previous = node;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return builder.build();
+    }
+
+    static boolean isWalkable(String highway, String foot, String access) {
+        if (highway == null || !WALKABLE_HIGHWAYS.contains(highway)) {
+            return false;
+        }
+        if (foot != null) {
+            return !NO_ACCESS.contains(foot);
+        }
+        return access == null || !NO_ACCESS.contains(access) || FOOT_ALLOWED.contains(access);
+    }
+
+    /**
+     * Sort ids in place and return the permutation mapping sorted position to original index.
+     */
+    private static int[] sortById(long[] ids, int count) {
+        long[][] pairs = new long[count][];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = new long[]{ids[i], i};
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = pairs[i][0];
+            order[i] = (int) pairs[i][1];
+        }
+        return order;
+    }
+
+    private static int indexOf(long[] ids, int count, int[] order, long id) {
+        int position = Arrays.binarySearch(ids, 0, count, id);
+        if (position < 0) {
+            return -1;
+        }
+        return order != null ? order[position] : position;
+    }
+}
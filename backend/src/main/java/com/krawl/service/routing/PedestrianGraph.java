@@ -0,0 +1,213 @@
+package com.krawl.service.routing;
+
+import com.krawl.util.GeoUtils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable walking network held in compact primitive arrays.
+ *
+ * Adjacency is stored in compressed-row form: the edges leaving node n are
+ * edgeTarget[edgeStart[n] .. edgeStart[n + 1]) with lengths in edgeLength.
+ * A uniform grid over the nodes supports nearest-node snapping.
+ */
+public final class PedestrianGraph {
+
+    private static final double CELL_SIZE_DEGREES = 0.002; // ~220 m
+
+    final int nodeCount;
+    final double[] latitudes;
+    final double[] longitudes;
+    final int[] edgeStart;
+    final int[] edgeTarget;
+    final float[] edgeLength;
+
+    // Snapping grid in compressed-row form
+    private final double minLatitude;
+    private final double minLongitude;
+    private final int gridColumns;
+    private final int gridRows;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    private PedestrianGraph(double[] latitudes, double[] longitudes, int[] edgeStart, int[] edgeTarget, float[] edgeLength) {
+        this.nodeCount = latitudes.length;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeLength = edgeLength;
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int n = 0; n < nodeCount; n++) {
+            minLat = Math.min(minLat, latitudes[n]);
+            maxLat = Math.max(maxLat, latitudes[n]);
+            minLon = Math.min(minLon, longitudes[n]);
+            maxLon = Math.max(maxLon, longitudes[n]);
+        }
+        if (nodeCount == 0) {
+            minLat = maxLat = minLon = maxLon = 0;
+        }
+        this.minLatitude = minLat;
+        this.minLongitude = minLon;
+        this.gridColumns = Math.max(1, (int) Math.ceil((maxLon - minLon) / CELL_SIZE_DEGREES) + 1);
+        this.gridRows = Math.max(1, (int) Math.ceil((maxLat - minLat) / CELL_SIZE_DEGREES) + 1);
+
+        int cellCount = gridColumns * gridRows;
+        int[] cellOfNode = new int[nodeCount];
+        int[] start = new int[cellCount + 1];
+        for (int n = 0; n < nodeCount; n++) {
+            int cell = rowOf(latitudes[n]) * gridColumns + columnOf(longitudes[n]);
+            cellOfNode[n] = cell;
+            start[cell + 1]++;
+        }
+        for (int c = 0; c < cellCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = Arrays.copyOf(start, cellCount);
+        int[] nodes = new int[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            nodes[fill[cellOfNode[n]]++] = n;
+        }
+        this.cellStart = start;
+        this.cellNodes = nodes;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public double latitudeOf(int node) {
+        return latitudes[node];
+    }
+
+    public double longitudeOf(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * Find the graph node nearest to a point, searching outward ring by ring.
+     *
+     * @param maxDistanceMeters Give up beyond this distance
+     * @return Node index, or -1 if no node lies within maxDistanceMeters
+     */
+    public int nearestNode(double latitude, double longitude, double maxDistanceMeters) {
+        if (nodeCount == 0) {
+            return -1;
+        }
+        int col = columnOf(longitude);
+        int row = rowOf(latitude);
+        int maxRing = (int) Math.ceil(GeoUtils.metersToLatDegrees(maxDistanceMeters) / CELL_SIZE_DEGREES) + 1;
+
+        int best = -1;
+        double bestDistance = maxDistanceMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = col - ring; c <= col + ring; c++) {
+                    boolean onRing = r == row - ring || r == row + ring || c == col - ring || c == col + ring;
+                    if (!onRing || r < 0 || c < 0 || r >= gridRows || c >= gridColumns) {
+                        continue;
+                    }
+                    int cell = r * gridColumns + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int n = cellNodes[i];
+                        double d = GeoUtils.equirectangularMeters(latitude, longitude, latitudes[n], longitudes[n]);
+                        if (d <= bestDistance) {
+                            bestDistance = d;
+                            best = n;
+                        }
+                    }
+                }
+            }
+            // Anything in a further ring is at least (ring * cell size) away
+            if (best >= 0 && bestDistance <= ring * CELL_SIZE_DEGREES * GeoUtils.METERS_PER_DEGREE_LAT * 0.9) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private int columnOf(double longitude) {
+        int col = (int) Math.floor((longitude - minLongitude) / CELL_SIZE_DEGREES);
+        return Math.max(0, Math.min(gridColumns - 1, col));
+    }
+
+    private int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude - minLatitude) / CELL_SIZE_DEGREES);
+        return Math.max(0, Math.min(gridRows - 1, row));
+    }
+
+    /**
+     * Accumulates nodes and undirected edges, then freezes them into a PedestrianGraph.
+     */
+    public static final class Builder {
+        private int nodeCount;
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private int edgeCount;
+        private int[] edgeFrom = new int[2048];
+        private int[] edgeTo = new int[2048];
+
+        /**
+         * @return Index of the new node
+         */
+        public int addNode(double latitude, double longitude) {
+            if (nodeCount == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, nodeCount * 2);
+                longitudes = Arrays.copyOf(longitudes, nodeCount * 2);
+            }
+            latitudes[nodeCount] = latitude;
+            longitudes[nodeCount] = longitude;
+            return nodeCount++;
+        }
+
+        /**
+         * Add a walkable segment usable in both directions.
+         */
+        public void addUndirectedEdge(int from, int to) {
+            if (from == to) {
+                return;
+            }
+            if (edgeCount == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+            }
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeCount++;
+        }
+
+        public PedestrianGraph build() {
+            double[] lats = Arrays.copyOf(latitudes, nodeCount);
+            double[] lons = Arrays.copyOf(longitudes, nodeCount);
+
+            // Each undirected edge becomes two directed entries
+            int[] start = new int[nodeCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                start[edgeFrom[e] + 1]++;
+                start[edgeTo[e] + 1]++;
+            }
+            for (int n = 0; n < nodeCount; n++) {
+                start[n + 1] += start[n];
+            }
+            int[] fill = Arrays.copyOf(start, nodeCount);
+            int[] targets = new int[edgeCount * 2];
+            float[] lengths = new float[edgeCount * 2];
+            for (int e = 0; e < edgeCount; e++) {
+                int a = edgeFrom[e];
+                int b = edgeTo[e];
+                float length = (float) GeoUtils.equirectangularMeters(lats[a], lons[a], lats[b], lons[b]);
+                targets[fill[a]] = b;
+                lengths[fill[a]++] = length;
+                targets[fill[b]] = a;
+                lengths[fill[b]++] = length;
+            }
+            return new PedestrianGraph(lats, lons, start, targets, lengths);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.krawl.service.routing;
+
+import com.krawl.util.GeoUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Finds a short visiting order for a set of points, as an open walk (no return to the start).
+ *
+ * Each attempt builds an order by nearest neighbour and improves it with 2-opt
+ * (reverse a stretch) and Or-opt (move a run of up to three stops) until neither
+ * helps or the deadline passes. Several attempts are made, from different starts
+ * or randomised constructions, and the shortest is kept; larger sets run them in parallel.
+ */
+public final class TourOptimizer {
+
+    private static final int PARALLEL_THRESHOLD = 12;   // Below this, attempts are cheap enough to run sequentially
+    private static final int MAX_ATTEMPTS = 16;
+    private static final int PARALLEL_MATRIX_THRESHOLD = 64;
+    private static final int MAX_OR_OPT_LENGTH = 3;
+    private static final double EPSILON = 1e-6;
+
+    private final double[] distances; // size * size, row-major
+    private final int size;
+
+    private TourOptimizer(double[] distances, int size) {
+        this.distances = distances;
+        this.size = size;
+    }
+
+    /**
+     * Optimize the visiting order of points.
+     *
+     * @param points Coordinates [longitude, latitude]
+     * @param fixStart Keep the first point as the start of the walk
+     * @param deadlineNanos System.nanoTime() by which a result must be returned
+     * @return Visiting order as indexes into points
+     */
+    public static int[] optimize(List<double[]> points, boolean fixStart, long deadlineNanos) {
+        int n = points.size();
+        if (n <= 2) {
+            return IntStream.range(0, n).toArray();
+        }
+        TourOptimizer optimizer = new TourOptimizer(haversineMatrix(points), n);
+        return optimizer.search(fixStart, deadlineNanos);
+    }
+
+    /**
+     * Length of a walk through points in the given order, in meters.
+     */
+    public static double pathLengthMeters(List<double[]> points, int[] order) {
+        double length = 0;
+        for (int i = 0; i + 1 < order.length; i++) {
+            double[] from = points.get(order[i]);
+            double[] to = points.get(order[i + 1]);
+            length += GeoUtils.haversineMeters(from[1], from[0], to[1], to[0]);
+        }
+        return length;
+    }
+
+    private static double[] haversineMatrix(List<double[]> points) {
+        int n = points.size();
+        double[] matrix = new double[n * n];
+        IntStream rows = IntStream.range(0, n);
+        if (n >= PARALLEL_MATRIX_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> {
+            double[] from = points.get(i);
+            for (int j = i + 1; j < n; j++) {
+                double[] to = points.get(j);
+                double d = GeoUtils.haversineMeters(from[1], from[0], to[1], to[0]);
+                matrix[i * n + j] = d;
+                matrix[j * n + i] = d;
+            }
+        });
+        return matrix;
+    }
+
+    private int[] search(boolean fixStart, long deadlineNanos) {
+        int attempts = Math.min(MAX_ATTEMPTS, fixStart ? MAX_ATTEMPTS : size);
+
+        IntStream runs = IntStream.range(0, attempts);
+        if (size >= PARALLEL_THRESHOLD) {
+            runs = runs.parallel();
+        }
+        return runs
+                .mapToObj(attempt -> {
+                    // Free start: spread attempts over different first stops.
+                    // Fixed start: attempt 0 is plain nearest neighbour, the rest are randomised.
+                    int start = fixStart ? 0 : attempt * size / attempts;
+                    Random random = attempt == 0 || !fixStart ? null : new Random(attempt);
+                    int[] order = nearestNeighbour(start, random);
+                    improve(order, fixStart, deadlineNanos);
+                    return order;
+                })
+                .min((a, b) -> Double.compare(length(a), length(b)))
+                .orElseThrow();
+    }
+
+    /**
+     * Greedy construction. With a random source, each step picks one of the two nearest stops.
+     */
+    private int[] nearestNeighbour(int start, Random random) {
+        int[] order = new int[size];
+        boolean[] visited = new boolean[size];
+        order[0] = start;
+        visited[start] = true;
+        for (int position = 1; position < size; position++) {
+            int current = order[position - 1];
+            int nearest = -1;
+            int second = -1;
+            for (int candidate = 0; candidate < size; candidate++) {
+                if (visited[candidate]) {
+                    continue;
+                }
+                if (nearest < 0 || distance(current, candidate) < distance(current, nearest)) {
+                    second = nearest;
+                    nearest = candidate;
+                } else if (second < 0 || distance(current, candidate) < distance(current, second)) {
+                    second = candidate;
+                }
+            }
+            int next = random != null && second >= 0 && random.nextBoolean() ? second : nearest;
+            order[position] = next;
+            visited[next] = true;
+        }
+        return order;
+    }
+
+    private void improve(int[] order, boolean fixStart, long deadlineNanos) {
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = twoOpt(order, fixStart, deadlineNanos);
+            improved |= orOpt(order, fixStart, deadlineNanos);
+        }
+    }
+
+    /**
+     * Reverse order[i..j] whenever that shortens the walk. The end of the walk is free,
+     * so reversing a tail only changes the edge into it.
+     */
+    private boolean twoOpt(int[] order, boolean fixStart, long deadlineNanos) {
+        boolean improved = false;
+        for (int i = fixStart ? 1 : 0; i < size - 1; i++) {
+            if (System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+            int before = i > 0 ? order[i - 1] : -1;
+            for (int j = i + 1; j < size; j++) {
+                int after = j < size - 1 ? order[j + 1] : -1;
+                double delta = distance(before, order[j]) + distance(order[i], after)
+                        - distance(before, order[i]) - distance(order[j], after);
+                if (delta < -EPSILON) {
+                    reverse(order, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Move a run of one to three stops (possibly reversed) to a better place in the walk.
+     */
+    private boolean orOpt(int[] order, boolean fixStart, long deadlineNanos) {
+        boolean improved = false;
+        int first = fixStart ? 1 : 0;
+        for (int length = 1; length <= MAX_OR_OPT_LENGTH && length < size - first; length++) {
+            for (int i = first; i + length <= size; i++) {
+                if (System.nanoTime() >= deadlineNanos) {
+                    return improved;
+                }
+                int head = order[i];
+                int tail = order[i + length - 1];
+                int before = i > 0 ? order[i - 1] : -1;
+                int after = i + length < size ? order[i + length] : -1;
+                double removeGain = distance(before, head) + distance(tail, after) - distance(before, after);
+
+                // Insert before position k of the walk with the run taken out
+                int remaining = size - length;
+                int bestPosition = -1;
+                boolean bestReversed = false;
+                double bestDelta = -EPSILON;
+                for (int k = first; k <= remaining; k++) {
+                    if (k == i) {
+                        continue; // Original place
+                    }
+                    int x = k > 0 ? remainingAt(order, i, length, k - 1) : -1;
+                    int y = k < remaining ? remainingAt(order, i, length, k) : -1;
+                    double base = distance(x, y);
+                    double forward = distance(x, head) + distance(tail, y) - base - removeGain;
+                    double backward = distance(x, tail) + distance(head, y) - base - removeGain;
+                    if (forward < bestDelta) {
+                        bestDelta = forward;
+                        bestPosition = k;
+                        bestReversed = false;
+                    }
+                    if (backward < bestDelta) {
+                        bestDelta = backward;
+                        bestPosition = k;
+                        bestReversed = true;
+                    }
+                }
+
+                if (bestPosition >= 0) {
+                    move(order, i, length, bestPosition, bestReversed);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    private static int remainingAt(int[] order, int runStart, int runLength, int k) {
+        return k < runStart ? order[k] : order[k + runLength];
+    }
+
+    private static void move(int[] order, int runStart, int runLength, int position, boolean reversed) {
+        int[] run = Arrays.copyOfRange(order, runStart, runStart + runLength);
+        if (reversed) {
+            reverse(run, 0, runLength - 1);
+        }
+        int[] remaining = new int[order.length - runLength];
+        for (int k = 0; k < remaining.length; k++) {
+            remaining[k] = remainingAt(order, runStart, runLength, k);
+        }
+        System.arraycopy(remaining, 0, order, 0, position);
+        System.arraycopy(run, 0, order, position, runLength);
+        System.arraycopy(remaining, position, order, position + runLength, remaining.length - position);
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int swap = order[from];
+            order[from++] = order[to];
+            order[to--] = swap;
+        }
+    }
+
+    /**
+     * Distance between two stops; -1 stands for the open end of the walk and costs nothing.
+     */
+    private double distance(int a, int b) {
+        return a < 0 || b < 0 ? 0 : distances[a * size + b];
+    }
+
+    private double length(int[] order) {
+        double length = 0;
+        for (int i = 0; i + 1 < order.length; i++) {
+            length += distance(order[i], order[i + 1]);
+        }
+        return length;
+    }
+}
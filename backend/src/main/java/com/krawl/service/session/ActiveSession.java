@@ -0,0 +1,143 @@
+package com.krawl.service.session;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot of an active Krawl Mode session: the Krawl's gems in route order and which
+ * of them have been completed.
+ *
+ * Snapshots are immutable; a change produces a new snapshot that shares the gem list,
+ * so readers never need a lock and a pending change can be previewed before it commits.
+ */
+public class ActiveSession {
+
+    @Getter
+    private final UUID sessionId;
+    @Getter
+    private final UUID krawlId;
+    @Getter
+    private final UUID userId;
+    @Getter
+    private final LocalDateTime startedAt;
+    @Getter
+    private final double totalDistanceMeters;
+    private final long loadedAtNanos;
+
+    private final UUID[] gemIds;                 // Route order
+    private final Map<UUID, Integer> gemIndexes; // Gem ID -> position in gemIds
+    private final BitSet completed;
+    private final int[] completionOrder;         // Positions in completion order
+
+    public ActiveSession(UUID sessionId, UUID krawlId, UUID userId, LocalDateTime startedAt,
+                         double totalDistanceMeters, List<UUID> gemIds, List<UUID> completedGemIds) {
+        this.sessionId = sessionId;
+        this.krawlId = krawlId;
+        this.userId = userId;
+        this.startedAt = startedAt;
+        this.totalDistanceMeters = totalDistanceMeters;
+        this.loadedAtNanos = System.nanoTime();
+        this.gemIds = gemIds.toArray(new UUID[0]);
+        this.gemIndexes = new HashMap<>(gemIds.size() * 2);
+        for (int i = 0; i < this.gemIds.length; i++) {
+            gemIndexes.putIfAbsent(this.gemIds[i], i);
+        }
+
+        this.completed = new BitSet(this.gemIds.length);
+        int[] order = new int[this.gemIds.length];
+        int count = 0;
+        for (UUID gemId : completedGemIds) {
+            Integer index = gemIndexes.get(gemId);
+            if (index != null && !completed.get(index)) { // Gems since removed from the krawl don't count
+                completed.set(index);
+                order[count++] = index;
+            }
+        }
+        this.completionOrder = Arrays.copyOf(order, count);
+    }
+
+    private ActiveSession(ActiveSession source, double totalDistanceMeters, BitSet completed, int[] completionOrder) {
+        this.sessionId = source.sessionId;
+        this.krawlId = source.krawlId;
+        this.userId = source.userId;
+        this.startedAt = source.startedAt;
+        this.loadedAtNanos = source.loadedAtNanos;
+        this.gemIds = source.gemIds;
+        this.gemIndexes = source.gemIndexes;
+        this.totalDistanceMeters = totalDistanceMeters;
+        this.completed = completed;
+        this.completionOrder = completionOrder;
+    }
+
+    long getLoadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+    public boolean containsGem(UUID gemId) {
+        return gemIndexes.containsKey(gemId);
+    }
+
+    public boolean isCompleted(UUID gemId) {
+        Integer index = gemIndexes.get(gemId);
+        return index != null && completed.get(index);
+    }
+
+    public int getCompletedGemsCount() {
+        return completionOrder.length;
+    }
+
+    public int getTotalGemsCount() {
+        return gemIds.length;
+    }
+
+    public boolean isAllCompleted() {
+        return completionOrder.length >= gemIds.length;
+    }
+
+    /**
+     * First gem in route order that has not been completed, or null when all are.
+     */
+    public UUID getNextGemId() {
+        int next = completed.nextClearBit(0);
+        return next < gemIds.length ? gemIds[next] : null;
+    }
+
+    /**
+     * Completed gem IDs in completion order.
+     */
+    public List<UUID> getCompletedGemIds() {
+        List<UUID> ids = new ArrayList<>(completionOrder.length);
+        for (int index : completionOrder) {
+            ids.add(gemIds[index]);
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    /**
+     * This session with a gem completed; the same snapshot if the gem is unknown or already completed.
+     */
+    public ActiveSession withCompleted(UUID gemId) {
+        Integer index = gemIndexes.get(gemId);
+        if (index == null || completed.get(index)) {
+            return this;
+        }
+        BitSet nextCompleted = (BitSet) completed.clone();
+        nextCompleted.set(index);
+        int[] nextOrder = Arrays.copyOf(completionOrder, completionOrder.length + 1);
+        nextOrder[completionOrder.length] = index;
+        return new ActiveSession(this, totalDistanceMeters, nextCompleted, nextOrder);
+    }
+
+    public ActiveSession withTotalDistance(double meters) {
+        return new ActiveSession(this, meters, completed, completionOrder);
+    }
+}
@@ -0,0 +1,195 @@
+package com.krawl.service.session;
+
+import com.krawl.dto.response.GemArrivalResponse;
+import com.krawl.entity.KrawlProgress;
+import com.krawl.entity.KrawlSession;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.KrawlGemRepository;
+import com.krawl.repository.KrawlProgressRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.util.TransactionUtils;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory state of active Krawl Mode sessions, keyed by (user, krawl).
+ *
+ * A session is loaded with three small queries the first time it is needed and then
+ * served from memory. Writers persist first and patch the state after their transaction
+ * commits (write-through), so the state never shows a change that was rolled back.
+ * Entries are reloaded after a few minutes so sessions changed outside this instance
+ * are picked up.
+ *
+ * Every committed change is also pushed to the session's streams (SessionEventHub).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveSessionRegistry {
+
+    private static final long STATE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final KrawlSessionRepository krawlSessionRepository;
+    private final KrawlGemRepository krawlGemRepository;
+    private final KrawlProgressRepository krawlProgressRepository;
+    private final SessionEventHub sessionEventHub;
+
+    private final Map<SessionKey, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, SessionKey> keysBySessionId = new ConcurrentHashMap<>();
+
+    /**
+     * Find the user's active session on a Krawl.
+     */
+    public Optional<ActiveSession> find(UUID krawlId, UUID userId) {
+        SessionKey key = new SessionKey(userId, krawlId);
+        ActiveSession session = sessions.get(key);
+        if (session != null && System.nanoTime() - session.getLoadedAtNanos() < STATE_TTL_NANOS) {
+            return Optional.of(session);
+        }
+
+        Optional<ActiveSession> loaded = load(krawlId, userId);
+        if (loaded.isPresent()) {
+            store(loaded.get());
+        } else {
+            remove(key);
+        }
+        return loaded;
+    }
+
+    /**
+     * Get the user's active session on a Krawl.
+     *
+     * @throws ResourceNotFoundException if the user has no active session on the krawl
+     */
+    public ActiveSession getRequired(UUID krawlId, UUID userId) {
+        return find(krawlId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+    }
+
+    /**
+     * Track a newly started session once the current transaction commits.
+     */
+    public void started(ActiveSession session) {
+        TransactionUtils.afterCommit(() -> store(session));
+    }
+
+    /**
+     * Record a completed gem once the current transaction commits.
+     */
+    public void gemCompleted(UUID sessionId, UUID gemId, KrawlProgress.ArrivalMethod arrivalMethod, Double distanceToGemMeters) {
+        TransactionUtils.afterCommit(() -> {
+            sessionEventHub.publish(sessionId, SessionEventHub.EVENT_ARRIVAL, GemArrivalResponse.builder()
+                    .sessionId(sessionId)
+                    .gemId(gemId)
+                    .distanceToGemMeters(distanceToGemMeters)
+                    .arrivalMethod(arrivalMethod.name())
+                    .build());
+            ActiveSession updated = update(sessionId, session -> session.withCompleted(gemId));
+            if (updated != null) {
+                sessionEventHub.publish(sessionId, SessionEventHub.EVENT_PROGRESS, SessionResponses.toProgressResponse(updated));
+            }
+        });
+    }
+
+    /**
+     * Record the distance walked once the current transaction commits.
+     */
+    public void distanceUpdated(UUID sessionId, double meters) {
+        TransactionUtils.afterCommit(() -> {
+            ActiveSession updated = update(sessionId, session -> session.withTotalDistance(meters));
+            if (updated != null) {
+                sessionEventHub.publish(sessionId, SessionEventHub.EVENT_SESSION,
+                        SessionResponses.toSessionResponse(updated, KrawlSession.SessionStatus.ACTIVE, null));
+            }
+        });
+    }
+
+    /**
+     * Forget a completed or abandoned session once the current transaction commits,
+     * and close its streams.
+     */
+    public void ended(UUID sessionId, KrawlSession.SessionStatus status, LocalDateTime endedAt) {
+        TransactionUtils.afterCommit(() -> {
+            SessionKey key = keysBySessionId.get(sessionId);
+            ActiveSession removed = key != null ? remove(key) : null;
+            sessionEventHub.close(sessionId, SessionEventHub.EVENT_SESSION,
+                    removed != null ? SessionResponses.toSessionResponse(removed, status, endedAt) : null);
+        });
+    }
+
+    /**
+     * Drop entries that have not been refreshed for a while (sessions nobody is walking).
+     */
+    @Scheduled(fixedDelayString = "${krawl.session.eviction-interval-ms:300000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        sessions.entrySet().removeIf(entry -> {
+            boolean expired = now - entry.getValue().getLoadedAtNanos() >= STATE_TTL_NANOS;
+            if (expired) {
+                keysBySessionId.remove(entry.getValue().getSessionId(), entry.getKey());
+            }
+            return expired;
+        });
+    }
+
+    private Optional<ActiveSession> load(UUID krawlId, UUID userId) {
+        Optional<KrawlSession> entity = krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId);
+        if (entity.isEmpty()) {
+            return Optional.empty();
+        }
+        KrawlSession session = entity.get();
+        List<UUID> gemIds = krawlGemRepository.findGemIdsByKrawlId(krawlId);
+        List<UUID> completedGemIds = krawlProgressRepository.findGemIdsBySessionId(session.getId());
+        log.debug("Loaded state of session {}: {} of {} gems completed", session.getId(), completedGemIds.size(), gemIds.size());
+        return Optional.of(new ActiveSession(session.getId(), krawlId, userId, session.getStartedAt(),
+                session.getTotalDistanceMeters() != null ? session.getTotalDistanceMeters() : 0.0,
+                gemIds, completedGemIds));
+    }
+
+    private void store(ActiveSession session) {
+        SessionKey key = new SessionKey(session.getUserId(), session.getKrawlId());
+        ActiveSession previous = sessions.put(key, session);
+        if (previous != null && !previous.getSessionId().equals(session.getSessionId())) {
+            keysBySessionId.remove(previous.getSessionId(), key);
+        }
+        keysBySessionId.put(session.getSessionId(), key);
+    }
+
+    private ActiveSession update(UUID sessionId, UnaryOperator<ActiveSession> change) {
+        SessionKey key = keysBySessionId.get(sessionId);
+        if (key == null) {
+            return null;
+        }
+        ActiveSession updated = sessions.computeIfPresent(key, (k, session) ->
+                session.getSessionId().equals(sessionId) ? change.apply(session) : session);
+        return updated != null && updated.getSessionId().equals(sessionId) ? updated : null;
+    }
+
+    private ActiveSession remove(SessionKey key) {
+        ActiveSession removed = sessions.remove(key);
+        if (removed != null) {
+            keysBySessionId.remove(removed.getSessionId(), key);
+        }
+        return removed;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class SessionKey {
+        private final UUID userId;
+        private final UUID krawlId;
+    }
+}
@@ -0,0 +1,271 @@
+package com.krawl.service.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process publish/subscribe hub for Krawl Mode session streams (Server-Sent Events).
+ *
+ * Publishing only appends to each subscriber's bounded queue and never blocks on the
+ * network; a small executor writes the queued events to the clients. Snapshot events
+ * (progress, session) carry the full state, so a queued one is replaced by the next of
+ * the same name. The other events (arrival, off-route, on-route) are deltas and are never
+ * dropped: if a slow client's queue fills up with them, its stream is ended instead, and
+ * the client resyncs from the initial snapshot when it reconnects.
+ *
+ * Idle streams get a heartbeat comment so proxies keep them open and dead clients are
+ * noticed. Metrics: krawl.session.stream.subscribers, krawl.session.stream.coalesced
+ * (snapshots replaced before delivery), krawl.session.stream.overflow (streams ended
+ * because the client fell behind).
+ */
+@Component
+@Slf4j
+public class SessionEventHub {
+
+    public static final String EVENT_PROGRESS = "progress";
+    public static final String EVENT_SESSION = "session";
+    public static final String EVENT_ARRIVAL = "arrival";
+    public static final String EVENT_OFF_ROUTE = "off-route";
+    public static final String EVENT_ON_ROUTE = "on-route";
+
+    private static final int MAX_SUBSCRIBERS_PER_SESSION = 4;
+    private static final Set<String> SNAPSHOT_EVENTS = Set.of(EVENT_PROGRESS, EVENT_SESSION);
+
+    private final Executor sessionEventExecutor;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Map<UUID, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+    private final Counter overflowCounter;
+
+    public SessionEventHub(
+            @Qualifier("sessionEventExecutor") Executor sessionEventExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${krawl.session.stream.buffer-size:32}") int bufferSize,
+            @Value("${krawl.session.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.sessionEventExecutor = sessionEventExecutor;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.coalescedCounter = meterRegistry.counter("krawl.session.stream.coalesced");
+        this.overflowCounter = meterRegistry.counter("krawl.session.stream.overflow");
+        Gauge.builder("krawl.session.stream.subscribers", subscribers,
+                map -> map.values().stream().mapToInt(List::size).sum()).register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a session.
+     *
+     * @param sessionId Session to follow
+     * @param initialEvents Events sent first, in order (event name to data), usually the current state
+     * @return Emitter to return from the controller
+     */
+    public SseEmitter subscribe(UUID sessionId, Map<String, Object> initialEvents) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(sessionId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        List<Subscriber> sessionSubscribers = subscribers.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>());
+        sessionSubscribers.add(subscriber);
+        while (sessionSubscribers.size() > MAX_SUBSCRIBERS_PER_SESSION) {
+            // Oldest stream first; typically a tab or device that went away without closing
+            Subscriber oldest = sessionSubscribers.remove(0);
+            oldest.enqueue(Event.END);
+        }
+
+        initialEvents.forEach((name, data) -> subscriber.enqueue(new Event(name, data)));
+        log.debug("Opened session stream for session {}", sessionId);
+        return emitter;
+    }
+
+    /**
+     * Push an event to every stream of a session.
+     */
+    public void publish(UUID sessionId, String name, Object data) {
+        List<Subscriber> sessionSubscribers = subscribers.get(sessionId);
+        if (sessionSubscribers == null) {
+            return;
+        }
+        Event event = new Event(name, data);
+        for (Subscriber subscriber : sessionSubscribers) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    /**
+     * Push a final event (skipped when data is null) and close every stream of a session.
+     */
+    public void close(UUID sessionId, String name, Object data) {
+        List<Subscriber> sessionSubscribers = subscribers.remove(sessionId);
+        if (sessionSubscribers == null) {
+            return;
+        }
+        Event event = data != null ? new Event(name, data) : null;
+        for (Subscriber subscriber : sessionSubscribers) {
+            if (event != null) {
+                subscriber.enqueue(event);
+            }
+            subscriber.enqueue(Event.END);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${krawl.session.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(sessionSubscribers -> sessionSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    int subscriberCount(UUID sessionId) {
+        List<Subscriber> sessionSubscribers = subscribers.get(sessionId);
+        return sessionSubscribers != null ? sessionSubscribers.size() : 0;
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.sessionId, (id, sessionSubscribers) -> {
+            sessionSubscribers.remove(subscriber);
+            return sessionSubscribers.isEmpty() ? null : sessionSubscribers;
+        });
+    }
+
+    private static class Event {
+        static final Event HEARTBEAT = new Event(null, null);
+        static final Event END = new Event(null, null);
+
+        private final String name;
+        private final Object data;
+
+        Event(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private class Subscriber {
+        private final UUID sessionId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>(); // Guarded by this
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private boolean ending; // END queued, nothing more is accepted. Guarded by this
+
+        Subscriber(UUID sessionId, SseEmitter emitter) {
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Event event) {
+            if (closed) {
+                return;
+            }
+            synchronized (this) {
+                if (ending) {
+                    return;
+                }
+                if (event.name != null && SNAPSHOT_EVENTS.contains(event.name)
+                        && queue.removeIf(queued -> event.name.equals(queued.name))) {
+                    coalescedCounter.increment();
+                }
+                if (event != Event.END && queue.size() >= bufferSize) {
+                    // Dropping a delta would leave the client wrong without knowing it
+                    queue.clear();
+                    queue.addLast(Event.END);
+                    ending = true;
+                    overflowCounter.increment();
+                    log.debug("Session stream for session {} fell behind, ending it", sessionId);
+                } else {
+                    queue.addLast(event);
+                    ending = event == Event.END;
+                }
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (!queue.isEmpty()) {
+                    return; // Events already on their way keep the stream alive
+                }
+            }
+            enqueue(Event.HEARTBEAT);
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sessionEventExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.warn("Session event executor saturated, closing stream for session {}", sessionId);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while (!closed && (event = poll()) != null) {
+                    send(event);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // An event may have been queued after the last poll but before scheduled was cleared
+            synchronized (this) {
+                if (closed || queue.isEmpty()) {
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        private synchronized Event poll() {
+            return queue.pollFirst();
+        }
+
+        private void send(Event event) {
+            if (event == Event.END) {
+                close();
+                return;
+            }
+            try {
+                if (event == Event.HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event().name(event.name).data(event.data));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter callbacks may not fire for a broken connection
+                log.debug("Session stream for session {} closed: {}", sessionId, e.getMessage());
+                closed = true;
+                remove(this);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.krawl.service.session;
+
+import com.krawl.dto.response.KrawlProgressResponse;
+import com.krawl.dto.response.KrawlSessionResponse;
+import com.krawl.entity.KrawlSession;
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds Krawl Mode responses from session state, shared by the REST endpoints and the session stream.
+ */
+@UtilityClass
+public class SessionResponses {
+
+    public static KrawlSessionResponse toSessionResponse(ActiveSession state, KrawlSession.SessionStatus status,
+                                                         LocalDateTime endedAt) {
+        return KrawlSessionResponse.builder()
+                .sessionId(state.getSessionId())
+                .krawlId(state.getKrawlId())
+                .userId(state.getUserId())
+                .startedAt(state.getStartedAt())
+                .endedAt(endedAt)
+                .status(status.name())
+                .totalDistanceMeters(state.getTotalDistanceMeters())
+                .completedGemsCount((long) state.getCompletedGemsCount())
+                .totalGemsCount(state.getTotalGemsCount())
+                .build();
+    }
+
+    public static KrawlProgressResponse toProgressResponse(ActiveSession state) {
+        int completedGemsCount = state.getCompletedGemsCount();
+        int totalGemsCount = state.getTotalGemsCount();
+        double progressPercentage = totalGemsCount > 0
+                ? (completedGemsCount * 100.0) / totalGemsCount
+                : 0.0;
+
+        return KrawlProgressResponse.builder()
+                .sessionId(state.getSessionId())
+                .completedGemsCount((long) completedGemsCount)
+                .totalGemsCount(totalGemsCount)
+                .progressPercentage(progressPercentage)
+                .completedGemIds(state.getCompletedGemIds())
+                .nextGemId(state.getNextGemId())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.krawl.service.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based writes for the Krawl Mode offline sync: each batch is one statement over
+ * arrays, joining the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionSyncStore {
+
+    private static final String CLAIM_EVENTS_SQL = """
+            INSERT INTO krawl_sync_events (event_id, session_id)
+            SELECT event_id, ? FROM unnest(?::uuid[]) AS t(event_id)
+            ON CONFLICT (event_id) DO NOTHING
+            RETURNING event_id
+            """;
+
+    private static final String INSERT_PROGRESS_SQL = """
+            INSERT INTO krawl_progress (session_id, gem_id, completed_at, distance_to_gem_meters, arrival_method)
+            SELECT ?, t.gem_id, t.completed_at, t.distance, t.arrival_method
+            FROM unnest(?::uuid[], ?::timestamp[], ?::float8[], ?::varchar[])
+                AS t(gem_id, completed_at, distance, arrival_method)
+            ON CONFLICT (session_id, gem_id) DO NOTHING
+            RETURNING gem_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Record event IDs as applied.
+     *
+     * @return The IDs that had not been applied before
+     */
+    public Set<UUID> claimEvents(UUID sessionId, List<UUID> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(CLAIM_EVENTS_SQL);
+                    ps.setObject(1, sessionId);
+                    ps.setArray(2, connection.createArrayOf("uuid", eventIds.toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> rs.getObject("event_id", UUID.class)));
+    }
+
+    /**
+     * Insert gem completions, skipping gems already completed in the session.
+     *
+     * @return The gems that were newly completed
+     */
+    public Set<UUID> insertProgress(UUID sessionId, List<Completion> completions) {
+        if (completions.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(INSERT_PROGRESS_SQL);
+                    ps.setObject(1, sessionId);
+                    ps.setArray(2, connection.createArrayOf("uuid", completions.stream().map(Completion::getGemId).toArray()));
+                    ps.setArray(3, connection.createArrayOf("timestamp", completions.stream()
+                            .map(completion -> Timestamp.valueOf(completion.getCompletedAt())).toArray()));
+                    ps.setArray(4, connection.createArrayOf("float8", completions.stream().map(Completion::getDistanceToGemMeters).toArray()));
+                    ps.setArray(5, connection.createArrayOf("varchar", completions.stream().map(Completion::getArrivalMethod).toArray()));
+                    return ps;
+                },
+                (rs, rowNum) -> rs.getObject("gem_id", UUID.class)));
+    }
+
+    /**
+     * A gem completion to insert.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Completion {
+        private final UUID gemId;
+        private final LocalDateTime completedAt;
+        private final Double distanceToGemMeters;
+        private final String arrivalMethod;
+    }
+}
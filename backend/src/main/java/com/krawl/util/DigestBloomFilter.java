@@ -0,0 +1,83 @@
+package com.krawl.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over cryptographic digests (SHA-256 or similar).
+ *
+ * Answers "definitely not added" or "maybe added", with false positives at about the rate
+ * it was sized for as long as it holds no more than its capacity. Bit positions come from
+ * the digest itself by double hashing, so lookups do no further hashing. Safe for
+ * concurrent adds and lookups.
+ */
+public class DigestBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    /**
+     * @param capacity Number of entries the filter is sized for
+     * @param falsePositiveRate Target false positive rate at capacity, e.g. 0.001
+     */
+    public DigestBloomFilter(int capacity, double falsePositiveRate) {
+        if (capacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter capacity or false positive rate");
+        }
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void add(byte[] digest) {
+        long h1 = firstHash(digest);
+        long h2 = secondHash(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return false if the digest was never added, true if it probably was
+     */
+    public boolean mightContain(byte[] digest) {
+        long h1 = firstHash(digest);
+        long h2 = secondHash(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long firstHash(byte[] digest) {
+        return requireDigest(digest).getLong(0);
+    }
+
+    private static long secondHash(byte[] digest) {
+        return requireDigest(digest).getLong(8) | 1; // Odd, so probes do not repeat early
+    }
+
+    private static ByteBuffer requireDigest(byte[] digest) {
+        if (digest.length < 16) {
+            throw new IllegalArgumentException("Digest must be at least 16 bytes");
+        }
+        return ByteBuffer.wrap(digest);
+    }
+}
@@ -0,0 +1,74 @@
+package com.krawl.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Mergeable quantile sketch for durations: a histogram over logarithmic buckets, so any
+ * quantile is estimated within {@link #RELATIVE_ACCURACY} of the true value (DDSketch).
+ *
+ * The sketch is a fixed array of {@link #BUCKET_COUNT} counters, which lets the database
+ * keep it in a single array column and add a value with one atomic increment. Buckets are
+ * numbered from 1 to match PostgreSQL array subscripts; bucket i holds (gamma^(i-1), gamma^i]
+ * seconds, and values beyond the last bucket are counted in it.
+ */
+@UtilityClass
+public class DurationSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.02;
+
+    /**
+     * Enough buckets for durations up to about 100 hours.
+     */
+    public static final int BUCKET_COUNT = 320;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /**
+     * Bucket a duration falls in.
+     *
+     * @param seconds Duration in seconds
+     * @return Bucket number, 1 to BUCKET_COUNT
+     */
+    public static int bucketOf(double seconds) {
+        if (seconds <= 1) {
+            return 1;
+        }
+        int bucket = (int) Math.ceil(Math.log(seconds) / LOG_GAMMA);
+        return Math.max(1, Math.min(BUCKET_COUNT, bucket));
+    }
+
+    /**
+     * Estimate a quantile.
+     *
+     * @param counts Counters of buckets 1..n at indexes 0..n-1
+     * @param quantile Quantile between 0 and 1 (0.5 for the median)
+     * @return Estimated duration in seconds, or null if the sketch is empty
+     */
+    public static Double quantile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        long rank = (long) Math.floor(quantile * (total - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return bucketValue(i + 1);
+            }
+        }
+        return bucketValue(counts.length);
+    }
+
+    /**
+     * Value reported for a bucket: the point within RELATIVE_ACCURACY of both of its bounds.
+     */
+    private static double bucketValue(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+}
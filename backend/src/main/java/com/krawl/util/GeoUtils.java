@@ -0,0 +1,66 @@
+package com.krawl.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class for geographic distance calculations.
+ *
+ * Shared primitive-only helpers so hot paths (catalog lookups, location
+ * pings) can measure distances without allocating coordinate objects.
+ */
+@UtilityClass
+public class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6371000.0;
+
+    /**
+     * Approximate length of one degree of latitude in meters.
+     */
+    public static final double METERS_PER_DEGREE_LAT = 111320.0;
+
+    /**
+     * Great-circle distance between two points using the Haversine formula.
+     *
+     * @return Distance in meters
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1Rad) * Math.cos(lat2Rad)
+                * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    /**
+     * Fast equirectangular distance approximation.
+     * Accurate to well under a meter at city scale, and far cheaper than Haversine.
+     *
+     * @return Distance in meters
+     */
+    public static double equirectangularMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+
+    /**
+     * Convert a distance in meters to degrees of latitude.
+     */
+    public static double metersToLatDegrees(double meters) {
+        return meters / METERS_PER_DEGREE_LAT;
+    }
+
+    /**
+     * Convert a distance in meters to degrees of longitude at the given latitude.
+     */
+    public static double metersToLonDegrees(double meters, double atLatitude) {
+        double cos = Math.cos(Math.toRadians(atLatitude));
+        return meters / (METERS_PER_DEGREE_LAT * Math.max(cos, 1e-6));
+    }
+}
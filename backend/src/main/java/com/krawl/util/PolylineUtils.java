@@ -0,0 +1,171 @@
+package com.krawl.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Utility class for route geometry: encoded polylines and line simplification.
+ *
+ * Coordinates are [longitude, latitude] throughout, matching the rest of the routing code.
+ * The encoded form is the standard polyline algorithm format (latitude first), as decoded
+ * by Mapbox GL, Google Maps and @mapbox/polyline.
+ */
+@UtilityClass
+public class PolylineUtils {
+
+    /**
+     * Precision used for stored routes: 5 decimal places (~1 m).
+     */
+    public static final int DEFAULT_PRECISION = 5;
+
+    /**
+     * Encode coordinates in the polyline algorithm format.
+     *
+     * @param coordinates Coordinates [longitude, latitude]
+     * @param precision Decimal places kept (5 or 6)
+     * @return Encoded polyline
+     */
+    public static String encode(List<double[]> coordinates, int precision) {
+        double factor = Math.pow(10, precision);
+        StringBuilder sb = new StringBuilder(coordinates.size() * 8);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (double[] coordinate : coordinates) {
+            long lat = Math.round(coordinate[1] * factor);
+            long lon = Math.round(coordinate[0] * factor);
+            encodeValue(lat - previousLat, sb);
+            encodeValue(lon - previousLon, sb);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decode a polyline produced by {@link #encode}.
+     *
+     * @param encoded Encoded polyline
+     * @param precision Decimal places used when encoding
+     * @return Coordinates [longitude, latitude]
+     * @throws IllegalArgumentException if the polyline is malformed
+     */
+    public static List<double[]> decode(String encoded, int precision) {
+        double factor = Math.pow(10, precision);
+        List<double[]> coordinates = new ArrayList<>();
+        int[] index = {0};
+        long lat = 0;
+        long lon = 0;
+        while (index[0] < encoded.length()) {
+            lat += decodeValue(encoded, index);
+            lon += decodeValue(encoded, index);
+            coordinates.add(new double[]{lon / factor, lat / factor});
+        }
+        return coordinates;
+    }
+
+    /**
+     * Douglas-Peucker simplification. The first and last points are always kept.
+     *
+     * @param coordinates Coordinates [longitude, latitude]
+     * @param toleranceMeters Maximum distance of a dropped point from the simplified line
+     * @return Simplified coordinates (the input itself when nothing can be dropped)
+     */
+    public static List<double[]> simplify(List<double[]> coordinates, double toleranceMeters) {
+        int count = coordinates.size();
+        if (count < 3 || toleranceMeters <= 0) {
+            return coordinates;
+        }
+
+        // Project once to local meters so distances are cheap and comparable
+        double cosLat = Math.cos(Math.toRadians(coordinates.get(0)[1]));
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = coordinates.get(i)[0] * GeoUtils.METERS_PER_DEGREE_LAT * cosLat;
+            y[i] = coordinates.get(i)[1] * GeoUtils.METERS_PER_DEGREE_LAT;
+        }
+
+        double toleranceSquared = toleranceMeters * toleranceMeters;
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        int kept = 2;
+
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{0, count - 1});
+        while (!stack.isEmpty()) {
+            int[] range = stack.pop();
+            int first = range[0];
+            int last = range[1];
+            if (last - first < 2) {
+                continue;
+            }
+
+            int farthest = -1;
+            double farthestDistance = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (d > farthestDistance) {
+                    farthestDistance = d;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                kept++;
+                stack.push(new int[]{first, farthest});
+                stack.push(new int[]{farthest, last});
+            }
+        }
+
+        if (kept == count) {
+            return coordinates;
+        }
+        List<double[]> simplified = new ArrayList<>(kept);
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                simplified.add(coordinates.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    private static void encodeValue(long value, StringBuilder sb) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+
+    private static long decodeValue(String encoded, int[] index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index[0] >= encoded.length()) {
+                throw new IllegalArgumentException("Malformed polyline");
+            }
+            b = encoded.charAt(index[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
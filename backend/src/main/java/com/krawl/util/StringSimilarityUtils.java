@@ -0,0 +1,40 @@
+package com.krawl.util;
+
+import lombok.experimental.UtilityClass;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+
+/**
+ * Utility class for name similarity scoring.
+ */
+@UtilityClass
+public class StringSimilarityUtils {
+
+    /**
+     * Levenshtein similarity (1 - distance / maxLength) of two already-normalized names,
+     * bounded by a minimum similarity. The edit distance computation stops as soon as the
+     * minimum can no longer be reached, so clearly different names are rejected cheaply.
+     *
+     * @param first First name (normalized)
+     * @param second Second name (normalized)
+     * @param minSimilarity Minimum similarity of interest (0-1)
+     * @return Similarity (0-1), or -1 if it is below minSimilarity
+     */
+    public static double boundedLevenshteinSimilarity(String first, String second, double minSimilarity) {
+        int maxLength = Math.max(first.length(), second.length());
+        if (maxLength == 0) {
+            return -1;
+        }
+
+        // The length difference alone is a lower bound on the edit distance
+        int maxEdits = (int) Math.floor((1.0 - minSimilarity) * maxLength);
+        if (Math.abs(first.length() - second.length()) > maxEdits) {
+            return -1;
+        }
+
+        int distance = new LevenshteinDistance(maxEdits).apply(first, second);
+        if (distance < 0) {
+            return -1;
+        }
+        return 1.0 - ((double) distance / maxLength);
+    }
+}
@@ -0,0 +1,34 @@
+package com.krawl.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for deferring work until the surrounding transaction commits.
+ *
+ * In-memory read models must only reflect writes that actually reached the
+ * database, so they are patched from an after-commit callback.
+ */
+@UtilityClass
+public class TransactionUtils {
+
+    /**
+     * Run the action after the current transaction commits,
+     * or immediately when no transaction is active.
+     *
+     * @param action Action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
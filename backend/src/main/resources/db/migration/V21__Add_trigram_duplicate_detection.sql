@@ -0,0 +1,9 @@
+-- V21__Add_trigram_duplicate_detection.sql
+-- Enable pg_trgm so duplicate detection can rank nearby Gems by name
+-- similarity in a single set-based query instead of scoring each row in Java.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- No trigram index on gems.name: ST_DWithin (idx_gems_location_geography) narrows the
+-- candidates to Gems within 50 m first, and similarity() in the select list cannot use a
+-- GIN index, so one would never be read and would only slow Gem writes.
@@ -0,0 +1,25 @@
+-- Create gem_duplicate_pairs table
+-- Ranked report of likely duplicate Gems written by the background duplicate sweep.
+-- Each pair is stored once with gem_a_id < gem_b_id.
+CREATE TABLE gem_duplicate_pairs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    gem_a_id UUID NOT NULL REFERENCES gems(id) ON DELETE CASCADE,
+    gem_b_id UUID NOT NULL REFERENCES gems(id) ON DELETE CASCADE,
+    distance_meters DOUBLE PRECISION NOT NULL,
+    name_similarity DOUBLE PRECISION NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    detected_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_gem_duplicate_pair UNIQUE (gem_a_id, gem_b_id),
+    CONSTRAINT chk_gem_duplicate_pair_order CHECK (gem_a_id < gem_b_id),
+    CONSTRAINT chk_gem_duplicate_pair_status CHECK (status IN ('OPEN', 'DISMISSED', 'MERGED'))
+);
+
+-- Moderator queue: open pairs, best match first
+CREATE INDEX idx_gem_duplicate_pairs_status_score ON gem_duplicate_pairs(status, score DESC);
+CREATE INDEX idx_gem_duplicate_pairs_gem_b ON gem_duplicate_pairs(gem_b_id);
+
+COMMENT ON TABLE gem_duplicate_pairs IS 'Likely duplicate Gem pairs found by the catalog-wide duplicate sweep, ranked by score for moderators';
+COMMENT ON COLUMN gem_duplicate_pairs.score IS 'Combined ranking score: name similarity (70%) and proximity (30%)';
+COMMENT ON COLUMN gem_duplicate_pairs.status IS 'OPEN until a moderator dismisses or merges the pair; preserved across sweeps';
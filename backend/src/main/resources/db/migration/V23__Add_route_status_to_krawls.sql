@@ -0,0 +1,16 @@
+-- V23__Add_route_status_to_krawls.sql
+-- Routes are computed in the background after a Krawl is saved.
+-- route_status tracks whether the stored route is still the straight-line estimate.
+ALTER TABLE krawls
+    ADD COLUMN route_status VARCHAR(20) NOT NULL DEFAULT 'READY',
+    ADD COLUMN route_version INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN route_requested_at TIMESTAMP;
+
+ALTER TABLE krawls
+    ADD CONSTRAINT chk_krawl_route_status CHECK (route_status IN ('PENDING', 'READY', 'ESTIMATED'));
+
+-- Recovery job: pending routes whose background computation was lost
+CREATE INDEX idx_krawls_route_pending ON krawls(route_requested_at) WHERE route_status = 'PENDING';
+
+COMMENT ON COLUMN krawls.route_status IS 'PENDING: straight-line estimate, route being computed; READY: walking route; ESTIMATED: routing unavailable, straight-line estimate kept';
+COMMENT ON COLUMN krawls.route_version IS 'Incremented whenever the gem list changes; stale background results are discarded';
@@ -0,0 +1,14 @@
+-- Create route_legs table
+-- Walking route legs between two consecutive waypoints, cached so full Krawl routes
+-- can be assembled without calling the routing API for legs seen before.
+-- leg_key is built from both endpoints rounded to 5 decimal places (~1 m).
+CREATE TABLE route_legs (
+    leg_key VARCHAR(64) PRIMARY KEY,
+    coordinates TEXT NOT NULL,
+    distance_meters DOUBLE PRECISION NOT NULL,
+    duration_seconds DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE route_legs IS 'Cached walking route legs between pairs of waypoints';
+COMMENT ON COLUMN route_legs.coordinates IS 'Leg geometry as a JSON array of [longitude, latitude] pairs';
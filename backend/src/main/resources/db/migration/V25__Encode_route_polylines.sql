@@ -0,0 +1,17 @@
+-- V25__Encode_route_polylines.sql
+-- Routes are stored as encoded polylines (precision 5) instead of JSON coordinate arrays,
+-- with Douglas-Peucker simplified variants for lower zoom levels.
+ALTER TABLE krawls
+    ADD COLUMN route_polyline_overview TEXT,
+    ADD COLUMN route_polyline_standard TEXT;
+
+-- Routes still stored as JSON arrays are re-queued; the route recovery job recomputes
+-- them (from the route leg cache where possible) in the new format.
+UPDATE krawls
+SET route_status = 'PENDING',
+    route_requested_at = NOW() - INTERVAL '1 day'
+WHERE route_polyline LIKE '[%';
+
+COMMENT ON COLUMN krawls.route_polyline IS 'Full route geometry, encoded polyline (precision 5)';
+COMMENT ON COLUMN krawls.route_polyline_overview IS 'Route simplified for city-wide zoom (~15 m tolerance), encoded polyline (precision 5)';
+COMMENT ON COLUMN krawls.route_polyline_standard IS 'Route simplified for neighbourhood zoom (~3 m tolerance), encoded polyline (precision 5)';
@@ -0,0 +1,74 @@
+-- Create krawl_summaries table
+-- Read model holding the Krawl "card" shown on list screens (search, featured, user activity),
+-- so lists never load the gems collection. One row per Krawl, rewritten by the application
+-- whenever the Krawl, its gems, its ratings or its vouches change.
+CREATE TABLE krawl_summaries (
+    krawl_id UUID PRIMARY KEY REFERENCES krawls(id) ON DELETE CASCADE,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    category VARCHAR(100),
+    difficulty VARCHAR(50),
+    cover_image VARCHAR(500),
+    estimated_duration_minutes INTEGER,
+    gem_count INTEGER NOT NULL DEFAULT 0,
+    start_latitude DOUBLE PRECISION,
+    start_longitude DOUBLE PRECISION,
+    center_latitude DOUBLE PRECISION,
+    center_longitude DOUBLE PRECISION,
+    min_latitude DOUBLE PRECISION,
+    min_longitude DOUBLE PRECISION,
+    max_latitude DOUBLE PRECISION,
+    max_longitude DOUBLE PRECISION,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    average_rating DOUBLE PRECISION NOT NULL DEFAULT 0,
+    vouch_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Featured Krawls: best rated first
+CREATE INDEX idx_krawl_summaries_rating ON krawl_summaries(average_rating DESC);
+
+-- Backfill existing Krawls (same computation as KrawlSummaryRepository.refresh)
+INSERT INTO krawl_summaries (
+    krawl_id, name, description, category, difficulty, cover_image, estimated_duration_minutes,
+    gem_count, start_latitude, start_longitude, center_latitude, center_longitude,
+    min_latitude, min_longitude, max_latitude, max_longitude,
+    rating_count, average_rating, vouch_count, created_at, updated_at)
+SELECT k.id, k.name, k.description, k.category, k.difficulty, k.cover_image, k.estimated_duration_minutes,
+       g.gem_count, s.latitude, s.longitude, g.center_latitude, g.center_longitude,
+       g.min_latitude, g.min_longitude, g.max_latitude, g.max_longitude,
+       r.rating_count, COALESCE(r.average_rating, 0), v.vouch_count, k.created_at, CURRENT_TIMESTAMP
+FROM krawls k
+CROSS JOIN LATERAL (
+    SELECT COUNT(*) AS gem_count,
+           AVG(gm.latitude) AS center_latitude, AVG(gm.longitude) AS center_longitude,
+           MIN(gm.latitude) AS min_latitude, MIN(gm.longitude) AS min_longitude,
+           MAX(gm.latitude) AS max_latitude, MAX(gm.longitude) AS max_longitude
+    FROM krawl_gems kg
+    JOIN gems gm ON gm.id = kg.gem_id
+    WHERE kg.krawl_id = k.id
+) g
+LEFT JOIN LATERAL (
+    SELECT gm.latitude, gm.longitude
+    FROM krawl_gems kg
+    JOIN gems gm ON gm.id = kg.gem_id
+    WHERE kg.krawl_id = k.id
+    ORDER BY kg."order"
+    LIMIT 1
+) s ON TRUE
+CROSS JOIN LATERAL (
+    SELECT COUNT(*) AS rating_count, AVG(rating) AS average_rating
+    FROM krawl_ratings
+    WHERE krawl_id = k.id
+) r
+CROSS JOIN LATERAL (
+    SELECT COUNT(*) AS vouch_count
+    FROM krawl_vouches
+    WHERE krawl_id = k.id
+) v;
+
+COMMENT ON TABLE krawl_summaries IS 'Precomputed Krawl cards for list screens, maintained on Krawl, rating and vouch writes';
+COMMENT ON COLUMN krawl_summaries.start_latitude IS 'Latitude of the first Gem in visiting order';
+COMMENT ON COLUMN krawl_summaries.center_latitude IS 'Mean latitude of the Krawl''s Gems';
+COMMENT ON COLUMN krawl_summaries.average_rating IS 'Average rating, 0 when rating_count is 0';
@@ -0,0 +1,25 @@
+-- V27__Add_krawl_route_geometry.sql
+-- Spatial discovery of Krawls: each summary carries its route as a PostGIS LineString,
+-- decoded from the stored neighbourhood-zoom polyline, so map queries are index-driven.
+ALTER TABLE krawl_summaries
+    ADD COLUMN route_geometry geometry(LineString, 4326);
+
+UPDATE krawl_summaries s
+SET route_geometry = ST_LineFromEncodedPolyline(k.route_polyline_standard, 5)
+FROM krawls k
+WHERE k.id = s.krawl_id
+  AND k.route_polyline_standard IS NOT NULL;
+
+-- Krawls whose route passes through a viewport (the index holds each route's bounding box)
+CREATE INDEX idx_krawl_summaries_route_geometry
+ON krawl_summaries
+USING GIST (route_geometry);
+
+-- Krawls starting near a point, nearest first (KNN ordering with <->)
+-- Note: Using CAST instead of :: syntax for better Flyway compatibility
+CREATE INDEX idx_krawl_summaries_start_geography
+ON krawl_summaries
+USING GIST (CAST(ST_MakePoint(start_longitude, start_latitude) AS geography));
+
+COMMENT ON COLUMN krawl_summaries.route_geometry IS 'Route (~3 m simplification) as a WGS 84 LineString; NULL until the first route in encoded polyline format is stored';
+COMMENT ON INDEX idx_krawl_summaries_start_geography IS 'PostGIS spatial index on the start point for ST_DWithin filtering and KNN ordering. Uses geography type for distances in meters.';
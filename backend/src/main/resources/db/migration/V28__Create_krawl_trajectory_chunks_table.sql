@@ -0,0 +1,19 @@
+-- Create krawl_trajectory_chunks table
+-- Compressed Krawl Mode location history: each session's fixes are packed into
+-- time-bucketed chunks of delta-encoded, quantized points (see TrajectoryCodec),
+-- appended to in place. One row and one index entry per session and bucket instead
+-- of one row and four index entries per GPS fix.
+CREATE TABLE krawl_trajectory_chunks (
+    session_id UUID NOT NULL REFERENCES krawl_sessions(id) ON DELETE CASCADE,
+    chunk_start TIMESTAMP NOT NULL,
+    first_recorded_at TIMESTAMP NOT NULL,
+    last_recorded_at TIMESTAMP NOT NULL,
+    point_count INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    PRIMARY KEY (session_id, chunk_start)
+);
+
+COMMENT ON TABLE krawl_trajectory_chunks IS 'Krawl Mode location history, packed per session into time-bucketed binary chunks';
+COMMENT ON COLUMN krawl_trajectory_chunks.chunk_start IS 'Start of the time bucket; also the time base of the first point in data';
+COMMENT ON COLUMN krawl_trajectory_chunks.data IS 'Format byte followed by varint records (delta time/lat/lon, speed, heading, accuracy)';
+COMMENT ON TABLE krawl_location_history IS 'Legacy per-fix location history; new fixes are written to krawl_trajectory_chunks';
@@ -0,0 +1,12 @@
+-- Create krawl_sync_events table
+-- Client-generated IDs of Krawl Mode events applied through the offline sync endpoint,
+-- so a batch replayed after a dropped response is not applied twice.
+CREATE TABLE krawl_sync_events (
+    event_id UUID PRIMARY KEY,
+    session_id UUID NOT NULL REFERENCES krawl_sessions(id) ON DELETE CASCADE,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_krawl_sync_events_session_id ON krawl_sync_events(session_id);
+
+COMMENT ON TABLE krawl_sync_events IS 'Event IDs already applied by POST /api/krawls/{id}/session/sync (idempotency keys)';
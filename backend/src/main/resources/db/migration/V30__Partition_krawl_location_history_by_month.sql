@@ -0,0 +1,94 @@
+-- Partition Krawl Mode location history by month
+-- krawl_location_history (legacy per-fix rows) and krawl_trajectory_chunks are range-partitioned
+-- by month, so retention detaches and drops whole partitions (see LocationRetentionService)
+-- instead of deleting rows. Time columns only grow, so a BRIN index serves time-range scans;
+-- per-session reads and purges use the session_id btree of each partition.
+
+-- Create one partition per month from first_month to last_month, named <parent>_pYYYYMM.
+-- Existing partitions are left alone. Also called by the retention job to stay ahead of time.
+CREATE OR REPLACE FUNCTION krawl_create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+  month DATE := date_trunc('month', first_month)::date;
+  partition_name TEXT;
+  created INTEGER := 0;
+BEGIN
+  WHILE month <= last_month LOOP
+    partition_name := parent || '_p' || to_char(month, 'YYYYMM');
+    IF to_regclass(partition_name) IS NULL THEN
+      EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                     partition_name, parent, month, (month + INTERVAL '1 month')::date);
+      created := created + 1;
+    END IF;
+    month := (month + INTERVAL '1 month')::date;
+  END LOOP;
+  RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- krawl_location_history
+ALTER TABLE krawl_location_history RENAME TO krawl_location_history_unpartitioned;
+ALTER INDEX krawl_location_history_pkey RENAME TO krawl_location_history_unpartitioned_pkey;
+
+CREATE TABLE krawl_location_history (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    session_id UUID NOT NULL REFERENCES krawl_sessions(id) ON DELETE CASCADE,
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL,
+    accuracy DOUBLE PRECISION,
+    heading DOUBLE PRECISION,
+    speed DOUBLE PRECISION,
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+SELECT krawl_create_monthly_partitions('krawl_location_history',
+    COALESCE((SELECT MIN(recorded_at)::date FROM krawl_location_history_unpartitioned), CURRENT_DATE),
+    GREATEST((CURRENT_DATE + INTERVAL '2 months')::date,
+             COALESCE((SELECT MAX(recorded_at)::date FROM krawl_location_history_unpartitioned), CURRENT_DATE)));
+
+INSERT INTO krawl_location_history
+    (id, session_id, latitude, longitude, accuracy, heading, speed, recorded_at, created_at)
+SELECT id, session_id, latitude, longitude, accuracy, heading, speed, recorded_at, created_at
+FROM krawl_location_history_unpartitioned;
+
+DROP TABLE krawl_location_history_unpartitioned;
+
+CREATE INDEX idx_krawl_location_session_id ON krawl_location_history(session_id);
+CREATE INDEX idx_krawl_location_recorded_at ON krawl_location_history USING BRIN (recorded_at);
+CREATE INDEX idx_krawl_location_geometry ON krawl_location_history
+    USING GIST (ST_MakePoint(longitude, latitude));
+
+-- krawl_trajectory_chunks
+ALTER TABLE krawl_trajectory_chunks RENAME TO krawl_trajectory_chunks_unpartitioned;
+ALTER INDEX krawl_trajectory_chunks_pkey RENAME TO krawl_trajectory_chunks_unpartitioned_pkey;
+
+CREATE TABLE krawl_trajectory_chunks (
+    session_id UUID NOT NULL REFERENCES krawl_sessions(id) ON DELETE CASCADE,
+    chunk_start TIMESTAMP NOT NULL,
+    first_recorded_at TIMESTAMP NOT NULL,
+    last_recorded_at TIMESTAMP NOT NULL,
+    point_count INTEGER NOT NULL,
+    data BYTEA NOT NULL,
+    PRIMARY KEY (session_id, chunk_start)
+) PARTITION BY RANGE (chunk_start);
+
+SELECT krawl_create_monthly_partitions('krawl_trajectory_chunks',
+    COALESCE((SELECT MIN(chunk_start)::date FROM krawl_trajectory_chunks_unpartitioned), CURRENT_DATE),
+    GREATEST((CURRENT_DATE + INTERVAL '2 months')::date,
+             COALESCE((SELECT MAX(chunk_start)::date FROM krawl_trajectory_chunks_unpartitioned), CURRENT_DATE)));
+
+INSERT INTO krawl_trajectory_chunks
+    (session_id, chunk_start, first_recorded_at, last_recorded_at, point_count, data)
+SELECT session_id, chunk_start, first_recorded_at, last_recorded_at, point_count, data
+FROM krawl_trajectory_chunks_unpartitioned;
+
+DROP TABLE krawl_trajectory_chunks_unpartitioned;
+
+CREATE INDEX idx_krawl_trajectory_chunks_chunk_start ON krawl_trajectory_chunks USING BRIN (chunk_start);
+
+COMMENT ON TABLE krawl_location_history IS 'Legacy per-fix location history, partitioned by month; new fixes are written to krawl_trajectory_chunks';
+COMMENT ON TABLE krawl_trajectory_chunks IS 'Krawl Mode location history, packed per session into time-bucketed binary chunks; partitioned by month';
+COMMENT ON COLUMN krawl_trajectory_chunks.chunk_start IS 'Start of the time bucket; also the time base of the first point in data';
+COMMENT ON COLUMN krawl_trajectory_chunks.data IS 'Format byte followed by varint records (delta time/lat/lon, speed, heading, accuracy)';
@@ -0,0 +1,79 @@
+-- Create Krawl Mode analytics aggregates
+-- Per-krawl counters kept up to date as sessions start, reach gems, complete or are abandoned,
+-- so creator analytics are read from one row per krawl (plus one per gem) instead of scanning
+-- krawl_sessions and krawl_progress.
+
+CREATE TABLE krawl_mode_stats (
+    krawl_id UUID PRIMARY KEY REFERENCES krawls(id) ON DELETE CASCADE,
+    sessions_started BIGINT NOT NULL DEFAULT 0,
+    sessions_completed BIGINT NOT NULL DEFAULT 0,
+    sessions_abandoned BIGINT NOT NULL DEFAULT 0,
+    duration_buckets BIGINT[] NOT NULL DEFAULT array_fill(0::BIGINT, ARRAY[320]),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE krawl_mode_gem_stats (
+    krawl_id UUID NOT NULL REFERENCES krawls(id) ON DELETE CASCADE,
+    gem_id UUID NOT NULL REFERENCES gems(id) ON DELETE CASCADE,
+    reached_count BIGINT NOT NULL DEFAULT 0,
+    drop_off_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (krawl_id, gem_id)
+);
+
+COMMENT ON TABLE krawl_mode_stats IS 'Incrementally maintained Krawl Mode session aggregates per krawl';
+COMMENT ON COLUMN krawl_mode_stats.duration_buckets IS 'Completed session durations: log-bucketed histogram, 2% relative accuracy (see DurationSketch)';
+COMMENT ON TABLE krawl_mode_gem_stats IS 'Per gem: sessions that reached it, and abandoned sessions for which it was the next gem';
+COMMENT ON COLUMN krawl_mode_gem_stats.drop_off_count IS 'Abandoned sessions whose next unvisited gem (in route order) was this gem';
+
+-- Backfill from existing sessions
+INSERT INTO krawl_mode_stats (krawl_id, sessions_started, sessions_completed, sessions_abandoned)
+SELECT krawl_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE status = 'COMPLETED'),
+       COUNT(*) FILTER (WHERE status = 'ABANDONED')
+FROM krawl_sessions
+GROUP BY krawl_id;
+
+-- Same bucketing as DurationSketch.bucketOf
+DO $$
+DECLARE
+  r RECORD;
+BEGIN
+  FOR r IN
+    SELECT krawl_id, bucket, COUNT(*) AS sessions
+    FROM (
+      SELECT krawl_id,
+             LEAST(320, GREATEST(1, CEIL(LN(GREATEST(EXTRACT(EPOCH FROM ended_at - started_at), 1)) / LN(1.02 / 0.98))))::INTEGER AS bucket
+      FROM krawl_sessions
+      WHERE status = 'COMPLETED' AND ended_at IS NOT NULL
+    ) durations
+    GROUP BY krawl_id, bucket
+  LOOP
+    UPDATE krawl_mode_stats
+    SET duration_buckets[r.bucket] = duration_buckets[r.bucket] + r.sessions
+    WHERE krawl_id = r.krawl_id;
+  END LOOP;
+END;
+$$;
+
+INSERT INTO krawl_mode_gem_stats (krawl_id, gem_id, reached_count)
+SELECT s.krawl_id, p.gem_id, COUNT(*)
+FROM krawl_progress p
+JOIN krawl_sessions s ON s.id = p.session_id
+JOIN krawl_gems kg ON kg.krawl_id = s.krawl_id AND kg.gem_id = p.gem_id
+GROUP BY s.krawl_id, p.gem_id;
+
+INSERT INTO krawl_mode_gem_stats (krawl_id, gem_id, drop_off_count)
+SELECT s.krawl_id, next_gem.gem_id, COUNT(*)
+FROM krawl_sessions s
+CROSS JOIN LATERAL (
+    SELECT kg.gem_id
+    FROM krawl_gems kg
+    WHERE kg.krawl_id = s.krawl_id
+      AND NOT EXISTS (SELECT 1 FROM krawl_progress p WHERE p.session_id = s.id AND p.gem_id = kg.gem_id)
+    ORDER BY kg."order"
+    LIMIT 1
+) next_gem
+WHERE s.status = 'ABANDONED'
+GROUP BY s.krawl_id, next_gem.gem_id
+ON CONFLICT (krawl_id, gem_id) DO UPDATE SET drop_off_count = EXCLUDED.drop_off_count;
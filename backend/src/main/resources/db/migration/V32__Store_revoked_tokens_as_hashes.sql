@@ -0,0 +1,19 @@
+-- Store revoked tokens as SHA-256 hashes instead of the raw JWT
+-- Revocation checks are served from memory on each node (TokenBlacklistService); the table
+-- only feeds the startup load and the incremental refresh by revoked_at.
+
+ALTER TABLE revoked_tokens ADD COLUMN token_hash VARCHAR(64);
+
+UPDATE revoked_tokens SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex');
+
+DELETE FROM revoked_tokens WHERE expires_at < CURRENT_TIMESTAMP;
+
+ALTER TABLE revoked_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_revoked_tokens_token_hash ON revoked_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
+
+DROP INDEX IF EXISTS idx_revoked_tokens_token;
+ALTER TABLE revoked_tokens DROP COLUMN token;
+
+COMMENT ON COLUMN revoked_tokens.token_hash IS 'Hex SHA-256 of the revoked JWT';
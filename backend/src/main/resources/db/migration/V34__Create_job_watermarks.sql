@@ -0,0 +1,14 @@
+-- Create job_watermarks
+-- Scheduled jobs that run on every node record their progress here instead of in memory,
+-- so a restart or another node carries on from the last run. The row doubles as the job
+-- lock: a run selects it FOR UPDATE SKIP LOCKED and skips when another node holds it.
+
+CREATE TABLE job_watermarks (
+    job_name VARCHAR(100) PRIMARY KEY,
+    last_started_at TIMESTAMP
+);
+
+COMMENT ON TABLE job_watermarks IS 'Progress of scheduled jobs shared by all nodes; one row per job';
+COMMENT ON COLUMN job_watermarks.last_started_at IS 'Start of the last completed run; NULL until the first run';
+
+INSERT INTO job_watermarks (job_name) VALUES ('gem-duplicate-sweep');
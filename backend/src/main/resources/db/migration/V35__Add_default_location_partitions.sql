@@ -0,0 +1,65 @@
+-- Add DEFAULT partitions to the monthly-partitioned location tables
+-- Monthly partitions only exist from the current month to a few months ahead, so a fix
+-- stamped outside them (an offline sync from a device with a wrong clock) had no partition
+-- and failed to insert. Such rows now land in <parent>_default.
+--
+-- Postgres refuses to create a partition whose range already has rows in the DEFAULT
+-- partition, so krawl_create_monthly_partitions moves those rows into the new partition.
+-- The retention job also deletes DEFAULT rows older than the retention window.
+
+CREATE TABLE IF NOT EXISTS krawl_location_history_default PARTITION OF krawl_location_history DEFAULT;
+CREATE TABLE IF NOT EXISTS krawl_trajectory_chunks_default PARTITION OF krawl_trajectory_chunks DEFAULT;
+
+-- Create one partition per month from first_month to last_month, named <parent>_pYYYYMM.
+-- Existing partitions are left alone. Rows already in <parent>_default for a new month are
+-- moved into its partition. Also called by the retention job to stay ahead of time.
+CREATE OR REPLACE FUNCTION krawl_create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+  month DATE := date_trunc('month', first_month)::date;
+  next_month DATE;
+  partition_name TEXT;
+  default_name TEXT := parent || '_default';
+  partition_key TEXT;
+  stray_rows BOOLEAN;
+  created INTEGER := 0;
+BEGIN
+  SELECT a.attname INTO partition_key
+  FROM pg_partitioned_table p
+  JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0]
+  WHERE p.partrelid = parent::regclass;
+
+  WHILE month <= last_month LOOP
+    next_month := (month + INTERVAL '1 month')::date;
+    partition_name := parent || '_p' || to_char(month, 'YYYYMM');
+    IF to_regclass(partition_name) IS NULL THEN
+      stray_rows := FALSE;
+      IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                       default_name, partition_key, month, partition_key, next_month)
+          INTO stray_rows;
+      END IF;
+
+      IF stray_rows THEN
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, month, next_month);
+        EXECUTE format('INSERT INTO %I SELECT * FROM %I WHERE %I >= %L AND %I < %L',
+                       partition_name, default_name, partition_key, month, partition_key, next_month);
+        EXECUTE format('DELETE FROM %I WHERE %I >= %L AND %I < %L',
+                       default_name, partition_key, month, partition_key, next_month);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);
+      ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, month, next_month);
+      END IF;
+      created := created + 1;
+    END IF;
+    month := next_month;
+  END LOOP;
+  RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE krawl_location_history_default IS 'Location fixes stamped outside every monthly partition, e.g. from a wrong device clock';
+COMMENT ON TABLE krawl_trajectory_chunks_default IS 'Trajectory chunks stamped outside every monthly partition, e.g. from a wrong device clock';
@@ -0,0 +1,99 @@
+package com.krawl.config;
+
+import com.krawl.repository.RevokedTokenRepository;
+import com.krawl.service.KrawlArrivalService;
+import com.krawl.service.LocationTrackingService;
+import com.krawl.service.TokenBlacklistService;
+import com.krawl.service.location.GeofenceTracker;
+import com.krawl.service.location.RouteDeviationTracker;
+import com.krawl.service.location.TrajectoryStore;
+import com.krawl.service.session.ActiveSessionRegistry;
+import com.krawl.service.session.SessionEventHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests that latency-sensitive scheduled jobs keep running while batch jobs are blocked.
+ */
+class SchedulingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+            .withUserConfiguration(SchedulingConfig.class, SchedulingEnabled.class)
+            .withPropertyValues("spring.task.scheduling.pool.size=1")
+            .withBean(BlockingJob.class);
+
+    @Test
+    void testLocationFlush_SharedSchedulerBlocked_KeepsRunning() {
+        GeofenceTracker geofenceTracker = mock(GeofenceTracker.class);
+        contextRunner
+                .withPropertyValues("krawl.location.flush-interval-ms=10")
+                .withBean(LocationTrackingService.class, () -> new LocationTrackingService(
+                        mock(ActiveSessionRegistry.class), mock(TrajectoryStore.class), geofenceTracker,
+                        mock(KrawlArrivalService.class), mock(RouteDeviationTracker.class),
+                        mock(SessionEventHub.class), new SimpleMeterRegistry(), 16, 4, 200))
+                .run(context -> {
+                    BlockingJob batchJob = context.getBean(BlockingJob.class);
+                    try {
+                        assertTrue(batchJob.started.await(5, TimeUnit.SECONDS));
+                        clearInvocations(geofenceTracker);
+
+                        verify(geofenceTracker, timeout(5000).atLeast(5)).evictIdle();
+                    } finally {
+                        batchJob.release.countDown();
+                    }
+                });
+    }
+
+    @Test
+    void testRevocationRefresh_SharedSchedulerBlocked_KeepsRunning() {
+        RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+        contextRunner
+                .withPropertyValues("krawl.security.revocation.refresh-ms=10")
+                .withBean(TokenBlacklistService.class, () -> new TokenBlacklistService(revokedTokenRepository))
+                .run(context -> {
+                    BlockingJob batchJob = context.getBean(BlockingJob.class);
+                    try {
+                        assertTrue(batchJob.started.await(5, TimeUnit.SECONDS));
+                        clearInvocations(revokedTokenRepository);
+
+                        verify(revokedTokenRepository, timeout(5000).atLeast(5))
+                                .findByRevokedAtAfterAndExpiresAtAfter(any(), any());
+                    } finally {
+                        batchJob.release.countDown();
+                    }
+                });
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class SchedulingEnabled {
+    }
+
+    /**
+     * Batch job on the shared scheduler that blocks until released.
+     */
+    static class BlockingJob {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Scheduled(fixedDelay = 10)
+        public void run() throws InterruptedException {
+            started.countDown();
+            release.await();
+        }
+    }
+}
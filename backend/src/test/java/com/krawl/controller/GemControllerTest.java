@@ -3,6 +3,7 @@ package com.krawl.controller;
 import com.krawl.dto.response.GemCoordinatesResponse;
 import com.krawl.dto.response.GemDetailResponse;
 import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.service.GemCatalogService;
 import com.krawl.service.GemService;
 import com.krawl.service.JwtTokenService;
 import com.krawl.service.TokenBlacklistService;
@@ -47,6 +48,9 @@ class GemControllerTest {
     @MockitoBean
     private GemService gemService;
 
+    @MockitoBean
+    private GemCatalogService gemCatalogService;
+
     private UUID testGemId;
     private GemDetailResponse gemDetailResponse;
 
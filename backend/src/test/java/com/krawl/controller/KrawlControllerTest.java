@@ -2,11 +2,18 @@ package com.krawl.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.krawl.dto.request.CreateKrawlRequest;
+import com.krawl.dto.request.OptimizeKrawlOrderRequest;
 import com.krawl.dto.request.UpdateKrawlRequest;
 import com.krawl.dto.response.KrawlDetailResponse;
+import com.krawl.dto.response.KrawlDiscoveryResponse;
+import com.krawl.dto.response.KrawlRouteResponse;
+import com.krawl.dto.response.OptimizeKrawlOrderResponse;
+import com.krawl.entity.Krawl;
 import com.krawl.service.JwtTokenService;
 import com.krawl.service.KrawlDraftService;
+import com.krawl.service.KrawlOrderOptimizerService;
 import com.krawl.service.KrawlService;
+import com.krawl.service.KrawlSummaryService;
 import com.krawl.service.TokenBlacklistService;
 import com.krawl.service.UserDetailsServiceImpl;
 import com.krawl.util.TestDataFactory;
@@ -20,6 +27,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -55,6 +63,12 @@ class KrawlControllerTest {
     @MockitoBean
     private KrawlDraftService krawlDraftService;
 
+    @MockitoBean
+    private KrawlOrderOptimizerService krawlOrderOptimizerService;
+
+    @MockitoBean
+    private KrawlSummaryService krawlSummaryService;
+
     private UUID testKrawlId;
     private KrawlDetailResponse krawlDetailResponse;
     private CreateKrawlRequest createKrawlRequest;
@@ -120,6 +134,93 @@ class KrawlControllerTest {
         verify(krawlService, never()).getKrawlDetail(any(), any());
     }
 
+    @Test
+    void testGetKrawlRoute_ValidId_ReturnsRouteStatus() throws Exception {
+        // Given
+        KrawlRouteResponse routeResponse = KrawlRouteResponse.builder()
+                .krawlId(testKrawlId.toString())
+                .routeStatus("PENDING")
+                .estimatedDistanceKm(1.2)
+                .estimatedDurationMinutes(14)
+                .build();
+        when(krawlService.getKrawlRoute(testKrawlId, Krawl.RouteResolution.STANDARD)).thenReturn(routeResponse);
+
+        // When/Then
+        mockMvc.perform(get("/api/krawls/{id}/route", testKrawlId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.krawlId").value(testKrawlId.toString()))
+                .andExpect(jsonPath("$.routeStatus").value("PENDING"));
+
+        verify(krawlService).getKrawlRoute(testKrawlId, Krawl.RouteResolution.STANDARD);
+    }
+
+    @Test
+    void testGetKrawlRoute_OverviewResolution_PassesResolution() throws Exception {
+        // Given
+        KrawlRouteResponse routeResponse = KrawlRouteResponse.builder()
+                .krawlId(testKrawlId.toString())
+                .routeStatus("READY")
+                .routePolyline("_p~iF~ps|U_ulLnnqC")
+                .resolution("OVERVIEW")
+                .polylinePrecision(5)
+                .build();
+        when(krawlService.getKrawlRoute(testKrawlId, Krawl.RouteResolution.OVERVIEW)).thenReturn(routeResponse);
+
+        // When/Then
+        mockMvc.perform(get("/api/krawls/{id}/route", testKrawlId.toString()).param("resolution", "overview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("OVERVIEW"))
+                .andExpect(jsonPath("$.polylinePrecision").value(5));
+    }
+
+    @Test
+    void testGetKrawlRoute_InvalidResolution_ReturnsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/krawls/{id}/route", testKrawlId.toString()).param("resolution", "ultra"))
+                .andExpect(status().isBadRequest());
+
+        verify(krawlService, never()).getKrawlRoute(any(), any());
+    }
+
+    @Test
+    void testGetKrawlsStartingNearby_ValidRequest_ReturnsNearestFirst() throws Exception {
+        // Given
+        when(krawlSummaryService.findStartingNear(10.3157, 123.8854, 1000.0, 20))
+                .thenReturn(List.of(KrawlDiscoveryResponse.builder()
+                        .id(testKrawlId.toString())
+                        .name("Test Krawl")
+                        .gemCount(4)
+                        .distanceMeters(120.5)
+                        .build()));
+
+        // When/Then
+        mockMvc.perform(get("/api/krawls/nearby").param("lat", "10.3157").param("lng", "123.8854"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testKrawlId.toString()))
+                .andExpect(jsonPath("$[0].distanceMeters").value(120.5));
+    }
+
+    @Test
+    void testGetKrawlsStartingNearby_RadiusTooLarge_ReturnsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/krawls/nearby")
+                .param("lat", "10.3157").param("lng", "123.8854").param("radius", "50000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(krawlSummaryService);
+    }
+
+    @Test
+    void testGetKrawlsWithinBounds_InvertedBounds_ReturnsBadRequest() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/krawls/within")
+                .param("minLat", "10.32").param("minLng", "123.88")
+                .param("maxLat", "10.30").param("maxLng", "123.90"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(krawlSummaryService);
+    }
+
     @Test
     @WithMockUser(username = "00000000-0000-0000-0000-000000000001")
     @SuppressWarnings("null")
@@ -140,6 +241,51 @@ class KrawlControllerTest {
         verify(krawlService).createKrawl(any(CreateKrawlRequest.class), any(UUID.class));
     }
 
+    @Test
+    @WithMockUser(username = "00000000-0000-0000-0000-000000000001")
+    @SuppressWarnings("null")
+    void testOptimizeOrder_ValidRequest_ReturnsSuggestedOrder() throws Exception {
+        // Given
+        String gemId1 = TestDataFactory.randomUUID().toString();
+        String gemId2 = TestDataFactory.randomUUID().toString();
+        String gemId3 = TestDataFactory.randomUUID().toString();
+        OptimizeKrawlOrderRequest request = new OptimizeKrawlOrderRequest();
+        request.setGemIds(Arrays.asList(gemId1, gemId2, gemId3));
+        when(krawlOrderOptimizerService.optimizeOrder(any(OptimizeKrawlOrderRequest.class)))
+                .thenReturn(OptimizeKrawlOrderResponse.builder()
+                        .gemIds(Arrays.asList(gemId1, gemId3, gemId2))
+                        .originalDistanceKm(3.1)
+                        .optimizedDistanceKm(1.9)
+                        .build());
+
+        // When/Then
+        mockMvc.perform(post("/api/krawls/optimize-order")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gemIds[1]").value(gemId3))
+                .andExpect(jsonPath("$.optimizedDistanceKm").value(1.9));
+    }
+
+    @Test
+    @WithMockUser(username = "00000000-0000-0000-0000-000000000001")
+    @SuppressWarnings("null")
+    void testOptimizeOrder_SingleGem_ReturnsBadRequest() throws Exception {
+        // Given
+        OptimizeKrawlOrderRequest request = new OptimizeKrawlOrderRequest();
+        request.setGemIds(Arrays.asList(TestDataFactory.randomUUID().toString()));
+
+        // When/Then
+        mockMvc.perform(post("/api/krawls/optimize-order")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(krawlOrderOptimizerService, never()).optimizeOrder(any(OptimizeKrawlOrderRequest.class));
+    }
+
     @Test
     @SuppressWarnings("null")
     void testCreateKrawl_Unauthenticated_ReturnsUnauthorized() throws Exception {
@@ -0,0 +1,99 @@
+package com.krawl.controller;
+
+import com.krawl.exception.AuthException;
+import com.krawl.service.JwtTokenService;
+import com.krawl.service.KrawlAnalyticsService;
+import com.krawl.service.KrawlModeService;
+import com.krawl.service.LocationTrackingService;
+import com.krawl.service.SessionReplayService;
+import com.krawl.service.TokenBlacklistService;
+import com.krawl.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests session stream authentication with stream tickets, as sent by EventSource.
+ */
+@WebMvcTest(controllers = KrawlModeController.class, excludeAutoConfiguration = {
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class KrawlModeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtTokenService jwtTokenService;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockitoBean
+    private TokenBlacklistService tokenBlacklistService;
+
+    @MockitoBean
+    private KrawlModeService krawlModeService;
+
+    @MockitoBean
+    private LocationTrackingService locationTrackingService;
+
+    @MockitoBean
+    private KrawlAnalyticsService krawlAnalyticsService;
+
+    @MockitoBean
+    private SessionReplayService sessionReplayService;
+
+    @Test
+    void testStreamSession_ValidTicket_OpensStreamForTicketUser() throws Exception {
+        UUID krawlId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        Claims claims = Jwts.claims().subject(userId.toString()).add("type", "stream").build();
+        when(jwtTokenService.validateStreamTicket("ticket-1", krawlId)).thenReturn(claims);
+        when(krawlModeService.streamSession(krawlId, userId)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/krawls/{id}/session/stream", krawlId)
+                        .param("ticket", "ticket-1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(krawlModeService).streamSession(krawlId, userId);
+    }
+
+    @Test
+    void testStreamSession_InvalidTicket_ReturnsUnauthorized() throws Exception {
+        UUID krawlId = UUID.randomUUID();
+        when(jwtTokenService.validateStreamTicket("ticket-1", krawlId))
+                .thenThrow(new AuthException("Invalid stream ticket", HttpStatus.UNAUTHORIZED));
+
+        mockMvc.perform(get("/api/krawls/{id}/session/stream", krawlId)
+                        .param("ticket", "ticket-1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+
+        verify(krawlModeService, never()).streamSession(any(), any());
+    }
+
+    @Test
+    void testStreamSession_NoTicketNorToken_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/krawls/{id}/session/stream", UUID.randomUUID())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(krawlModeService);
+    }
+}
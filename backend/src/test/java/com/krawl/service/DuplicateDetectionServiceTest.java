@@ -0,0 +1,92 @@
+package com.krawl.service;
+
+import com.krawl.dto.response.DuplicateCheckResponse;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.projection.DuplicateCandidateRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DuplicateDetectionService.
+ */
+@ExtendWith(MockitoExtension.class)
+class DuplicateDetectionServiceTest {
+
+    @Mock
+    private GemRepository gemRepository;
+
+    @InjectMocks
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Test
+    void testCheckForDuplicates_NothingNearby_NotDuplicate() {
+        when(gemRepository.findDuplicateCandidates("basilica", 10.2945, 123.9021, 50.0, 5)).thenReturn(List.of());
+
+        DuplicateCheckResponse response = duplicateDetectionService.checkForDuplicates("Basilica", 10.2945, 123.9021);
+
+        assertFalse(response.isDuplicate());
+        assertNull(response.getExistingGem());
+    }
+
+    @Test
+    void testCheckForDuplicates_HighTrigramSimilarity_ReturnsDuplicate() {
+        UUID gemId = UUID.randomUUID();
+        when(gemRepository.findDuplicateCandidates(eq("basilica del santo niño"), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of(candidate(gemId, "Basilica del Santo Niño", 12.0, 1.0)));
+
+        DuplicateCheckResponse response = duplicateDetectionService.checkForDuplicates(" Basilica del Santo Niño ", 10.2945, 123.9021);
+
+        assertTrue(response.isDuplicate());
+        assertEquals(gemId.toString(), response.getExistingGem().getId());
+        assertEquals(12.0, response.getExistingGem().getDistance());
+    }
+
+    @Test
+    void testCheckForDuplicates_BorderlineTrigram_ConfirmedByLevenshtein() {
+        UUID gemId = UUID.randomUUID();
+        when(gemRepository.findDuplicateCandidates(anyString(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of(candidate(gemId, "Tabo-an Market", 20.0, 0.55)));
+
+        DuplicateCheckResponse response = duplicateDetectionService.checkForDuplicates("Taboan Market", 10.2945, 123.9021);
+
+        assertTrue(response.isDuplicate());
+        assertTrue(response.getExistingGem().getSimilarity() >= 0.8);
+    }
+
+    @Test
+    void testCheckForDuplicates_BorderlineTrigram_RejectedByLevenshtein() {
+        when(gemRepository.findDuplicateCandidates(anyString(), anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(List.of(candidate(UUID.randomUUID(), "Fort San Pedro", 30.0, 0.3)));
+
+        DuplicateCheckResponse response = duplicateDetectionService.checkForDuplicates("San Pedro Calungsod Shrine", 10.2945, 123.9021);
+
+        assertFalse(response.isDuplicate());
+        assertNull(response.getExistingGem());
+    }
+
+    private static DuplicateCandidateRow candidate(UUID id, String name, double distance, double nameSimilarity) {
+        return new DuplicateCandidateRow() {
+            public UUID getId() { return id; }
+            public String getName() { return name; }
+            public String getCategory() { return "historical-site"; }
+            public String getShortDescription() { return null; }
+            public String getThumbnailUrl() { return null; }
+            public String getAddress() { return null; }
+            public Double getLatitude() { return 10.2945; }
+            public Double getLongitude() { return 123.9021; }
+            public Double getDistance() { return distance; }
+            public Double getNameSimilarity() { return nameSimilarity; }
+            public Double getCombinedScore() { return nameSimilarity * 0.7 + (1 - distance / 50.0) * 0.3; }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.krawl.service;
+
+import com.krawl.dto.response.CatalogGemResponse;
+import com.krawl.entity.Gem;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.projection.GemCatalogRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for GemCatalogService.
+ */
+@ExtendWith(MockitoExtension.class)
+class GemCatalogServiceTest {
+
+    @Mock
+    private GemRepository gemRepository;
+
+    @InjectMocks
+    private GemCatalogService gemCatalogService;
+
+    private final UUID basilicaId = UUID.randomUUID();
+    private final UUID magellanId = UUID.randomUUID();
+    private final UUID fortId = UUID.randomUUID();
+    private final UUID templeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(gemRepository.findCatalogRows()).thenReturn(List.of(
+                row(basilicaId, "Basilica del Santo Niño", "religious-site", "VERIFIED", 10.2945, 123.9021, 12),
+                row(magellanId, "Magellan's Cross", "historical-site", "VERIFIED", 10.2936, 123.9019, 30),
+                row(fortId, "Fort San Pedro", "historical-site", "PENDING", 10.2925, 123.9055, 50),
+                row(templeId, "Temple of Leah", "historical-site", "VERIFIED", 10.3705, 123.8718, 20)
+        ));
+        gemCatalogService.rebuild();
+    }
+
+    @Test
+    void testRebuild_LoadsAllRows() {
+        assertTrue(gemCatalogService.isLoaded());
+        assertEquals(4, gemCatalogService.size());
+    }
+
+    @Test
+    void testFindNearby_ReturnsVerifiedGemsWithinRadiusNearestFirst() {
+        List<CatalogGemResponse> results = gemCatalogService.findNearby(10.2940, 123.9020, 500, 10);
+
+        assertEquals(2, results.size());
+        assertEquals(magellanId.toString(), results.get(0).getId());
+        assertEquals(basilicaId.toString(), results.get(1).getId());
+        assertTrue(results.get(0).getDistanceMeters() <= results.get(1).getDistanceMeters());
+    }
+
+    @Test
+    void testFindWithinBounds_ReturnsVerifiedGemsByScore() {
+        List<CatalogGemResponse> results = gemCatalogService.findWithinBounds(10.29, 123.90, 10.30, 123.91, 10);
+
+        assertEquals(2, results.size());
+        assertEquals(magellanId.toString(), results.get(0).getId());
+        assertEquals(basilicaId.toString(), results.get(1).getId());
+    }
+
+    @Test
+    void testFindPopular_FiltersVerifiedAndCategory() {
+        List<CatalogGemResponse> results = gemCatalogService.findPopular("historical-site", 10);
+
+        assertEquals(2, results.size());
+        assertEquals(magellanId.toString(), results.get(0).getId());
+        assertEquals(templeId.toString(), results.get(1).getId());
+    }
+
+    @Test
+    void testFindPopular_UnknownCategory_ReturnsEmpty() {
+        assertTrue(gemCatalogService.findPopular("not-a-category", 10).isEmpty());
+    }
+
+    @Test
+    void testUpsert_NewGem_IsQueryableOnceApplied() {
+        gemCatalogService.upsert(carbonMarket());
+        assertEquals(4, gemCatalogService.size());
+
+        gemCatalogService.applyPendingPatches();
+
+        assertEquals(5, gemCatalogService.size());
+        assertTrue(gemCatalogService.hasGemWithin(10.2920, 123.8990, 5));
+    }
+
+    @Test
+    void testRebuild_KeepsPatchesAppliedDuringDatabaseRead() {
+        when(gemRepository.findCatalogRows()).thenAnswer(invocation -> {
+            gemCatalogService.upsert(carbonMarket());
+            gemCatalogService.applyPendingPatches();
+            return List.of(row(templeId, "Temple of Leah", "historical-site", "VERIFIED", 10.3705, 123.8718, 20));
+        });
+
+        gemCatalogService.rebuild();
+
+        assertEquals(2, gemCatalogService.size());
+        assertTrue(gemCatalogService.hasGemWithin(10.2920, 123.8990, 5));
+    }
+
+    @Test
+    void testAdjustScore_ReordersPopular() {
+        gemCatalogService.adjustScore(templeId, 20);
+        gemCatalogService.applyPendingPatches();
+
+        List<CatalogGemResponse> results = gemCatalogService.findPopular("historical-site", 1);
+        assertEquals(templeId.toString(), results.get(0).getId());
+        assertEquals(40, results.get(0).getScore());
+    }
+
+    private static Gem carbonMarket() {
+        return Gem.builder()
+                .id(UUID.randomUUID())
+                .name("Carbon Market")
+                .category("shopping")
+                .status(Gem.GemStatus.PENDING)
+                .latitude(10.2920)
+                .longitude(123.8990)
+                .build();
+    }
+
+    private static GemCatalogRow row(UUID id, String name, String category, String status,
+                                     double latitude, double longitude, long score) {
+        return new GemCatalogRow() {
+            public UUID getId() { return id; }
+            public String getName() { return name; }
+            public String getCategory() { return category; }
+            public String getStatus() { return status; }
+            public Double getLatitude() { return latitude; }
+            public Double getLongitude() { return longitude; }
+            public String getThumbnailUrl() { return null; }
+            public Long getScore() { return score; }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.krawl.service;
+
+import com.krawl.entity.Gem;
+import com.krawl.entity.GemDuplicatePair;
+import com.krawl.entity.JobWatermark;
+import com.krawl.repository.GemDuplicatePairRepository;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.JobWatermarkRepository;
+import com.krawl.repository.projection.GemCatalogRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GemDuplicateSweepService.
+ */
+@ExtendWith(MockitoExtension.class)
+class GemDuplicateSweepServiceTest {
+
+    @Mock
+    private GemRepository gemRepository;
+
+    @Mock
+    private GemDuplicatePairRepository gemDuplicatePairRepository;
+
+    @Mock
+    private JobWatermarkRepository jobWatermarkRepository;
+
+    private final JobWatermark watermark = JobWatermark.builder().jobName(GemDuplicateSweepService.JOB_NAME).build();
+
+    private GemDuplicateSweepService sweepService;
+
+    private final UUID crossId = UUID.randomUUID();
+    private final UUID crossCopyId = UUID.randomUUID();
+    private final UUID basilicaId = UUID.randomUUID();
+    private final UUID fortId = UUID.randomUUID();
+    private final UUID fortCopyId = UUID.randomUUID();
+    private final UUID farCrossId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(gemRepository.findCatalogRows()).thenReturn(List.of(
+                row(crossId, "Magellan's Cross", 10.2936, 123.9019),
+                row(crossCopyId, "Magellans Cross", 10.29362, 123.90192),
+                row(basilicaId, "Basilica del Santo Niño", 10.2945, 123.9021),
+                // Either side of a grid cell boundary (10.2963015)
+                row(fortId, "Fort San Pedro", 10.29628, 123.9055),
+                row(fortCopyId, "Fuerte San Pedro", 10.29633, 123.9055),
+                row(farCrossId, "Magellan's Cross", 10.3705, 123.8718)
+        ));
+        GemCatalogService gemCatalogService = new GemCatalogService(gemRepository);
+        gemCatalogService.rebuild();
+
+        sweepService = new GemDuplicateSweepService(gemCatalogService, gemRepository,
+                gemDuplicatePairRepository, jobWatermarkRepository);
+    }
+
+    private void givenWatermarkUnlocked() {
+        when(jobWatermarkRepository.lockForRun(GemDuplicateSweepService.JOB_NAME)).thenReturn(Optional.of(watermark));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSweep_FullRun_ReportsNearbySimilarPairsOnly() {
+        givenWatermarkUnlocked();
+        when(gemDuplicatePairRepository.findAll()).thenReturn(List.of());
+        when(gemRepository.getReferenceById(any(UUID.class)))
+                .thenAnswer(invocation -> Gem.builder().id(invocation.getArgument(0)).build());
+
+        sweepService.sweep();
+
+        ArgumentCaptor<List<GemDuplicatePair>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gemDuplicatePairRepository).saveAll(captor.capture());
+        List<GemDuplicatePair> pairs = captor.getValue();
+
+        assertEquals(2, pairs.size());
+        Set<Set<UUID>> pairIds = pairs.stream()
+                .map(pair -> Set.of(pair.getGemA().getId(), pair.getGemB().getId()))
+                .collect(Collectors.toSet());
+        assertTrue(pairIds.contains(Set.of(crossId, crossCopyId)));
+        assertTrue(pairIds.contains(Set.of(fortId, fortCopyId)));
+
+        for (GemDuplicatePair pair : pairs) {
+            assertTrue(pair.getGemA().getId().toString().compareTo(pair.getGemB().getId().toString()) < 0);
+            assertTrue(pair.getDistanceMeters() <= 50.0);
+            assertTrue(pair.getNameSimilarity() >= GemDuplicateSweepService.REPORT_SIMILARITY_THRESHOLD);
+        }
+        assertNotNull(watermark.getLastStartedAt());
+    }
+
+    @Test
+    void testSweep_WatermarkFromPreviousRun_RunsIncrementally() {
+        givenWatermarkUnlocked();
+        watermark.setLastStartedAt(LocalDateTime.now().minusHours(1));
+        when(gemRepository.findLocationsUpdatedSince(any(LocalDateTime.class))).thenReturn(List.of());
+
+        sweepService.sweep();
+
+        verify(gemDuplicatePairRepository, never()).findAll();
+        verify(gemDuplicatePairRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testSweep_LockedByAnotherNode_Skips() {
+        when(jobWatermarkRepository.lockForRun(GemDuplicateSweepService.JOB_NAME)).thenReturn(Optional.empty());
+
+        sweepService.sweep();
+
+        verifyNoInteractions(gemDuplicatePairRepository);
+        verify(gemRepository, never()).findLocationsUpdatedSince(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testSweep_IncrementalRunWithNoChanges_WritesNothing() {
+        givenWatermarkUnlocked();
+        when(gemDuplicatePairRepository.findAll()).thenReturn(List.of());
+        when(gemRepository.getReferenceById(any(UUID.class)))
+                .thenAnswer(invocation -> Gem.builder().id(invocation.getArgument(0)).build());
+        sweepService.sweep();
+        clearInvocations(gemDuplicatePairRepository);
+
+        when(gemRepository.findLocationsUpdatedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        sweepService.sweep();
+
+        verify(gemDuplicatePairRepository, never()).saveAll(anyList());
+        verify(gemDuplicatePairRepository, never()).findByGemIds(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSweep_IncrementalRun_KeepsModeratorDecisions() {
+        givenWatermarkUnlocked();
+        when(gemDuplicatePairRepository.findAll()).thenReturn(List.of());
+        when(gemRepository.getReferenceById(any(UUID.class)))
+                .thenAnswer(invocation -> Gem.builder().id(invocation.getArgument(0)).build());
+        sweepService.sweep();
+        clearInvocations(gemDuplicatePairRepository);
+
+        boolean ordered = crossId.toString().compareTo(crossCopyId.toString()) < 0;
+        GemDuplicatePair dismissed = GemDuplicatePair.builder()
+                .id(UUID.randomUUID())
+                .gemA(Gem.builder().id(ordered ? crossId : crossCopyId).build())
+                .gemB(Gem.builder().id(ordered ? crossCopyId : crossId).build())
+                .status(GemDuplicatePair.PairStatus.DISMISSED)
+                .build();
+        when(gemRepository.findLocationsUpdatedSince(any(LocalDateTime.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{10.2936, 123.9019}));
+        when(gemDuplicatePairRepository.findByGemIds(anyList())).thenReturn(List.of(dismissed));
+
+        sweepService.sweep();
+
+        ArgumentCaptor<List<GemDuplicatePair>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gemDuplicatePairRepository).saveAll(captor.capture());
+        List<GemDuplicatePair> pairs = captor.getValue();
+        assertEquals(1, pairs.size());
+        assertSame(dismissed, pairs.get(0));
+        assertEquals(GemDuplicatePair.PairStatus.DISMISSED, pairs.get(0).getStatus());
+    }
+
+    private static GemCatalogRow row(UUID id, String name, double latitude, double longitude) {
+        return new GemCatalogRow() {
+            public UUID getId() { return id; }
+            public String getName() { return name; }
+            public String getCategory() { return "historical-site"; }
+            public String getStatus() { return "VERIFIED"; }
+            public Double getLatitude() { return latitude; }
+            public Double getLongitude() { return longitude; }
+            public String getThumbnailUrl() { return null; }
+            public Long getScore() { return 0L; }
+        };
+    }
+}
@@ -15,6 +15,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +34,7 @@ class JwtTokenServiceTest {
     
     private static final long TEST_REFRESH_EXPIRATION = 2592000000L; // 30 days
     private static final long TEST_CLOCK_SKEW_SECONDS = 300L; // 5 minutes
+    private static final long TEST_STREAM_TICKET_EXPIRATION = 60000L; // 1 minute
     
     @BeforeEach
     void setUp() {
@@ -40,6 +42,7 @@ class JwtTokenServiceTest {
         ReflectionTestUtils.setField(jwtTokenService, "jwtExpiration", TEST_EXPIRATION);
         ReflectionTestUtils.setField(jwtTokenService, "refreshTokenExpiration", TEST_REFRESH_EXPIRATION);
         ReflectionTestUtils.setField(jwtTokenService, "clockSkewSeconds", TEST_CLOCK_SKEW_SECONDS);
+        ReflectionTestUtils.setField(jwtTokenService, "streamTicketExpiration", TEST_STREAM_TICKET_EXPIRATION);
     }
     
     @Test
@@ -239,6 +242,48 @@ class JwtTokenServiceTest {
             jwtTokenService.validateRefreshToken(expiredToken);
         });
     }
+    
+    @Test
+    void testValidateStreamTicket_SameKrawl_ReturnsClaims() {
+        // Given
+        String userId = "123e4567-e89b-12d3-a456-426614174000";
+        UUID krawlId = UUID.randomUUID();
+        String ticket = jwtTokenService.generateStreamTicket(userId, krawlId);
+        
+        // When
+        Claims claims = jwtTokenService.validateStreamTicket(ticket, krawlId);
+        
+        // Then
+        assertEquals(userId, claims.getSubject());
+        assertTrue(jwtTokenService.isStreamTicket(claims));
+    }
+    
+    @Test
+    void testValidateStreamTicket_OtherKrawl_ThrowsException() {
+        // Given
+        String ticket = jwtTokenService.generateStreamTicket("123e4567-e89b-12d3-a456-426614174000", UUID.randomUUID());
+        
+        // When/Then
+        assertThrows(AuthException.class, () -> jwtTokenService.validateStreamTicket(ticket, UUID.randomUUID()));
+    }
+    
+    @Test
+    void testValidateStreamTicket_AccessToken_ThrowsException() {
+        // Given
+        String accessToken = jwtTokenService.generateToken("123e4567-e89b-12d3-a456-426614174000",
+                "test@example.com", List.of("ROLE_USER"));
+        
+        // When/Then
+        assertThrows(AuthException.class, () -> jwtTokenService.validateStreamTicket(accessToken, UUID.randomUUID()));
+        assertFalse(jwtTokenService.isStreamTicket(jwtTokenService.validateToken(accessToken)));
+    }
+    
+    @Test
+    void testValidateRefreshToken_StreamTicket_ThrowsException() {
+        // Given
+        String ticket = jwtTokenService.generateStreamTicket("123e4567-e89b-12d3-a456-426614174000", UUID.randomUUID());
+        
+        // When/Then
+        assertThrows(AuthException.class, () -> jwtTokenService.validateRefreshToken(ticket));
+    }
 }
-
-
@@ -0,0 +1,175 @@
+package com.krawl.service;
+
+import com.krawl.dto.request.SyncSessionRequest;
+import com.krawl.dto.response.KrawlProgressResponse;
+import com.krawl.entity.KrawlProgress;
+import com.krawl.entity.KrawlSession;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.KrawlProgressRepository;
+import com.krawl.repository.KrawlRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.repository.UserRepository;
+import com.krawl.service.location.LocationSample;
+import com.krawl.service.session.ActiveSession;
+import com.krawl.service.session.ActiveSessionRegistry;
+import com.krawl.service.session.SessionEventHub;
+import com.krawl.service.session.SessionSyncStore;
+import com.krawl.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KrawlModeService offline sync.
+ */
+@ExtendWith(MockitoExtension.class)
+class KrawlModeServiceTest {
+
+    @Mock
+    private KrawlSessionRepository krawlSessionRepository;
+    @Mock
+    private KrawlProgressRepository krawlProgressRepository;
+    @Mock
+    private KrawlRepository krawlRepository;
+    @Mock
+    private GemRepository gemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private LocationTrackingService locationTrackingService;
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Mock
+    private SessionEventHub sessionEventHub;
+    @Mock
+    private SessionSyncStore sessionSyncStore;
+    @Mock
+    private KrawlAnalyticsService krawlAnalyticsService;
+
+    @InjectMocks
+    private KrawlModeService krawlModeService;
+
+    private final UUID krawlId = TestDataFactory.randomUUID();
+    private final UUID userId = TestDataFactory.randomUUID();
+    private final UUID sessionId = TestDataFactory.randomUUID();
+    private final UUID gemA = TestDataFactory.randomUUID();
+    private final UUID gemB = TestDataFactory.randomUUID();
+    private final UUID gemC = TestDataFactory.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(
+                new ActiveSession(sessionId, krawlId, userId, LocalDateTime.now(), 0.0, List.of(gemA, gemB, gemC), List.of()));
+    }
+
+    @Test
+    void testSyncSession_ResentBatch_AppliesOnlyNewEvents() {
+        SyncSessionRequest.SyncEvent location = location(10.2936, 123.9020);
+        SyncSessionRequest.SyncEvent completeA = completeGem(gemA);
+        SyncSessionRequest.SyncEvent completeB = completeGem(gemB);
+        SyncSessionRequest.SyncEvent distance = progress(850.0);
+        // completeB was applied by an earlier attempt
+        when(sessionSyncStore.claimEvents(eq(sessionId), anyList()))
+                .thenReturn(Set.of(location.getEventId(), completeA.getEventId(), distance.getEventId()));
+        when(sessionSyncStore.insertProgress(eq(sessionId), anyList())).thenReturn(Set.of(gemA));
+
+        KrawlProgressResponse response = krawlModeService.syncSession(krawlId, userId,
+                request(location, completeA, completeB, distance));
+
+        verify(sessionSyncStore).insertProgress(eq(sessionId),
+                argThat(completions -> completions.size() == 1 && completions.get(0).getGemId().equals(gemA)));
+        verify(activeSessionRegistry).gemCompleted(sessionId, gemA, KrawlProgress.ArrivalMethod.MANUAL, 5.0);
+        verify(krawlSessionRepository).updateTotalDistance(sessionId, 850.0);
+        verify(locationTrackingService).writeSynced(argThat((List<LocationSample> samples) ->
+                samples.size() == 1 && samples.get(0).getRecordedAt().equals(location.getRecordedAt())));
+        assertEquals(List.of(gemA), response.getCompletedGemIds());
+        assertEquals(gemB, response.getNextGemId());
+        verify(krawlSessionRepository, never()).save(any());
+    }
+
+    @Test
+    void testSyncSession_LastGemCompleted_CompletesSession() {
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(
+                new ActiveSession(sessionId, krawlId, userId, LocalDateTime.now(), 0.0, List.of(gemA, gemB), List.of(gemA)));
+        SyncSessionRequest.SyncEvent completeB = completeGem(gemB);
+        when(sessionSyncStore.claimEvents(eq(sessionId), anyList())).thenReturn(Set.of(completeB.getEventId()));
+        when(sessionSyncStore.insertProgress(eq(sessionId), anyList())).thenReturn(Set.of(gemB));
+        KrawlSession session = KrawlSession.builder().id(sessionId).build();
+        when(krawlSessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+
+        KrawlProgressResponse response = krawlModeService.syncSession(krawlId, userId, request(completeB));
+
+        assertEquals(100.0, response.getProgressPercentage());
+        assertEquals(KrawlSession.SessionStatus.COMPLETED, session.getStatus());
+        verify(activeSessionRegistry).ended(eq(sessionId), eq(KrawlSession.SessionStatus.COMPLETED), any());
+        verify(krawlAnalyticsService).gemReached(krawlId, gemB);
+        verify(krawlAnalyticsService).sessionCompleted(eq(krawlId), any(), eq(session.getEndedAt()));
+        verify(locationTrackingService).sessionEnded(sessionId);
+        verify(locationTrackingService, never()).writeSynced(anyList());
+    }
+
+    @Test
+    void testSyncSession_GemNotInKrawl_RejectsWholeBatch() {
+        SyncSessionRequest request = request(location(10.2936, 123.9020), completeGem(TestDataFactory.randomUUID()));
+
+        assertThrows(ResourceNotFoundException.class, () -> krawlModeService.syncSession(krawlId, userId, request));
+        verifyNoInteractions(sessionSyncStore, locationTrackingService);
+    }
+
+    @Test
+    void testSyncSession_LocationOutOfRange_ThrowsIllegalArgument() {
+        SyncSessionRequest request = request(location(95.0, 123.9020));
+
+        assertThrows(IllegalArgumentException.class, () -> krawlModeService.syncSession(krawlId, userId, request));
+        verifyNoInteractions(sessionSyncStore);
+    }
+
+    private static SyncSessionRequest request(SyncSessionRequest.SyncEvent... events) {
+        SyncSessionRequest request = new SyncSessionRequest();
+        request.setEvents(List.of(events));
+        return request;
+    }
+
+    private static SyncSessionRequest.SyncEvent event(String type) {
+        SyncSessionRequest.SyncEvent event = new SyncSessionRequest.SyncEvent();
+        event.setEventId(TestDataFactory.randomUUID());
+        event.setType(type);
+        event.setRecordedAt(LocalDateTime.now().minusMinutes(10));
+        return event;
+    }
+
+    private static SyncSessionRequest.SyncEvent location(double latitude, double longitude) {
+        SyncSessionRequest.SyncEvent event = event("LOCATION");
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        return event;
+    }
+
+    private static SyncSessionRequest.SyncEvent completeGem(UUID gemId) {
+        SyncSessionRequest.SyncEvent event = event("COMPLETE_GEM");
+        event.setGemId(gemId);
+        event.setDistanceToGemMeters(5.0);
+        event.setArrivalMethod("MANUAL");
+        return event;
+    }
+
+    private static SyncSessionRequest.SyncEvent progress(double totalDistanceMeters) {
+        SyncSessionRequest.SyncEvent event = event("PROGRESS");
+        event.setTotalDistanceMeters(totalDistanceMeters);
+        return event;
+    }
+}
@@ -0,0 +1,131 @@
+package com.krawl.service;
+
+import com.krawl.dto.request.OptimizeKrawlOrderRequest;
+import com.krawl.dto.response.OptimizeKrawlOrderResponse;
+import com.krawl.entity.Gem;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.GemRepository;
+import com.krawl.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KrawlOrderOptimizerService.
+ */
+@ExtendWith(MockitoExtension.class)
+class KrawlOrderOptimizerServiceTest {
+
+    @Mock
+    private GemRepository gemRepository;
+
+    private KrawlOrderOptimizerService krawlOrderOptimizerService;
+
+    @BeforeEach
+    void setUp() {
+        krawlOrderOptimizerService = new KrawlOrderOptimizerService(gemRepository);
+        ReflectionTestUtils.setField(krawlOrderOptimizerService, "timeBudgetMs", 500L);
+    }
+
+    @Test
+    void testOptimizeOrder_ZigZagAlongStreet_VisitsInLineOrder() {
+        // Six gems along one street, entered out of order
+        List<Gem> gems = new ArrayList<>();
+        for (int position : new int[]{0, 4, 1, 5, 2, 3}) {
+            gems.add(gemAt(10.2930, 123.9000 + position * 0.001));
+        }
+        when(gemRepository.findAllById(anyIterable())).thenReturn(gems);
+
+        OptimizeKrawlOrderResponse response = krawlOrderOptimizerService.optimizeOrder(request(gems, true));
+
+        List<String> expected = Arrays.stream(new int[]{0, 2, 4, 5, 1, 3})
+                .mapToObj(i -> gems.get(i).getId().toString())
+                .collect(Collectors.toList());
+        assertEquals(expected, response.getGemIds());
+        assertTrue(response.getOptimizedDistanceKm() < response.getOriginalDistanceKm());
+        assertEquals(0.55, response.getOptimizedDistanceKm(), 0.01);
+    }
+
+    @Test
+    void testOptimizeOrder_FixedStart_KeepsFirstGem() {
+        List<Gem> gems = new ArrayList<>();
+        for (int position : new int[]{3, 0, 1, 2, 4}) {
+            gems.add(gemAt(10.2930, 123.9000 + position * 0.001));
+        }
+        when(gemRepository.findAllById(anyIterable())).thenReturn(gems);
+
+        OptimizeKrawlOrderResponse fixed = krawlOrderOptimizerService.optimizeOrder(request(gems, true));
+        OptimizeKrawlOrderResponse free = krawlOrderOptimizerService.optimizeOrder(request(gems, false));
+
+        assertEquals(gems.get(0).getId().toString(), fixed.getGemIds().get(0));
+        assertTrue(free.getOptimizedDistanceKm() <= fixed.getOptimizedDistanceKm());
+        assertEquals(0.44, free.getOptimizedDistanceKm(), 0.01); // End to end along the street
+    }
+
+    @Test
+    void testOptimizeOrder_ManyGems_ReturnsPermutationWithinBudget() {
+        Random random = new Random(7);
+        List<Gem> gems = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            gems.add(gemAt(10.28 + random.nextDouble() * 0.04, 123.88 + random.nextDouble() * 0.04));
+        }
+        when(gemRepository.findAllById(anyIterable())).thenReturn(gems);
+        ReflectionTestUtils.setField(krawlOrderOptimizerService, "timeBudgetMs", 200L);
+
+        long start = System.nanoTime();
+        OptimizeKrawlOrderResponse response = krawlOrderOptimizerService.optimizeOrder(request(gems, true));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(150, response.getGemIds().stream().distinct().count());
+        assertTrue(response.getOptimizedDistanceKm() < response.getOriginalDistanceKm() / 2);
+        assertTrue(elapsedMs < 2000, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testOptimizeOrder_RepeatedGem_ThrowsIllegalArgument() {
+        String gemId = UUID.randomUUID().toString();
+        OptimizeKrawlOrderRequest request = new OptimizeKrawlOrderRequest();
+        request.setGemIds(List.of(gemId, gemId));
+
+        assertThrows(IllegalArgumentException.class, () -> krawlOrderOptimizerService.optimizeOrder(request));
+        verifyNoInteractions(gemRepository);
+    }
+
+    @Test
+    void testOptimizeOrder_MissingGem_ThrowsNotFound() {
+        Gem gem = gemAt(10.2930, 123.9000);
+        when(gemRepository.findAllById(anyIterable())).thenReturn(List.of(gem));
+        OptimizeKrawlOrderRequest request = new OptimizeKrawlOrderRequest();
+        request.setGemIds(List.of(gem.getId().toString(), UUID.randomUUID().toString()));
+
+        assertThrows(ResourceNotFoundException.class, () -> krawlOrderOptimizerService.optimizeOrder(request));
+    }
+
+    private static Gem gemAt(double latitude, double longitude) {
+        Gem gem = TestDataFactory.createGem();
+        gem.setLatitude(latitude);
+        gem.setLongitude(longitude);
+        return gem;
+    }
+
+    private static OptimizeKrawlOrderRequest request(List<Gem> gems, boolean fixStart) {
+        OptimizeKrawlOrderRequest request = new OptimizeKrawlOrderRequest();
+        request.setGemIds(gems.stream().map(gem -> gem.getId().toString()).collect(Collectors.toList()));
+        request.setFixStart(fixStart);
+        return request;
+    }
+}
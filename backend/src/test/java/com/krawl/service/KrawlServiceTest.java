@@ -0,0 +1,159 @@
+package com.krawl.service;
+
+import com.krawl.dto.request.UpdateKrawlRequest;
+import com.krawl.entity.Gem;
+import com.krawl.entity.Krawl;
+import com.krawl.entity.KrawlGem;
+import com.krawl.repository.GemRepository;
+import com.krawl.repository.KrawlCommentRepository;
+import com.krawl.repository.KrawlRatingRepository;
+import com.krawl.repository.KrawlRepository;
+import com.krawl.repository.KrawlVouchRepository;
+import com.krawl.repository.UserRepository;
+import com.krawl.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for KrawlService gem list updates.
+ */
+@ExtendWith(MockitoExtension.class)
+class KrawlServiceTest {
+
+    @Mock
+    private KrawlRepository krawlRepository;
+    @Mock
+    private KrawlVouchRepository krawlVouchRepository;
+    @Mock
+    private KrawlRatingRepository krawlRatingRepository;
+    @Mock
+    private KrawlCommentRepository krawlCommentRepository;
+    @Mock
+    private GemRepository gemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BoundaryValidationService boundaryValidationService;
+    @Mock
+    private KrawlRouteService krawlRouteService;
+    @Mock
+    private KrawlOrderOptimizerService krawlOrderOptimizerService;
+    @Mock
+    private KrawlSummaryService krawlSummaryService;
+
+    @InjectMocks
+    private KrawlService krawlService;
+
+    private UUID ownerId;
+    private Krawl krawl;
+    private Gem gemA;
+    private Gem gemB;
+    private Gem gemC;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = TestDataFactory.randomUUID();
+        krawl = TestDataFactory.createKrawl(TestDataFactory.randomUUID(), ownerId, "Test Krawl");
+        gemA = TestDataFactory.createGem(TestDataFactory.randomUUID(), ownerId, "Gem A");
+        gemB = TestDataFactory.createGem(TestDataFactory.randomUUID(), ownerId, "Gem B");
+        gemC = TestDataFactory.createGem(TestDataFactory.randomUUID(), ownerId, "Gem C");
+        krawl.setGems(new ArrayList<>(List.of(krawlGem(gemA, 1), krawlGem(gemB, 2))));
+
+        when(krawlRepository.findById(krawl.getId())).thenReturn(Optional.of(krawl));
+        lenient().when(krawlRepository.save(any(Krawl.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testUpdateKrawl_NoteChangedOnly_UpdatesInPlaceWithoutRouting() {
+        when(gemRepository.findAllById(anyIterable())).thenReturn(List.of(gemA, gemB));
+        KrawlGem originalA = krawl.getGems().get(0);
+
+        krawlService.updateKrawl(krawl.getId(),
+                request(gemRequest(gemA, 1, "A brand new creator note"), gemRequest(gemB, 2, "Creator note for B")),
+                ownerId);
+
+        assertEquals(2, krawl.getGems().size());
+        assertSame(originalA, krawl.getGems().get(0));
+        assertEquals("A brand new creator note", originalA.getCreatorNote());
+        verify(gemRepository, never()).findById(any());
+        verifyNoInteractions(krawlRouteService);
+        verify(krawlSummaryService).refresh(krawl.getId());
+    }
+
+    @Test
+    void testUpdateKrawl_GemAddedAndRemoved_AppliesMinimalChangesAndReroutes() {
+        when(gemRepository.findAllById(anyIterable())).thenReturn(List.of(gemB, gemC));
+        KrawlGem originalB = krawl.getGems().get(1);
+
+        krawlService.updateKrawl(krawl.getId(),
+                request(gemRequest(gemB, 1, "Creator note for B"), gemRequest(gemC, 2, "Creator note for C")),
+                ownerId);
+
+        assertEquals(2, krawl.getGems().size());
+        assertTrue(krawl.getGems().stream().anyMatch(krawlGem -> krawlGem == originalB));
+        assertEquals(1, originalB.getOrder());
+        assertTrue(krawl.getGems().stream().noneMatch(krawlGem -> krawlGem.getGem() == gemA));
+        verify(krawlRouteService).applyEstimate(same(krawl), argThat(waypoints -> waypoints.size() == 2));
+        verify(krawlRouteService).scheduleRouteComputation(eq(krawl.getId()), any(), anyList());
+        verify(krawlSummaryService).refresh(krawl.getId());
+    }
+
+    @Test
+    void testUpdateKrawl_GemsSwapped_Reroutes() {
+        when(gemRepository.findAllById(anyIterable())).thenReturn(List.of(gemA, gemB));
+
+        krawlService.updateKrawl(krawl.getId(),
+                request(gemRequest(gemB, 1, "Creator note for B"), gemRequest(gemA, 2, "Creator note for A")),
+                ownerId);
+
+        verify(krawlRouteService).applyEstimate(same(krawl), anyList());
+        verify(krawlRouteService).scheduleRouteComputation(eq(krawl.getId()), any(), anyList());
+    }
+
+    @Test
+    void testUpdateKrawl_RepeatedGem_ThrowsIllegalArgument() {
+        UpdateKrawlRequest request = request(gemRequest(gemA, 1, "Creator note for A"), gemRequest(gemA, 2, "Creator note again"));
+
+        assertThrows(IllegalArgumentException.class, () -> krawlService.updateKrawl(krawl.getId(), request, ownerId));
+        verifyNoInteractions(gemRepository, krawlSummaryService);
+    }
+
+    private KrawlGem krawlGem(Gem gem, int order) {
+        return KrawlGem.builder()
+                .id(TestDataFactory.randomUUID())
+                .krawl(krawl)
+                .gem(gem)
+                .order(order)
+                .creatorNote("Creator note for " + gem.getName().substring(4))
+                .lokalSecret("Lokal secret for " + gem.getName().substring(4))
+                .build();
+    }
+
+    private static UpdateKrawlRequest.GemInKrawlRequest gemRequest(Gem gem, int order, String creatorNote) {
+        UpdateKrawlRequest.GemInKrawlRequest gemRequest = new UpdateKrawlRequest.GemInKrawlRequest();
+        gemRequest.setGemId(gem.getId().toString());
+        gemRequest.setSequenceOrder(order);
+        gemRequest.setCreatorNote(creatorNote);
+        gemRequest.setLokalSecret("Lokal secret for " + gem.getName().substring(4));
+        return gemRequest;
+    }
+
+    private static UpdateKrawlRequest request(UpdateKrawlRequest.GemInKrawlRequest... gems) {
+        UpdateKrawlRequest request = new UpdateKrawlRequest();
+        request.setGems(List.of(gems));
+        return request;
+    }
+}
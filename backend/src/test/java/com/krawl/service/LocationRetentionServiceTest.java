@@ -0,0 +1,76 @@
+package com.krawl.service;
+
+import com.krawl.repository.KrawlLocationHistoryRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LocationRetentionService.
+ */
+@ExtendWith(MockitoExtension.class)
+class LocationRetentionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private KrawlLocationHistoryRepository krawlLocationHistoryRepository;
+    @Mock
+    private KrawlSessionRepository krawlSessionRepository;
+    @Mock
+    private LocationTrackingService locationTrackingService;
+
+    private LocationRetentionService locationRetentionService;
+
+    @BeforeEach
+    void setUp() {
+        locationRetentionService = new LocationRetentionService(jdbcTemplate, krawlLocationHistoryRepository,
+                krawlSessionRepository, locationTrackingService, 365, 2);
+    }
+
+    @Test
+    void testDropPartitionsBefore_DropsOnlyPartitionsEndingBeforeCutoff() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("krawl_trajectory_chunks"))).thenReturn(List.of(
+                "krawl_trajectory_chunks_p202409",
+                "krawl_trajectory_chunks_p202410",
+                "krawl_trajectory_chunks_p202411",
+                "krawl_trajectory_chunks_archive"));
+
+        int dropped = locationRetentionService.dropPartitionsBefore(jdbcTemplate, "krawl_trajectory_chunks", LocalDate.of(2024, 11, 1));
+
+        assertEquals(2, dropped);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE krawl_trajectory_chunks DETACH PARTITION krawl_trajectory_chunks_p202409");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE krawl_trajectory_chunks_p202409");
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE krawl_trajectory_chunks DETACH PARTITION krawl_trajectory_chunks_p202410");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE krawl_trajectory_chunks_p202410");
+        verify(jdbcTemplate, times(4)).execute(anyString());
+    }
+
+    @Test
+    void testPurgeSession_DeletesLegacyRowsAndTrajectory() {
+        UUID sessionId = TestDataFactory.randomUUID();
+        when(krawlLocationHistoryRepository.deleteBySessionId(sessionId)).thenReturn(3);
+        when(locationTrackingService.purgeSession(sessionId)).thenReturn(2);
+
+        locationRetentionService.purgeSession(sessionId);
+
+        verify(krawlLocationHistoryRepository).deleteBySessionId(sessionId);
+        verify(locationTrackingService).purgeSession(sessionId);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,254 @@
+package com.krawl.service;
+
+import com.krawl.dto.request.LocationUpdateRequest;
+import com.krawl.dto.response.RouteDeviationResponse;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.service.location.GeofenceArrival;
+import com.krawl.service.location.GeofenceTracker;
+import com.krawl.service.location.LocationSample;
+import com.krawl.service.location.RouteDeviation;
+import com.krawl.service.location.RouteDeviationTracker;
+import com.krawl.service.location.RouteMatch;
+import com.krawl.service.location.TrajectoryStore;
+import com.krawl.service.session.ActiveSession;
+import com.krawl.service.session.ActiveSessionRegistry;
+import com.krawl.service.session.SessionEventHub;
+import com.krawl.util.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LocationTrackingService ingestion.
+ */
+@ExtendWith(MockitoExtension.class)
+class LocationTrackingServiceTest {
+
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+    @Mock
+    private TrajectoryStore trajectoryStore;
+    @Mock
+    private GeofenceTracker geofenceTracker;
+    @Mock
+    private KrawlArrivalService krawlArrivalService;
+    @Mock
+    private RouteDeviationTracker routeDeviationTracker;
+    @Mock
+    private SessionEventHub sessionEventHub;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocationTrackingService locationTrackingService;
+
+    private UUID krawlId;
+    private UUID userId;
+    private UUID sessionId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        locationTrackingService = new LocationTrackingService(activeSessionRegistry, trajectoryStore,
+                geofenceTracker, krawlArrivalService, routeDeviationTracker, sessionEventHub, meterRegistry, 4, 3, 200);
+        krawlId = TestDataFactory.randomUUID();
+        userId = TestDataFactory.randomUUID();
+        sessionId = TestDataFactory.randomUUID();
+    }
+
+    @Test
+    void testSubmit_ActiveSession_WritesInOrder() {
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        List<List<Double>> writtenLatitudes = new ArrayList<>();
+        when(trajectoryStore.append(anyList())).thenAnswer(invocation -> {
+            List<LocationSample> batch = invocation.getArgument(0);
+            writtenLatitudes.add(batch.stream().map(LocationSample::getLatitude).collect(Collectors.toList()));
+            return 0;
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(locationTrackingService.submit(krawlId, userId, location(10.0 + i, 123.90)).isAccepted());
+        }
+        locationTrackingService.flush();
+
+        assertEquals(List.of(List.of(10.0, 11.0, 12.0), List.of(13.0)), writtenLatitudes);
+        assertEquals(4, meterRegistry.counter("krawl.location.accepted").count());
+    }
+
+    @Test
+    void testSubmit_BufferFull_RefusesAndCountsDrop() {
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(locationTrackingService.submit(krawlId, userId, location(10.29, 123.90)).isAccepted());
+        }
+
+        assertFalse(locationTrackingService.submit(krawlId, userId, location(10.29, 123.90)).isAccepted());
+        assertEquals(1, meterRegistry.counter("krawl.location.dropped", "reason", "buffer_full").count());
+    }
+
+    @Test
+    void testSubmit_NoActiveSession_ThrowsNotFound() {
+        when(activeSessionRegistry.getRequired(krawlId, userId))
+                .thenThrow(new ResourceNotFoundException("Active session", "krawlId and userId", krawlId + "/" + userId));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> locationTrackingService.submit(krawlId, userId, location(10.29, 123.90)));
+    }
+
+    @Test
+    void testSubmit_InvalidLatitude_ThrowsWithoutLookup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> locationTrackingService.submit(krawlId, userId, location(95.0, 123.90)));
+        verifyNoInteractions(activeSessionRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WriteFailures_CountedAsDropped() {
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        when(trajectoryStore.append(anyList())).thenReturn(2);
+        locationTrackingService.submit(krawlId, userId, location(10.29, 123.90));
+        locationTrackingService.submit(krawlId, userId, location(10.29, 123.90));
+
+        locationTrackingService.flush();
+
+        ArgumentCaptor<List<LocationSample>> batch = ArgumentCaptor.forClass(List.class);
+        verify(trajectoryStore).append(batch.capture());
+        assertEquals(sessionId, batch.getValue().get(0).getSessionId());
+        assertEquals(2, meterRegistry.counter("krawl.location.dropped", "reason", "write_failed").count());
+    }
+
+    @Test
+    void testSubmit_GemReached_RecordsArrivalBeforeReturningIt() {
+        UUID gemId = TestDataFactory.randomUUID();
+        GeofenceArrival arrival = new GeofenceArrival(sessionId, gemId, 8.5);
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        when(geofenceTracker.check(sessionId, 10.29, 123.90, null)).thenReturn(List.of(arrival));
+        when(krawlArrivalService.recordArrival(arrival)).thenReturn(KrawlArrivalService.Outcome.SESSION_COMPLETED);
+
+        assertEquals(List.of(gemId), locationTrackingService.submit(krawlId, userId, location(10.29, 123.90)).getArrivedGemIds());
+
+        verify(krawlArrivalService).recordArrival(arrival);
+        verify(geofenceTracker).sessionEnded(sessionId);
+        assertEquals(1, meterRegistry.counter("krawl.geofence.arrivals").count());
+    }
+
+    @Test
+    void testSubmit_ArrivalNotRecorded_NotReportedAndGeofenceReloaded() {
+        GeofenceArrival arrival = new GeofenceArrival(sessionId, TestDataFactory.randomUUID(), 8.5);
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        when(geofenceTracker.check(sessionId, 10.29, 123.90, null)).thenReturn(List.of(arrival));
+        when(krawlArrivalService.recordArrival(arrival)).thenThrow(new IllegalStateException("Database unavailable"));
+
+        assertTrue(locationTrackingService.submit(krawlId, userId, location(10.29, 123.90)).getArrivedGemIds().isEmpty());
+
+        verify(geofenceTracker).invalidate(sessionId);
+        assertEquals(0, meterRegistry.counter("krawl.geofence.arrivals").count());
+    }
+
+    @Test
+    void testSubmit_LeftRoute_ReturnsDeviationAndPublishesIt() {
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        when(routeDeviationTracker.check(sessionId, krawlId, 10.29, 123.90, null))
+                .thenReturn(new RouteDeviation(sessionId, true, new RouteMatch(62.0, 10.2905, 123.9001, 3)));
+
+        RouteDeviationResponse deviation = locationTrackingService.submit(krawlId, userId, location(10.29, 123.90))
+                .getRouteDeviation();
+
+        assertTrue(deviation.isOffRoute());
+        assertEquals(62.0, deviation.getDistanceFromRouteMeters());
+        assertEquals(10.2905, deviation.getRejoinLatitude());
+        verify(sessionEventHub).publish(sessionId, SessionEventHub.EVENT_OFF_ROUTE, deviation);
+        assertEquals(1, meterRegistry.counter("krawl.route.deviations", "direction", "off").count());
+    }
+
+    @Test
+    void testWriteSynced_RolledBack_ForgetsOpenChunks() {
+        List<LocationSample> samples = List.of(
+                new LocationSample(sessionId, 10.29, 123.90, null, null, null, LocalDateTime.now()));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            locationTrackingService.writeSynced(samples);
+
+            verify(trajectoryStore).appendInTransaction(samples);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(trajectoryStore).forgetSessions(Set.of(sessionId));
+        assertEquals(0, meterRegistry.counter("krawl.location.accepted").count());
+    }
+
+    @Test
+    void testWriteSynced_SlowSyncTransaction_DoesNotStallFlush() {
+        UUID otherKrawlId = TestDataFactory.randomUUID();
+        UUID otherSessionId = TestDataFactory.randomUUID();
+        when(activeSessionRegistry.getRequired(krawlId, userId)).thenReturn(activeSession());
+        when(activeSessionRegistry.getRequired(otherKrawlId, userId)).thenReturn(
+                new ActiveSession(otherSessionId, otherKrawlId, userId, LocalDateTime.now(), 0.0, List.of(), List.of()));
+        List<List<UUID>> writtenSessions = new CopyOnWriteArrayList<>();
+        when(trajectoryStore.append(anyList())).thenAnswer(invocation -> {
+            List<LocationSample> batch = invocation.getArgument(0);
+            writtenSessions.add(batch.stream().map(LocationSample::getSessionId).collect(Collectors.toList()));
+            return 0;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            locationTrackingService.writeSynced(List.of(
+                    new LocationSample(sessionId, 10.28, 123.89, null, null, null, LocalDateTime.now().minusMinutes(5))));
+            locationTrackingService.submit(krawlId, userId, location(10.29, 123.90));
+            locationTrackingService.submit(otherKrawlId, userId, location(10.30, 123.91));
+
+            // The sync transaction is still open; a flush on another thread must not wait for it
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> locationTrackingService.flush());
+            assertEquals(List.of(List.of(otherSessionId)), writtenSessions);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        locationTrackingService.flush();
+        assertEquals(List.of(List.of(otherSessionId), List.of(sessionId)), writtenSessions);
+        assertEquals(3, meterRegistry.counter("krawl.location.accepted").count());
+    }
+
+    @Test
+    void testWriteSynced_NoTransaction_Throws() {
+        assertThrows(IllegalStateException.class, () -> locationTrackingService.writeSynced(List.of()));
+        verifyNoInteractions(trajectoryStore);
+    }
+
+    private ActiveSession activeSession() {
+        return new ActiveSession(sessionId, krawlId, userId, LocalDateTime.now(), 0.0, List.of(), List.of());
+    }
+
+    private static LocationUpdateRequest location(double latitude, double longitude) {
+        LocationUpdateRequest request = new LocationUpdateRequest();
+        request.setLatitude(latitude);
+        request.setLongitude(longitude);
+        return request;
+    }
+}
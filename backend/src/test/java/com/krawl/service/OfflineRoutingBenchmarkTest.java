@@ -0,0 +1,202 @@
+package com.krawl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.repository.RouteLegRepository;
+import com.krawl.service.routing.OsmPedestrianGraphLoader;
+import com.krawl.service.routing.PedestrianGraph;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark of the offline walking router against the Mapbox Directions API and the
+ * straight-line fallback, on multi-waypoint routes through Cebu City.
+ *
+ * Excluded from the normal test run. Needs an OpenStreetMap XML extract covering Cebu City
+ * (a .osm.pbf extract can be converted with {@code osmium cat cebu.osm.pbf -o cebu.osm});
+ * the Mapbox column is only measured when an access token is given:
+ *
+ * <pre>
+ * ROUTING_GRAPH_PATH=/data/cebu.osm MAPBOX_ACCESS_TOKEN=... \
+ *   mvn test -Dtest=OfflineRoutingBenchmarkTest -Dsurefire.excludedGroups= -Dgroups=benchmark
+ * </pre>
+ *
+ * Every engine routes the same routes through MapboxService.calculateRoute, so encoding and
+ * simplification are included. Offline and straight-line routes are warmed up and timed over
+ * several rounds; Mapbox routes are timed once each with an empty leg cache, so every leg
+ * is a Directions API call. Routes and timings are printed per engine, with each engine's
+ * total walking distance as a check on route quality.
+ */
+@Tag("benchmark")
+class OfflineRoutingBenchmarkTest {
+
+    private static final int RANDOM_ROUTES = 20;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int TIMED_ROUNDS = 10;
+    private static final long SEED = 42;
+
+    // Landmarks as [longitude, latitude]
+    private static final double[] BASILICA = {123.9020, 10.2945};
+    private static final double[] MAGELLANS_CROSS = {123.9021, 10.2934};
+    private static final double[] FORT_SAN_PEDRO = {123.9055, 10.2925};
+    private static final double[] PLAZA_INDEPENDENCIA = {123.9050, 10.2933};
+    private static final double[] CATHEDRAL = {123.9022, 10.2955};
+    private static final double[] COLON_STREET = {123.8990, 10.2965};
+    private static final double[] CARBON_MARKET = {123.8980, 10.2917};
+    private static final double[] CASA_GORORDO = {123.9038, 10.2966};
+    private static final double[] YAP_SAN_DIEGO = {123.9045, 10.2950};
+    private static final double[] HERITAGE_MONUMENT = {123.9045, 10.2968};
+    private static final double[] FUENTE_OSMENA = {123.8930, 10.3080};
+    private static final double[] CAPITOL = {123.8915, 10.3166};
+    private static final double[] AYALA_CENTER = {123.9050, 10.3180};
+    private static final double[] IT_PARK = {123.9060, 10.3305};
+
+    private static final List<double[]> LANDMARKS = List.of(BASILICA, MAGELLANS_CROSS, FORT_SAN_PEDRO,
+            PLAZA_INDEPENDENCIA, CATHEDRAL, COLON_STREET, CARBON_MARKET, CASA_GORORDO, YAP_SAN_DIEGO,
+            HERITAGE_MONUMENT, FUENTE_OSMENA, CAPITOL, AYALA_CENTER, IT_PARK);
+
+    private static OfflineRoutingService offlineRoutingService;
+    private static String mapboxAccessToken;
+
+    @BeforeAll
+    static void loadGraph() throws Exception {
+        String graphPath = System.getenv("ROUTING_GRAPH_PATH");
+        assumeTrue(graphPath != null && Files.isReadable(Path.of(graphPath)),
+                "Set ROUTING_GRAPH_PATH to an OpenStreetMap XML extract of Cebu City");
+        mapboxAccessToken = System.getenv("MAPBOX_ACCESS_TOKEN");
+
+        long start = System.nanoTime();
+        PedestrianGraph graph;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(Path.of(graphPath)), 1 << 16)) {
+            graph = OsmPedestrianGraphLoader.load(input);
+        }
+        System.out.printf("Graph %s: %d nodes, %d edges, loaded in %d ms%n", graphPath,
+                graph.nodeCount(), graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        offlineRoutingService = new OfflineRoutingService();
+        offlineRoutingService.setGraph(graph);
+    }
+
+    @Test
+    void benchmarkMultiWaypointRoutes() {
+        List<List<double[]>> routes = routes();
+
+        MapboxService offline = mapboxService("offline", null, offlineRoutingService);
+        MapboxService straightLine = mapboxService("mapbox", null, new OfflineRoutingService());
+
+        Result offlineResult = time("offline", routes, offline::calculateRoute, WARMUP_ROUNDS, TIMED_ROUNDS);
+        Result straightLineResult = time("straight-line", routes, straightLine::estimateRoute, WARMUP_ROUNDS, TIMED_ROUNDS);
+        assertTrue(offlineResult.walkedRoutes > 0, "No route could be routed on the graph; wrong extract?");
+
+        System.out.println("engine         routes  walked  mean ms   p50 ms   p95 ms   max ms   total km");
+        offlineResult.print();
+        straightLineResult.print();
+        if (mapboxAccessToken != null && !mapboxAccessToken.isBlank()) {
+            // A new service per route keeps the leg cache empty, so every leg is fetched
+            Result mapboxResult = time("mapbox", routes, waypoints ->
+                    mapboxService("mapbox", mapboxAccessToken, new OfflineRoutingService()).calculateRoute(waypoints), 0, 1);
+            mapboxResult.print();
+        } else {
+            System.out.println("mapbox         skipped: set MAPBOX_ACCESS_TOKEN to compare with the Directions API");
+        }
+    }
+
+    /**
+     * A downtown heritage walk, an uptown walk, and random tours over the landmarks.
+     */
+    private static List<List<double[]>> routes() {
+        List<List<double[]>> routes = new ArrayList<>();
+        routes.add(List.of(CARBON_MARKET, MAGELLANS_CROSS, BASILICA, CATHEDRAL, YAP_SAN_DIEGO,
+                HERITAGE_MONUMENT, CASA_GORORDO, PLAZA_INDEPENDENCIA, FORT_SAN_PEDRO));
+        routes.add(List.of(COLON_STREET, FUENTE_OSMENA, CAPITOL, AYALA_CENTER, IT_PARK));
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_ROUTES; i++) {
+            List<double[]> shuffled = new ArrayList<>(LANDMARKS);
+            Collections.shuffle(shuffled, random);
+            routes.add(shuffled.subList(0, 5 + random.nextInt(6)));
+        }
+        return routes;
+    }
+
+    private static Result time(String engine, List<List<double[]>> routes,
+                               Function<List<double[]>, MapboxService.RouteResult> router,
+                               int warmupRounds, int timedRounds) {
+        for (int round = 0; round < warmupRounds; round++) {
+            routes.forEach(router::apply);
+        }
+        Result result = new Result(engine, routes.size());
+        long[] nanos = new long[routes.size() * timedRounds];
+        int sample = 0;
+        for (int round = 0; round < timedRounds; round++) {
+            for (List<double[]> waypoints : routes) {
+                long start = System.nanoTime();
+                MapboxService.RouteResult route = router.apply(waypoints);
+                nanos[sample++] = System.nanoTime() - start;
+                if (round == 0) {
+                    result.totalKm += route.getDistanceKm();
+                    if (!route.isEstimated()) {
+                        result.walkedRoutes++;
+                    }
+                }
+            }
+        }
+        result.nanos = nanos;
+        return result;
+    }
+
+    private static MapboxService mapboxService(String engine, String accessToken, OfflineRoutingService offlineRouting) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RouteLegCacheService routeLegCacheService = new RouteLegCacheService(mock(RouteLegRepository.class), objectMapper);
+        ReflectionTestUtils.setField(routeLegCacheService, "legCacheSize", 10_000);
+        routeLegCacheService.init();
+
+        MapboxService service = new MapboxService(WebClient.builder(), objectMapper, routeLegCacheService, offlineRouting);
+        ReflectionTestUtils.setField(service, "routingEngine", engine);
+        ReflectionTestUtils.setField(service, "mapboxAccessToken", accessToken);
+        ReflectionTestUtils.setField(service, "maxConcurrentRequests", 4);
+        service.init();
+        return service;
+    }
+
+    private static final class Result {
+        private final String engine;
+        private final int routes;
+        private int walkedRoutes;
+        private double totalKm;
+        private long[] nanos;
+
+        private Result(String engine, int routes) {
+            this.engine = engine;
+            this.routes = routes;
+        }
+
+        void print() {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            double mean = Arrays.stream(sorted).average().orElse(0);
+            System.out.printf("%-14s %6d  %6d  %7.2f  %7.2f  %7.2f  %7.2f  %9.2f%n", engine, routes, walkedRoutes,
+                    mean / 1e6, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.95) / 1e6,
+                    sorted[sorted.length - 1] / 1e6, totalKm);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.floor(quantile * sorted.length))];
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.krawl.service;
+
+import com.krawl.service.routing.OsmPedestrianGraphLoader;
+import com.krawl.service.routing.PedestrianGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OfflineRoutingService over a synthetic street grid.
+ */
+class OfflineRoutingServiceTest {
+
+    private static final int GRID_SIZE = 40;
+    private static final double ORIGIN_LAT = 10.29;
+    private static final double ORIGIN_LON = 123.89;
+    private static final double SPACING_DEGREES = 0.0005; // ~55 m
+
+    private OfflineRoutingService offlineRoutingService;
+
+    @BeforeEach
+    void setUp() {
+        offlineRoutingService = new OfflineRoutingService();
+        offlineRoutingService.setGraph(buildGrid(-1));
+    }
+
+    @Test
+    void testRouteLeg_FollowsStreetsNotStraightLine() {
+        double[] from = point(0, 0);
+        double[] to = point(10, 10);
+
+        RouteLegCacheService.Leg leg = offlineRoutingService.routeLeg(from, to);
+
+        assertNotNull(leg);
+        assertFalse(leg.isEstimated());
+        double straightLine = RouteLegCacheService.estimateLeg(from, to).getDistanceMeters();
+        // On a grid the walk is the Manhattan distance, ~sqrt(2) times the diagonal
+        assertEquals(straightLine * Math.sqrt(2), leg.getDistanceMeters(), straightLine * 0.02);
+        assertEquals(leg.getDistanceMeters() * 0.72, leg.getDurationSeconds(), 1e-6);
+        // Starts and ends exactly at the waypoints
+        double[] coordinates = leg.getCoordinates();
+        assertEquals(from[0], coordinates[0]);
+        assertEquals(from[1], coordinates[1]);
+        assertEquals(to[0], coordinates[coordinates.length - 2]);
+        assertEquals(to[1], coordinates[coordinates.length - 1]);
+    }
+
+    @Test
+    void testRouteLeg_DetoursAroundMissingStreets() {
+        // Column 5 is only crossable on the top row
+        offlineRoutingService.setGraph(buildGrid(5));
+
+        RouteLegCacheService.Leg leg = offlineRoutingService.routeLeg(point(0, 4), point(0, 6));
+
+        assertNotNull(leg);
+        double blockLength = RouteLegCacheService.estimateLeg(point(0, 0), point(0, 1)).getDistanceMeters();
+        double expected = blockLength * ((GRID_SIZE - 1) * 2 + 2);
+        assertEquals(expected, leg.getDistanceMeters(), expected * 0.02);
+    }
+
+    @Test
+    void testRouteLeg_SnapsNearbyWaypoints() {
+        double[] offStreet = {ORIGIN_LON + SPACING_DEGREES * 3.2, ORIGIN_LAT + SPACING_DEGREES * 2.1};
+
+        RouteLegCacheService.Leg leg = offlineRoutingService.routeLeg(offStreet, point(8, 2));
+
+        assertNotNull(leg);
+        assertEquals(offStreet[0], leg.getCoordinates()[0]);
+        assertEquals(offStreet[1], leg.getCoordinates()[1]);
+    }
+
+    @Test
+    void testRouteLegs_FarWaypointFallsBackToStraightLine() {
+        double[] farAway = {ORIGIN_LON + 1.0, ORIGIN_LAT + 1.0};
+
+        List<RouteLegCacheService.Leg> legs = offlineRoutingService.routeLegs(List.of(point(0, 0), point(5, 5), farAway));
+
+        assertEquals(2, legs.size());
+        assertFalse(legs.get(0).isEstimated());
+        assertTrue(legs.get(1).isEstimated());
+    }
+
+    @Test
+    void testRouteLeg_UnavailableWithoutGraph() {
+        OfflineRoutingService unloaded = new OfflineRoutingService();
+
+        assertFalse(unloaded.isAvailable());
+        assertNull(unloaded.routeLeg(point(0, 0), point(1, 1)));
+    }
+
+    @Test
+    void testRouteLegs_ManyQueriesReuseSearchState() {
+        Random random = new Random(42);
+        int queries = 2000;
+
+        for (int q = 0; q < queries; q++) {
+            int x1 = random.nextInt(GRID_SIZE), y1 = random.nextInt(GRID_SIZE);
+            int x2 = random.nextInt(GRID_SIZE), y2 = random.nextInt(GRID_SIZE);
+            RouteLegCacheService.Leg leg = offlineRoutingService.routeLeg(point(x1, y1), point(x2, y2));
+
+            assertNotNull(leg);
+            double blockLength = RouteLegCacheService.estimateLeg(point(0, 0), point(0, 1)).getDistanceMeters();
+            double expected = blockLength * (Math.abs(x1 - x2) + Math.abs(y1 - y2));
+            assertEquals(expected, leg.getDistanceMeters(), Math.max(1.0, expected * 0.02));
+        }
+    }
+
+    @Test
+    void testLoadOsmExtract_KeepsOnlyWalkableWays() throws Exception {
+        String osm = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <osm version="0.6">
+                  <node id="3" lat="10.2936" lon="123.9019"/>
+                  <node id="1" lat="10.2945" lon="123.9021"/>
+                  <node id="2" lat="10.2940" lon="123.9020"/>
+                  <node id="4" lat="10.2925" lon="123.9055"/>
+                  <node id="5" lat="10.2930" lon="123.9060"/>
+                  <way id="10">
+                    <nd ref="1"/><nd ref="2"/><nd ref="3"/>
+                    <tag k="highway" v="footway"/>
+                  </way>
+                  <way id="11">
+                    <nd ref="3"/><nd ref="4"/>
+                    <tag k="highway" v="motorway"/>
+                  </way>
+                  <way id="12">
+                    <nd ref="4"/><nd ref="5"/>
+                    <tag k="highway" v="residential"/>
+                    <tag k="foot" v="no"/>
+                  </way>
+                </osm>
+                """;
+
+        PedestrianGraph graph = OsmPedestrianGraphLoader.load(
+                new ByteArrayInputStream(osm.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(4, graph.edgeCount()); // Two undirected segments
+
+        offlineRoutingService.setGraph(graph);
+        assertNotNull(offlineRoutingService.routeLeg(new double[]{123.9021, 10.2945}, new double[]{123.9019, 10.2936}));
+        assertNull(offlineRoutingService.routeLeg(new double[]{123.9021, 10.2945}, new double[]{123.9060, 10.2930}));
+    }
+
+    /**
+     * Square street grid. If wallColumn >= 0, vertical streets crossing from
+     * wallColumn - 1 to wallColumn are removed except on the top row.
+     */
+    private static PedestrianGraph buildGrid(int wallColumn) {
+        PedestrianGraph.Builder builder = new PedestrianGraph.Builder();
+        int[][] nodes = new int[GRID_SIZE][GRID_SIZE];
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                nodes[x][y] = builder.addNode(ORIGIN_LAT + x * SPACING_DEGREES, ORIGIN_LON + y * SPACING_DEGREES);
+            }
+        }
+        for (int x = 0; x < GRID_SIZE; x++) {
+            for (int y = 0; y < GRID_SIZE; y++) {
+                if (x + 1 < GRID_SIZE) {
+                    builder.addUndirectedEdge(nodes[x][y], nodes[x + 1][y]);
+                }
+                if (y + 1 < GRID_SIZE && (y + 1 != wallColumn || x == GRID_SIZE - 1)) {
+                    builder.addUndirectedEdge(nodes[x][y], nodes[x][y + 1]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Grid intersection as [longitude, latitude]; x runs north, y runs east.
+     */
+    private static double[] point(int x, int y) {
+        return new double[]{ORIGIN_LON + y * SPACING_DEGREES, ORIGIN_LAT + x * SPACING_DEGREES};
+    }
+}
@@ -0,0 +1,183 @@
+package com.krawl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krawl.entity.RouteLeg;
+import com.krawl.repository.RouteLegRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RouteLegCacheService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RouteLegCacheServiceTest {
+
+    @Mock
+    private RouteLegRepository routeLegRepository;
+
+    private RouteLegCacheService routeLegCacheService;
+
+    private final double[] basilica = {123.9021, 10.2945};
+    private final double[] magellan = {123.9019, 10.2936};
+    private final double[] fort = {123.9055, 10.2925};
+
+    @BeforeEach
+    void setUp() {
+        routeLegCacheService = new RouteLegCacheService(routeLegRepository, new ObjectMapper());
+        ReflectionTestUtils.setField(routeLegCacheService, "legCacheSize", 100);
+        routeLegCacheService.init();
+    }
+
+    @Test
+    void testResolveLegs_FetchesOnlyNewLegs() {
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of());
+        AtomicInteger fetchedLegs = new AtomicInteger();
+        RouteLegCacheService.LegFetcher fetcher = waypoints -> {
+            fetchedLegs.addAndGet(waypoints.size() - 1);
+            return Mono.just(straightLegs(waypoints));
+        };
+
+        routeLegCacheService.resolveLegs(List.of(basilica, magellan), fetcher, 24, 4);
+        List<RouteLegCacheService.Leg> legs = routeLegCacheService.resolveLegs(List.of(basilica, magellan, fort), fetcher, 24, 4);
+
+        assertEquals(2, legs.size());
+        assertEquals(2, fetchedLegs.get()); // basilica->magellan once, magellan->fort once
+        verify(routeLegRepository, times(2)).insertIfAbsent(anyString(), anyString(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testResolveLegs_StoredLeg_ServedFromDatabase() throws Exception {
+        RouteLeg stored = RouteLeg.builder()
+                .legKey(RouteLegCacheService.legKey(basilica, magellan))
+                .coordinates("[[123.9021,10.2945],[123.902,10.294],[123.9019,10.2936]]")
+                .distanceMeters(110.0)
+                .durationSeconds(80.0)
+                .build();
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of(stored));
+
+        List<RouteLegCacheService.Leg> legs = routeLegCacheService.resolveLegs(List.of(basilica, magellan),
+                waypoints -> { throw new AssertionError("Routing API should not be called"); }, 24, 4);
+
+        assertEquals(110.0, legs.get(0).getDistanceMeters());
+        assertEquals(6, legs.get(0).getCoordinates().length);
+        assertFalse(legs.get(0).isEstimated());
+    }
+
+    @Test
+    void testResolveLegs_FetchFails_ReturnsEstimateWithoutCaching() {
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        List<RouteLegCacheService.Leg> legs = routeLegCacheService.resolveLegs(List.of(basilica, magellan),
+                waypoints -> Mono.error(new IllegalStateException("Routing unavailable")), 24, 4);
+
+        assertTrue(legs.get(0).isEstimated());
+        assertEquals(0, routeLegCacheService.size());
+        verify(routeLegRepository, never()).insertIfAbsent(anyString(), anyString(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testResolveLegs_FailureWhileOwningLeg_ReleasesIt() {
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        assertThrows(NullPointerException.class, () -> routeLegCacheService.resolveLegs(List.of(basilica, magellan),
+                waypoints -> Mono.just(Collections.<RouteLegCacheService.Leg>singletonList(null)), 24, 4));
+
+        // Not left in flight: the next request fetches the leg instead of waiting for the failed one
+        List<RouteLegCacheService.Leg> legs = routeLegCacheService.resolveLegs(List.of(basilica, magellan),
+                waypoints -> Mono.just(straightLegs(waypoints)), 24, 4);
+        assertFalse(legs.get(0).isEstimated());
+    }
+
+    @Test
+    void testResolveLegs_ConcurrentIdenticalRequests_FetchOnce() throws Exception {
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of());
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        RouteLegCacheService.LegFetcher slowFetcher = waypoints -> Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return straightLegs(waypoints);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<RouteLegCacheService.Leg>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> routeLegCacheService.resolveLegs(List.of(basilica, magellan), slowFetcher, 24, 4)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<List<RouteLegCacheService.Leg>> result : results) {
+                assertFalse(result.get(5, TimeUnit.SECONDS).get(0).isEstimated());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testResolveLegs_LongRoute_FetchesChunksConcurrentlyAndStitchesInOrder() {
+        when(routeLegRepository.findAllById(anyIterable())).thenReturn(List.of());
+        List<double[]> waypoints = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            waypoints.add(new double[]{123.90 + i * 0.001, 10.29});
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        // Each chunk completes after a delay, later chunks first. A chunk stops counting as in
+        // flight before it emits, since flatMap may subscribe the next chunk as soon as it does.
+        RouteLegCacheService.LegFetcher fetcher = chunk -> {
+            chunkSizes.add(chunk.size());
+            long delay = 200 - Math.round((chunk.get(0)[0] - 123.90) * 1000) * 20;
+            return Mono.delay(Duration.ofMillis(delay))
+                    .map(ignored -> straightLegs(chunk))
+                    .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doOnNext(result -> inFlight.decrementAndGet());
+        };
+
+        List<RouteLegCacheService.Leg> legs = routeLegCacheService.resolveLegs(waypoints, fetcher, 3, 2);
+
+        assertEquals(9, legs.size());
+        assertEquals(List.of(4, 4, 4), chunkSizes); // 3 legs each, sharing boundary waypoints
+        assertEquals(2, maxInFlight.get());
+        for (int i = 0; i < legs.size(); i++) {
+            assertFalse(legs.get(i).isEstimated());
+            assertEquals(waypoints.get(i)[0], legs.get(i).getCoordinates()[0], 1e-9);
+        }
+    }
+
+    private static List<RouteLegCacheService.Leg> straightLegs(List<double[]> waypoints) {
+        List<RouteLegCacheService.Leg> legs = new ArrayList<>();
+        for (int i = 0; i < waypoints.size() - 1; i++) {
+            RouteLegCacheService.Leg estimate = RouteLegCacheService.estimateLeg(waypoints.get(i), waypoints.get(i + 1));
+            legs.add(new RouteLegCacheService.Leg(estimate.getCoordinates(), estimate.getDistanceMeters(),
+                    estimate.getDurationSeconds(), false));
+        }
+        return legs;
+    }
+}
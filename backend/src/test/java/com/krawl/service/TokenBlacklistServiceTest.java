@@ -9,12 +9,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,91 +41,97 @@ class TokenBlacklistServiceTest {
     private RevokedToken testRevokedToken;
     
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         testToken = "test.jwt.token.here";
         testExpiresAt = Instant.now().plusSeconds(3600); // 1 hour from now
         
         testRevokedToken = RevokedToken.builder()
             .id(UUID.randomUUID())
-            .token(testToken)
+            .tokenHash(sha256Hex(testToken))
             .expiresAt(testExpiresAt)
             .revokedAt(Instant.now())
             .build();
     }
     
     @Test
-    void testAddToBlacklist_NewToken_Success() {
+    void testAddToBlacklist_NewToken_Success() throws Exception {
         // Given
-        when(revokedTokenRepository.existsByToken(testToken)).thenReturn(false);
+        tokenBlacklistService.reload();
+        when(revokedTokenRepository.existsByTokenHash(sha256Hex(testToken))).thenReturn(false);
         when(revokedTokenRepository.save(any(RevokedToken.class))).thenReturn(testRevokedToken);
         
         // When
         tokenBlacklistService.addToBlacklist(testToken, testExpiresAt);
         
-        // Then
-        verify(revokedTokenRepository).existsByToken(testToken);
-        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        // Then - stored as a hash and visible to this node at once
+        verify(revokedTokenRepository).save(argThat(saved -> saved.getTokenHash().equals(testRevokedToken.getTokenHash())));
+        assertTrue(tokenBlacklistService.isBlacklisted(testToken));
     }
     
     @Test
     void testAddToBlacklist_AlreadyBlacklisted_NoOp() {
         // Given
-        when(revokedTokenRepository.existsByToken(testToken)).thenReturn(true);
+        when(revokedTokenRepository.existsByTokenHash(anyString())).thenReturn(true);
         
         // When
         tokenBlacklistService.addToBlacklist(testToken, testExpiresAt);
         
         // Then
-        verify(revokedTokenRepository).existsByToken(testToken);
         verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
     }
     
     @Test
-    void testIsBlacklisted_TokenNotBlacklisted_ReturnsFalse() {
+    void testIsBlacklisted_NotLoadedYet_ChecksDatabase() throws Exception {
         // Given
-        when(revokedTokenRepository.findByToken(testToken)).thenReturn(Optional.empty());
+        when(revokedTokenRepository.existsByTokenHashAndExpiresAtAfter(eq(sha256Hex(testToken)), any(Instant.class)))
+            .thenReturn(true);
         
         // When
         boolean result = tokenBlacklistService.isBlacklisted(testToken);
         
         // Then
-        assertFalse(result);
-        verify(revokedTokenRepository).findByToken(testToken);
+        assertTrue(result);
     }
     
     @Test
-    void testIsBlacklisted_TokenBlacklisted_ReturnsTrue() {
+    void testIsBlacklisted_Loaded_AnswersFromMemory() {
         // Given
-        when(revokedTokenRepository.findByToken(testToken)).thenReturn(Optional.of(testRevokedToken));
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(testRevokedToken));
+        tokenBlacklistService.reload();
+        
+        // When / Then
+        assertTrue(tokenBlacklistService.isBlacklisted(testToken));
+        assertFalse(tokenBlacklistService.isBlacklisted("another.jwt.token"));
+        verify(revokedTokenRepository, never()).existsByTokenHashAndExpiresAtAfter(anyString(), any(Instant.class));
+    }
+    
+    @Test
+    void testIsBlacklisted_ExpiredEntry_ReturnsFalse() {
+        // Given - entry expired after it was loaded
+        testRevokedToken.setExpiresAt(Instant.now().minusSeconds(3600)); // 1 hour ago
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class))).thenReturn(List.of(testRevokedToken));
+        tokenBlacklistService.reload();
         
         // When
         boolean result = tokenBlacklistService.isBlacklisted(testToken);
         
         // Then
-        assertTrue(result);
-        verify(revokedTokenRepository).findByToken(testToken);
+        assertFalse(result);
     }
     
     @Test
-    void testIsBlacklisted_ExpiredToken_ReturnsFalseAndDeletes() {
-        // Given - expired token
-        Instant expiredTime = Instant.now().minusSeconds(3600); // 1 hour ago
-        RevokedToken expiredToken = RevokedToken.builder()
-            .id(UUID.randomUUID())
-            .token(testToken)
-            .expiresAt(expiredTime)
-            .revokedAt(Instant.now().minusSeconds(7200))
-            .build();
-        
-        when(revokedTokenRepository.findByToken(testToken)).thenReturn(Optional.of(expiredToken));
+    void testRefresh_PicksUpTokensRevokedOnOtherNodes() {
+        // Given
+        tokenBlacklistService.reload();
+        assertFalse(tokenBlacklistService.isBlacklisted(testToken));
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(Instant.class), any(Instant.class)))
+            .thenReturn(List.of(testRevokedToken));
         
         // When
-        boolean result = tokenBlacklistService.isBlacklisted(testToken);
+        tokenBlacklistService.refresh();
         
         // Then
-        assertFalse(result);
-        verify(revokedTokenRepository).findByToken(testToken);
-        verify(revokedTokenRepository).delete(expiredToken);
+        assertTrue(tokenBlacklistService.isBlacklisted(testToken));
     }
     
     @Test
@@ -133,6 +145,10 @@ class TokenBlacklistServiceTest {
         
         // Then
         verify(revokedTokenRepository).deleteByExpiresAtBefore(any(Instant.class));
+        verify(revokedTokenRepository).findByExpiresAtAfter(any(Instant.class));
+    }
+    
+    private static String sha256Hex(String token) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
-
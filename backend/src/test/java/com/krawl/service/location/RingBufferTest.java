@@ -0,0 +1,93 @@
+package com.krawl.service.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RingBuffer.
+ */
+class RingBufferTest {
+
+    @Test
+    void testOffer_FullRing_RefusesUntilPolled() {
+        RingBuffer<Integer> ring = new RingBuffer<>(3);
+
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        assertEquals(4, ring.size());
+    }
+
+    @Test
+    void testDrainTo_ReturnsElementsInOfferOrderAcrossLaps() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.offer(i));
+            if (i % 3 == 2) {
+                ring.drainTo(drained, 3);
+            }
+        }
+        ring.drainTo(drained, 100);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), drained);
+        assertNull(ring.poll());
+    }
+
+    @Test
+    void testConcurrentProducers_NothingLostAndPerProducerOrderKept() throws Exception {
+        int producers = 8;
+        int perProducer = 20_000;
+        RingBuffer<long[]> ring = new RingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(new long[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(nextExpected[(int) element[0]]++, element[1]);
+            received++;
+        }
+        executor.shutdown();
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(0, ring.size());
+    }
+}
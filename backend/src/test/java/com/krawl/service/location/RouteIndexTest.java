@@ -0,0 +1,82 @@
+package com.krawl.service.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RouteIndex.
+ */
+class RouteIndexTest {
+
+    private static final double METERS_PER_DEGREE = 111320;
+
+    @Test
+    void testNearest_MatchesBruteForce() {
+        Random random = new Random(7);
+        List<double[]> route = new ArrayList<>();
+        double lon = 123.90;
+        double lat = 10.29;
+        for (int i = 0; i < 500; i++) {
+            route.add(new double[]{lon, lat});
+            lon += (random.nextDouble() - 0.3) * 0.0005;
+            lat += (random.nextDouble() - 0.5) * 0.0005;
+        }
+        RouteIndex index = new RouteIndex(route);
+
+        for (int i = 0; i < 200; i++) {
+            double queryLat = 10.29 + (random.nextDouble() - 0.5) * 0.02;
+            double queryLon = 123.90 + random.nextDouble() * 0.05;
+            RouteMatch match = index.nearest(queryLat, queryLon);
+            assertEquals(bruteForceDistance(route, queryLat, queryLon), match.getDistanceMeters(), 0.01);
+        }
+    }
+
+    @Test
+    void testNearest_ProjectsOntoSegment() {
+        RouteIndex index = new RouteIndex(List.of(
+                new double[]{123.900, 10.290},
+                new double[]{123.910, 10.290},
+                new double[]{123.910, 10.300}));
+
+        RouteMatch match = index.nearest(10.2905, 123.905); // ~56 m north of the first segment
+
+        assertEquals(0, match.getSegmentIndex());
+        assertEquals(0.0005 * METERS_PER_DEGREE, match.getDistanceMeters(), 0.5);
+        assertEquals(10.290, match.getLatitude(), 1e-9);
+        assertEquals(123.905, match.getLongitude(), 1e-9);
+    }
+
+    @Test
+    void testConstructor_SinglePoint_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteIndex(List.of(new double[]{123.90, 10.29})));
+    }
+
+    /**
+     * Distance to the nearest segment, checking every segment in the same local projection.
+     */
+    private static double bruteForceDistance(List<double[]> route, double lat, double lon) {
+        double originLon = route.get(0)[0];
+        double originLat = route.get(0)[1];
+        double metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(originLat));
+        double px = (lon - originLon) * metersPerDegreeLon;
+        double py = (lat - originLat) * METERS_PER_DEGREE;
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < route.size() - 1; i++) {
+            double ax = (route.get(i)[0] - originLon) * metersPerDegreeLon;
+            double ay = (route.get(i)[1] - originLat) * METERS_PER_DEGREE;
+            double bx = (route.get(i + 1)[0] - originLon) * metersPerDegreeLon;
+            double by = (route.get(i + 1)[1] - originLat) * METERS_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+            best = Math.min(best, Math.hypot(px - (ax + t * dx), py - (ay + t * dy)));
+        }
+        return best;
+    }
+}
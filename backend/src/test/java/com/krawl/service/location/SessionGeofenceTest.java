@@ -0,0 +1,84 @@
+package com.krawl.service.location;
+
+import com.krawl.util.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SessionGeofence arrival detection.
+ */
+class SessionGeofenceTest {
+
+    private static final double GEM_LAT = 10.2930;
+    private static final double GEM_LON = 123.9000;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private final UUID firstGem = UUID.randomUUID();
+    private final UUID secondGem = UUID.randomUUID();
+    private SessionGeofence geofence;
+
+    @BeforeEach
+    void setUp() {
+        // Second gem 500 m north of the first; 30 m arrival radius, 45 m exit radius, two fixes
+        geofence = new SessionGeofence(sessionId, List.of(firstGem, secondGem),
+                List.of(new double[]{GEM_LAT, GEM_LON}, new double[]{north(500), GEM_LON}),
+                30, 45, 2, 50);
+    }
+
+    @Test
+    void testUpdate_TwoFixesInsideRadius_ReportsArrivalOnce() {
+        assertTrue(geofence.update(north(20), GEM_LON, 5.0).isEmpty());
+
+        List<GeofenceArrival> arrivals = geofence.update(north(10), GEM_LON, 5.0);
+
+        assertEquals(1, arrivals.size());
+        assertEquals(firstGem, arrivals.get(0).getGemId());
+        assertEquals(sessionId, arrivals.get(0).getSessionId());
+        assertEquals(10, arrivals.get(0).getDistanceMeters(), 0.5);
+        assertTrue(geofence.update(north(5), GEM_LON, 5.0).isEmpty());
+        assertEquals(1, geofence.getRemaining());
+    }
+
+    @Test
+    void testUpdate_JitterAcrossRadius_KeepsStreakUntilExitRadius() {
+        geofence.update(north(25), GEM_LON, 5.0);
+        geofence.update(north(40), GEM_LON, 5.0); // Between the radii: streak kept
+
+        assertEquals(1, geofence.update(north(28), GEM_LON, 5.0).size());
+    }
+
+    @Test
+    void testUpdate_LeavingBeyondExitRadius_ResetsStreak() {
+        geofence.update(north(25), GEM_LON, 5.0);
+        geofence.update(north(60), GEM_LON, 5.0);
+
+        assertTrue(geofence.update(north(25), GEM_LON, 5.0).isEmpty());
+        assertEquals(1, geofence.update(north(25), GEM_LON, 5.0).size());
+    }
+
+    @Test
+    void testUpdate_InaccurateFix_Ignored() {
+        geofence.update(north(10), GEM_LON, 5.0);
+
+        assertTrue(geofence.update(north(10), GEM_LON, 80.0).isEmpty());
+        assertEquals(2, geofence.getRemaining());
+    }
+
+    @Test
+    void testMarkReached_GemCompletedManually_NotReportedAgain() {
+        geofence.markReached(firstGem);
+
+        geofence.update(north(5), GEM_LON, null);
+        assertTrue(geofence.update(north(5), GEM_LON, null).isEmpty());
+        assertEquals(1, geofence.getRemaining());
+    }
+
+    private static double north(double meters) {
+        return GEM_LAT + meters / GeoUtils.METERS_PER_DEGREE_LAT;
+    }
+}
@@ -0,0 +1,94 @@
+package com.krawl.service.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrajectoryCodec.
+ */
+class TrajectoryCodecTest {
+
+    private static final long CHUNK_START = 1_760_000_400_000L;
+
+    @Test
+    void testRoundTrip_KeepsPointsWithinQuantization() {
+        List<TrajectoryPoint> points = walk(50);
+
+        List<TrajectoryPoint> decoded = TrajectoryCodec.decode(TrajectoryCodec.encode(points, null, CHUNK_START), CHUNK_START);
+
+        assertEquals(points.size(), decoded.size());
+        for (int i = 0; i < points.size(); i++) {
+            TrajectoryPoint expected = points.get(i);
+            TrajectoryPoint actual = decoded.get(i);
+            assertEquals(expected.getEpochMillis(), actual.getEpochMillis());
+            assertEquals(expected.getLatitude(), actual.getLatitude(), 1e-6);
+            assertEquals(expected.getLongitude(), actual.getLongitude(), 1e-6);
+            assertEquals(expected.getSpeed(), actual.getSpeed(), 0.05);
+            assertEquals(expected.getHeading(), actual.getHeading(), 0.5);
+            assertEquals(expected.getAccuracy(), actual.getAccuracy(), 0.5);
+        }
+    }
+
+    @Test
+    void testEncode_AppendedRecordsMatchSingleEncoding() {
+        List<TrajectoryPoint> points = walk(20);
+        byte[] first = TrajectoryCodec.encode(points.subList(0, 12), null, CHUNK_START);
+        byte[] appended = TrajectoryCodec.encode(points.subList(12, 20), points.get(11), CHUNK_START);
+
+        byte[] concatenated = Arrays.copyOf(first, first.length + appended.length);
+        System.arraycopy(appended, 0, concatenated, first.length, appended.length);
+
+        assertArrayEquals(TrajectoryCodec.encode(points, null, CHUNK_START), concatenated);
+    }
+
+    @Test
+    void testRoundTrip_MissingOptionalFields_StayNull() {
+        TrajectoryPoint point = new TrajectoryPoint(CHUNK_START + 1500, 10.293123, 123.901456, null, null, null);
+
+        TrajectoryPoint decoded = TrajectoryCodec.decode(TrajectoryCodec.encode(List.of(point), null, CHUNK_START), CHUNK_START).get(0);
+
+        assertNull(decoded.getSpeed());
+        assertNull(decoded.getHeading());
+        assertNull(decoded.getAccuracy());
+        assertEquals(10.293123, decoded.getLatitude(), 1e-9);
+    }
+
+    @Test
+    void testEncode_WalkingFixes_TakeFewBytesPerPoint() {
+        List<TrajectoryPoint> points = walk(600);
+
+        byte[] data = TrajectoryCodec.encode(points, null, CHUNK_START);
+
+        assertTrue(data.length < points.size() * 12, "encoded " + data.length + " bytes");
+    }
+
+    @Test
+    void testDecode_MalformedData_ThrowsIllegalArgument() {
+        byte[] data = TrajectoryCodec.encode(walk(3), null, CHUNK_START);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TrajectoryCodec.decode(Arrays.copyOf(data, data.length - 1), CHUNK_START));
+        assertThrows(IllegalArgumentException.class, () -> TrajectoryCodec.decode(new byte[]{9}, CHUNK_START));
+    }
+
+    /**
+     * A walker reporting once a second, about 1.4 m per fix.
+     */
+    private static List<TrajectoryPoint> walk(int count) {
+        List<TrajectoryPoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new TrajectoryPoint(CHUNK_START + 1000L * i + i % 7,
+                    10.293000 + i * 0.0000095,
+                    123.901000 + i * 0.0000071,
+                    5.0 + i % 3,
+                    (37.0 + i) % 360,
+                    1.4));
+        }
+        return points;
+    }
+}
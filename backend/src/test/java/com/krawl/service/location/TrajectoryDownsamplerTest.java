@@ -0,0 +1,82 @@
+package com.krawl.service.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrajectoryDownsampler.
+ */
+class TrajectoryDownsamplerTest {
+
+    @Test
+    void testDownsample_KeepsBudgetEndpointsAndOrder() {
+        List<TrajectoryPoint> points = walk(10_000);
+
+        List<TrajectoryPoint> kept = downsample(points, points.size(), 500);
+
+        assertEquals(500, kept.size());
+        assertSame(points.get(0), kept.get(0));
+        assertSame(points.get(points.size() - 1), kept.get(kept.size() - 1));
+        for (int i = 1; i < kept.size(); i++) {
+            assertTrue(kept.get(i).getEpochMillis() > kept.get(i - 1).getEpochMillis());
+        }
+    }
+
+    @Test
+    void testDownsample_KeepsSharpTurn() {
+        // East along a street, a single point at the corner, then north
+        List<TrajectoryPoint> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(point(i, 10.29, 123.90 + i * 0.0001));
+        }
+        TrajectoryPoint corner = points.get(99);
+        for (int i = 1; i < 100; i++) {
+            points.add(point(99 + i, 10.29 + i * 0.0001, corner.getLongitude()));
+        }
+
+        List<TrajectoryPoint> kept = downsample(points, points.size(), 10);
+
+        assertTrue(kept.contains(corner));
+    }
+
+    @Test
+    void testDownsample_UnderBudget_PassesEverythingThrough() {
+        List<TrajectoryPoint> points = walk(40);
+
+        assertEquals(points, downsample(points, points.size(), 500));
+    }
+
+    @Test
+    void testDownsample_MoreThanDeclared_StaysWithinBudget() {
+        List<TrajectoryPoint> points = walk(1_050);
+
+        List<TrajectoryPoint> kept = downsample(points, 1_000, 100);
+
+        assertEquals(100, kept.size());
+        assertSame(points.get(points.size() - 1), kept.get(kept.size() - 1));
+    }
+
+    private static List<TrajectoryPoint> downsample(List<TrajectoryPoint> points, long declared, int maxPoints) {
+        List<TrajectoryPoint> kept = new ArrayList<>();
+        TrajectoryDownsampler downsampler = new TrajectoryDownsampler(declared, maxPoints, kept::add);
+        points.forEach(downsampler::accept);
+        downsampler.finish();
+        return kept;
+    }
+
+    private static List<TrajectoryPoint> walk(int count) {
+        List<TrajectoryPoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(point(i, 10.29 + Math.sin(i / 50.0) * 0.001, 123.90 + i * 0.00001));
+        }
+        return points;
+    }
+
+    private static TrajectoryPoint point(long second, double latitude, double longitude) {
+        return new TrajectoryPoint(second * 1000, latitude, longitude, 5.0, null, null);
+    }
+}
@@ -0,0 +1,130 @@
+package com.krawl.service.session;
+
+import com.krawl.dto.response.KrawlProgressResponse;
+import com.krawl.entity.KrawlProgress;
+import com.krawl.entity.KrawlSession;
+import com.krawl.exception.ResourceNotFoundException;
+import com.krawl.repository.KrawlGemRepository;
+import com.krawl.repository.KrawlProgressRepository;
+import com.krawl.repository.KrawlSessionRepository;
+import com.krawl.util.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ActiveSessionRegistry.
+ */
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionRegistryTest {
+
+    @Mock
+    private KrawlSessionRepository krawlSessionRepository;
+    @Mock
+    private KrawlGemRepository krawlGemRepository;
+    @Mock
+    private KrawlProgressRepository krawlProgressRepository;
+    @Mock
+    private SessionEventHub sessionEventHub;
+
+    @InjectMocks
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    private UUID krawlId;
+    private UUID userId;
+    private KrawlSession session;
+    private UUID gemA;
+    private UUID gemB;
+    private UUID gemC;
+
+    @BeforeEach
+    void setUp() {
+        krawlId = TestDataFactory.randomUUID();
+        userId = TestDataFactory.randomUUID();
+        session = KrawlSession.builder()
+                .id(TestDataFactory.randomUUID())
+                .startedAt(LocalDateTime.now())
+                .totalDistanceMeters(120.0)
+                .build();
+        gemA = TestDataFactory.randomUUID();
+        gemB = TestDataFactory.randomUUID();
+        gemC = TestDataFactory.randomUUID();
+    }
+
+    @Test
+    void testFind_LoadsOnceThenServesFromMemory() {
+        stubActiveSession(List.of(gemB));
+
+        ActiveSession first = activeSessionRegistry.getRequired(krawlId, userId);
+        ActiveSession second = activeSessionRegistry.getRequired(krawlId, userId);
+
+        assertSame(first, second);
+        assertEquals(session.getId(), first.getSessionId());
+        assertEquals(1, first.getCompletedGemsCount());
+        assertEquals(3, first.getTotalGemsCount());
+        assertEquals(gemA, first.getNextGemId());
+        assertEquals(120.0, first.getTotalDistanceMeters());
+        verify(krawlSessionRepository, times(1)).findActiveSessionByKrawlAndUser(krawlId, userId);
+    }
+
+    @Test
+    void testGemCompleted_UpdatesStateWithoutReloadingAndPublishes() {
+        stubActiveSession(List.of());
+        activeSessionRegistry.getRequired(krawlId, userId);
+
+        activeSessionRegistry.gemCompleted(session.getId(), gemA, KrawlProgress.ArrivalMethod.AUTOMATIC, 12.0);
+        activeSessionRegistry.gemCompleted(session.getId(), gemC, KrawlProgress.ArrivalMethod.MANUAL, null);
+
+        ActiveSession state = activeSessionRegistry.getRequired(krawlId, userId);
+        assertEquals(List.of(gemA, gemC), state.getCompletedGemIds());
+        assertEquals(gemB, state.getNextGemId());
+        assertFalse(state.isAllCompleted());
+        verify(krawlProgressRepository, times(1)).findGemIdsBySessionId(session.getId());
+        verify(sessionEventHub, times(2)).publish(eq(session.getId()), eq(SessionEventHub.EVENT_ARRIVAL), any());
+        verify(sessionEventHub).publish(eq(session.getId()), eq(SessionEventHub.EVENT_PROGRESS),
+                argThat(progress -> ((KrawlProgressResponse) progress).getCompletedGemsCount() == 2));
+    }
+
+    @Test
+    void testEnded_ClosesStreamsAndNextLookupGoesToDatabase() {
+        stubActiveSession(List.of());
+        activeSessionRegistry.getRequired(krawlId, userId);
+
+        activeSessionRegistry.ended(session.getId(), KrawlSession.SessionStatus.ABANDONED, LocalDateTime.now());
+        verify(sessionEventHub).close(eq(session.getId()), eq(SessionEventHub.EVENT_SESSION), notNull());
+        when(krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> activeSessionRegistry.getRequired(krawlId, userId));
+    }
+
+    @Test
+    void testActiveSession_CompletingEveryGem_HasNoNextGem() {
+        ActiveSession state = new ActiveSession(session.getId(), krawlId, userId, LocalDateTime.now(), 0.0,
+                List.of(gemA, gemB), List.of(gemB));
+
+        ActiveSession completed = state.withCompleted(gemA);
+
+        assertTrue(completed.isAllCompleted());
+        assertNull(completed.getNextGemId());
+        assertSame(completed, completed.withCompleted(gemA));
+        assertEquals(1, state.getCompletedGemsCount()); // Original snapshot unchanged
+    }
+
+    private void stubActiveSession(List<UUID> completedGemIds) {
+        when(krawlSessionRepository.findActiveSessionByKrawlAndUser(krawlId, userId)).thenReturn(Optional.of(session));
+        when(krawlGemRepository.findGemIdsByKrawlId(krawlId)).thenReturn(List.of(gemA, gemB, gemC));
+        when(krawlProgressRepository.findGemIdsBySessionId(session.getId())).thenReturn(completedGemIds);
+    }
+}
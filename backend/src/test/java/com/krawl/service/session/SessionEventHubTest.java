@@ -0,0 +1,85 @@
+package com.krawl.service.session;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SessionEventHub buffering and stream lifecycle.
+ */
+class SessionEventHubTest {
+
+    private final UUID sessionId = UUID.randomUUID();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testPublish_StalledSubscriber_CoalescesSnapshots() {
+        List<Runnable> tasks = new ArrayList<>();
+        SessionEventHub hub = new SessionEventHub(tasks::add, meterRegistry, 4, 60_000);
+        hub.subscribe(sessionId, Map.of(SessionEventHub.EVENT_PROGRESS, "initial"));
+
+        for (int i = 0; i < 5; i++) {
+            hub.publish(sessionId, SessionEventHub.EVENT_PROGRESS, "update " + i);
+        }
+        hub.publish(sessionId, SessionEventHub.EVENT_ARRIVAL, "gem");
+
+        assertEquals(1, tasks.size()); // One pending delivery per subscriber, however many events
+        assertEquals(5, meterRegistry.counter("krawl.session.stream.coalesced").count());
+        assertEquals(0, meterRegistry.counter("krawl.session.stream.overflow").count());
+        assertEquals(1, hub.subscriberCount(sessionId));
+    }
+
+    @Test
+    void testPublish_StalledSubscriberBehindOnDeltas_EndsStreamInsteadOfDropping() {
+        List<Runnable> tasks = new ArrayList<>();
+        SessionEventHub hub = new SessionEventHub(tasks::add, meterRegistry, 4, 60_000);
+        hub.subscribe(sessionId, Map.of(SessionEventHub.EVENT_PROGRESS, "initial"));
+
+        for (int i = 0; i < 3; i++) {
+            hub.publish(sessionId, SessionEventHub.EVENT_ARRIVAL, "gem " + i);
+        }
+        hub.publish(sessionId, SessionEventHub.EVENT_PROGRESS, "after arrivals"); // Replaces "initial"
+        assertEquals(0, meterRegistry.counter("krawl.session.stream.overflow").count());
+        hub.publish(sessionId, SessionEventHub.EVENT_OFF_ROUTE, "left route");
+        tasks.forEach(Runnable::run);
+
+        assertEquals(1, meterRegistry.counter("krawl.session.stream.overflow").count());
+        assertEquals(0, hub.subscriberCount(sessionId));
+    }
+
+    @Test
+    void testSubscribe_TooManyStreams_ClosesOldest() {
+        SessionEventHub hub = new SessionEventHub(Runnable::run, meterRegistry, 4, 60_000);
+
+        for (int i = 0; i < 6; i++) {
+            hub.subscribe(sessionId, Map.of());
+        }
+
+        assertEquals(4, hub.subscriberCount(sessionId));
+    }
+
+    @Test
+    void testClose_DeliversFinalEventAndRemovesStreams() {
+        SessionEventHub hub = new SessionEventHub(Runnable::run, meterRegistry, 4, 60_000);
+        hub.subscribe(sessionId, Map.of(SessionEventHub.EVENT_PROGRESS, "initial"));
+        hub.subscribe(sessionId, Map.of(SessionEventHub.EVENT_PROGRESS, "initial"));
+
+        hub.close(sessionId, SessionEventHub.EVENT_SESSION, "ended");
+        hub.publish(sessionId, SessionEventHub.EVENT_PROGRESS, "too late");
+
+        assertEquals(0, hub.subscriberCount(sessionId));
+        assertEquals(0, meterRegistry.counter("krawl.session.stream.overflow").count());
+    }
+}
@@ -0,0 +1,46 @@
+package com.krawl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DurationSketch.
+ */
+class DurationSketchTest {
+
+    @Test
+    void testQuantile_WithinRelativeAccuracy() {
+        Random random = new Random(11);
+        double[] durations = new double[5000];
+        long[] counts = new long[DurationSketch.BUCKET_COUNT];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = 1800 + random.nextGaussian() * 600 + random.nextDouble() * 7200; // 30 min to ~3 h
+            counts[DurationSketch.bucketOf(durations[i]) - 1]++;
+        }
+        Arrays.sort(durations);
+
+        for (double quantile : new double[]{0.1, 0.5, 0.9}) {
+            double exact = durations[(int) Math.floor(quantile * (durations.length - 1))];
+            double estimate = DurationSketch.quantile(counts, quantile);
+            assertEquals(exact, estimate, exact * DurationSketch.RELATIVE_ACCURACY, "quantile " + quantile);
+        }
+    }
+
+    @Test
+    void testBucketOf_ClampsToRange() {
+        assertEquals(1, DurationSketch.bucketOf(0));
+        assertEquals(1, DurationSketch.bucketOf(-5));
+        assertEquals(DurationSketch.BUCKET_COUNT, DurationSketch.bucketOf(365 * 24 * 3600.0));
+        assertTrue(DurationSketch.bucketOf(3600) < DurationSketch.bucketOf(3700));
+    }
+
+    @Test
+    void testQuantile_EmptySketch_ReturnsNull() {
+        assertNull(DurationSketch.quantile(new long[DurationSketch.BUCKET_COUNT], 0.5));
+        assertNull(DurationSketch.quantile(new long[0], 0.5));
+    }
+}
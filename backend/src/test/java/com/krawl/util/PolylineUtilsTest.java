@@ -0,0 +1,79 @@
+package com.krawl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PolylineUtils.
+ */
+class PolylineUtilsTest {
+
+    @Test
+    void testEncode_MatchesReferenceExample() {
+        // Reference example from the polyline algorithm documentation
+        List<double[]> coordinates = List.of(
+                new double[]{-120.2, 38.5},
+                new double[]{-120.95, 40.7},
+                new double[]{-126.453, 43.252});
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", PolylineUtils.encode(coordinates, 5));
+    }
+
+    @Test
+    void testDecode_RoundTripsAtPrecision() {
+        List<double[]> coordinates = List.of(
+                new double[]{123.902134, 10.294512},
+                new double[]{123.901911, 10.293644},
+                new double[]{123.905507, 10.292538});
+
+        for (int precision : new int[]{5, 6}) {
+            List<double[]> decoded = PolylineUtils.decode(PolylineUtils.encode(coordinates, precision), precision);
+
+            assertEquals(coordinates.size(), decoded.size());
+            double tolerance = 0.5 / Math.pow(10, precision) + 1e-12;
+            for (int i = 0; i < coordinates.size(); i++) {
+                assertEquals(coordinates.get(i)[0], decoded.get(i)[0], tolerance);
+                assertEquals(coordinates.get(i)[1], decoded.get(i)[1], tolerance);
+            }
+        }
+    }
+
+    @Test
+    void testDecode_MalformedPolyline_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> PolylineUtils.decode("_p~iF~ps|U_", 5));
+    }
+
+    @Test
+    void testSimplify_DropsPointsWithinTolerance() {
+        // Straight street with ~1 m jitter, then a right-angle turn
+        List<double[]> coordinates = new ArrayList<>();
+        for (int i = 0; i <= 50; i++) {
+            double jitter = (i % 2 == 0 ? 1 : -1) * GeoUtils.metersToLatDegrees(1.0);
+            coordinates.add(new double[]{123.90 + i * 0.0001, 10.29 + jitter});
+        }
+        for (int i = 1; i <= 50; i++) {
+            coordinates.add(new double[]{123.905, 10.29 + i * 0.0001});
+        }
+
+        List<double[]> simplified = PolylineUtils.simplify(coordinates, 3.0);
+
+        assertEquals(3, simplified.size());
+        assertSame(coordinates.get(0), simplified.get(0));
+        assertSame(coordinates.get(coordinates.size() - 1), simplified.get(2));
+        assertEquals(123.905, simplified.get(1)[0], 1e-9);
+    }
+
+    @Test
+    void testSimplify_KeepsPointsBeyondTolerance() {
+        List<double[]> coordinates = List.of(
+                new double[]{123.900, 10.290},
+                new double[]{123.901, 10.291},
+                new double[]{123.902, 10.290});
+
+        assertSame(coordinates, PolylineUtils.simplify(coordinates, 3.0));
+    }
+}